@@ -100,9 +100,21 @@ public class GeneratedFiles
    */
   public static final File PROGRESSIONS_CHARACTERS=new File("data/progressions/tmp/progressions_characters.xml").getAbsoluteFile();
   /**
-   * Progressions for achievables.
+   * Progressions for traits.
    */
-  public static final File PROGRESSIONS_ACHIEVABLES=new File("data/progressions/tmp/progressions_achievables.xml").getAbsoluteFile();
+  public static final File PROGRESSIONS_TRAITS=new File("data/progressions/tmp/progressions_traits.xml").getAbsoluteFile();
+  /**
+   * Progressions for stat tomes.
+   */
+  public static final File PROGRESSIONS_STAT_TOMES=new File("data/progressions/tmp/progressions_statTomes.xml").getAbsoluteFile();
+  /**
+   * Progressions for legendary titles.
+   */
+  public static final File PROGRESSIONS_LEGENDARY_TITLES=new File("data/progressions/tmp/progressions_legendaryTitles.xml").getAbsoluteFile();
+  /**
+   * Progressions for relics.
+   */
+  public static final File PROGRESSIONS_RELICS=new File("data/progressions/tmp/progressions_relics.xml").getAbsoluteFile();
   /**
    * Progressions for buffs.
    */
@@ -115,6 +127,14 @@ public class GeneratedFiles
    * All progressions.
    */
   public static final File PROGRESSIONS=LotroCoreConfig.getInstance().getFile(DataFiles.PROGRESSIONS);
+  /**
+   * DID class index.
+   */
+  public static final File DID_CLASS_INDEX=new File("data/dat/didClassIndex.bin").getAbsoluteFile();
+  /**
+   * Icons cache (kept between generations).
+   */
+  public static final File ICONS_CACHE_DIR=new File("data/icons/cache").getAbsoluteFile();
   /**
    * Recipes.
    */
@@ -283,6 +303,18 @@ public class GeneratedFiles
    * Landblocks.
    */
   public static final File LANDBLOCKS=new File("../lotro-data/maps/landblocks.xml");
+  /**
+   * Landblocks (binary).
+   */
+  public static final File LANDBLOCKS_BINARY=new File("data/maps/landblocks.bin").getAbsoluteFile();
+  /**
+   * Landblocks presence index.
+   */
+  public static final File LANDBLOCKS_PRESENCE=new File("data/dat/landblocksPresence.bin").getAbsoluteFile();
+  /**
+   * Marker classifications table.
+   */
+  public static final File MARKER_CLASSIFICATIONS=new File("data/dat/markerClassifications.bin").getAbsoluteFile();
   /**
    * Paper items.
    */
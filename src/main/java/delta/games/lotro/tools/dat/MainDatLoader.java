@@ -1,6 +1,8 @@
 package delta.games.lotro.tools.dat;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.log4j.Logger;
 
@@ -14,9 +16,6 @@ import delta.games.lotro.tools.dat.characters.MainCharacterDataLoader;
 import delta.games.lotro.tools.dat.characters.MainSkillDataLoader;
 import delta.games.lotro.tools.dat.characters.MainStatTomesLoader;
 import delta.games.lotro.tools.dat.characters.MainTraitDataLoader;
-import delta.games.lotro.tools.dat.characters.SkillLoader;
-import delta.games.lotro.tools.dat.characters.TraitLoader;
-import delta.games.lotro.tools.dat.characters.VirtueDataLoader;
 import delta.games.lotro.tools.dat.combat.MainDatCombatLoader;
 import delta.games.lotro.tools.dat.crafting.MainDatCraftingLoader;
 import delta.games.lotro.tools.dat.crafting.MainDatRecipesLoader;
@@ -28,7 +27,6 @@ import delta.games.lotro.tools.dat.items.MainDatDisenchantmentsLoader;
 import delta.games.lotro.tools.dat.items.MainDatItemsLoader;
 import delta.games.lotro.tools.dat.items.MainDatItemsSetsLoader;
 import delta.games.lotro.tools.dat.items.MainDatPaperItemsLoader;
-import delta.games.lotro.tools.dat.items.legendary.LegaciesLoader;
 import delta.games.lotro.tools.dat.items.legendary.MainDatLegendarySystemLoader;
 import delta.games.lotro.tools.dat.items.legendary.MainDatLegendaryTitlesLoader;
 import delta.games.lotro.tools.dat.misc.MainBuffsLoader;
@@ -42,6 +40,13 @@ import delta.games.lotro.tools.dat.quests.MainDatAchievablesLoader;
 import delta.games.lotro.tools.dat.relics.MainDatRelicsLoader;
 import delta.games.lotro.tools.dat.titles.MainDatTitlesLoader;
 import delta.games.lotro.tools.dat.traitPoints.TraitPointsRegistryBuilder;
+import delta.games.lotro.tools.dat.utils.ProgressionsRegistry;
+import delta.games.lotro.tools.dat.utils.PropertiesCache;
+import delta.games.lotro.tools.dat.utils.TargetsCache;
+import delta.games.lotro.tools.dat.utils.icons.IconsExportService;
+import delta.games.lotro.tools.dat.utils.index.DidClassIndexManager;
+import delta.games.lotro.tools.dat.utils.tasks.Task;
+import delta.games.lotro.tools.dat.utils.tasks.TasksGraph;
 import delta.games.lotro.tools.lore.MainServersBuilder;
 import delta.games.lotro.tools.reports.ReferenceDataGenerator;
 
@@ -54,99 +59,437 @@ public class MainDatLoader
   private static final Logger LOGGER=Logger.getLogger(MainDatLoader.class);
 
   private DataFacade _facade;
+  private int _nbThreads;
+  private boolean _writeLoaderProgressions;
+  private List<DataFacade> _workerFacades;
+  private ThreadLocal<DataFacade> _workerFacade;
 
   /**
    * Constructor.
    * @param facade Data facade.
    */
   public MainDatLoader(DataFacade facade)
+  {
+    this(facade,1);
+  }
+
+  /**
+   * Constructor.
+   * @param facade Data facade.
+   * @param nbThreads Number of threads to use to run the loaders.
+   */
+  public MainDatLoader(DataFacade facade, int nbThreads)
   {
     _facade=facade;
+    _nbThreads=nbThreads;
+    _workerFacades=new ArrayList<DataFacade>();
+    // Each worker thread uses its own data facade
+    _workerFacade=new ThreadLocal<DataFacade>()
+    {
+      @Override
+      protected DataFacade initialValue()
+      {
+        DataFacade facade=new DataFacade();
+        synchronized(_workerFacades)
+        {
+          _workerFacades.add(facade);
+        }
+        return facade;
+      }
+    };
+  }
+
+  /**
+   * Set the flag that drives the writing of the per-loader progressions files (debug).
+   * @param writeLoaderProgressions <code>true</code> to write them, <code>false</code> otherwise.
+   */
+  public void setWriteLoaderProgressions(boolean writeLoaderProgressions)
+  {
+    _writeLoaderProgressions=writeLoaderProgressions;
   }
 
   private void doIt()
   {
     cleanup();
+    ProgressionsRegistry.getInstance().setWriteLoaderFiles(_writeLoaderProgressions);
     load();
     KnownVariablesManager.getInstance().showFailures();
   }
 
   private void load()
   {
+    // DID class index
+    DidClassIndexManager.getInstance().getIndex(_facade);
+    TasksGraph graph=buildTasksGraph();
+    boolean ok=false;
+    try
+    {
+      graph.run(_nbThreads);
+      ok=true;
+    }
+    finally
+    {
+      IconsExportService.getInstance().shutdown();
+      if (ok)
+      {
+        // All the icons were requested: forget the cached icons that are no longer used
+        IconsExportService.getInstance().pruneCache();
+      }
+      PropertiesCache.getInstance().reset();
+      TargetsCache.getInstance().reset();
+      disposeWorkerFacades();
+    }
+  }
+
+  /**
+   * Build the graph of loading tasks.
+   * <p>
+   * Dependencies follow the generation order: a task depends on the tasks that
+   * generate the data it uses.
+   * @return a graph of tasks.
+   */
+  private TasksGraph buildTasksGraph()
+  {
+    TasksGraph graph=new TasksGraph();
     // Servers
-    new MainServersBuilder().doIt();
+    graph.addTask(new Task("Servers")
+    {
+      @Override
+      public void doIt()
+      {
+        new MainServersBuilder().doIt();
+      }
+    });
     // Stats
-    new MainStatsLoader(_facade).doIt();
+    Task stats=graph.addTask(new Task("Stats")
+    {
+      @Override
+      public void doIt()
+      {
+        new MainStatsLoader(getFacade()).doIt();
+      }
+    });
     // Colors
-    new MainDatColorLoader(_facade).doIt();
+    graph.addTask(new Task("Colors")
+    {
+      @Override
+      public void doIt()
+      {
+        new MainDatColorLoader(getFacade()).doIt();
+      }
+    },stats);
     // Combat data
-    new MainDatCombatLoader(_facade).doIt();
-    new MainProgressionsMerger().doIt();
+    Task combat=graph.addTask(new Task("Combat")
+    {
+      @Override
+      public void doIt()
+      {
+        new MainDatCombatLoader(getFacade()).doIt();
+      }
+    },stats);
     // Skills
-    new MainSkillDataLoader(_facade).doIt();
+    Task skills=graph.addTask(new Task("Skills")
+    {
+      @Override
+      public void doIt()
+      {
+        new MainSkillDataLoader(getFacade()).doIt();
+      }
+    },stats);
     // Traits
-    new MainTraitDataLoader(_facade).doIt();
+    Task traits=graph.addTask(new Task("Traits")
+    {
+      @Override
+      public void doIt()
+      {
+        new MainTraitDataLoader(getFacade()).doIt();
+      }
+    },skills);
     // Stat tomes
-    new MainStatTomesLoader(_facade).doIt();
+    Task statTomes=graph.addTask(new Task("Stat tomes")
+    {
+      @Override
+      public void doIt()
+      {
+        new MainStatTomesLoader(getFacade()).doIt();
+      }
+    },combat,traits);
     // Character data
-    new MainCharacterDataLoader(_facade).doIt();
-    new MainProgressionsMerger().doIt();
+    Task characters=graph.addTask(new Task("Characters")
+    {
+      @Override
+      public void doIt()
+      {
+        new MainCharacterDataLoader(getFacade()).doIt();
+      }
+    },skills,traits,statTomes,combat);
     // Titles
-    new MainDatTitlesLoader(_facade).doIt();
+    Task titles=graph.addTask(new Task("Titles")
+    {
+      @Override
+      public void doIt()
+      {
+        new MainDatTitlesLoader(getFacade()).doIt();
+      }
+    },stats);
     // Factions
-    new MainDatFactionsLoader(_facade).doIt();
+    Task factions=graph.addTask(new Task("Factions")
+    {
+      @Override
+      public void doIt()
+      {
+        new MainDatFactionsLoader(getFacade()).doIt();
+      }
+    },stats);
     // Items
-    new MainDatItemsLoader(_facade).doIt();
-    new MainProgressionsMerger().doIt();
+    Task items=graph.addTask(new Task("Items")
+    {
+      @Override
+      public void doIt()
+      {
+        new MainDatItemsLoader(getFacade()).doIt();
+      }
+    },factions,skills,characters);
     // Items sets
-    new MainDatItemsSetsLoader(_facade).doIt();
+    Task sets=graph.addTask(new Task("Items sets")
+    {
+      @Override
+      public void doIt()
+      {
+        new MainDatItemsSetsLoader(getFacade()).doIt();
+      }
+    },items);
     // Paper items
-    new MainDatPaperItemsLoader(_facade).doIt();
+    Task paperItems=graph.addTask(new Task("Paper items")
+    {
+      @Override
+      public void doIt()
+      {
+        new MainDatPaperItemsLoader(getFacade()).doIt();
+      }
+    },stats);
     // Legendary data
-    new MainDatLegendarySystemLoader(_facade).doIt();
+    Task legendarySystem=graph.addTask(new Task("Legendary system")
+    {
+      @Override
+      public void doIt()
+      {
+        new MainDatLegendarySystemLoader(getFacade()).doIt();
+      }
+    },items);
     // Legendary titles
-    new MainDatLegendaryTitlesLoader(_facade).doIt();
+    Task legendaryTitles=graph.addTask(new Task("Legendary titles")
+    {
+      @Override
+      public void doIt()
+      {
+        new MainDatLegendaryTitlesLoader(getFacade()).doIt();
+      }
+    },stats);
     // Relics
-    new MainDatRelicsLoader(_facade).doIt();
+    Task relics=graph.addTask(new Task("Relics")
+    {
+      @Override
+      public void doIt()
+      {
+        new MainDatRelicsLoader(getFacade()).doIt();
+      }
+    },stats);
     // Crafting
-    new MainDatCraftingLoader(_facade).doIt();
+    Task crafting=graph.addTask(new Task("Crafting")
+    {
+      @Override
+      public void doIt()
+      {
+        new MainDatCraftingLoader(getFacade()).doIt();
+      }
+    },factions,items,legendarySystem);
     // Recipes
-    new MainDatRecipesLoader(_facade).doIt();
+    Task recipes=graph.addTask(new Task("Recipes")
+    {
+      @Override
+      public void doIt()
+      {
+        new MainDatRecipesLoader(getFacade()).doIt();
+      }
+    },items,crafting);
     // Emotes
-    new MainDatEmotesLoader(_facade).doIt();
+    Task emotes=graph.addTask(new Task("Emotes")
+    {
+      @Override
+      public void doIt()
+      {
+        new MainDatEmotesLoader(getFacade()).doIt();
+      }
+    },stats);
     // Quests and deeds
-    new MainDatAchievablesLoader(_facade).doIt();
-    new MainProgressionsMerger().doIt();
+    Task achievables=graph.addTask(new Task("Quests and deeds")
+    {
+      @Override
+      public void doIt()
+      {
+        new MainDatAchievablesLoader(getFacade(),_nbThreads).doIt();
+      }
+    },items,relics,titles,emotes,factions,skills,characters,paperItems,recipes);
     // Associate deeds to faction levels
-    MainDatFactionsLoader.associateDeeds(FactionsRegistry.getInstance());
+    Task factionDeeds=graph.addTask(new Task("Faction deeds")
+    {
+      @Override
+      public void doIt()
+      {
+        MainDatFactionsLoader.associateDeeds(FactionsRegistry.getInstance());
+      }
+    },achievables,crafting);
     // Buffs
-    new MainBuffsLoader(_facade).doIt();
+    Task buffs=graph.addTask(new Task("Buffs")
+    {
+      @Override
+      public void doIt()
+      {
+        new MainBuffsLoader(getFacade()).doIt();
+      }
+    },achievables);
     // Trait points
-    new TraitPointsRegistryBuilder().doIt();
+    Task traitPoints=graph.addTask(new Task("Trait points")
+    {
+      @Override
+      public void doIt()
+      {
+        new TraitPointsRegistryBuilder().doIt();
+      }
+    },achievables,characters);
     // Mounts
-    new MountsLoader(_facade).doIt();
+    Task mounts=graph.addTask(new Task("Mounts")
+    {
+      @Override
+      public void doIt()
+      {
+        new MountsLoader(getFacade()).doIt();
+      }
+    },stats);
     // Cosmetic pets
-    new CosmeticPetLoader(_facade).doIt();
+    Task pets=graph.addTask(new Task("Cosmetic pets")
+    {
+      @Override
+      public void doIt()
+      {
+        new CosmeticPetLoader(getFacade()).doIt();
+      }
+    },stats);
     // Vendors & barterers
-    new MainDatNpcLoader(_facade).doIt();
+    Task npcs=graph.addTask(new Task("Vendors and barterers")
+    {
+      @Override
+      public void doIt()
+      {
+        new MainDatNpcLoader(getFacade()).doIt();
+      }
+    },items,factionDeeds);
     // Private encounters
-    new MainDatPrivateEncountersLoader(_facade).doIt();
+    Task privateEncounters=graph.addTask(new Task("Private encounters")
+    {
+      @Override
+      public void doIt()
+      {
+        new MainDatPrivateEncountersLoader(getFacade()).doIt();
+      }
+    },achievables);
     // Instances tree
-    new MainDatInstancesTreeLoader(_facade).doIt();
+    Task instancesTree=graph.addTask(new Task("Instances tree")
+    {
+      @Override
+      public void doIt()
+      {
+        new MainDatInstancesTreeLoader(getFacade()).doIt();
+      }
+    },privateEncounters);
     // Containers
-    new MainDatContainerLoader(_facade).doIt();
+    Task containers=graph.addTask(new Task("Containers")
+    {
+      @Override
+      public void doIt()
+      {
+        new MainDatContainerLoader(getFacade()).doIt();
+      }
+    },items,relics,privateEncounters);
     // Disenchantment
-    new MainDatDisenchantmentsLoader(_facade).doIt();
+    Task disenchantments=graph.addTask(new Task("Disenchantments")
+    {
+      @Override
+      public void doIt()
+      {
+        new MainDatDisenchantmentsLoader(getFacade()).doIt();
+      }
+    },containers);
     // Mobs
-    new MainDatMobsLoader(_facade).doIt();
-    // Merge progressions
-    new MainProgressionsMerger().doIt();
+    Task mobs=graph.addTask(new Task("Mobs")
+    {
+      @Override
+      public void doIt()
+      {
+        new MainDatMobsLoader(getFacade()).doIt();
+      }
+    },containers);
+    // Progressions
+    Task progressions=graph.addTask(new ProgressionsWriteTask(),combat,traits,statTomes,characters,items,sets,legendaryTitles,relics,buffs);
     // Reference data
-    new ReferenceDataGenerator().doIt();
+    graph.addTask(new Task("Reference data")
+    {
+      @Override
+      public void doIt()
+      {
+        new ReferenceDataGenerator().doIt();
+      }
+    },progressions,traitPoints,mounts,pets,npcs,instancesTree,disenchantments,mobs);
+    return graph;
+  }
+
+  private DataFacade getFacade()
+  {
+    if (_nbThreads<=1)
+    {
+      return _facade;
+    }
+    return _workerFacade.get();
+  }
+
+  private void disposeWorkerFacades()
+  {
+    synchronized(_workerFacades)
+    {
+      for(DataFacade facade : _workerFacades)
+      {
+        facade.dispose();
+      }
+      _workerFacades.clear();
+    }
+  }
+
+  /**
+   * Task to write the progressions of all the loaders.
+   */
+  private static class ProgressionsWriteTask extends Task
+  {
+    /**
+     * Constructor.
+     */
+    public ProgressionsWriteTask()
+    {
+      super("Progressions");
+    }
+
+    @Override
+    public void doIt()
+    {
+      ProgressionsRegistry.getInstance().write(GeneratedFiles.PROGRESSIONS);
+    }
   }
 
   private void cleanup()
   {
+    // DID class index
+    deleteFile(GeneratedFiles.DID_CLASS_INDEX);
+    DidClassIndexManager.getInstance().reset();
     // Commons
     deleteFile(GeneratedFiles.STATS);
     deleteFile(GeneratedFiles.COLORS);
@@ -159,21 +502,17 @@ public class MainDatLoader
     // - skills
     deleteFile(GeneratedFiles.SKILLS);
     deleteFile(GeneratedFiles.SKILL_ICONS);
-    deleteDirectory(SkillLoader.SKILL_ICONS_DIR);
     // - virtues
     deleteFile(GeneratedFiles.VIRTUES);
     deleteFile(GeneratedFiles.VIRTUE_ICONS);
-    deleteDirectory(VirtueDataLoader.VIRTUE_ICONS_DIR);
     // - traits
     deleteFile(GeneratedFiles.TRAITS);
     deleteFile(GeneratedFiles.TRAIT_ICONS);
-    deleteDirectory(TraitLoader.TRAIT_ICONS_DIR);
     // - stat tomes
     deleteFile(GeneratedFiles.STAT_TOMES);
     // Titles
     deleteFile(GeneratedFiles.TITLES);
     deleteFile(GeneratedFiles.TITLE_ICONS);
-    deleteDirectory(MainDatTitlesLoader.TITLE_ICONS_DIR);
     // Items
     deleteFile(GeneratedFiles.ITEMS);
     deleteDirectory(GeneratedFiles.ITEM_ICONS_DIR);
@@ -185,7 +524,6 @@ public class MainDatLoader
     deleteFile(GeneratedFiles.LEGACIES);
     deleteFile(GeneratedFiles.NON_IMBUED_LEGACIES);
     deleteFile(GeneratedFiles.LEGACIES_ICONS);
-    deleteDirectory(LegaciesLoader.LEGACIES_ICONS_DIR);
     // Items sets
     deleteFile(GeneratedFiles.SETS);
     // Legendary system
@@ -195,13 +533,11 @@ public class MainDatLoader
     // Relics
     deleteFile(GeneratedFiles.RELICS);
     deleteFile(GeneratedFiles.RELIC_ICONS);
-    deleteDirectory(MainDatRelicsLoader.RELIC_ICONS_DIR);
     // Recipes
     deleteFile(GeneratedFiles.RECIPES);
     // Emotes
     deleteFile(GeneratedFiles.EMOTES);
     deleteFile(GeneratedFiles.EMOTE_ICONS);
-    deleteDirectory(MainDatEmotesLoader.EMOTE_ICONS_DIR);
     // Factions
     deleteFile(GeneratedFiles.FACTIONS);
     // Quests and deeds
@@ -216,11 +552,9 @@ public class MainDatLoader
     // Mounts
     deleteFile(GeneratedFiles.MOUNTS);
     deleteFile(GeneratedFiles.MOUNT_ICONS);
-    deleteDirectory(MountsLoader.MOUNT_ICONS_DIR);
     // Cosmetic pets
     deleteFile(GeneratedFiles.PETS);
     deleteFile(GeneratedFiles.PET_ICONS);
-    deleteDirectory(CosmeticPetLoader.PET_ICONS_DIR);
     // Vendors
     deleteFile(GeneratedFiles.VENDORS);
     // Barterers
@@ -246,9 +580,13 @@ public class MainDatLoader
     deleteFile(GeneratedFiles.PROGRESSIONS_CHARACTERS);
     deleteFile(GeneratedFiles.PROGRESSIONS_ITEMS);
     deleteFile(GeneratedFiles.PROGRESSIONS_ITEMS_SETS);
-    deleteFile(GeneratedFiles.PROGRESSIONS_ACHIEVABLES);
+    deleteFile(GeneratedFiles.PROGRESSIONS_TRAITS);
+    deleteFile(GeneratedFiles.PROGRESSIONS_STAT_TOMES);
+    deleteFile(GeneratedFiles.PROGRESSIONS_LEGENDARY_TITLES);
+    deleteFile(GeneratedFiles.PROGRESSIONS_RELICS);
     deleteFile(GeneratedFiles.PROGRESSIONS_BUFFS);
     deleteFile(GeneratedFiles.PROGRESSIONS);
+    ProgressionsRegistry.getInstance().reset();
   }
 
   private void deleteFile(File toDelete)
@@ -271,12 +609,25 @@ public class MainDatLoader
 
   /**
    * Main method for this tool.
-   * @param args Not used.
+   * @param args Optional number of threads (default is the number of available processors),
+   * then optional flag to write the per-loader progressions files (default is <code>false</code>).
    */
   public static void main(String[] args)
   {
+    int nbThreads=Runtime.getRuntime().availableProcessors();
+    if (args.length>0)
+    {
+      nbThreads=Integer.parseInt(args[0]);
+    }
+    boolean writeLoaderProgressions=false;
+    if (args.length>1)
+    {
+      writeLoaderProgressions=Boolean.parseBoolean(args[1]);
+    }
     DataFacade facade=new DataFacade();
-    new MainDatLoader(facade).doIt();
+    MainDatLoader loader=new MainDatLoader(facade,nbThreads);
+    loader.setWriteLoaderProgressions(writeLoaderProgressions);
+    loader.doIt();
     facade.dispose();
   }
 }
@@ -11,6 +11,8 @@ import delta.games.lotro.dat.data.DataFacade;
 import delta.games.lotro.tools.dat.maps.MainDatDungeonsLoader;
 import delta.games.lotro.tools.dat.maps.MainDatGeoAreasLoader;
 import delta.games.lotro.tools.dat.maps.MapsDataLoader;
+import delta.games.lotro.tools.dat.maps.ZoneMapsTable;
+import delta.games.lotro.tools.dat.maps.landblocks.LandblocksPresenceManager;
 import delta.games.lotro.tools.dat.maps.landblocks.MainLandblocksBuilder;
 
 /**
@@ -52,6 +54,8 @@ public class MainGeoDatLoader
     new MainDatDungeonsLoader(_facade).doIt();
     // Geographics areas
     new MainDatGeoAreasLoader(_facade).doIt();
+    // Zones may have changed: forget resolved maps
+    ZoneMapsTable.getInstance().reset();
     // Maps data (basemaps, markers)
     new MapsDataLoader(_facade).doIt();
   }
@@ -80,6 +84,8 @@ public class MainGeoDatLoader
     deleteDirectory(MAPS_DIR);
     deleteDirectory(MARKERS_DIR);
     deleteFile(LINKS);
+    // Landblocks presence index (the file is kept: it is rebuilt when the DAT files change)
+    LandblocksPresenceManager.getInstance().reset();
   }
 
   private void deleteFile(File toDelete)
@@ -4,6 +4,10 @@ import delta.games.lotro.common.progression.ProgressionsManager;
 
 /**
  * Tool to merge progression files into a single file.
+ * <p>
+ * The global loading procedure does not use it: it writes the progressions once,
+ * from the progressions registry. This tool merges the files written by loaders
+ * that are run on their own.
  * @author DAM
  */
 public class MainProgressionsMerger
@@ -22,7 +26,10 @@ public class MainProgressionsMerger
     progressions.loadFromFile(GeneratedFiles.PROGRESSIONS_ITEMS);
     progressions.loadFromFile(GeneratedFiles.PROGRESSIONS_ITEMS_SETS);
     progressions.loadFromFile(GeneratedFiles.PROGRESSIONS_CHARACTERS);
-    progressions.loadFromFile(GeneratedFiles.PROGRESSIONS_ACHIEVABLES);
+    progressions.loadFromFile(GeneratedFiles.PROGRESSIONS_TRAITS);
+    progressions.loadFromFile(GeneratedFiles.PROGRESSIONS_STAT_TOMES);
+    progressions.loadFromFile(GeneratedFiles.PROGRESSIONS_LEGENDARY_TITLES);
+    progressions.loadFromFile(GeneratedFiles.PROGRESSIONS_RELICS);
     progressions.loadFromFile(GeneratedFiles.PROGRESSIONS_COMBAT);
     progressions.loadFromFile(GeneratedFiles.PROGRESSIONS_BUFFS);
     progressions.writeToFile(GeneratedFiles.PROGRESSIONS);
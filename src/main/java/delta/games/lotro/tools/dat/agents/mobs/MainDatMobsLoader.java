@@ -12,13 +12,13 @@ import delta.games.lotro.dat.DATConstants;
 import delta.games.lotro.dat.WStateClass;
 import delta.games.lotro.dat.data.DataFacade;
 import delta.games.lotro.dat.data.PropertiesSet;
-import delta.games.lotro.dat.utils.BufferUtils;
 import delta.games.lotro.lore.agents.mobs.MobDescription;
 import delta.games.lotro.lore.agents.mobs.io.xml.MobsXMLWriter;
 import delta.games.lotro.tools.dat.GeneratedFiles;
 import delta.games.lotro.tools.dat.agents.ClassificationLoader;
 import delta.games.lotro.tools.dat.others.LootLoader;
 import delta.games.lotro.tools.dat.utils.DatUtils;
+import delta.games.lotro.tools.dat.utils.index.DidClassIndexManager;
 import delta.games.lotro.utils.StringUtils;
 
 /**
@@ -140,35 +140,19 @@ Quest_MonsterDivision: 245 => HallOfMirror
     return ret;
   }
 
-  private boolean useId(int id)
-  {
-    byte[] data=_facade.loadData(id);
-    if (data!=null)
-    {
-      //int did=BufferUtils.getDoubleWordAt(data,0);
-      int classDefIndex=BufferUtils.getDoubleWordAt(data,4);
-      //System.out.println(classDefIndex);
-      return (classDefIndex==WStateClass.MOB);
-    }
-    return false;
-  }
-
   /**
    * Load mobs.
    */
   public void doIt()
   {
     List<MobDescription> mobs=new ArrayList<MobDescription>();
-    for(int id=0x70000000;id<=0x77FFFFFF;id++)
+    int[] ids=DidClassIndexManager.getDids(_facade,WStateClass.MOB);
+    for(int id : ids)
     {
-      boolean useIt=useId(id);
-      if (useIt)
+      MobDescription mob=load(id);
+      if (mob!=null)
       {
-        MobDescription mob=load(id);
-        if (mob!=null)
-        {
-          mobs.add(mob);
-        }
+        mobs.add(mob);
       }
     }
     // Save mobs
@@ -19,7 +19,6 @@ import delta.games.lotro.dat.DATConstants;
 import delta.games.lotro.dat.WStateClass;
 import delta.games.lotro.dat.data.DataFacade;
 import delta.games.lotro.dat.data.PropertiesSet;
-import delta.games.lotro.dat.utils.BufferUtils;
 import delta.games.lotro.lore.agents.npcs.NpcDescription;
 import delta.games.lotro.lore.items.Item;
 import delta.games.lotro.lore.items.ItemsManager;
@@ -39,6 +38,8 @@ import delta.games.lotro.tools.dat.GeneratedFiles;
 import delta.games.lotro.tools.dat.utils.DatEnumsUtils;
 import delta.games.lotro.tools.dat.utils.DatStatUtils;
 import delta.games.lotro.tools.dat.utils.DatUtils;
+import delta.games.lotro.tools.dat.utils.StatsLoadingContext;
+import delta.games.lotro.tools.dat.utils.index.DidClassIndexManager;
 import delta.games.lotro.utils.Proxy;
 import delta.games.lotro.utils.StringUtils;
 import delta.games.lotro.utils.maths.Progression;
@@ -53,6 +54,7 @@ public class MainDatNpcLoader
 
   private static final int DEBUG_ID=0;
   private DataFacade _facade;
+  private StatsLoadingContext _statsContext;
   private ItemsManager _itemsManager;
   // Barterers
   private List<BarterNpc> _barterers;
@@ -68,6 +70,7 @@ public class MainDatNpcLoader
   public MainDatNpcLoader(DataFacade facade)
   {
     _facade=facade;
+    _statsContext=new StatsLoadingContext();
     _itemsManager=ItemsManager.getInstance();
     _barterers=new ArrayList<BarterNpc>();
     _profiles=new HashMap<Integer,BarterProfile>();
@@ -318,7 +321,7 @@ public class MainDatNpcLoader
         Integer lookupTableId=(Integer)itemProps.getProperty("Barter_ItemQuantity_LookupTable");
         if (lookupTableId!=null)
         {
-          Progression progression=DatStatUtils.getProgression(_facade,lookupTableId.intValue());
+          Progression progression=DatStatUtils.getProgression(_statsContext,_facade,lookupTableId.intValue());
           if (level!=null)
           {
             Float yValue=progression.getValue(level.intValue());
@@ -497,17 +500,10 @@ public class MainDatNpcLoader
   public void doIt()
   {
     // Scan for NPCs
-    for(int i=0x70000000;i<=0x77FFFFFF;i++)
+    int[] ids=DidClassIndexManager.getDids(_facade,WStateClass.NPC);
+    for(int i : ids)
     {
-      byte[] data=_facade.loadData(i);
-      if (data!=null)
-      {
-        int classDefIndex=BufferUtils.getDoubleWordAt(data,4);
-        if (classDefIndex==WStateClass.NPC)
-        {
-          handleNpc(i);
-        }
-      }
+      handleNpc(i);
     }
     // Save data
     save();
@@ -4,6 +4,8 @@ import delta.games.lotro.dat.data.DataFacade;
 import delta.games.lotro.tools.dat.GeneratedFiles;
 import delta.games.lotro.tools.dat.misc.SlotIconsLoader;
 import delta.games.lotro.tools.dat.utils.DatStatUtils;
+import delta.games.lotro.tools.dat.utils.ProgressionsRegistry;
+import delta.games.lotro.tools.dat.utils.StatsLoadingContext;
 
 /**
  * Loader for character data: classes, races, trait trees.
@@ -12,6 +14,7 @@ import delta.games.lotro.tools.dat.utils.DatStatUtils;
 public class MainCharacterDataLoader
 {
   private DataFacade _facade;
+  private StatsLoadingContext _statsContext;
 
   /**
    * Constructor.
@@ -20,6 +23,8 @@ public class MainCharacterDataLoader
   public MainCharacterDataLoader(DataFacade facade)
   {
     _facade=facade;
+    _statsContext=new StatsLoadingContext();
+    _statsContext.setFilterStats(false);
   }
 
   /**
@@ -32,12 +37,12 @@ public class MainCharacterDataLoader
     // Load character class data
     new CharacterClassDataLoader(_facade).doIt();
     // Load virtues data
-    new VirtueDataLoader(_facade).doIt();
+    new VirtueDataLoader(_facade,_statsContext).doIt();
     // Load progression of class trait points with character level
-    DatStatUtils.getProgression(_facade,1879271247);
+    DatStatUtils.getProgression(_statsContext,_facade,1879271247);
 
-    // Save progressions
-    DatStatUtils._progressions.writeToFile(GeneratedFiles.PROGRESSIONS_CHARACTERS);
+    // Register progressions
+    ProgressionsRegistry.getInstance().register(_statsContext,GeneratedFiles.PROGRESSIONS_CHARACTERS);
     // Load gear icons
     new SlotIconsLoader(_facade).doIt();
   }
@@ -49,9 +54,10 @@ public class MainCharacterDataLoader
   public static void main(String[] args)
   {
     DataFacade facade=new DataFacade();
-    new MainCharacterDataLoader(facade).doIt();
+    MainCharacterDataLoader loader=new MainCharacterDataLoader(facade);
+    loader.doIt();
     // Stats usage statistics
-    DatStatUtils._statsUsageStatistics.showResults();
+    loader._statsContext.getStatsUsageStatistics().showResults();
     facade.dispose();
   }
 }
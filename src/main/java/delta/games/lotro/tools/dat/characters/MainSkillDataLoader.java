@@ -3,7 +3,7 @@ package delta.games.lotro.tools.dat.characters;
 import delta.games.lotro.character.skills.SkillDescription;
 import delta.games.lotro.character.skills.SkillsManager;
 import delta.games.lotro.dat.data.DataFacade;
-import delta.games.lotro.dat.utils.BufferUtils;
+import delta.games.lotro.tools.dat.utils.index.DidClassIndexManager;
 
 /**
  * Get trait definitions from DAT files.
@@ -34,21 +34,13 @@ public class MainSkillDataLoader
   {
     SkillsManager skillsMgr=SkillsManager.getInstance();
 
-    for(int i=0x70000000;i<=0x77FFFFFF;i++)
+    int[] ids=DidClassIndexManager.getDids(_facade,827);
+    for(int i : ids)
     {
-      byte[] data=_facade.loadData(i);
-      if (data!=null)
+      SkillDescription skill=SkillLoader.loadSkill(_facade,i);
+      if (skill!=null)
       {
-        int did=BufferUtils.getDoubleWordAt(data,0);
-        int classDefIndex=BufferUtils.getDoubleWordAt(data,4);
-        if (classDefIndex==827)
-        {
-          SkillDescription skill=SkillLoader.loadSkill(_facade,did);
-          if (skill!=null)
-          {
-            skillsMgr.registerSkill(skill);
-          }
-        }
+        skillsMgr.registerSkill(skill);
       }
     }
     SkillLoader.saveSkills(skillsMgr);
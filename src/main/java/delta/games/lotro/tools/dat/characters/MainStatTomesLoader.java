@@ -15,6 +15,8 @@ import delta.games.lotro.dat.data.DataFacade;
 import delta.games.lotro.dat.data.PropertiesSet;
 import delta.games.lotro.tools.dat.GeneratedFiles;
 import delta.games.lotro.tools.dat.utils.DatEffectUtils;
+import delta.games.lotro.tools.dat.utils.ProgressionsRegistry;
+import delta.games.lotro.tools.dat.utils.StatsLoadingContext;
 
 /**
  * Get stat tomes from DAT files.
@@ -25,6 +27,7 @@ public class MainStatTomesLoader
   private static final Logger LOGGER=Logger.getLogger(MainStatTomesLoader.class);
 
   private DataFacade _facade;
+  private StatsLoadingContext _statsContext;
   private StatTomesManager _tomesManager;
 
   /**
@@ -34,6 +37,8 @@ public class MainStatTomesLoader
   public MainStatTomesLoader(DataFacade facade)
   {
     _facade=facade;
+    _statsContext=new StatsLoadingContext();
+    _statsContext.setFilterStats(false);
     _tomesManager=new StatTomesManager();
   }
 
@@ -51,6 +56,8 @@ public class MainStatTomesLoader
     }
     //showRegistry();
     StatTomesXMLWriter.write(GeneratedFiles.STAT_TOMES,_tomesManager);
+    // Register progressions
+    ProgressionsRegistry.getInstance().register(_statsContext,GeneratedFiles.PROGRESSIONS_STAT_TOMES);
   }
 
   private void handleStat(int directoryId)
@@ -78,7 +85,7 @@ public class MainStatTomesLoader
       PropertiesSet traitEffectProps=(PropertiesSet)traitEffects[0];
       int effectId=((Integer)traitEffectProps.getProperty("EffectGenerator_EffectID")).intValue();
       Float spellcraft=(Float)traitEffectProps.getProperty("EffectGenerator_EffectSpellcraft");
-      StatsProvider statsProvider=DatEffectUtils.loadEffectStats(_facade,effectId);
+      StatsProvider statsProvider=DatEffectUtils.loadEffectStats(_statsContext,_facade,effectId);
       int level=spellcraft.intValue();
       BasicStatsSet stats=statsProvider.getStats(1,level);
       registerStatTome(tomeTraitId,rank,stats);
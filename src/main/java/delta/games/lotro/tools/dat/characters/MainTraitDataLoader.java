@@ -11,8 +11,11 @@ import delta.games.lotro.character.traits.TraitsManager;
 import delta.games.lotro.dat.data.DataFacade;
 import delta.games.lotro.dat.data.PropertyDefinition;
 import delta.games.lotro.dat.loaders.wstate.WStateDataSet;
-import delta.games.lotro.dat.utils.BufferUtils;
 import delta.games.lotro.dat.wlib.ClassInstance;
+import delta.games.lotro.tools.dat.GeneratedFiles;
+import delta.games.lotro.tools.dat.utils.ProgressionsRegistry;
+import delta.games.lotro.tools.dat.utils.StatsLoadingContext;
+import delta.games.lotro.tools.dat.utils.index.DidClassIndexManager;
 
 /**
  * Get trait definitions from DAT files.
@@ -23,6 +26,7 @@ public class MainTraitDataLoader
   private static final Logger LOGGER=Logger.getLogger(MainTraitDataLoader.class);
 
   private DataFacade _facade;
+  private StatsLoadingContext _statsContext;
   private Map<Integer,Integer> _traitIds2PropMap;
 
   /**
@@ -32,6 +36,8 @@ public class MainTraitDataLoader
   public MainTraitDataLoader(DataFacade facade)
   {
     _facade=facade;
+    _statsContext=new StatsLoadingContext();
+    _statsContext.setFilterStats(false);
   }
 
   /**
@@ -47,33 +53,25 @@ public class MainTraitDataLoader
   {
     TraitsManager traitsMgr=TraitsManager.getInstance();
 
-    for(int i=0x70000000;i<=0x77FFFFFF;i++)
+    int[] ids=DidClassIndexManager.getDids(_facade,1477,1478,1483,1494,2525,3438,3509);
+    for(int id : ids)
     {
-      byte[] data=_facade.loadData(i);
-      if (data!=null)
+      // Traits
+      TraitDescription trait=TraitLoader.loadTrait(_statsContext,_facade,id);
+      if (trait!=null)
       {
-        int did=BufferUtils.getDoubleWordAt(data,0);
-        int classDefIndex=BufferUtils.getDoubleWordAt(data,4);
-        //System.out.println(classDefIndex);
-        if ((classDefIndex==1477) || (classDefIndex==1478) || (classDefIndex==1483) ||
-            (classDefIndex==1494) || (classDefIndex==2525) || (classDefIndex==3438) || (classDefIndex==3509))
+        Integer propertyId=_traitIds2PropMap.get(Integer.valueOf(trait.getIdentifier()));
+        if (propertyId!=null)
         {
-          // Traits
-          TraitDescription trait=TraitLoader.loadTrait(_facade,did);
-          if (trait!=null)
-          {
-            Integer propertyId=_traitIds2PropMap.get(Integer.valueOf(trait.getIdentifier()));
-            if (propertyId!=null)
-            {
-              PropertyDefinition propertyDef=_facade.getPropertiesRegistry().getPropertyDef(propertyId.intValue());
-              trait.setTierPropertyName(propertyDef.getName());
-            }
-            traitsMgr.registerTrait(trait);
-          }
+          PropertyDefinition propertyDef=_facade.getPropertiesRegistry().getPropertyDef(propertyId.intValue());
+          trait.setTierPropertyName(propertyDef.getName());
         }
+        traitsMgr.registerTrait(trait);
       }
     }
     TraitLoader.saveTraits();
+    // Register progressions
+    ProgressionsRegistry.getInstance().register(_statsContext,GeneratedFiles.PROGRESSIONS_TRAITS);
   }
 
   @SuppressWarnings("unchecked")
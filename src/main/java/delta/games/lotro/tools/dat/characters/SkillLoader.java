@@ -1,11 +1,9 @@
 package delta.games.lotro.tools.dat.characters;
 
-import java.io.File;
 import java.util.List;
 
 import org.apache.log4j.Logger;
 
-import delta.common.utils.files.archives.DirectoryArchiver;
 import delta.games.lotro.character.skills.SkillDescription;
 import delta.games.lotro.character.skills.SkillsManager;
 import delta.games.lotro.character.skills.io.xml.SkillDescriptionXMLWriter;
@@ -13,9 +11,9 @@ import delta.games.lotro.dat.DATConstants;
 import delta.games.lotro.dat.data.DataFacade;
 import delta.games.lotro.dat.data.PropertiesSet;
 import delta.games.lotro.dat.data.enums.EnumMapper;
-import delta.games.lotro.dat.utils.DatIconsUtils;
 import delta.games.lotro.tools.dat.GeneratedFiles;
 import delta.games.lotro.tools.dat.utils.DatUtils;
+import delta.games.lotro.tools.dat.utils.icons.IconsExportService;
 import delta.games.lotro.utils.StringUtils;
 
 /**
@@ -26,11 +24,6 @@ public class SkillLoader
 {
   private static final Logger LOGGER=Logger.getLogger(SkillLoader.class);
 
-  /**
-   * Directory for skill icons.
-   */
-  public static final File SKILL_ICONS_DIR=new File("data\\skills\\tmp").getAbsoluteFile();
-
   /**
    * Load a skill.
    * @param facade Data facade.
@@ -66,15 +59,7 @@ public class SkillLoader
       }
       // Build icon file
       String iconFilename=iconId+".png";
-      File to=new File(SKILL_ICONS_DIR,"skillIcons/"+iconFilename).getAbsoluteFile();
-      if (!to.exists())
-      {
-        boolean ok=DatIconsUtils.buildImageFile(facade,iconId,to);
-        if (!ok)
-        {
-          LOGGER.warn("Could not build skill icon: "+iconFilename);
-        }
-      }
+      IconsExportService.getInstance().exportIcon(iconId,GeneratedFiles.SKILL_ICONS,"skillIcons/"+iconFilename);
       /*
       // Skill type(s)
       {
@@ -114,8 +99,7 @@ public class SkillLoader
       System.out.println("Wrote skills file: "+GeneratedFiles.SKILLS);
     }
     // Write skill icons archive
-    DirectoryArchiver archiver=new DirectoryArchiver();
-    ok=archiver.go(GeneratedFiles.SKILL_ICONS,SKILL_ICONS_DIR);
+    ok=IconsExportService.getInstance().writeArchive(GeneratedFiles.SKILL_ICONS);
     if (ok)
     {
       System.out.println("Wrote skill icons archive: "+GeneratedFiles.SKILL_ICONS);
@@ -1,11 +1,9 @@
 package delta.games.lotro.tools.dat.characters;
 
-import java.io.File;
 import java.util.List;
 
 import org.apache.log4j.Logger;
 
-import delta.common.utils.files.archives.DirectoryArchiver;
 import delta.games.lotro.character.skills.SkillDescription;
 import delta.games.lotro.character.skills.SkillsManager;
 import delta.games.lotro.character.traits.TraitDescription;
@@ -15,10 +13,11 @@ import delta.games.lotro.common.stats.StatsProvider;
 import delta.games.lotro.dat.DATConstants;
 import delta.games.lotro.dat.data.DataFacade;
 import delta.games.lotro.dat.data.PropertiesSet;
-import delta.games.lotro.dat.utils.DatIconsUtils;
 import delta.games.lotro.tools.dat.GeneratedFiles;
 import delta.games.lotro.tools.dat.utils.DatStatUtils;
 import delta.games.lotro.tools.dat.utils.DatUtils;
+import delta.games.lotro.tools.dat.utils.StatsLoadingContext;
+import delta.games.lotro.tools.dat.utils.icons.IconsExportService;
 import delta.games.lotro.utils.StringUtils;
 
 /**
@@ -29,11 +28,6 @@ public class TraitLoader
 {
   private static final Logger LOGGER=Logger.getLogger(TraitLoader.class);
 
-  /**
-   * Directory for trait icons.
-   */
-  public static final File TRAIT_ICONS_DIR=new File("data\\traits\\tmp").getAbsoluteFile();
-
   /**
    * Get a trait.
    * @param facade Data facade.
@@ -53,11 +47,12 @@ public class TraitLoader
 
   /**
    * Load a trait.
+   * @param statsContext Stats loading context.
    * @param facade Data facade.
    * @param traitId Trait identifier.
    * @return the loaded trait description or <code>null</code> if not found.
    */
-  public static TraitDescription loadTrait(DataFacade facade, int traitId)
+  public static TraitDescription loadTrait(StatsLoadingContext statsContext, DataFacade facade, int traitId)
   {
     PropertiesSet traitProperties=facade.loadProperties(traitId+DATConstants.DBPROPERTIES_OFFSET);
     if (traitProperties==null)
@@ -97,23 +92,13 @@ public class TraitLoader
     // See enum: SkillCharacteristicCategory (id=587202586). 93 = Discounts:
 
     // Stats
-    DatStatUtils.doFilterStats=false;
-    DatStatUtils._statsUsageStatistics.reset();
-    StatsProvider statsProvider=DatStatUtils.buildStatProviders(facade,traitProperties);
+    StatsProvider statsProvider=DatStatUtils.buildStatProviders(statsContext,facade,traitProperties);
     ret.setStatsProvider(statsProvider);
     // Build icon file
     if (iconId!=null)
     {
       String iconFilename=iconId+".png";
-      File to=new File(TRAIT_ICONS_DIR,"traitIcons/"+iconFilename).getAbsoluteFile();
-      if (!to.exists())
-      {
-        boolean ok=DatIconsUtils.buildImageFile(facade,iconId.intValue(),to);
-        if (!ok)
-        {
-          LOGGER.warn("Could not build trait icon: "+iconFilename);
-        }
-      }
+      IconsExportService.getInstance().exportIcon(iconId.intValue(),GeneratedFiles.TRAIT_ICONS,"traitIcons/"+iconFilename);
     }
     // Skills
     Object[] skillArray=(Object[])traitProperties.getProperty("Trait_Skill_Array");
@@ -150,8 +135,7 @@ public class TraitLoader
       System.out.println("Wrote traits file: "+GeneratedFiles.TRAITS);
     }
     // Write trait icons archive
-    DirectoryArchiver archiver=new DirectoryArchiver();
-    ok=archiver.go(GeneratedFiles.TRAIT_ICONS,TRAIT_ICONS_DIR);
+    ok=IconsExportService.getInstance().writeArchive(GeneratedFiles.TRAIT_ICONS);
     if (ok)
     {
       System.out.println("Wrote trait icons archive: "+GeneratedFiles.TRAIT_ICONS);
@@ -1,12 +1,10 @@
 package delta.games.lotro.tools.dat.characters;
 
-import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.log4j.Logger;
 
-import delta.common.utils.files.archives.DirectoryArchiver;
 import delta.games.lotro.character.virtues.VirtueDescription;
 import delta.games.lotro.character.virtues.io.xml.VirtueDescriptionXMLWriter;
 import delta.games.lotro.common.stats.StatsProvider;
@@ -15,10 +13,11 @@ import delta.games.lotro.dat.data.DataFacade;
 import delta.games.lotro.dat.data.PropertiesRegistry;
 import delta.games.lotro.dat.data.PropertiesSet;
 import delta.games.lotro.dat.loaders.wstate.WStateDataSet;
-import delta.games.lotro.dat.utils.DatIconsUtils;
 import delta.games.lotro.tools.dat.GeneratedFiles;
 import delta.games.lotro.tools.dat.utils.DatStatUtils;
 import delta.games.lotro.tools.dat.utils.DatUtils;
+import delta.games.lotro.tools.dat.utils.StatsLoadingContext;
+import delta.games.lotro.tools.dat.utils.icons.IconsExportService;
 import delta.games.lotro.utils.maths.Progression;
 
 /**
@@ -29,20 +28,18 @@ public class VirtueDataLoader
 {
   private static final Logger LOGGER=Logger.getLogger(VirtueDataLoader.class);
 
-  /**
-   * Directory for virtue icons.
-   */
-  public static final File VIRTUE_ICONS_DIR=new File("data\\virtues\\tmp").getAbsoluteFile();
-
   private DataFacade _facade;
+  private StatsLoadingContext _statsContext;
 
   /**
    * Constructor.
    * @param facade Data facade.
+   * @param statsContext Stats loading context.
    */
-  public VirtueDataLoader(DataFacade facade)
+  public VirtueDataLoader(DataFacade facade, StatsLoadingContext statsContext)
   {
     _facade=facade;
+    _statsContext=statsContext;
   }
 
   private void loadVirtues()
@@ -63,7 +60,7 @@ public class VirtueDataLoader
       {
         continue;
       }
-      VirtueDescription virtue=loadVirtue(_facade,traitId);
+      VirtueDescription virtue=loadVirtue(_statsContext,_facade,traitId);
       virtues.add(virtue);
       //System.out.println("Virtue: "+traitId+" - "+trait.getName());
       // Set XP table
@@ -77,11 +74,12 @@ public class VirtueDataLoader
 
   /**
    * Load a virtue.
+   * @param statsContext Stats loading context.
    * @param facade Data facade.
    * @param id Virtue identifier.
    * @return the loaded virtue description.
    */
-  public static VirtueDescription loadVirtue(DataFacade facade, int id)
+  public static VirtueDescription loadVirtue(StatsLoadingContext statsContext, DataFacade facade, int id)
   {
     VirtueDescription ret=null;
     PropertiesSet virtueProperties=facade.loadProperties(id+DATConstants.DBPROPERTIES_OFFSET);
@@ -108,31 +106,21 @@ public class VirtueDataLoader
       String xpPropertyName=propsRegistry.getPropertyDef(xpPropertyId).getName();
       ret.setXpPropertyName(xpPropertyName);
       // Stats
-      DatStatUtils.doFilterStats=false;
-      DatStatUtils._statsUsageStatistics.reset();
-      StatsProvider statsProvider=DatStatUtils.buildStatProviders(facade,virtueProperties);
+      StatsProvider statsProvider=DatStatUtils.buildStatProviders(statsContext,facade,virtueProperties);
       ret.setStatsProvider(statsProvider);
       // Build icon file
       String iconFilename=iconId+".png";
-      File to=new File(VIRTUE_ICONS_DIR,"virtueIcons/"+iconFilename).getAbsoluteFile();
-      if (!to.exists())
-      {
-        boolean ok=DatIconsUtils.buildImageFile(facade,iconId,to);
-        if (!ok)
-        {
-          LOGGER.warn("Could not build virtue icon: "+iconFilename);
-        }
-      }
+      IconsExportService.getInstance().exportIcon(iconId,GeneratedFiles.VIRTUE_ICONS,"virtueIcons/"+iconFilename);
       // Rank to level
       // ID to be loaded from TraitControl:Trait_Control_VirtueTierToItemLevelProgression
-      Progression rankToLevel=DatStatUtils.getProgression(facade,1879387583);
+      Progression rankToLevel=DatStatUtils.getProgression(statsContext,facade,1879387583);
       if (rankToLevel==null)
       {
         LOGGER.warn("Could not find progression rank->level for virtues");
       }
       // Character level to max virtue rank:
       int charLevelToMaxRankProgId=((Integer)virtueProperties.getProperty("Trait_Virtue_Maximum_Rank_PlayerPropertyName_Progression")).intValue();
-      Progression charLevelToMaxRankProg=DatStatUtils.getProgression(facade,charLevelToMaxRankProgId);
+      Progression charLevelToMaxRankProg=DatStatUtils.getProgression(statsContext,facade,charLevelToMaxRankProgId);
       if (charLevelToMaxRankProg==null)
       {
         LOGGER.warn("Could not find progression char level->max rank for virtue: "+traitName);
@@ -147,14 +135,14 @@ public class VirtueDataLoader
         {
           PropertiesSet passiveProps=(PropertiesSet)passiveObj;
           int effectId=((Integer)passiveProps.getProperty("EffectGenerator_EffectID")).intValue();
-          StatsProvider provider=handleEffect(facade,effectId);
+          StatsProvider provider=handleEffect(statsContext,facade,effectId);
           ret.setPassiveStatsProvider(provider);
         }
       }
 
       // Max rank progression
       int maxRankProgId=((Integer)virtueProperties.getProperty("Trait_Virtue_Maximum_Rank_PlayerPropertyName_Progression")).intValue();
-      Progression maxRankProg=DatStatUtils.getProgression(facade,maxRankProgId);
+      Progression maxRankProg=DatStatUtils.getProgression(statsContext,facade,maxRankProgId);
       if (maxRankProg!=null)
       {
         ret.setMaxRankForCharacterLevelProgression(maxRankProg);
@@ -174,10 +162,10 @@ public class VirtueDataLoader
     return ret;
   }
 
-  private static StatsProvider handleEffect(DataFacade facade, int effectId)
+  private static StatsProvider handleEffect(StatsLoadingContext statsContext, DataFacade facade, int effectId)
   {
     PropertiesSet effectProperties=facade.loadProperties(effectId+DATConstants.DBPROPERTIES_OFFSET);
-    StatsProvider provider=DatStatUtils.buildStatProviders(facade,effectProperties);
+    StatsProvider provider=DatStatUtils.buildStatProviders(statsContext,facade,effectProperties);
     return provider;
   }
 
@@ -196,8 +184,7 @@ public class VirtueDataLoader
       System.out.println("Wrote virtues file: "+GeneratedFiles.VIRTUES);
     }
     // Write virtues icons archive
-    DirectoryArchiver archiver=new DirectoryArchiver();
-    ok=archiver.go(GeneratedFiles.VIRTUE_ICONS,VIRTUE_ICONS_DIR);
+    ok=IconsExportService.getInstance().writeArchive(GeneratedFiles.VIRTUE_ICONS);
     if (ok)
     {
       System.out.println("Wrote virtue icons archive: "+GeneratedFiles.VIRTUE_ICONS);
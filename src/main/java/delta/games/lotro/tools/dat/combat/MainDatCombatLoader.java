@@ -15,6 +15,8 @@ import delta.games.lotro.dat.data.PropertiesSet;
 import delta.games.lotro.dat.data.enums.EnumMapper;
 import delta.games.lotro.tools.dat.GeneratedFiles;
 import delta.games.lotro.tools.dat.utils.DatStatUtils;
+import delta.games.lotro.tools.dat.utils.ProgressionsRegistry;
+import delta.games.lotro.tools.dat.utils.StatsLoadingContext;
 import delta.games.lotro.utils.maths.Progression;
 
 /**
@@ -26,6 +28,7 @@ public class MainDatCombatLoader
   private static final Logger LOGGER=Logger.getLogger(MainDatCombatLoader.class);
 
   private DataFacade _facade;
+  private StatsLoadingContext _statsContext;
   private EnumMapper _calcType;
   private CombatData _data;
 
@@ -36,6 +39,7 @@ public class MainDatCombatLoader
   public MainDatCombatLoader(DataFacade facade)
   {
     _facade=facade;
+    _statsContext=new StatsLoadingContext();
     _calcType=_facade.getEnumsManager().getEnumMapper(587203377);
     _data=new CombatData();
   }
@@ -64,13 +68,13 @@ public class MainDatCombatLoader
     {
       // Hard cap
       int hardCapId=((Integer)calcControlProps.getProperty("Combat_Control_Hard_Cap")).intValue();
-      Progression hardCapProg=DatStatUtils.getProgression(_facade,hardCapId);
+      Progression hardCapProg=DatStatUtils.getProgression(_statsContext,_facade,hardCapId);
       // Rating
       int ratingId=((Integer)calcControlProps.getProperty("Combat_Control_Rating")).intValue();
-      Progression ratingProg=DatStatUtils.getProgression(_facade,ratingId);
+      Progression ratingProg=DatStatUtils.getProgression(_statsContext,_facade,ratingId);
       // Target cap
       int targetCapId=((Integer)calcControlProps.getProperty("Combat_Control_Target_Cap")).intValue();
-      Progression targetCapProg=DatStatUtils.getProgression(_facade,targetCapId);
+      Progression targetCapProg=DatStatUtils.getProgression(_statsContext,_facade,targetCapId);
 
       ProgressionRatingCurveImpl curve=new ProgressionRatingCurveImpl(hardCapProg,ratingProg,targetCapProg);
       _data.getRatingsMgr().setCurve(id,curve);
@@ -173,8 +177,8 @@ public class MainDatCombatLoader
   private void save()
   {
     CombatDataXMLWriter.write(GeneratedFiles.COMBAT_DATA,_data);
-    // Save progressions
-    DatStatUtils._progressions.writeToFile(GeneratedFiles.PROGRESSIONS_COMBAT);
+    // Register progressions
+    ProgressionsRegistry.getInstance().register(_statsContext,GeneratedFiles.PROGRESSIONS_COMBAT);
   }
 
   /**
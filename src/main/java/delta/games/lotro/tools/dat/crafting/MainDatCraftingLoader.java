@@ -17,6 +17,7 @@ import delta.games.lotro.lore.reputation.FactionsRegistry;
 import delta.games.lotro.lore.titles.TitleDescription;
 import delta.games.lotro.tools.dat.GeneratedFiles;
 import delta.games.lotro.tools.dat.utils.DatUtils;
+import delta.games.lotro.tools.dat.utils.PropertiesCache;
 
 /**
  * Loader for combat data.
@@ -45,7 +46,7 @@ public class MainDatCraftingLoader
   public void doIt()
   {
     // CraftDirectory
-    PropertiesSet props=_facade.loadProperties(1879048722+DATConstants.DBPROPERTIES_OFFSET);
+    PropertiesSet props=PropertiesCache.getInstance().loadProperties(_facade,1879048722+DATConstants.DBPROPERTIES_OFFSET);
     // - vocations
     Object[] vocationArray=(Object[])props.getProperty("CraftDirectory_VocationArray");
     for(Object vocationObj : vocationArray)
@@ -69,7 +70,7 @@ public class MainDatCraftingLoader
   {
     Vocation ret=new Vocation();
     ret.setIdentifier(vocationId);
-    PropertiesSet vocationProps=_facade.loadProperties(vocationId+DATConstants.DBPROPERTIES_OFFSET);
+    PropertiesSet vocationProps=PropertiesCache.getInstance().loadProperties(_facade,vocationId+DATConstants.DBPROPERTIES_OFFSET);
     // - name
     String name=DatUtils.getStringProperty(vocationProps,"CraftVocation_Name");
     ret.setName(name);
@@ -112,7 +113,7 @@ CraftVocation_LearnString:
     if (ret==null)
     {
       ret=new Profession();
-      PropertiesSet professionProps=_facade.loadProperties(professionId+DATConstants.DBPROPERTIES_OFFSET);
+      PropertiesSet professionProps=PropertiesCache.getInstance().loadProperties(_facade,professionId+DATConstants.DBPROPERTIES_OFFSET);
       ret.setIdentifier(professionId);
       // - name
       String name=DatUtils.getStringProperty(professionProps,"CraftProfession_Name");
@@ -270,7 +271,7 @@ CraftProfession_StartTime_PropertyName: 268439959 (Craft_Weaponsmith_StartTime)
 
   private void handleGuild(int guildId)
   {
-    PropertiesSet guildProps=_facade.loadProperties(guildId+DATConstants.DBPROPERTIES_OFFSET);
+    PropertiesSet guildProps=PropertiesCache.getInstance().loadProperties(_facade,guildId+DATConstants.DBPROPERTIES_OFFSET);
     int factionId=((Integer)guildProps.getProperty("CraftGuild_Faction")).intValue();
     int professionId=((Integer)guildProps.getProperty("CraftGuild_Profession")).intValue();
     Professions professions=_data.getProfessionsRegistry();
@@ -10,7 +10,6 @@ import org.apache.log4j.Logger;
 import delta.games.lotro.dat.DATConstants;
 import delta.games.lotro.dat.data.DataFacade;
 import delta.games.lotro.dat.data.PropertiesSet;
-import delta.games.lotro.dat.utils.BufferUtils;
 import delta.games.lotro.lore.crafting.CraftingData;
 import delta.games.lotro.lore.crafting.CraftingSystem;
 import delta.games.lotro.lore.crafting.Profession;
@@ -24,6 +23,8 @@ import delta.games.lotro.lore.items.Item;
 import delta.games.lotro.lore.items.ItemsManager;
 import delta.games.lotro.tools.dat.GeneratedFiles;
 import delta.games.lotro.tools.dat.utils.DatUtils;
+import delta.games.lotro.tools.dat.utils.PropertiesCache;
+import delta.games.lotro.tools.dat.utils.index.DidClassIndexManager;
 import delta.games.lotro.utils.StringUtils;
 
 /**
@@ -322,21 +323,13 @@ public class MainDatRecipesLoader
 
   private void scanAll(RecipesManager recipesManager)
   {
-    for(int i=0x70000000;i<=0x77FFFFFF;i++)
+    int[] ids=DidClassIndexManager.getDids(_facade,1024);
+    for(int i : ids)
     {
-      byte[] data=_facade.loadData(i);
-      if (data!=null)
+      Recipe recipe=load(i);
+      if (recipe!=null)
       {
-        //int did=BufferUtils.getDoubleWordAt(data,0);
-        int classDefIndex=BufferUtils.getDoubleWordAt(data,4);
-        if (classDefIndex==1024)
-        {
-          Recipe recipe=load(i);
-          if (recipe!=null)
-          {
-            recipesManager.registerRecipe(recipe);
-          }
-        }
+        recipesManager.registerRecipe(recipe);
       }
     }
   }
@@ -344,7 +337,7 @@ public class MainDatRecipesLoader
   private Map<Integer,Integer> loadXpMapping()
   {
     Map<Integer,Integer> ret=new HashMap<Integer,Integer>();
-    PropertiesSet properties=_facade.loadProperties(0x7900021E);
+    PropertiesSet properties=PropertiesCache.getInstance().loadProperties(_facade,0x7900021E);
     if (properties!=null)
     {
       Object[] array=(Object[])properties.getProperty("CraftControl_XPRewardArray");
@@ -362,7 +355,7 @@ public class MainDatRecipesLoader
   private Map<Integer,Float> loadCooldownMapping()
   {
     Map<Integer,Float> ret=new HashMap<Integer,Float>();
-    PropertiesSet properties=_facade.loadProperties(0x79000264);
+    PropertiesSet properties=PropertiesCache.getInstance().loadProperties(_facade,0x79000264);
     if (properties!=null)
     {
       Object[] array=(Object[])properties.getProperty("CooldownControl_DurationMapList");
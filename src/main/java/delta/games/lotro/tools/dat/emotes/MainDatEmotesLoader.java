@@ -1,22 +1,20 @@
 package delta.games.lotro.tools.dat.emotes;
 
-import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.log4j.Logger;
 
-import delta.common.utils.files.archives.DirectoryArchiver;
 import delta.games.lotro.dat.DATConstants;
 import delta.games.lotro.dat.WStateClass;
 import delta.games.lotro.dat.data.DataFacade;
 import delta.games.lotro.dat.data.PropertiesSet;
-import delta.games.lotro.dat.utils.BufferUtils;
-import delta.games.lotro.dat.utils.DatIconsUtils;
 import delta.games.lotro.lore.emotes.EmoteDescription;
 import delta.games.lotro.lore.emotes.io.xml.EmoteXMLWriter;
 import delta.games.lotro.tools.dat.GeneratedFiles;
 import delta.games.lotro.tools.dat.utils.DatUtils;
+import delta.games.lotro.tools.dat.utils.icons.IconsExportService;
+import delta.games.lotro.tools.dat.utils.index.DidClassIndexManager;
 
 /**
  * Get emotes definitions from DAT files.
@@ -26,11 +24,6 @@ public class MainDatEmotesLoader
 {
   private static final Logger LOGGER=Logger.getLogger(MainDatEmotesLoader.class);
 
-  /**
-   * Directory for emote icons.
-   */
-  public static final File EMOTE_ICONS_DIR=new File("data\\emotes\\tmp").getAbsoluteFile();
-
   private DataFacade _facade;
 
   /**
@@ -89,11 +82,7 @@ Emote_SourceText:
       emote.setDescription(description);
       // Icon
       int iconId=((Integer)properties.getProperty("Emote_IconImage")).intValue();
-      File emoteIcon=new File(EMOTE_ICONS_DIR,"emoteIcons/"+iconId+".png").getAbsoluteFile();
-      if (!emoteIcon.exists())
-      {
-        DatIconsUtils.buildImageFile(_facade,iconId,emoteIcon);
-      }
+      IconsExportService.getInstance().exportIcon(iconId,GeneratedFiles.EMOTE_ICONS,"emoteIcons/"+iconId+".png");
       emote.setIconId(iconId);
       // Auto
       int granted=((Integer)properties.getProperty("Emote_MustBeGranted")).intValue();
@@ -106,18 +95,6 @@ Emote_SourceText:
     return emote;
   }
 
-  private boolean useId(int id)
-  {
-    byte[] data=_facade.loadData(id);
-    if (data!=null)
-    {
-      //int did=BufferUtils.getDoubleWordAt(data,0);
-      int classDefIndex=BufferUtils.getDoubleWordAt(data,4);
-      return (classDefIndex==WStateClass.EMOTE);
-    }
-    return false;
-  }
-
   /**
    * Load emotes.
    */
@@ -125,17 +102,14 @@ Emote_SourceText:
   {
     List<EmoteDescription> emotes=new ArrayList<EmoteDescription>();
 
-    for(int id=0x70000000;id<=0x77FFFFFF;id++)
+    int[] ids=DidClassIndexManager.getDids(_facade,WStateClass.EMOTE);
+    for(int id : ids)
     {
-      boolean useIt=useId(id);
-      if (useIt)
+      EmoteDescription emote=load(id);
+      if (emote!=null)
       {
-        EmoteDescription emote=load(id);
-        if (emote!=null)
-        {
-          //System.out.println("Emote: "+emote);
-          emotes.add(emote);
-        }
+        //System.out.println("Emote: "+emote);
+        emotes.add(emote);
       }
     }
     // Save emotes
@@ -147,8 +121,7 @@ Emote_SourceText:
       System.out.println("Wrote emotes file: "+GeneratedFiles.EMOTES);
     }
     // Write emote icons
-    DirectoryArchiver archiver=new DirectoryArchiver();
-    ok=archiver.go(GeneratedFiles.EMOTE_ICONS,EMOTE_ICONS_DIR);
+    ok=IconsExportService.getInstance().writeArchive(GeneratedFiles.EMOTE_ICONS);
     if (ok)
     {
       System.out.println("Wrote emote icons archive: "+GeneratedFiles.EMOTE_ICONS);
@@ -1,24 +1,29 @@
 package delta.games.lotro.tools.dat.instances;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 import delta.games.lotro.lore.geo.BlockReference;
 
 /**
  * Builds groups of (land)blocks.
+ * <p>
+ * Groups are the connected components of the blocks, two blocks being connected if they
+ * are in the same region and touch each other (including diagonally).
+ * Blocks are sorted by region, X and Y in each group, and groups are sorted by their first block.
  * @author DAM
  */
 public class BlockGroupsBuilder
 {
-  private List<List<BlockReference>> _groups;
-
   /**
    * Constructor.
    */
   public BlockGroupsBuilder()
   {
-    _groups=new ArrayList<List<BlockReference>>();
+    // Nothing
   }
 
   /**
@@ -28,71 +33,106 @@ public class BlockGroupsBuilder
    */
   public List<List<BlockReference>> buildGroups(List<BlockReference> blocks)
   {
-    _groups.clear();
-    List<BlockReference> blocksToUse=new ArrayList<BlockReference>(blocks);
-    while(blocksToUse.size()>0)
+    // Sorted distinct blocks
+    List<BlockReference> sortedBlocks=new ArrayList<BlockReference>(blocks);
+    Collections.sort(sortedBlocks,new Comparator<BlockReference>()
     {
-      BlockReference block=findGroupForABlock(blocksToUse);
-      if (block==null)
+      @Override
+      public int compare(BlockReference block1, BlockReference block2)
       {
-        block=blocksToUse.get(0);
-        List<BlockReference> newGroup=new ArrayList<BlockReference>();
-        newGroup.add(block);
-        _groups.add(newGroup);
+        int key1=getKey(block1);
+        int key2=getKey(block2);
+        return (key1<key2)?-1:((key1==key2)?0:1);
       }
-      blocksToUse.remove(block);
-    }
-    List<List<BlockReference>> ret=new ArrayList<List<BlockReference>>(_groups);
-    _groups.clear();
-    return ret;
-  }
-
-  private BlockReference findGroupForABlock(List<BlockReference> blocks)
-  {
-    for(BlockReference block : blocks)
+    });
+    int nbBlocks=0;
+    int[] keys=new int[sortedBlocks.size()];
+    BlockReference[] distinctBlocks=new BlockReference[sortedBlocks.size()];
+    for(BlockReference block : sortedBlocks)
     {
-      List<BlockReference> foundGroup=findGroupForBlock(block);
-      if (foundGroup!=null)
+      int key=getKey(block);
+      if ((nbBlocks==0) || (keys[nbBlocks-1]!=key))
       {
-        // Attach
-        foundGroup.add(block);
-        return block;
+        keys[nbBlocks]=key;
+        distinctBlocks[nbBlocks]=block;
+        nbBlocks++;
       }
     }
-    return null;
-  }
-
-  private List<BlockReference> findGroupForBlock(BlockReference block)
-  {
-    for(List<BlockReference> group : _groups)
+    // Union-find
+    int[] parents=new int[nbBlocks];
+    for(int i=0;i<nbBlocks;i++)
+    {
+      parents[i]=i;
+    }
+    for(int i=0;i<nbBlocks;i++)
     {
-      for(BlockReference refBlock : group)
+      BlockReference block=distinctBlocks[i];
+      int region=block.getRegion();
+      int x=block.getBlockX();
+      int y=block.getBlockY();
+      // Neighbours with a greater key: (x+1,y-1..y+1) and (x,y+1)
+      unionWithNeighbour(keys,nbBlocks,parents,i,region,x+1,y-1);
+      unionWithNeighbour(keys,nbBlocks,parents,i,region,x+1,y);
+      unionWithNeighbour(keys,nbBlocks,parents,i,region,x+1,y+1);
+      unionWithNeighbour(keys,nbBlocks,parents,i,region,x,y+1);
+    }
+    // Build groups: roots are the smallest index of their component
+    List<List<BlockReference>> ret=new ArrayList<List<BlockReference>>();
+    int[] groupIndexes=new int[nbBlocks];
+    for(int i=0;i<nbBlocks;i++)
+    {
+      int root=find(parents,i);
+      if (root==i)
       {
-        boolean areNeighbours=areNeighbours(refBlock,block);
-        if (areNeighbours)
-        {
-          return group;
-        }
+        groupIndexes[i]=ret.size();
+        ret.add(new ArrayList<BlockReference>());
       }
+      ret.get(groupIndexes[root]).add(distinctBlocks[i]);
     }
-    return null;
+    return ret;
   }
 
-  private boolean areNeighbours(BlockReference ref, BlockReference toTest)
+  private void unionWithNeighbour(int[] keys, int nbBlocks, int[] parents, int index, int region, int x, int y)
   {
-    // Test region
-    int refRegion=ref.getRegion();
-    int testRegion=toTest.getRegion();
-    if (refRegion!=testRegion)
+    if ((x<0) || (x>0xFF) || (y<0) || (y>0xFF))
     {
-      return false;
+      return;
     }
-    int deltaX=ref.getBlockX()-toTest.getBlockX();
-    int deltaY=ref.getBlockY()-toTest.getBlockY();
-    if (((deltaX<=1) && (deltaX>=-1)) && ((deltaY<=1) && (deltaY>=-1)))
+    int neighbourIndex=Arrays.binarySearch(keys,0,nbBlocks,getKey(region,x,y));
+    if (neighbourIndex<0)
     {
-      return true;
+      return;
     }
-    return false;
+    int root1=find(parents,index);
+    int root2=find(parents,neighbourIndex);
+    if (root1<root2)
+    {
+      parents[root2]=root1;
+    }
+    else if (root2<root1)
+    {
+      parents[root1]=root2;
+    }
+  }
+
+  private int find(int[] parents, int index)
+  {
+    while (parents[index]!=index)
+    {
+      // Path halving
+      parents[index]=parents[parents[index]];
+      index=parents[index];
+    }
+    return index;
+  }
+
+  private static int getKey(BlockReference block)
+  {
+    return getKey(block.getRegion(),block.getBlockX(),block.getBlockY());
+  }
+
+  private static int getKey(int region, int x, int y)
+  {
+    return (region<<16)|(x<<8)|y;
   }
 }
@@ -2,6 +2,7 @@ package delta.games.lotro.tools.dat.instances;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -35,6 +36,7 @@ import delta.games.lotro.tools.dat.maps.landblocks.LandblocksManager;
 public class InstanceMapDataBuilder
 {
   private MarkersFinder _finder;
+  private MarkersBlockIndex _markersIndex;
   private LandblocksManager _landblocksManager;
 
   /**
@@ -46,6 +48,7 @@ public class InstanceMapDataBuilder
     File rootDir=new File("../lotro-maps-db");
     MapsManager mapsManager=new MapsManager(rootDir);
     _finder=mapsManager.getMarkersFinder();
+    _markersIndex=new MarkersBlockIndex(_finder);
   }
 
   /**
@@ -56,7 +59,8 @@ public class InstanceMapDataBuilder
   public void handlePrivateEncounter(PrivateEncounter privateEncounter, List<BlockReference> blocks)
   {
     int contentLayerId=privateEncounter.getContentLayerId();
-    List<Marker> markers=_finder.findMarkersForContentLayer(contentLayerId);
+    int[] blockKeys=getBlockKeys(blocks);
+    List<Marker> markers=_markersIndex.getMarkers(contentLayerId,blockKeys);
     /*
     System.out.println("PE: "+privateEncounter.getName());
     System.out.println("\tFound "+markers.size()+" markers.");
@@ -70,11 +74,9 @@ public class InstanceMapDataBuilder
     for(Integer contentLayer : additionalContentLayers)
     {
       List<Marker> markersInBlocks=findMarkersForBlocks(blocks,contentLayer);
-      markers.addAll(markersInBlocks);
+      markers.addAll(filterMarkers(markersInBlocks,blockKeys));
     }
 
-    markers=filterMarkers(markers,blocks);
-
     Map<Integer,List<Marker>> sortedMarkers=sortMarkersByZone(markers);
     //System.out.println("\tFound "+sortedMarkers.size()+" zones.");
     //Identifiable map=MapUtils.findMapForZone(parentZoneID.intValue());
@@ -224,13 +226,13 @@ public class InstanceMapDataBuilder
     return ret;
   }
 
-  private List<Marker> filterMarkers(List<Marker> markers, List<BlockReference> blocks)
+  private List<Marker> filterMarkers(List<Marker> markers, int[] blockKeys)
   {
     List<Marker> ret=new ArrayList<Marker>();
     for(Marker marker : markers)
     {
-      BlockReference markerBlock=getBlock(marker);
-      if (blocks.contains(markerBlock))
+      int blockKey=MarkerUtils.getBlockKeyForMarker(marker.getId());
+      if (Arrays.binarySearch(blockKeys,blockKey)>=0)
       {
         ret.add(marker);
       }
@@ -238,6 +240,32 @@ public class InstanceMapDataBuilder
     return ret;
   }
 
+  /**
+   * Get the sorted, distinct block keys for some blocks.
+   * @param blocks Blocks to use.
+   * @return An array of block keys.
+   */
+  private int[] getBlockKeys(List<BlockReference> blocks)
+  {
+    int nbBlocks=blocks.size();
+    int[] keys=new int[nbBlocks];
+    for(int i=0;i<nbBlocks;i++)
+    {
+      BlockReference block=blocks.get(i);
+      keys[i]=MarkerUtils.getBlockKey(block.getRegion(),block.getBlockX(),block.getBlockY());
+    }
+    Arrays.sort(keys);
+    int nbKeys=0;
+    for(int i=0;i<nbBlocks;i++)
+    {
+      if ((nbKeys==0) || (keys[nbKeys-1]!=keys[i]))
+      {
+        keys[nbKeys++]=keys[i];
+      }
+    }
+    return Arrays.copyOf(keys,nbKeys);
+  }
+
   private List<Integer> getAreasForBlocks(List<BlockReference> blocks)
   {
     List<Integer> ret=new ArrayList<Integer>();
@@ -10,13 +10,14 @@ import delta.games.lotro.dat.data.DataFacade;
 import delta.games.lotro.dat.data.PropertiesSet;
 import delta.games.lotro.dat.data.Vector3D;
 import delta.games.lotro.dat.data.enums.EnumMapper;
-import delta.games.lotro.dat.utils.BufferUtils;
 import delta.games.lotro.dat.utils.DatStringUtils;
 import delta.games.lotro.lore.geo.BlockReference;
 import delta.games.lotro.lore.instances.PrivateEncounter;
 import delta.games.lotro.lore.instances.SkirmishPrivateEncounter;
 import delta.games.lotro.lore.instances.io.xml.PrivateEncountersXMLWriter;
 import delta.games.lotro.tools.dat.GeneratedFiles;
+import delta.games.lotro.tools.dat.utils.index.DidClassIndex;
+import delta.games.lotro.tools.dat.utils.index.DidClassIndexManager;
 import delta.games.lotro.utils.StringUtils;
 
 /**
@@ -281,23 +282,17 @@ public class MainDatPrivateEncountersLoader
    */
   public void doIt()
   {
-    for(int id=0x70000000;id<=0x77FFFFFF;id++)
+    // SkirmishEncounterTemplate: 2651
+    // PrivateEncounterTemplate: 1368
+    DidClassIndex index=DidClassIndexManager.getInstance().getIndex(_facade);
+    int[] ids=index.getDids(2651,1368);
+    for(int id : ids)
     {
-      byte[] data=_facade.loadData(id);
-      if (data!=null)
+      int classDefIndex=index.getClassIndex(id);
+      PrivateEncounter instanceData=load(id,classDefIndex==2651);
+      if (instanceData!=null)
       {
-        int classDefIndex=BufferUtils.getDoubleWordAt(data,4);
-        // SkirmishEncounterTemplate: 2651
-        // PrivateEncounterTemplate: 1368
-        boolean useIt=(classDefIndex==2651) || (classDefIndex==1368);
-        if (useIt)
-        {
-          PrivateEncounter instanceData=load(id,classDefIndex==2651);
-          if (instanceData!=null)
-          {
-            _data.add(instanceData);
-          }
-        }
+        _data.add(instanceData);
       }
     }
     // Save private encounters
@@ -0,0 +1,79 @@
+package delta.games.lotro.tools.dat.instances;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import delta.games.lotro.maps.data.Marker;
+import delta.games.lotro.maps.data.markers.MarkersFinder;
+import delta.games.lotro.tools.dat.maps.MarkerUtils;
+import delta.games.lotro.tools.dat.utils.IntObjectMap;
+
+/**
+ * Index of markers by content layer and block.
+ * <p>
+ * The markers of a content layer are fetched from the markers finder once,
+ * then grouped by packed block key (see {@link MarkerUtils#getBlockKey(int, int, int)}).
+ * @author DAM
+ */
+public class MarkersBlockIndex
+{
+  private MarkersFinder _finder;
+  private Map<Integer,IntObjectMap<List<Marker>>> _layers;
+
+  /**
+   * Constructor.
+   * @param finder Markers finder.
+   */
+  public MarkersBlockIndex(MarkersFinder finder)
+  {
+    _finder=finder;
+    _layers=new HashMap<Integer,IntObjectMap<List<Marker>>>();
+  }
+
+  /**
+   * Get the markers of a content layer in some blocks.
+   * @param contentLayerId Content layer identifier.
+   * @param blockKeys Sorted, distinct block keys.
+   * @return A list of markers, sorted by block key then in finder order.
+   */
+  public List<Marker> getMarkers(int contentLayerId, int[] blockKeys)
+  {
+    IntObjectMap<List<Marker>> markersByBlock=getLayer(contentLayerId);
+    List<Marker> ret=new ArrayList<Marker>();
+    for(int blockKey : blockKeys)
+    {
+      List<Marker> markers=markersByBlock.get(blockKey);
+      if (markers!=null)
+      {
+        ret.addAll(markers);
+      }
+    }
+    return ret;
+  }
+
+  private IntObjectMap<List<Marker>> getLayer(int contentLayerId)
+  {
+    Integer key=Integer.valueOf(contentLayerId);
+    IntObjectMap<List<Marker>> ret=_layers.get(key);
+    if (ret==null)
+    {
+      ret=new IntObjectMap<List<Marker>>();
+      List<Marker> markers=_finder.findMarkersForContentLayer(contentLayerId);
+      for(Marker marker : markers)
+      {
+        int blockKey=MarkerUtils.getBlockKeyForMarker(marker.getId());
+        List<Marker> markersForBlock=ret.get(blockKey);
+        if (markersForBlock==null)
+        {
+          markersForBlock=new ArrayList<Marker>();
+          ret.put(blockKey,markersForBlock);
+        }
+        markersForBlock.add(marker);
+      }
+      _layers.put(key,ret);
+    }
+    return ret;
+  }
+}
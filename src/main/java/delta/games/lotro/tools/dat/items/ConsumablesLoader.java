@@ -21,6 +21,8 @@ import delta.games.lotro.lore.consumables.io.xml.ConsumableXMLWriter;
 import delta.games.lotro.lore.items.Item;
 import delta.games.lotro.tools.dat.GeneratedFiles;
 import delta.games.lotro.tools.dat.utils.DatEffectUtils;
+import delta.games.lotro.tools.dat.utils.PropertiesCache;
+import delta.games.lotro.tools.dat.utils.StatsLoadingContext;
 
 /**
  * Loader for consumables.
@@ -29,6 +31,7 @@ import delta.games.lotro.tools.dat.utils.DatEffectUtils;
 public class ConsumablesLoader
 {
   private DataFacade _facade;
+  private StatsLoadingContext _statsContext;
   private Map<Integer,Effect> _parsedEffects;
   private Consumable _currentConsumable;
   private Integer _spellcraftProperty;
@@ -39,10 +42,12 @@ public class ConsumablesLoader
   /**
    * Constructor.
    * @param facade Data facade.
+   * @param statsContext Stats loading context.
    */
-  public ConsumablesLoader(DataFacade facade)
+  public ConsumablesLoader(DataFacade facade, StatsLoadingContext statsContext)
   {
     _facade=facade;
+    _statsContext=statsContext;
     _parsedEffects=new HashMap<Integer,Effect>();
     _consumables=new ArrayList<Consumable>();
   }
@@ -108,7 +113,7 @@ public class ConsumablesLoader
     Integer spellcraftCalculatorId=(Integer)properties.getProperty("SpellcraftCalculator");
     if (spellcraftCalculatorId!=null)
     {
-      PropertiesSet calculatorProps=_facade.loadProperties(spellcraftCalculatorId.intValue()+DATConstants.DBPROPERTIES_OFFSET);
+      PropertiesSet calculatorProps=PropertiesCache.getInstance().loadProperties(_facade,spellcraftCalculatorId.intValue()+DATConstants.DBPROPERTIES_OFFSET);
       propertyId=(Integer)calculatorProps.getProperty("Spellcraft_Driver_PropertyName");
     }
     return propertyId;
@@ -116,7 +121,7 @@ public class ConsumablesLoader
 
   private void handleOnUseEffects(Item item, int effectGeneratorId, Float spellcraft)
   {
-    PropertiesSet effectProps=_facade.loadProperties(effectGeneratorId+DATConstants.DBPROPERTIES_OFFSET);
+    PropertiesSet effectProps=PropertiesCache.getInstance().loadProperties(_facade,effectGeneratorId+DATConstants.DBPROPERTIES_OFFSET);
     Object[] effects=(Object[])effectProps.getProperty("EffectGenerator_InstantFellowship_AppliedEffectList");
     if (effects!=null)
     {
@@ -139,7 +144,7 @@ public class ConsumablesLoader
     Effect effect=_parsedEffects.get(key);
     if (effect==null)
     {
-      effect=DatEffectUtils.loadEffect(_facade,effectId);
+      effect=DatEffectUtils.loadEffect(_statsContext,_facade,effectId);
       // Remove icon: it is not interesting for consumable effects
       effect.setIconId(null);
       _parsedEffects.put(key,effect);
@@ -8,10 +8,10 @@ import org.apache.log4j.Logger;
 import delta.games.lotro.dat.DATConstants;
 import delta.games.lotro.dat.data.DataFacade;
 import delta.games.lotro.dat.data.PropertiesSet;
-import delta.games.lotro.dat.utils.BufferUtils;
-import delta.games.lotro.dat.utils.DatIconsUtils;
 import delta.games.lotro.lore.items.Item;
 import delta.games.lotro.tools.dat.GeneratedFiles;
+import delta.games.lotro.tools.dat.utils.icons.IconsExportService;
+import delta.games.lotro.tools.dat.utils.index.DidClassIndexManager;
 
 /**
  * Get icons for field items.
@@ -98,10 +98,7 @@ public class FieldIconsLoader
   private void resolveIcon(int iconId)
   {
     File iconFile=new File(GeneratedFiles.ITEM_ICONS_DIR,iconId+".png").getAbsoluteFile();
-    if (!iconFile.exists())
-    {
-      DatIconsUtils.buildImageFile(_facade,iconId,iconFile);
-    }
+    IconsExportService.getInstance().exportIcon(iconId,iconFile);
   }
 
   /**
@@ -109,17 +106,10 @@ public class FieldIconsLoader
    */
   public void doIt()
   {
-    for(int i=0x70000000;i<=0x77FFFFFF;i++)
+    int[] ids=DidClassIndexManager.getDids(_facade,1024);
+    for(int i : ids)
     {
-      byte[] data=_facade.loadData(i);
-      if (data!=null)
-      {
-        int classDefIndex=BufferUtils.getDoubleWordAt(data,4);
-        if (classDefIndex==1024)
-        {
-          handleRecipe(i);
-        }
-      }
+      handleRecipe(i);
     }
   }
 
@@ -5,6 +5,7 @@ import java.util.Map;
 
 import delta.games.lotro.dat.data.DataFacade;
 import delta.games.lotro.dat.data.PropertiesSet;
+import delta.games.lotro.tools.dat.utils.PropertiesCache;
 
 /**
  * Utility methods related to item level offsets.
@@ -21,7 +22,7 @@ public class ItemLevelOffsetsUtils
   {
     Map<Integer,Integer> ret=new HashMap<Integer,Integer>();
     // InventoryControl
-    PropertiesSet props=facade.loadProperties(0x79000230);
+    PropertiesSet props=PropertiesCache.getInstance().loadProperties(facade,0x79000230);
     Object[] offsetsList=(Object[])props.getProperty("InventoryControl_DistributionToLevelOffsetList");
     for(Object offsetEntry : offsetsList)
     {
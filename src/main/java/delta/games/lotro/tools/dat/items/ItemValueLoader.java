@@ -13,6 +13,7 @@ import delta.games.lotro.dat.data.DataFacade;
 import delta.games.lotro.dat.data.PropertiesSet;
 import delta.games.lotro.lore.items.ItemQuality;
 import delta.games.lotro.tools.dat.utils.DatEnumsUtils;
+import delta.games.lotro.tools.dat.utils.PropertiesCache;
 
 /**
  * Loader for item value tables.
@@ -71,7 +72,7 @@ public class ItemValueLoader
   private QualityBasedValueLookupTable loadTable(int tableId)
   {
     QualityBasedValueLookupTable ret=null;
-    PropertiesSet properties=_facade.loadProperties(tableId+DATConstants.DBPROPERTIES_OFFSET);
+    PropertiesSet properties=PropertiesCache.getInstance().loadProperties(_facade,tableId+DATConstants.DBPROPERTIES_OFFSET);
     if (properties!=null)
     {
       ret=new QualityBasedValueLookupTable();
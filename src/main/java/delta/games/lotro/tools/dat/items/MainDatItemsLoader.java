@@ -24,8 +24,6 @@ import delta.games.lotro.common.stats.WellKnownStat;
 import delta.games.lotro.dat.DATConstants;
 import delta.games.lotro.dat.data.DataFacade;
 import delta.games.lotro.dat.data.PropertiesSet;
-import delta.games.lotro.dat.utils.BufferUtils;
-import delta.games.lotro.dat.utils.DatIconsUtils;
 import delta.games.lotro.lore.items.Armour;
 import delta.games.lotro.lore.items.ArmourType;
 import delta.games.lotro.lore.items.EquipmentLocation;
@@ -50,6 +48,11 @@ import delta.games.lotro.tools.dat.items.legendary.PassivesLoader;
 import delta.games.lotro.tools.dat.utils.DatEnumsUtils;
 import delta.games.lotro.tools.dat.utils.DatStatUtils;
 import delta.games.lotro.tools.dat.utils.DatUtils;
+import delta.games.lotro.tools.dat.utils.ProgressionsRegistry;
+import delta.games.lotro.tools.dat.utils.PropertiesCache;
+import delta.games.lotro.tools.dat.utils.StatsLoadingContext;
+import delta.games.lotro.tools.dat.utils.icons.IconsExportService;
+import delta.games.lotro.tools.dat.utils.index.DidClassIndexManager;
 import delta.games.lotro.utils.StringUtils;
 import delta.games.lotro.utils.maths.Progression;
 
@@ -83,6 +86,7 @@ public class MainDatItemsLoader
   };
 
   private DataFacade _facade;
+  private StatsLoadingContext _statsContext;
   private int _currentId;
   private Item _currentItem;
   private PassivesLoader _passivesLoader;
@@ -98,9 +102,11 @@ public class MainDatItemsLoader
   public MainDatItemsLoader(DataFacade facade)
   {
     _facade=facade;
-    _passivesLoader=new PassivesLoader(_facade);
-    _consumablesLoader=new ConsumablesLoader(_facade);
-    _legaciesLoader=new LegaciesLoader(_facade);
+    _statsContext=new StatsLoadingContext();
+    _statsContext.setFilterStats(false);
+    _passivesLoader=new PassivesLoader(_facade,_statsContext);
+    _consumablesLoader=new ConsumablesLoader(_facade,_statsContext);
+    _legaciesLoader=new LegaciesLoader(_facade,_statsContext);
     _valueLoader=new ItemValueLoader(_facade);
   }
 
@@ -225,7 +231,7 @@ public class MainDatItemsLoader
         Integer armourProgressId=(Integer)properties.getProperty("Item_Armor_Value_Lookup_Table");
         if (armourProgressId!=null)
         {
-          armorStatProvider=DatStatUtils.buildStatProvider(_facade,WellKnownStat.ARMOUR,armourProgressId.intValue());
+          armorStatProvider=DatStatUtils.buildStatProvider(_statsContext,_facade,WellKnownStat.ARMOUR,armourProgressId.intValue());
           Float computedArmourValue=armorStatProvider.getStatValue(1,level.intValue());
           if (Math.abs(armourValue.intValue()-computedArmourValue.floatValue())>1)
           {
@@ -253,8 +259,7 @@ public class MainDatItemsLoader
       // - faction
       getRequiredFaction(properties,item.getUsageRequirements());
       // Stats providers
-      DatStatUtils.doFilterStats=false;
-      StatsProvider statsProvider=DatStatUtils.buildStatProviders(_facade,properties);
+      StatsProvider statsProvider=DatStatUtils.buildStatProviders(_statsContext,_facade,properties);
       if (armorStatProvider!=null)
       {
         // Handle special case of the 3 "Shield of the Hammerhand"
@@ -284,7 +289,6 @@ public class MainDatItemsLoader
         loadWeaponSpecifics((Weapon)item,properties);
       }
       // Handle legendaries
-      DatStatUtils.doFilterStats=false;
       handleLegendaries(item, properties);
       // Value
       handleItemValue(item,properties);
@@ -323,10 +327,7 @@ public class MainDatItemsLoader
     if ((iconId!=null) && (iconId.intValue()!=0))
     {
       File iconFile=new File(GeneratedFiles.ITEM_ICONS_DIR,iconId.intValue()+".png").getAbsoluteFile();
-      if (!iconFile.exists())
-      {
-        DatIconsUtils.buildImageFile(_facade,iconId.intValue(),iconFile);
-      }
+      IconsExportService.getInstance().exportIcon(iconId.intValue(),iconFile);
     }
   }
 
@@ -412,19 +413,19 @@ public class MainDatItemsLoader
         ConstantStatProvider provider=new ConstantStatProvider(WellKnownStat.RANGED_DEFENCE_PERCENTAGE,-10);
         statsProvider.addStatProvider(provider);
         // Critical defence
-        StatProvider critDef=DatStatUtils.buildStatProvider(_facade,WellKnownStat.CRITICAL_DEFENCE,1879260945);
+        StatProvider critDef=DatStatUtils.buildStatProvider(_statsContext,_facade,WellKnownStat.CRITICAL_DEFENCE,1879260945);
         statsProvider.addStatProvider(critDef);
       }
       else if (armourType==ArmourType.SHIELD)
       {
         // Critical defence
-        StatProvider critDef=DatStatUtils.buildStatProvider(_facade,WellKnownStat.CRITICAL_DEFENCE,1879211641);
+        StatProvider critDef=DatStatUtils.buildStatProvider(_statsContext,_facade,WellKnownStat.CRITICAL_DEFENCE,1879211641);
         statsProvider.addStatProvider(critDef);
       }
       else if (armourType==ArmourType.WARDEN_SHIELD)
       {
         // Critical defence
-        StatProvider critDef=DatStatUtils.buildStatProvider(_facade,WellKnownStat.CRITICAL_DEFENCE,1879260947);
+        StatProvider critDef=DatStatUtils.buildStatProvider(_statsContext,_facade,WellKnownStat.CRITICAL_DEFENCE,1879260947);
         statsProvider.addStatProvider(critDef);
       }
     }
@@ -459,14 +460,14 @@ public class MainDatItemsLoader
 
   private StatsProvider handleEffect(int effectId)
   {
-    PropertiesSet effectProps=_facade.loadProperties(effectId+DATConstants.DBPROPERTIES_OFFSET);
+    PropertiesSet effectProps=PropertiesCache.getInstance().loadProperties(_facade,effectId+DATConstants.DBPROPERTIES_OFFSET);
     Object probability=effectProps.getProperty("Effect_ConstantApplicationProbability");
     if ((probability!=null) && (probability.equals(Float.valueOf(1.0f))))
     {
       Integer permanent=(Integer)effectProps.getProperty("Effect_Duration_Permanent");
       if ((permanent!=null) && (permanent.intValue()==1))
       {
-        return DatStatUtils.buildStatProviders(_facade,effectProps);
+        return DatStatUtils.buildStatProviders(_statsContext,_facade,effectProps);
       }
     }
     return null;
@@ -584,7 +585,7 @@ public class MainDatItemsLoader
     Integer dpsLut=(Integer)properties.getProperty("Combat_DPS_LUT");
     if (dpsLut!=null)
     {
-      PropertiesSet dpsLutProperties=_facade.loadProperties(dpsLut.intValue()+DATConstants.DBPROPERTIES_OFFSET);
+      PropertiesSet dpsLutProperties=PropertiesCache.getInstance().loadProperties(_facade,dpsLut.intValue()+DATConstants.DBPROPERTIES_OFFSET);
       Object[] dpsArray=(Object[])dpsLutProperties.getProperty("Combat_BaseDPSArray");
       float baseDPSFromTable=((Float)(dpsArray[itemLevel-1])).floatValue();
       Object[] qualityFactors=(Object[])dpsLutProperties.getProperty("Combat_QualityModArray");
@@ -911,7 +912,7 @@ public class MainDatItemsLoader
       Progression progression=null;
       if (progressionId!=null)
       {
-        progression=DatStatUtils.getProgression(_facade,progressionId.intValue());
+        progression=DatStatUtils.getProgression(_statsContext,_facade,progressionId.intValue());
       }
       Munging munging=new Munging(minMungingLevel,maxMungingLevel,progression);
       String mungingSpec=munging.asString();
@@ -1015,24 +1016,6 @@ public class MainDatItemsLoader
     }
   }
 
-  private boolean useId(int id)
-  {
-    byte[] data=_facade.loadData(id);
-    if (data!=null)
-    {
-      //int did=BufferUtils.getDoubleWordAt(data,0);
-      int classDefIndex=BufferUtils.getDoubleWordAt(data,4);
-      for(int i=0;i<TYPES.length;i++)
-      {
-        if (TYPES[i]==classDefIndex)
-        {
-          return true;
-        }
-      }
-    }
-    return false;
-  }
-
   /**
    * Load items, legacies, passives, consumables.
    */
@@ -1044,20 +1027,17 @@ public class MainDatItemsLoader
     // Offsets
     _itemLevelOffsets=ItemLevelOffsetsUtils.buildOffsetsMap(_facade);
     // Items
-    DatStatUtils._statsUsageStatistics.reset();
+    _statsContext.getStatsUsageStatistics().reset();
     List<Item> items=new ArrayList<Item>();
     HashMap<Integer,Item> mapById=new HashMap<Integer,Item>();
-    for(int id=0x70000000;id<=0x77FFFFFF;id++)
+    int[] ids=DidClassIndexManager.getDids(_facade,TYPES);
+    for(int id : ids)
     {
-      boolean useIt=useId(id);
-      if (useIt)
+      Item newItem=load(id);
+      if (newItem!=null)
       {
-        Item newItem=load(id);
-        if (newItem!=null)
-        {
-          items.add(newItem);
-          mapById.put(Integer.valueOf(id),newItem);
-        }
+        items.add(newItem);
+        mapById.put(Integer.valueOf(id),newItem);
       }
     }
     // Field icons
@@ -1070,11 +1050,11 @@ public class MainDatItemsLoader
     statistics.showStatistics(items);
     // Save items
     /*boolean ok=*/ItemXMLWriter.writeItemsFile(GeneratedFiles.ITEMS,items);
-    // Save progressions
-    DatStatUtils._progressions.writeToFile(GeneratedFiles.PROGRESSIONS_ITEMS);
+    // Register progressions
+    ProgressionsRegistry.getInstance().register(_statsContext,GeneratedFiles.PROGRESSIONS_ITEMS);
     // Stats usage statistics
     System.out.println("Stats usage statistics (items):");
-    DatStatUtils._statsUsageStatistics.showResults();
+    _statsContext.getStatsUsageStatistics().showResults();
     // Save passives
     _passivesLoader.savePassives();
     // Save consumables
@@ -1083,6 +1063,8 @@ public class MainDatItemsLoader
     _legaciesLoader.save();
     // Save value tables
     ValueTablesXMLWriter.writeValueTablesFile(GeneratedFiles.VALUE_TABLES,_valueLoader.getTables());
+    // Wait for item icons
+    IconsExportService.getInstance().waitForIcons(GeneratedFiles.ITEM_ICONS_DIR);
   }
 
   /**
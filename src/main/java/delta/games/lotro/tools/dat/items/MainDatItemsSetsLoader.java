@@ -12,7 +12,6 @@ import delta.games.lotro.dat.DATConstants;
 import delta.games.lotro.dat.WStateClass;
 import delta.games.lotro.dat.data.DataFacade;
 import delta.games.lotro.dat.data.PropertiesSet;
-import delta.games.lotro.dat.utils.BufferUtils;
 import delta.games.lotro.lore.items.Item;
 import delta.games.lotro.lore.items.ItemsManager;
 import delta.games.lotro.lore.items.sets.ItemsSet;
@@ -22,6 +21,9 @@ import delta.games.lotro.tools.dat.GeneratedFiles;
 import delta.games.lotro.tools.dat.utils.DatEffectUtils;
 import delta.games.lotro.tools.dat.utils.DatStatUtils;
 import delta.games.lotro.tools.dat.utils.DatUtils;
+import delta.games.lotro.tools.dat.utils.ProgressionsRegistry;
+import delta.games.lotro.tools.dat.utils.StatsLoadingContext;
+import delta.games.lotro.tools.dat.utils.index.DidClassIndexManager;
 import delta.games.lotro.utils.Proxy;
 
 /**
@@ -33,6 +35,7 @@ public class MainDatItemsSetsLoader
   private static final Logger LOGGER=Logger.getLogger(MainDatItemsSetsLoader.class);
 
   private DataFacade _facade;
+  private StatsLoadingContext _statsContext;
 
   /**
    * Constructor.
@@ -41,6 +44,8 @@ public class MainDatItemsSetsLoader
   public MainDatItemsSetsLoader(DataFacade facade)
   {
     _facade=facade;
+    _statsContext=new StatsLoadingContext();
+    _statsContext.setFilterStats(false);
   }
 
   /*
@@ -156,7 +161,7 @@ Set_Name:
  */
     ItemsSetBonus bonus=null;
     int count=((Integer)properties.getProperty("Set_ActiveCount")).intValue();
-    StatsProvider provider=DatStatUtils.buildStatProviders(_facade,properties);
+    StatsProvider provider=DatStatUtils.buildStatProviders(_statsContext,_facade,properties);
     if ((count>0) && (provider!=null))
     {
       bonus=new ItemsSetBonus(count);
@@ -170,7 +175,7 @@ Set_Name:
         PropertiesSet effectProps=(PropertiesSet)effectObj;
         // EffectGenerator_EffectSpellcraft
         int effectId=((Integer)effectProps.getProperty("EffectGenerator_EffectID")).intValue();
-        Effect effect=DatEffectUtils.loadEffect(_facade,effectId);
+        Effect effect=DatEffectUtils.loadEffect(_statsContext,_facade,effectId);
         StatsProvider effectStats=effect.getStatsProvider();
         int nbEffectStats=effectStats.getNumberOfStatProviders();
         for(int i=0;i<nbEffectStats;i++)
@@ -183,37 +188,20 @@ Set_Name:
     return bonus;
   }
 
-  private boolean useId(int id)
-  {
-    byte[] data=_facade.loadData(id);
-    if (data!=null)
-    {
-      //int did=BufferUtils.getDoubleWordAt(data,0);
-      int classDefIndex=BufferUtils.getDoubleWordAt(data,4);
-      return (classDefIndex==WStateClass.SET);
-    }
-    return false;
-  }
-
   /**
    * Load item sets.
    */
   public void doIt()
   {
-    DatStatUtils.doFilterStats=false;
-    DatStatUtils._statsUsageStatistics.reset();
     List<ItemsSet> sets=new ArrayList<ItemsSet>();
 
-    for(int id=0x70000000;id<=0x77FFFFFF;id++)
+    int[] ids=DidClassIndexManager.getDids(_facade,WStateClass.SET);
+    for(int id : ids)
     {
-      boolean useIt=useId(id);
-      if (useIt)
+      ItemsSet set=load(id);
+      if (set!=null)
       {
-        ItemsSet set=load(id);
-        if (set!=null)
-        {
-          sets.add(set);
-        }
+        sets.add(set);
       }
     }
     // Save sets
@@ -225,8 +213,8 @@ Set_Name:
     {
       System.out.println("Wrote sets file: "+to);
     }
-    // Save progressions
-    DatStatUtils._progressions.writeToFile(GeneratedFiles.PROGRESSIONS_ITEMS_SETS);
+    // Register progressions
+    ProgressionsRegistry.getInstance().register(_statsContext,GeneratedFiles.PROGRESSIONS_ITEMS_SETS);
   }
 
   /**
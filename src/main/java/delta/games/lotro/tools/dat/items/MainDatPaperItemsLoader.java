@@ -18,6 +18,7 @@ import delta.games.lotro.dat.utils.DatStringUtils;
 import delta.games.lotro.lore.items.paper.PaperItem;
 import delta.games.lotro.lore.items.paper.io.xml.PaperItemsXMLWriter;
 import delta.games.lotro.tools.dat.GeneratedFiles;
+import delta.games.lotro.tools.dat.utils.PropertiesCache;
 
 /**
  * Get paper items details from DAT files.
@@ -119,7 +120,7 @@ public class MainDatPaperItemsLoader
   public void doIt()
   {
     // PaperItemControl
-    PropertiesSet props=_facade.loadProperties(0x79024867);
+    PropertiesSet props=PropertiesCache.getInstance().loadProperties(_facade,0x79024867);
 
     Map<Integer,PaperItem> paperItems=new HashMap<Integer,PaperItem>();
     // Paper items
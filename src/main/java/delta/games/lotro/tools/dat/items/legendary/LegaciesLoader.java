@@ -1,6 +1,5 @@
 package delta.games.lotro.tools.dat.items.legendary;
 
-import java.io.File;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Collections;
@@ -12,7 +11,6 @@ import java.util.Set;
 
 import org.apache.log4j.Logger;
 
-import delta.common.utils.files.archives.DirectoryArchiver;
 import delta.games.lotro.common.CharacterClass;
 import delta.games.lotro.common.IdentifiableComparator;
 import delta.games.lotro.common.constraints.ClassAndSlot;
@@ -29,7 +27,6 @@ import delta.games.lotro.dat.data.PropertiesSet;
 import delta.games.lotro.dat.data.PropertyDefinition;
 import delta.games.lotro.dat.data.enums.EnumMapper;
 import delta.games.lotro.dat.utils.BitSetUtils;
-import delta.games.lotro.dat.utils.DatIconsUtils;
 import delta.games.lotro.lore.items.EquipmentLocation;
 import delta.games.lotro.lore.items.WeaponType;
 import delta.games.lotro.lore.items.legendary.AbstractLegacy;
@@ -46,6 +43,8 @@ import delta.games.lotro.tools.dat.misc.ProgressionControlLoader;
 import delta.games.lotro.tools.dat.utils.DatEffectUtils;
 import delta.games.lotro.tools.dat.utils.DatEnumsUtils;
 import delta.games.lotro.tools.dat.utils.DatStatUtils;
+import delta.games.lotro.tools.dat.utils.StatsLoadingContext;
+import delta.games.lotro.tools.dat.utils.icons.IconsExportService;
 import delta.games.lotro.utils.maths.Progression;
 
 /**
@@ -56,12 +55,8 @@ public class LegaciesLoader
 {
   private static final Logger LOGGER=Logger.getLogger(LegaciesLoader.class);
 
-  /**
-   * Directory for legacies icons.
-   */
-  public static final File LEGACIES_ICONS_DIR=new File("data\\legacies\\tmp").getAbsoluteFile();
-
   private DataFacade _facade;
+  private StatsLoadingContext _statsContext;
   private NonImbuedLegaciesManager _nonImbuedLegaciesManager;
   private LegaciesManager _imbuedLegaciesManager;
   private EnumMapper _equipmentCategory;
@@ -71,10 +66,12 @@ public class LegaciesLoader
   /**
    * Constructor.
    * @param facade Data facade.
+   * @param statsContext Stats loading context.
    */
-  public LegaciesLoader(DataFacade facade)
+  public LegaciesLoader(DataFacade facade, StatsLoadingContext statsContext)
   {
     _facade=facade;
+    _statsContext=statsContext;
     _nonImbuedLegaciesManager=new NonImbuedLegaciesManager();
     _imbuedLegaciesManager=new LegaciesManager();
     _equipmentCategory=_facade.getEnumsManager().getEnumMapper(587202636);
@@ -87,8 +84,6 @@ public class LegaciesLoader
    */
   public void loadLegacies()
   {
-    DatStatUtils.doFilterStats=false;
-    DatStatUtils._statsUsageStatistics.reset();
     loadNonImbuedLegacies();
     loadImbuedLegacies();
   }
@@ -138,7 +133,7 @@ public class LegaciesLoader
     Integer imbuedEffect=(Integer)props.getProperty("ItemAdvancement_ImbuedLegacy_Effect");
     if (imbuedEffect!=null)
     {
-      StatsProvider provider=DatEffectUtils.loadEffectStats(_facade,imbuedEffect.intValue());
+      StatsProvider provider=DatEffectUtils.loadEffectStats(_statsContext,_facade,imbuedEffect.intValue());
       ret.setStatsProvider(provider);
     }
 
@@ -186,7 +181,7 @@ public class LegaciesLoader
   private StatsProvider loadDpsLut(int id)
   {
     StatsProvider ret=new StatsProvider();
-    Progression progression=DatStatUtils.getProgression(_facade,id);
+    Progression progression=DatStatUtils.getProgression(_statsContext,_facade,id);
     ScalableStatProvider dps=new ScalableStatProvider(WellKnownStat.DPS,progression);
     ret.addStatProvider(dps);
     return ret;
@@ -292,8 +287,7 @@ public class LegaciesLoader
   private void saveIcons()
   {
     // Write legacies icons archive
-    DirectoryArchiver archiver=new DirectoryArchiver();
-    boolean ok=archiver.go(GeneratedFiles.LEGACIES_ICONS,LEGACIES_ICONS_DIR);
+    boolean ok=IconsExportService.getInstance().writeArchive(GeneratedFiles.LEGACIES_ICONS);
     if (ok)
     {
       System.out.println("Wrote legacies icons archive: "+GeneratedFiles.LEGACIES_ICONS);
@@ -404,7 +398,7 @@ public class LegaciesLoader
   private NonImbuedLegacyTier buildTieredLegacy(int effectId, Boolean major)
   {
     NonImbuedLegacyTier legacyTier=null;
-    Effect effect=DatEffectUtils.loadEffect(_facade,effectId);
+    Effect effect=DatEffectUtils.loadEffect(_statsContext,_facade,effectId);
     // Remove name: it is not interesting for tiered legacies
     effect.setName(null);
     // Remove icon: it is not interesting for tiered legacies
@@ -638,7 +632,7 @@ public class LegaciesLoader
     DefaultNonImbuedLegacy legacy=_nonImbuedLegaciesManager.getDefaultLegacy(effectId);
     if (legacy==null)
     {
-      Effect effect=DatEffectUtils.loadEffect(_facade,effectId);
+      Effect effect=DatEffectUtils.loadEffect(_statsContext,_facade,effectId);
       if (effect!=null)
       {
         // Remove name: it is not interesting for non imbued legacies
@@ -718,15 +712,7 @@ public class LegaciesLoader
   public void loadIcon(int iconId)
   {
     String iconFilename=iconId+".png";
-    File to=new File(LEGACIES_ICONS_DIR,"legaciesIcons/"+iconFilename).getAbsoluteFile();
-    if (!to.exists())
-    {
-      boolean ok=DatIconsUtils.buildImageFile(_facade,iconId,to);
-      if (!ok)
-      {
-        LOGGER.warn("Could not build legacy icon: "+iconFilename);
-      }
-    }
+    IconsExportService.getInstance().exportIcon(iconId,GeneratedFiles.LEGACIES_ICONS,"legaciesIcons/"+iconFilename);
   }
 
   void showProps(int id, String meaning, PropertiesSet props)
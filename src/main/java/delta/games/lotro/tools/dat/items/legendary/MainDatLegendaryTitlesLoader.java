@@ -14,7 +14,6 @@ import delta.games.lotro.dat.data.DataFacade;
 import delta.games.lotro.dat.data.PropertiesSet;
 import delta.games.lotro.dat.data.enums.EnumMapper;
 import delta.games.lotro.dat.utils.BitSetUtils;
-import delta.games.lotro.dat.utils.BufferUtils;
 import delta.games.lotro.lore.items.DamageType;
 import delta.games.lotro.lore.items.legendary.titles.LegendaryTitle;
 import delta.games.lotro.lore.items.legendary.titles.io.xml.LegendaryTitleXMLWriter;
@@ -23,6 +22,9 @@ import delta.games.lotro.tools.dat.utils.DatEffectUtils;
 import delta.games.lotro.tools.dat.utils.DatEnumsUtils;
 import delta.games.lotro.tools.dat.utils.DatStatUtils;
 import delta.games.lotro.tools.dat.utils.DatUtils;
+import delta.games.lotro.tools.dat.utils.ProgressionsRegistry;
+import delta.games.lotro.tools.dat.utils.StatsLoadingContext;
+import delta.games.lotro.tools.dat.utils.index.DidClassIndexManager;
 
 /**
  * Get legendary titles definitions from DAT files.
@@ -33,6 +35,7 @@ public class MainDatLegendaryTitlesLoader
   private static final Logger LOGGER=Logger.getLogger(MainDatLegendaryTitlesLoader.class);
 
   private DataFacade _facade;
+  private StatsLoadingContext _statsContext;
   private EnumMapper _category;
   private EnumMapper _genus;
 
@@ -43,6 +46,8 @@ public class MainDatLegendaryTitlesLoader
   public MainDatLegendaryTitlesLoader(DataFacade facade)
   {
     _facade=facade;
+    _statsContext=new StatsLoadingContext();
+    _statsContext.setFilterStats(false);
     _category=_facade.getEnumsManager().getEnumMapper(587203267);
     _genus=_facade.getEnumsManager().getEnumMapper(587202570);
   }
@@ -122,7 +127,7 @@ Mod_Array:
       // Stats
       // - Private stats
       {
-        StatsProvider statsProvider=DatStatUtils.buildStatProviders(_facade,properties);
+        StatsProvider statsProvider=DatStatUtils.buildStatProviders(_statsContext,_facade,properties);
         if (statsProvider.getNumberOfStatProviders()>0)
         {
           // Level does not matter because it's only constant stats
@@ -139,7 +144,7 @@ Mod_Array:
           PropertiesSet effectProps=(PropertiesSet)effectObj;
           int effectId=((Integer)effectProps.getProperty("EffectGenerator_EffectID")).intValue();
           Float spellCraft=(Float)effectProps.getProperty("EffectGenerator_EffectSpellcraft");
-          StatsProvider statsProvider=DatEffectUtils.loadEffectStats(_facade,effectId);
+          StatsProvider statsProvider=DatEffectUtils.loadEffectStats(_statsContext,_facade,effectId);
           int level=spellCraft.intValue();
           BasicStatsSet stats=statsProvider.getStats(1,level);
           ret.getStats().addStats(stats);
@@ -153,37 +158,19 @@ Mod_Array:
     return ret;
   }
 
-  private boolean useId(int id)
-  {
-    byte[] data=_facade.loadData(id);
-    if (data!=null)
-    {
-      //int did=BufferUtils.getDoubleWordAt(data,0);
-      int classDefIndex=BufferUtils.getDoubleWordAt(data,4);
-      //System.out.println(classDefIndex);
-      return (classDefIndex==WStateClass.LEGENDARY_TITLE);
-    }
-    return false;
-  }
-
   /**
    * Load legendary titles.
    */
   public void doIt()
   {
-    DatStatUtils.doFilterStats=false;
-    DatStatUtils._statsUsageStatistics.reset();
     List<LegendaryTitle> titles=new ArrayList<LegendaryTitle>();
-    for(int id=0x70000000;id<=0x77FFFFFF;id++)
+    int[] ids=DidClassIndexManager.getDids(_facade,WStateClass.LEGENDARY_TITLE);
+    for(int id : ids)
     {
-      boolean useIt=useId(id);
-      if (useIt)
+      LegendaryTitle title=load(id);
+      if (title!=null)
       {
-        LegendaryTitle title=load(id);
-        if (title!=null)
-        {
-          titles.add(title);
-        }
+        titles.add(title);
       }
     }
     // Save titles
@@ -194,6 +181,8 @@ Mod_Array:
     {
       System.out.println("Wrote titles file: "+GeneratedFiles.LEGENDARY_TITLES);
     }
+    // Register progressions
+    ProgressionsRegistry.getInstance().register(_statsContext,GeneratedFiles.PROGRESSIONS_LEGENDARY_TITLES);
   }
 
   /**
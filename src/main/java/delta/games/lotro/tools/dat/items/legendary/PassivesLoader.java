@@ -16,6 +16,7 @@ import delta.games.lotro.lore.items.legendary.passives.PassivesGroup;
 import delta.games.lotro.lore.items.legendary.passives.io.xml.PassivesGroupsXMLWriter;
 import delta.games.lotro.tools.dat.GeneratedFiles;
 import delta.games.lotro.tools.dat.utils.DatEffectUtils;
+import delta.games.lotro.tools.dat.utils.StatsLoadingContext;
 
 /**
  * Loader for legendary passives.
@@ -24,16 +25,19 @@ import delta.games.lotro.tools.dat.utils.DatEffectUtils;
 public class PassivesLoader
 {
   private DataFacade _facade;
+  private StatsLoadingContext _statsContext;
   private Map<Integer,PassivesGroup> _loadedGroups;
   private Map<Integer,Effect> _parsedEffects;
 
   /**
    * Constructor.
    * @param facade Data facade.
+   * @param statsContext Stats loading context.
    */
-  public PassivesLoader(DataFacade facade)
+  public PassivesLoader(DataFacade facade, StatsLoadingContext statsContext)
   {
     _facade=facade;
+    _statsContext=statsContext;
     _loadedGroups=new HashMap<Integer,PassivesGroup>();
     _parsedEffects=new HashMap<Integer,Effect>();
   }
@@ -79,7 +83,7 @@ public class PassivesLoader
         Effect effect=_parsedEffects.get(effectId);
         if (effect==null)
         {
-          effect=DatEffectUtils.loadEffect(_facade,effectId.intValue());
+          effect=DatEffectUtils.loadEffect(_statsContext,_facade,effectId.intValue());
           // Remove name: it is not interesting for passives
           effect.setName(null);
           // Remove icon: it is not interesting for passives
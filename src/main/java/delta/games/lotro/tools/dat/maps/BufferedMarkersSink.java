@@ -0,0 +1,64 @@
+package delta.games.lotro.tools.dat.maps;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import delta.games.lotro.dat.data.DatPosition;
+import delta.games.lotro.dat.data.DataIdentification;
+
+/**
+ * Markers sink that keeps the added markers until they are flushed to another sink.
+ * <p>
+ * It is used to find markers in worker threads, and then register them
+ * in a single thread, in a stable order.
+ * @author DAM
+ */
+public class BufferedMarkersSink implements MarkersSink
+{
+  private List<DatPosition> _positions;
+  private List<DataIdentification> _dataIds;
+  private List<Integer> _layerIds;
+
+  /**
+   * Constructor.
+   */
+  public BufferedMarkersSink()
+  {
+    _positions=new ArrayList<DatPosition>();
+    _dataIds=new ArrayList<DataIdentification>();
+    _layerIds=new ArrayList<Integer>();
+  }
+
+  @Override
+  public void addMarker(DatPosition position, DataIdentification dataId, int layerId)
+  {
+    _positions.add(position);
+    _dataIds.add(dataId);
+    _layerIds.add(Integer.valueOf(layerId));
+  }
+
+  /**
+   * Get the number of pending markers.
+   * @return a markers count.
+   */
+  public int getSize()
+  {
+    return _positions.size();
+  }
+
+  /**
+   * Flush the pending markers to the given sink, in the order they were added.
+   * @param sink Target sink.
+   */
+  public void flush(MarkersSink sink)
+  {
+    int nbMarkers=_positions.size();
+    for(int i=0;i<nbMarkers;i++)
+    {
+      sink.addMarker(_positions.get(i),_dataIds.get(i),_layerIds.get(i).intValue());
+    }
+    _positions.clear();
+    _dataIds.clear();
+    _layerIds.clear();
+  }
+}
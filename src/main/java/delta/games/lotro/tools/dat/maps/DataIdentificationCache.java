@@ -0,0 +1,95 @@
+package delta.games.lotro.tools.dat.maps;
+
+import delta.games.lotro.dat.data.DataFacade;
+import delta.games.lotro.dat.data.DataIdentification;
+import delta.games.lotro.dat.utils.DataIdentificationTools;
+import delta.games.lotro.tools.dat.utils.IntObjectMap;
+
+/**
+ * Cache for data identifications, used during the maps build.
+ * <p>
+ * The same DID is identified for each of its positions: results are kept
+ * in a table keyed by the raw DID, so that no boxing occurs on lookups.
+ * Failed identifications are cached as well.
+ * <p>
+ * Cached identifications are shared: callers shall not modify them.
+ * @author DAM
+ */
+public class DataIdentificationCache
+{
+  private static final DataIdentificationCache _instance=new DataIdentificationCache();
+
+  private static final Object NOT_FOUND=new Object();
+
+  private IntObjectMap<Object> _cache;
+  private long _hits;
+  private long _misses;
+
+  /**
+   * Get the reference instance of this class.
+   * @return the reference instance of this class.
+   */
+  public static DataIdentificationCache getInstance()
+  {
+    return _instance;
+  }
+
+  /**
+   * Private constructor.
+   */
+  private DataIdentificationCache()
+  {
+    _cache=new IntObjectMap<Object>();
+  }
+
+  /**
+   * Identify a DID.
+   * @param facade Data facade to use if the DID was not identified yet.
+   * @param did DID to identify.
+   * @return A data identification or <code>null</code>.
+   */
+  public DataIdentification identify(DataFacade facade, int did)
+  {
+    synchronized(this)
+    {
+      Object value=_cache.get(did);
+      if (value!=null)
+      {
+        _hits++;
+        return (value!=NOT_FOUND)?(DataIdentification)value:null;
+      }
+      _misses++;
+    }
+    // Identify outside of the lock: the facade belongs to the caller
+    DataIdentification ret=DataIdentificationTools.identify(facade,did);
+    synchronized(this)
+    {
+      if (_cache.get(did)==null)
+      {
+        _cache.put(did,(ret!=null)?ret:NOT_FOUND);
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Get a displayable string for the cache statistics.
+   * @return a string.
+   */
+  public synchronized String getStatistics()
+  {
+    long total=_hits+_misses;
+    long rate=(total>0)?(_hits*100/total):0;
+    return "Identifications: "+_hits+" hit(s), "+_misses+" miss(es) ("+rate+"% hits)";
+  }
+
+  /**
+   * Clear the cache and its statistics.
+   */
+  public synchronized void reset()
+  {
+    _cache.clear();
+    _hits=0;
+    _misses=0;
+  }
+}
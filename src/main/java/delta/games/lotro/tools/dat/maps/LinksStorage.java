@@ -1,22 +1,33 @@
 package delta.games.lotro.tools.dat.maps;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import delta.games.lotro.maps.data.GeoPoint;
 import delta.games.lotro.maps.data.links.MapLink;
+import delta.games.lotro.tools.dat.utils.LongObjectMap;
 
 /**
  * Links storage.
+ * <p>
+ * Links with the same parent, content layer and target that are near enough
+ * to an already stored link are ignored. Stored links are indexed in a grid
+ * whose cells are at least as large as the distance threshold, so that only
+ * the links of the 9 neighbouring cells are checked.
+ * <p>
+ * The group (parent, content layer, target) and the grid cell are packed in a single
+ * <code>long</code> key. Different groups or cells may share a key: candidate links
+ * are checked for their group and their distance.
  * @author DAM
  */
 public class LinksStorage
 {
   private static final float THRESHOLD=0.0005f;
+  // Slightly larger than the threshold distance, to be safe with rounding errors
+  private static final float GRID_CELL_SIZE=(float)Math.sqrt(THRESHOLD)*1.01f;
+
   private List<MapLink> _links;
-  private Map<String,List<MapLink>> _sortedLinks;
+  private LongObjectMap<List<MapLink>> _grid;
 
   /**
    * Constructor.
@@ -24,49 +35,60 @@ public class LinksStorage
   public LinksStorage()
   {
     _links=new ArrayList<MapLink>();
-    _sortedLinks=new HashMap<String,List<MapLink>>();
+    _grid=new LongObjectMap<List<MapLink>>();
   }
 
   /**
    * Add a link.
-   * @param link Link to add.
+   * @param linkToAdd Link to add.
    */
-  public void addLink(MapLink link)
+  public void addLink(MapLink linkToAdd)
   {
-    String key=buildKey(link);
-    List<MapLink> links=_sortedLinks.get(key);
-    if (links==null)
+    GeoPoint position=linkToAdd.getPosition();
+    int cellX=getGridCell(position.getLongitude());
+    int cellY=getGridCell(position.getLatitude());
+    long groupHash=getGroupHash(linkToAdd);
+    boolean doAdd=!hasNearLink(linkToAdd,groupHash,cellX,cellY);
+    if (doAdd)
     {
-      links=new ArrayList<MapLink>();
-      _sortedLinks.put(key,links);
+      //System.out.println("Added link: "+linkToAdd);
+      _links.add(linkToAdd);
+      long key=buildKey(groupHash,cellX,cellY);
+      List<MapLink> links=_grid.get(key);
+      if (links==null)
+      {
+        links=new ArrayList<MapLink>();
+        _grid.put(key,links);
+      }
+      links.add(linkToAdd);
+    }
+    else
+    {
+      //System.out.println("Ignored: "+linkToAdd);
     }
-    addLink(links,link);
   }
 
-  private void addLink(List<MapLink> links, MapLink linkToAdd)
+  private boolean hasNearLink(MapLink linkToAdd, long groupHash, int cellX, int cellY)
   {
-    boolean doAdd=true;
-    if (links.size()>0)
+    GeoPoint position=linkToAdd.getPosition();
+    for(int x=cellX-1;x<=cellX+1;x++)
     {
-      for(MapLink link : links)
+      for(int y=cellY-1;y<=cellY+1;y++)
       {
-        if (areNearEnough(link.getPosition(),linkToAdd.getPosition()))
+        List<MapLink> links=_grid.get(buildKey(groupHash,x,y));
+        if (links!=null)
         {
-          doAdd=false;
-          break;
+          for(MapLink link : links)
+          {
+            if ((sameGroup(link,linkToAdd)) && (areNearEnough(link.getPosition(),position)))
+            {
+              return true;
+            }
+          }
         }
       }
     }
-    if (doAdd)
-    {
-      //System.out.println("Added link: "+linkToAdd);
-      _links.add(linkToAdd);
-      links.add(linkToAdd);
-    }
-    else
-    {
-      //System.out.println("Ignored: "+linkToAdd);
-    }
+    return false;
   }
 
   private boolean areNearEnough(GeoPoint p1, GeoPoint p2)
@@ -78,13 +100,29 @@ public class LinksStorage
     return d2<THRESHOLD;
   }
 
-  private String buildKey(MapLink link)
+  private static boolean sameGroup(MapLink link1, MapLink link2)
+  {
+    return (link1.getParentId()==link2.getParentId())
+        && (link1.getContentLayerId()==link2.getContentLayerId())
+        && (link1.getTargetMapKey()==link2.getTargetMapKey());
+  }
+
+  private static long getGroupHash(MapLink link)
+  {
+    long hash=link.getParentId();
+    hash=hash*31+link.getContentLayerId();
+    hash=hash*31+link.getTargetMapKey();
+    return hash*0x9E3779B97F4A7C15L;
+  }
+
+  private static int getGridCell(float value)
+  {
+    return (int)Math.floor(value/GRID_CELL_SIZE);
+  }
+
+  private static long buildKey(long groupHash, int cellX, int cellY)
   {
-    int parentId=link.getParentId();
-    int contentLayer=link.getContentLayerId();
-    int targetId=link.getTargetMapKey();
-    String key=parentId+"-"+contentLayer+"-"+targetId;
-    return key;
+    return groupHash^((((long)cellX)<<32)|(cellY&0xFFFFFFFFL));
   }
 
   /**
@@ -3,8 +3,8 @@ package delta.games.lotro.tools.dat.maps;
 import java.io.File;
 
 import delta.games.lotro.dat.data.DataFacade;
-import delta.games.lotro.dat.utils.BufferUtils;
 import delta.games.lotro.maps.data.basemaps.GeoreferencedBasemapsManager;
+import delta.games.lotro.tools.dat.utils.index.DidClassIndexManager;
 
 /**
  * Get private encounters (instances) from DAT files.
@@ -33,17 +33,10 @@ public class MainDatDungeonsLoader
    */
   public void doIt()
   {
-    for(int id=0x70000000;id<=0x77FFFFFF;id++)
+    int[] ids=DidClassIndexManager.getDids(_facade,691);
+    for(int id : ids)
     {
-      byte[] data=_facade.loadData(id);
-      if (data!=null)
-      {
-        int classDefIndex=BufferUtils.getDoubleWordAt(data,4);
-        if (classDefIndex==691)
-        {
-          _loader.getDungeon(id);
-        }
-      }
+      _loader.getDungeon(id);
     }
     _loader.save();
     _basemapsManager.write();
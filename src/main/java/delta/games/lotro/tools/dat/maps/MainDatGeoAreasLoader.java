@@ -2,9 +2,10 @@ package delta.games.lotro.tools.dat.maps;
 
 import delta.common.utils.files.archives.DirectoryArchiver;
 import delta.games.lotro.dat.data.DataFacade;
-import delta.games.lotro.dat.utils.BufferUtils;
 import delta.games.lotro.lore.maps.io.xml.GeoAreasXMLWriter;
 import delta.games.lotro.tools.dat.GeneratedFiles;
+import delta.games.lotro.tools.dat.utils.index.DidClassIndex;
+import delta.games.lotro.tools.dat.utils.index.DidClassIndexManager;
 
 /**
  * Get geographic areas from DAT files.
@@ -30,24 +31,22 @@ public class MainDatGeoAreasLoader
    */
   public void doIt()
   {
-    for(int id=0x70000000;id<=0x77FFFFFF;id++)
+    DidClassIndex index=DidClassIndexManager.getInstance().getIndex(_facade);
+    int[] ids=index.getDids(690,692,180);
+    for(int id : ids)
     {
-      byte[] data=_facade.loadData(id);
-      if (data!=null)
+      int classDefIndex=index.getClassIndex(id);
+      if (classDefIndex==690)
       {
-        int classDefIndex=BufferUtils.getDoubleWordAt(data,4);
-        if (classDefIndex==690)
-        {
-          _loader.getArea(id);
-        }
-        else if (classDefIndex==692)
-        {
-          _loader.getTerritory(id);
-        }
-        else if (classDefIndex==180)
-        {
-          _loader.getRegion(id);
-        }
+        _loader.getArea(id);
+      }
+      else if (classDefIndex==692)
+      {
+        _loader.getTerritory(id);
+      }
+      else if (classDefIndex==180)
+      {
+        _loader.getRegion(id);
       }
     }
     // Save geo areas
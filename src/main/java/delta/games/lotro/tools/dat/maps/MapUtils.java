@@ -12,16 +12,9 @@ import javax.imageio.stream.ImageInputStream;
 
 import org.apache.log4j.Logger;
 
-import delta.games.lotro.common.Identifiable;
 import delta.games.lotro.dat.data.PropertiesSet;
 import delta.games.lotro.dat.loaders.PositionDecoder;
 import delta.games.lotro.lore.maps.AbstractMap;
-import delta.games.lotro.lore.maps.Area;
-import delta.games.lotro.lore.maps.Dungeon;
-import delta.games.lotro.lore.maps.DungeonsManager;
-import delta.games.lotro.lore.maps.GeoAreasManager;
-import delta.games.lotro.lore.maps.ParchmentMap;
-import delta.games.lotro.lore.maps.ParchmentMapsManager;
 import delta.games.lotro.maps.data.GeoBox;
 import delta.games.lotro.maps.data.GeoPoint;
 import delta.games.lotro.maps.data.GeoReference;
@@ -133,36 +126,16 @@ public class MapUtils
    */
   public static AbstractMap findMapForZone(int zoneId)
   {
-    Identifiable zone=getZone(zoneId);
-    if (zone instanceof Dungeon)
-    {
-      return (AbstractMap)zone;
-    }
-    if (zone instanceof Area)
-    {
-      // Find parent map...
-      ParchmentMapsManager parchmentMapsManager=ParchmentMapsManager.getInstance();
-      ParchmentMap parchmentMap=parchmentMapsManager.getParchmentMapForArea(zoneId);
-      if (parchmentMap!=null)
-      {
-        return parchmentMap;
-      }
-    }
-    return null;
+    return ZoneMapsTable.getInstance().getMap(zoneId);
   }
 
-  private static Identifiable getZone(int zoneId)
+  /**
+   * Find the maps (Dungeon/ParchmentMap) for some zones (Dungeon/Area)
+   * @param zoneIds Zone identifiers.
+   * @return the found maps (<code>null</code> entries for zones with no map).
+   */
+  public static AbstractMap[] findMapsForZones(int[] zoneIds)
   {
-    // Dungeon?
-    DungeonsManager dungeonsManager=DungeonsManager.getInstance();
-    Dungeon dungeon=dungeonsManager.getDungeonById(zoneId);
-    if (dungeon!=null)
-    {
-      return dungeon;
-    }
-    // Area?
-    GeoAreasManager geoAreasManager=GeoAreasManager.getInstance();
-    Area area=geoAreasManager.getAreaById(zoneId);
-    return area;
+    return ZoneMapsTable.getInstance().getMaps(zoneIds);
   }
 }
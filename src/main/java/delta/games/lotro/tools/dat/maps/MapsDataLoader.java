@@ -1,6 +1,15 @@
 package delta.games.lotro.tools.dat.maps;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import delta.games.lotro.dat.data.DatPosition;
 import delta.games.lotro.dat.data.DataFacade;
@@ -11,12 +20,13 @@ import delta.games.lotro.dat.data.geo.ContentLayerGeoData;
 import delta.games.lotro.dat.data.geo.DidGeoData;
 import delta.games.lotro.dat.data.geo.GeoData;
 import delta.games.lotro.dat.loaders.wstate.QuestEventTargetLocationLoader;
-import delta.games.lotro.dat.utils.DataIdentificationTools;
 import delta.games.lotro.maps.data.MapsManager;
 import delta.games.lotro.maps.data.categories.CategoriesManager;
 import delta.games.lotro.tools.dat.maps.data.LandBlockInfo;
 import delta.games.lotro.tools.dat.maps.landblocks.LandblockGeneratorsAnalyzer;
 import delta.games.lotro.tools.dat.maps.landblocks.LandblockInfoLoader;
+import delta.games.lotro.tools.dat.maps.landblocks.LandblocksPresence;
+import delta.games.lotro.tools.dat.maps.landblocks.LandblocksPresenceManager;
 
 /**
  * Loader for maps data.
@@ -24,7 +34,17 @@ import delta.games.lotro.tools.dat.maps.landblocks.LandblockInfoLoader;
  */
 public class MapsDataLoader
 {
+  /**
+   * Last analyzed block coordinate.
+   */
+  private static final int LAST_BLOCK=0xFE;
+  /**
+   * Maximum number of stripes in flight, for each thread.
+   */
+  private static final int MAX_PENDING_STRIPES_PER_THREAD=4;
+
   private DataFacade _facade;
+  private int _nbThreads;
   private MapsDataManager _mapsDataMgr;
   private MarkersLoadingUtils _markerUtils;
 
@@ -33,9 +53,21 @@ public class MapsDataLoader
    * @param facade Data facade.
    */
   public MapsDataLoader(DataFacade facade)
+  {
+    this(facade,Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Constructor.
+   * @param facade Data facade.
+   * @param nbThreads Number of threads to use for the landblocks analysis.
+   */
+  public MapsDataLoader(DataFacade facade, int nbThreads)
   {
     _facade=facade;
+    _nbThreads=nbThreads;
     _mapsDataMgr=new MapsDataManager(facade);
+    _mapsDataMgr.setNbThreads(nbThreads);
   }
 
   /**
@@ -76,6 +108,7 @@ public class MapsDataLoader
       loadPositions(data);
       long now2=System.currentTimeMillis();
       System.out.println("QETL took: "+(now2-now1)+"ms");
+      System.out.println(DataIdentificationCache.getInstance().getStatistics());
     }
     // Landblock analyser
     {
@@ -84,6 +117,7 @@ public class MapsDataLoader
       analyzeLandblocks();
       long now2=System.currentTimeMillis();
       System.out.println("Landblocks took: "+(now2-now1)+"ms");
+      System.out.println(DataIdentificationCache.getInstance().getStatistics());
     }
     // Prune categories
     MainCategoriesPruner pruner=new MainCategoriesPruner(_mapsDataMgr.getMapsManager());
@@ -91,6 +125,7 @@ public class MapsDataLoader
 
     // Save markers
     _mapsDataMgr.write();
+    DataIdentificationCache.getInstance().reset();
   }
 
   private void initCategories(CategoriesManager categoriesManager)
@@ -102,27 +137,175 @@ public class MapsDataLoader
 
   private void analyzeLandblocks()
   {
+    if (_nbThreads>1)
+    {
+      analyzeLandblocksInParallel();
+      return;
+    }
+    LandblocksPresence presence=LandblocksPresenceManager.getInstance().getPresence(_facade);
     LandblockInfoLoader lbiLoader=new LandblockInfoLoader(_facade);
     LandblockGeneratorsAnalyzer analyzer=new LandblockGeneratorsAnalyzer(_facade,_markerUtils);
-    int[] regions={1,2,3,4,14};
-    for(int region : regions)
+    for(int region : presence.getRegions())
     {
       System.out.println("Region "+region);
-      for(int blockX=0;blockX<=0xFE;blockX++)
+      for(int blockX : getBlocksX(presence,region))
       {
-        //System.out.println("X="+blockX);
-        for(int blockY=0;blockY<=0xFE;blockY++)
+        analyzeStripe(lbiLoader,analyzer,region,blockX,presence.getBlocksY(region,blockX));
+      }
+    }
+  }
+
+  /**
+   * Analyze landblocks in parallel.
+   * <p>
+   * Each stripe of present landblocks (a region and a block X) is analyzed by a worker thread,
+   * with its own data facade. Found markers are kept in a buffer for each stripe, and then registered
+   * in the stripes order, so that the generated markers do not depend on the number of threads.
+   * The number of stripes in flight is bounded, to bound the number of buffered markers.
+   */
+  private void analyzeLandblocksInParallel()
+  {
+    final LandblocksPresence presence=LandblocksPresenceManager.getInstance().getPresence(_facade);
+    final List<DataFacade> facades=new ArrayList<DataFacade>();
+    final ThreadLocal<DataFacade> workerFacade=new ThreadLocal<DataFacade>()
+    {
+      @Override
+      protected DataFacade initialValue()
+      {
+        DataFacade facade=new DataFacade();
+        synchronized(facades)
+        {
+          facades.add(facade);
+        }
+        return facade;
+      }
+    };
+    final ThreadLocal<LandblockInfoLoader> workerLoader=new ThreadLocal<LandblockInfoLoader>()
+    {
+      @Override
+      protected LandblockInfoLoader initialValue()
+      {
+        return new LandblockInfoLoader(workerFacade.get());
+      }
+    };
+    // Stripes, in the registration order
+    List<Callable<BufferedMarkersSink>> stripes=new ArrayList<Callable<BufferedMarkersSink>>();
+    List<Integer> stripesRegions=new ArrayList<Integer>();
+    for(final int region : presence.getRegions())
+    {
+      for(final int blockX : getBlocksX(presence,region))
+      {
+        Callable<BufferedMarkersSink> stripe=new Callable<BufferedMarkersSink>()
         {
-          LandBlockInfo lbi=lbiLoader.loadLandblockInfo(region,blockX,blockY);
-          if (lbi!=null)
+          @Override
+          public BufferedMarkersSink call()
           {
-            analyzer.handleLandblock(lbi);
+            BufferedMarkersSink sink=new BufferedMarkersSink();
+            LandblockGeneratorsAnalyzer analyzer=new LandblockGeneratorsAnalyzer(workerFacade.get(),sink);
+            analyzeStripe(workerLoader.get(),analyzer,region,blockX,presence.getBlocksY(region,blockX));
+            return sink;
           }
+        };
+        stripes.add(stripe);
+        stripesRegions.add(Integer.valueOf(region));
+      }
+    }
+    int maxPending=_nbThreads*MAX_PENDING_STRIPES_PER_THREAD;
+    ExecutorService executor=Executors.newFixedThreadPool(_nbThreads);
+    try
+    {
+      LinkedList<Future<BufferedMarkersSink>> pending=new LinkedList<Future<BufferedMarkersSink>>();
+      int nbStripes=stripes.size();
+      int nbSubmitted=0;
+      Integer currentRegion=null;
+      for(int i=0;i<nbStripes;i++)
+      {
+        while ((nbSubmitted<nbStripes) && (nbSubmitted-i<maxPending))
+        {
+          pending.add(executor.submit(stripes.get(nbSubmitted)));
+          nbSubmitted++;
+        }
+        // Register markers in the stripes order
+        Integer region=stripesRegions.get(i);
+        if (!region.equals(currentRegion))
+        {
+          System.out.println("Region "+region);
+          currentRegion=region;
+        }
+        BufferedMarkersSink sink=waitForStripe(pending.removeFirst());
+        sink.flush(_markerUtils);
+      }
+    }
+    finally
+    {
+      executor.shutdownNow();
+      awaitTermination(executor);
+      synchronized(facades)
+      {
+        for(DataFacade facade : facades)
+        {
+          facade.dispose();
         }
       }
     }
   }
 
+  private void awaitTermination(ExecutorService executor)
+  {
+    try
+    {
+      executor.awaitTermination(Long.MAX_VALUE,TimeUnit.MILLISECONDS);
+    }
+    catch(InterruptedException ie)
+    {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private BufferedMarkersSink waitForStripe(Future<BufferedMarkersSink> stripe)
+  {
+    try
+    {
+      return stripe.get();
+    }
+    catch(InterruptedException ie)
+    {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while analyzing landblocks",ie);
+    }
+    catch(ExecutionException ee)
+    {
+      throw new IllegalStateException("Landblocks analysis failed",ee.getCause());
+    }
+  }
+
+  private int[] getBlocksX(LandblocksPresence presence, int region)
+  {
+    int[] blocksX=presence.getBlocksX(region);
+    int count=0;
+    while ((count<blocksX.length) && (blocksX[count]<=LAST_BLOCK))
+    {
+      count++;
+    }
+    return (count==blocksX.length)?blocksX:Arrays.copyOf(blocksX,count);
+  }
+
+  private void analyzeStripe(LandblockInfoLoader lbiLoader, LandblockGeneratorsAnalyzer analyzer, int region, int blockX, int[] blocksY)
+  {
+    for(int blockY : blocksY)
+    {
+      if (blockY>LAST_BLOCK)
+      {
+        break;
+      }
+      LandBlockInfo lbi=lbiLoader.loadLandblockInfo(region,blockX,blockY,LandblockGeneratorsAnalyzer.SECTIONS);
+      if (lbi!=null)
+      {
+        analyzer.handleLandblock(lbi);
+      }
+    }
+  }
+
   private void loadPositions(GeoData data)
   {
     // Word geo data
@@ -151,7 +334,7 @@ public class MapsDataLoader
     int layerId=data.getContentLayer();
     for(Integer did : data.getDids())
     {
-      DataIdentification dataId=DataIdentificationTools.identify(_facade,did.intValue());
+      DataIdentification dataId=DataIdentificationCache.getInstance().identify(_facade,did.intValue());
       if (!MarkerUtils.accept(dataId))
       {
         continue;
@@ -174,7 +357,7 @@ public class MapsDataLoader
       {
         continue;
       }
-      DataIdentification dataId=DataIdentificationTools.identify(_facade,did);
+      DataIdentification dataId=DataIdentificationCache.getInstance().identify(_facade,did);
       DatPosition position=dataItem.getPosition();
       _markerUtils.buildMarker(position,dataId,0); // Assume world marker!
     }
@@ -1,7 +1,10 @@
 package delta.games.lotro.tools.dat.maps;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import delta.games.lotro.dat.data.DataFacade;
@@ -10,8 +13,8 @@ import delta.games.lotro.maps.data.MapsManager;
 import delta.games.lotro.maps.data.Marker;
 import delta.games.lotro.maps.data.categories.CategoriesConstants;
 import delta.games.lotro.maps.data.markers.GlobalMarkersManager;
-import delta.games.lotro.maps.data.markers.LandblockMarkersManager;
 import delta.games.lotro.maps.data.markers.index.MarkersIndexesManager;
+import delta.games.lotro.tools.dat.GeneratedFiles;
 import delta.games.lotro.tools.dat.maps.classification.Classification;
 import delta.games.lotro.tools.dat.maps.classification.CropClassification;
 import delta.games.lotro.tools.dat.maps.classification.MarkerClassifier;
@@ -30,6 +33,7 @@ public class MapsDataManager
   private Map<Integer,MarkersStore> _clStore;
   private MarkerClassifier _classifier;
   private ResourcesMapsBuilder _resourcesMapsBuilder;
+  private int _nbThreads;
 
   /**
    * Constructor.
@@ -43,7 +47,18 @@ public class MapsDataManager
     _didStore=new HashMap<Integer,MarkersStore>();
     _clStore=new HashMap<Integer,MarkersStore>();
     _classifier=new MarkerClassifier(facade);
+    _classifier.setTableFile(GeneratedFiles.MARKER_CLASSIFICATIONS);
     _resourcesMapsBuilder=new ResourcesMapsBuilder();
+    _nbThreads=1;
+  }
+
+  /**
+   * Set the number of threads to use for markers post-processing.
+   * @param nbThreads Number of threads.
+   */
+  public void setNbThreads(int nbThreads)
+  {
+    _nbThreads=nbThreads;
   }
 
   /**
@@ -138,34 +153,61 @@ public class MapsDataManager
 
   private void buildIndexes()
   {
-    // DID
-    for(Integer did : _didStore.keySet())
+    // Collect marker IDs of all stores
+    List<MarkersStore> didStores=getSortedStores(_didStore);
+    List<MarkersStore> clStores=getSortedStores(_clStore);
+    List<MarkersStore> allStores=new ArrayList<MarkersStore>(didStores);
+    allStores.addAll(clStores);
+    List<int[]> allIds=collectMarkerIds(allStores);
+    // Fill indexes, in stores order
+    int nbDidStores=didStores.size();
+    for(int i=0;i<nbDidStores;i++)
     {
-      MarkersStore store=_didStore.get(did);
-      for(Integer markerId : store.getMarkers())
+      int key=didStores.get(i).getKey();
+      for(int markerId : allIds.get(i))
       {
-        _index.getDidIndex(did.intValue()).addMarker(markerId.intValue());
+        _index.getDidIndex(key).addMarker(markerId);
       }
     }
-    // CL
-    for(Integer contentLayerId : _clStore.keySet())
+    int nbClStores=clStores.size();
+    for(int i=0;i<nbClStores;i++)
     {
-      MarkersStore store=_clStore.get(contentLayerId);
-      for(Integer markerId : store.getMarkers())
+      int key=clStores.get(i).getKey();
+      for(int markerId : allIds.get(nbDidStores+i))
       {
-        _index.getContentLayerIndex(contentLayerId.intValue()).addMarker(markerId.intValue());
+        _index.getContentLayerIndex(key).addMarker(markerId);
       }
     }
   }
 
+  private List<MarkersStore> getSortedStores(Map<Integer,MarkersStore> storesMap)
+  {
+    List<Integer> keys=new ArrayList<Integer>(storesMap.keySet());
+    Collections.sort(keys);
+    List<MarkersStore> ret=new ArrayList<MarkersStore>();
+    for(Integer key : keys)
+    {
+      ret.add(storesMap.get(key));
+    }
+    return ret;
+  }
+
+  private List<int[]> collectMarkerIds(List<MarkersStore> stores)
+  {
+    // Cheap pass (a sort per store): a thread pool would cost more than the work
+    List<int[]> ret=new ArrayList<int[]>();
+    for(MarkersStore store : stores)
+    {
+      ret.add(store.getMarkerIds());
+    }
+    return ret;
+  }
+
   private void cleanupMarkers()
   {
     MarkerDuplicatesRemover remover=new MarkerDuplicatesRemover();
     GlobalMarkersManager markersMgr=_mapsManager.getMarkersManager();
-    for(LandblockMarkersManager landblockMarkersMgr : markersMgr.getAllManagers())
-    {
-      remover.handleLandblock(landblockMarkersMgr);
-    }
+    remover.handleLandblocks(markersMgr.getAllManagers(),_nbThreads);
     int nbRemovedMarkers=remover.getRemovedMarkers();
     int nbTotalMarkers=remover.getTotalMarkers();
     System.out.println("Removed "+nbRemovedMarkers+" markers / "+nbTotalMarkers);
@@ -183,5 +225,6 @@ public class MapsDataManager
     _index.writeIndexes();
     _mapsManager.getLinksManager().write();
     _resourcesMapsBuilder.write();
+    _classifier.saveTable();
   }
 }
@@ -1,10 +1,15 @@
 package delta.games.lotro.tools.dat.maps;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.log4j.Logger;
 
@@ -15,6 +20,9 @@ import delta.games.lotro.maps.data.markers.comparators.MarkerPositionComparator;
 
 /**
  * Removes duplicate markers.
+ * <p>
+ * Landblocks are independent, so they may be handled in parallel. The result does not depend
+ * on the number of threads: each landblock is handled the same way, whatever the thread.
  * @author DAM
  */
 public class MarkerDuplicatesRemover
@@ -25,52 +33,122 @@ public class MarkerDuplicatesRemover
   private int _totalMarkers=0;
 
   /**
-   * Handle a landblock.
-   * @param markersMgr Markers manager.
+   * Handle some landblocks.
+   * @param markersMgrs Markers managers of the landblocks to handle.
+   * @param nbThreads Number of threads to use.
    */
-  public void handleLandblock(LandblockMarkersManager markersMgr)
+  public void handleLandblocks(Collection<LandblockMarkersManager> markersMgrs, int nbThreads)
   {
-    List<Marker> markers=markersMgr.getMarkers();
-    _totalMarkers+=markers.size();
-    Map<Integer,List<Marker>> groupedByDid=groupByDid(markers);
-    for(Map.Entry<Integer,List<Marker>> entry : groupedByDid.entrySet())
+    if (nbThreads<=1)
     {
-      List<Marker> markersForDid=entry.getValue();
-      if (markersForDid.size()>1)
+      for(LandblockMarkersManager markersMgr : markersMgrs)
+      {
+        handleLandblock(markersMgr);
+      }
+      return;
+    }
+    ExecutorService executor=Executors.newFixedThreadPool(nbThreads);
+    try
+    {
+      List<Future<MarkerDuplicatesRemover>> tasks=new ArrayList<Future<MarkerDuplicatesRemover>>();
+      for(final LandblockMarkersManager markersMgr : markersMgrs)
+      {
+        Callable<MarkerDuplicatesRemover> task=new Callable<MarkerDuplicatesRemover>()
+        {
+          @Override
+          public MarkerDuplicatesRemover call()
+          {
+            MarkerDuplicatesRemover remover=new MarkerDuplicatesRemover();
+            remover.handleLandblock(markersMgr);
+            return remover;
+          }
+        };
+        tasks.add(executor.submit(task));
+      }
+      // Merge counters
+      for(Future<MarkerDuplicatesRemover> task : tasks)
       {
-        handleDidList(markersMgr,markersForDid);
+        MarkerDuplicatesRemover remover=waitForTask(task);
+        _removedMarkers+=remover._removedMarkers;
+        _totalMarkers+=remover._totalMarkers;
       }
     }
+    finally
+    {
+      executor.shutdownNow();
+    }
   }
 
-  private Map<Integer,List<Marker>> groupByDid(List<Marker> markers)
+  private MarkerDuplicatesRemover waitForTask(Future<MarkerDuplicatesRemover> task)
   {
-    Map<Integer,List<Marker>> groupsMap=new HashMap<Integer,List<Marker>>();
-    for(Marker marker : markers)
+    try
+    {
+      return task.get();
+    }
+    catch(InterruptedException ie)
     {
-      Integer did=Integer.valueOf(marker.getDid());
-      List<Marker> markersForDid=groupsMap.get(did);
-      if (markersForDid==null)
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while removing duplicate markers",ie);
+    }
+    catch(ExecutionException ee)
+    {
+      throw new IllegalStateException("Duplicate markers removal failed",ee.getCause());
+    }
+  }
+
+  /**
+   * Handle a landblock.
+   * @param markersMgr Markers manager.
+   */
+  public void handleLandblock(LandblockMarkersManager markersMgr)
+  {
+    List<Marker> markers=new ArrayList<Marker>(markersMgr.getMarkers());
+    int nbMarkers=markers.size();
+    _totalMarkers+=nbMarkers;
+    // Sort by DID, then position (stable: markers with same DID and position keep their order)
+    final MarkerPositionComparator positionComparator=new MarkerPositionComparator();
+    Comparator<Marker> comparator=new Comparator<Marker>()
+    {
+      @Override
+      public int compare(Marker marker1, Marker marker2)
       {
-        markersForDid=new ArrayList<Marker>();
-        groupsMap.put(did,markersForDid);
+        int did1=marker1.getDid();
+        int did2=marker2.getDid();
+        if (did1!=did2)
+        {
+          return (did1<did2)?-1:1;
+        }
+        return positionComparator.compare(marker1,marker2);
+      }
+    };
+    Collections.sort(markers,comparator);
+    // Handle runs of markers with the same DID
+    int start=0;
+    while (start<nbMarkers)
+    {
+      int did=markers.get(start).getDid();
+      int end=start+1;
+      while ((end<nbMarkers) && (markers.get(end).getDid()==did))
+      {
+        end++;
+      }
+      if (end-start>1)
+      {
+        handleDidList(markersMgr,markers,start,end);
       }
-      markersForDid.add(marker);
+      start=end;
     }
-    return groupsMap;
   }
 
-  private void handleDidList(LandblockMarkersManager markersMgr, List<Marker> markers)
+  private void handleDidList(LandblockMarkersManager markersMgr, List<Marker> markers, int start, int end)
   {
-    // Sort by position
-    Collections.sort(markers,new MarkerPositionComparator());
-    Marker firstMarker=markers.get(0);
+    // Markers are sorted by position
+    Marker firstMarker=markers.get(start);
     //int did=firstMarker.getDid();
-    //System.out.println("DID="+did+" => "+markers.size());
-    int nbMarkers=markers.size();
+    //System.out.println("DID="+did+" => "+(end-start));
     GeoPoint position=firstMarker.getPosition();
     Marker previous=firstMarker;
-    for(int i=1;i<nbMarkers;i++)
+    for(int i=start+1;i<end;i++)
     {
       Marker currentMarker=markers.get(i);
       GeoPoint newPosition=currentMarker.getPosition();
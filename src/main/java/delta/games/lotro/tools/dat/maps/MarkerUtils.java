@@ -127,4 +127,26 @@ public class MarkerUtils
     int blockY=bigYBlock*16+smallYBlock;
     return new BlockReference(region,blockX,blockY);
   }
+
+  /**
+   * Get a packed block key from a marker ID.
+   * @param markerId Marker identifier.
+   * @return A block key, consistent with {@link #getBlockKey(int, int, int)}.
+   */
+  public static int getBlockKeyForMarker(int markerId)
+  {
+    return (markerId>>>12)&0xFFFFF;
+  }
+
+  /**
+   * Get a packed block key.
+   * @param region Region.
+   * @param blockX Block X.
+   * @param blockY Block Y.
+   * @return A block key.
+   */
+  public static int getBlockKey(int region, int blockX, int blockY)
+  {
+    return ((region&0xF)<<16)|((blockX>>4)<<12)|((blockY>>4)<<8)|((blockX&0xF)<<4)|(blockY&0xF);
+  }
 }
@@ -16,7 +16,6 @@ import delta.games.lotro.dat.data.DataIdentification;
 import delta.games.lotro.dat.data.enums.EnumMapper;
 import delta.games.lotro.dat.loaders.PositionDecoder;
 import delta.games.lotro.dat.utils.BitSetUtils;
-import delta.games.lotro.dat.utils.DataIdentificationTools;
 import delta.games.lotro.lore.maps.AbstractMap;
 import delta.games.lotro.lore.maps.Area;
 import delta.games.lotro.lore.maps.Dungeon;
@@ -36,7 +35,7 @@ import delta.games.lotro.tools.dat.maps.landblocks.LandblocksManager;
  * Marker loading utilities.
  * @author DAM
  */
-public class MarkersLoadingUtils
+public class MarkersLoadingUtils implements MarkersSink
 {
   private static final Logger LOGGER=Logger.getLogger(MarkersLoadingUtils.class);
   private static final boolean DO_CHECK=false;
@@ -80,7 +79,7 @@ public class MarkersLoadingUtils
     if (noteDID!=0)
     {
       // {Milestone=327, Landmark=2459, Waypoint=1308, DoorTemplate=874, IItem=857, Hotspot=267, NPCTemplate=4273}
-      dataId=DataIdentificationTools.identify(_facade,noteDID);
+      dataId=DataIdentificationCache.getInstance().identify(_facade,noteDID);
       IntegerHolder counter=_typesCount.get(dataId.getWClassName());
       if (counter==null)
       {
@@ -136,6 +135,12 @@ public class MarkersLoadingUtils
     return marker;
   }
 
+  @Override
+  public void addMarker(DatPosition position, DataIdentification dataId, int layerId)
+  {
+    buildMarker(position,dataId,layerId);
+  }
+
   /**
    * Load a marker.
    * @param position Position.
@@ -202,7 +207,7 @@ public class MarkersLoadingUtils
         LOGGER.warn("Parent mismatch: got="+whereId+", expected="+parentArea);
       }
     }
-    DataIdentification dataId=DataIdentificationTools.identify(_facade,noteDID);
+    DataIdentification dataId=DataIdentificationCache.getInstance().identify(_facade,noteDID);
     if (dataId==null)
     {
       return null;
@@ -272,7 +277,7 @@ public class MarkersLoadingUtils
    */
   public void addLink(DatPosition position, int areaDID, int dungeonDID, int noteDID, DatPosition destPosition, Identifiable destArea, Object[] contentLayersArray, String text)
   {
-    DataIdentification dataId=DataIdentificationTools.identify(_facade,noteDID);
+    DataIdentification dataId=DataIdentificationCache.getInstance().identify(_facade,noteDID);
     if (dataId==null)
     {
       return;
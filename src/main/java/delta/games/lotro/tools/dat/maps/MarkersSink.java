@@ -0,0 +1,19 @@
+package delta.games.lotro.tools.dat.maps;
+
+import delta.games.lotro.dat.data.DatPosition;
+import delta.games.lotro.dat.data.DataIdentification;
+
+/**
+ * Sink for the markers found in DAT data.
+ * @author DAM
+ */
+public interface MarkersSink
+{
+  /**
+   * Add a marker.
+   * @param position Position.
+   * @param dataId Data identifier.
+   * @param layerId Content layer identifier.
+   */
+  void addMarker(DatPosition position, DataIdentification dataId, int layerId);
+}
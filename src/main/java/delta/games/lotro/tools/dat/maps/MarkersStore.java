@@ -1,9 +1,8 @@
 package delta.games.lotro.tools.dat.maps;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
 
 import delta.games.lotro.maps.data.Marker;
 
@@ -36,17 +35,32 @@ public class MarkersStore
   }
 
   /**
-   * Get the markers.
-   * @return a set of markers.
+   * Get the identifiers of the managed markers.
+   * <p>
+   * Identifiers are read when this method is called, since they may change
+   * when duplicate markers are merged.
+   * @return a sorted array of distinct marker identifiers.
    */
-  public Set<Integer> getMarkers()
+  public int[] getMarkerIds()
   {
-    Set<Integer> ret=new HashSet<Integer>();
-    for(Marker marker : _markers)
+    int nbMarkers=_markers.size();
+    int[] ids=new int[nbMarkers];
+    for(int i=0;i<nbMarkers;i++)
     {
-      ret.add(Integer.valueOf(marker.getId()));
+      ids[i]=_markers.get(i).getId();
     }
-    return ret;
+    Arrays.sort(ids);
+    // Remove duplicates
+    int size=0;
+    for(int i=0;i<nbMarkers;i++)
+    {
+      if ((size==0) || (ids[i]!=ids[size-1]))
+      {
+        ids[size]=ids[i];
+        size++;
+      }
+    }
+    return (size<nbMarkers)?Arrays.copyOf(ids,size):ids;
   }
 
   /**
@@ -0,0 +1,157 @@
+package delta.games.lotro.tools.dat.maps;
+
+import delta.games.lotro.common.Identifiable;
+import delta.games.lotro.lore.maps.AbstractMap;
+import delta.games.lotro.lore.maps.Area;
+import delta.games.lotro.lore.maps.Dungeon;
+import delta.games.lotro.lore.maps.DungeonsManager;
+import delta.games.lotro.lore.maps.GeoAreasManager;
+import delta.games.lotro.lore.maps.ParchmentMap;
+import delta.games.lotro.lore.maps.ParchmentMapsManager;
+import delta.games.lotro.tools.dat.utils.IntObjectMap;
+
+/**
+ * Table to get the map (Dungeon/ParchmentMap) of a zone (Dungeon/Area).
+ * <p>
+ * The table is built in a single pass over the dungeons and areas, on first use.
+ * Zones that are not found in the table (unknown at build time) are resolved on demand.
+ * Results (including zones with no map) are kept in a table keyed by the zone identifier.
+ * The table shall be reset when the maps data is reloaded.
+ * @author DAM
+ */
+public class ZoneMapsTable
+{
+  private static final ZoneMapsTable _instance=new ZoneMapsTable();
+
+  private static final Object NO_MAP=new Object();
+
+  private IntObjectMap<Object> _table;
+  private boolean _built;
+
+  /**
+   * Get the reference instance of this class.
+   * @return the reference instance of this class.
+   */
+  public static ZoneMapsTable getInstance()
+  {
+    return _instance;
+  }
+
+  /**
+   * Private constructor.
+   */
+  private ZoneMapsTable()
+  {
+    _table=new IntObjectMap<Object>();
+  }
+
+  /**
+   * Get the map for a zone.
+   * @param zoneId Zone identifier.
+   * @return the found map or <code>null</code>.
+   */
+  public synchronized AbstractMap getMap(int zoneId)
+  {
+    if (!_built)
+    {
+      build();
+    }
+    Object value=_table.get(zoneId);
+    if (value==null)
+    {
+      AbstractMap map=resolveMap(zoneId);
+      value=(map!=null)?map:NO_MAP;
+      _table.put(zoneId,value);
+    }
+    return (value!=NO_MAP)?(AbstractMap)value:null;
+  }
+
+  /**
+   * Get the maps for some zones.
+   * @param zoneIds Zone identifiers.
+   * @return An array of maps, with the same size and order as the given zones
+   * (<code>null</code> entries for zones with no map).
+   */
+  public synchronized AbstractMap[] getMaps(int[] zoneIds)
+  {
+    AbstractMap[] ret=new AbstractMap[zoneIds.length];
+    for(int i=0;i<zoneIds.length;i++)
+    {
+      ret[i]=getMap(zoneIds[i]);
+    }
+    return ret;
+  }
+
+  /**
+   * Get the number of resolved zones.
+   * @return a zones count.
+   */
+  public synchronized int getSize()
+  {
+    return _table.size();
+  }
+
+  /**
+   * Clear the table.
+   */
+  public synchronized void reset()
+  {
+    _table.clear();
+    _built=false;
+  }
+
+  private void build()
+  {
+    for(Dungeon dungeon : DungeonsManager.getInstance().getDungeons())
+    {
+      _table.put(dungeon.getIdentifier(),dungeon);
+    }
+    ParchmentMapsManager parchmentMapsManager=ParchmentMapsManager.getInstance();
+    for(Area area : GeoAreasManager.getInstance().getAreas())
+    {
+      int areaId=area.getIdentifier();
+      // Dungeons first, as in resolveMap()
+      if (_table.get(areaId)==null)
+      {
+        ParchmentMap parchmentMap=parchmentMapsManager.getParchmentMapForArea(areaId);
+        _table.put(areaId,(parchmentMap!=null)?parchmentMap:NO_MAP);
+      }
+    }
+    _built=true;
+  }
+
+  private AbstractMap resolveMap(int zoneId)
+  {
+    Identifiable zone=getZone(zoneId);
+    if (zone instanceof Dungeon)
+    {
+      return (AbstractMap)zone;
+    }
+    if (zone instanceof Area)
+    {
+      // Find parent map...
+      ParchmentMapsManager parchmentMapsManager=ParchmentMapsManager.getInstance();
+      ParchmentMap parchmentMap=parchmentMapsManager.getParchmentMapForArea(zoneId);
+      if (parchmentMap!=null)
+      {
+        return parchmentMap;
+      }
+    }
+    return null;
+  }
+
+  private Identifiable getZone(int zoneId)
+  {
+    // Dungeon?
+    DungeonsManager dungeonsManager=DungeonsManager.getInstance();
+    Dungeon dungeon=dungeonsManager.getDungeonById(zoneId);
+    if (dungeon!=null)
+    {
+      return dungeon;
+    }
+    // Area?
+    GeoAreasManager geoAreasManager=GeoAreasManager.getInstance();
+    Area area=geoAreasManager.getAreaById(zoneId);
+    return area;
+  }
+}
@@ -20,6 +20,24 @@ public class CategoryClassification extends Classification
     _label=label;
   }
 
+  /**
+   * Get the category code.
+   * @return a category code.
+   */
+  public int getCode()
+  {
+    return _code;
+  }
+
+  /**
+   * Get the category label.
+   * @return a category label.
+   */
+  public String getLabel()
+  {
+    return _label;
+  }
+
   @Override
   public String toString()
   {
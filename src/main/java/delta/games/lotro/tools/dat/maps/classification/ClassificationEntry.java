@@ -0,0 +1,40 @@
+package delta.games.lotro.tools.dat.maps.classification;
+
+/**
+ * Classification of a DID, with the checksum of the data it was computed from.
+ * @author DAM
+ */
+public class ClassificationEntry
+{
+  private int _checksum;
+  private Classification _classification;
+
+  /**
+   * Constructor.
+   * @param checksum Checksum of the DID properties data.
+   * @param classification Classification (may be <code>null</code>).
+   */
+  public ClassificationEntry(int checksum, Classification classification)
+  {
+    _checksum=checksum;
+    _classification=classification;
+  }
+
+  /**
+   * Get the checksum of the DID properties data.
+   * @return a checksum.
+   */
+  public int getChecksum()
+  {
+    return _checksum;
+  }
+
+  /**
+   * Get the classification.
+   * @return a classification or <code>null</code>.
+   */
+  public Classification getClassification()
+  {
+    return _classification;
+  }
+}
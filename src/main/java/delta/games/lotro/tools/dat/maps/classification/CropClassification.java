@@ -10,10 +10,11 @@ public class CropClassification extends ResourceClassification
 {
   /**
    * Constructor.
+   * @param professionId Profession identifier.
    * @param level Crafting level.
    */
-  public CropClassification(CraftingLevel level)
+  public CropClassification(int professionId, CraftingLevel level)
   {
-    super(level);
+    super(professionId,level);
   }
 }
@@ -0,0 +1,267 @@
+package delta.games.lotro.tools.dat.maps.classification;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+
+import delta.games.lotro.lore.crafting.CraftingData;
+import delta.games.lotro.lore.crafting.CraftingLevel;
+import delta.games.lotro.lore.crafting.CraftingSystem;
+import delta.games.lotro.lore.crafting.Profession;
+
+/**
+ * Binary I/O for marker classifications tables.
+ * <p>
+ * Format: magic, version, classification logic version, number of entries, then for each entry:
+ * DID, checksum, classification type and type-specific data.
+ * @author DAM
+ */
+public class MarkerClassificationsIO
+{
+  private static final Logger LOGGER=Logger.getLogger(MarkerClassificationsIO.class);
+
+  private static final int MAGIC=0x4D4B434C; // MKCL
+  private static final int VERSION=2;
+
+  private static final int NONE=0;
+  private static final int RESOURCE=1;
+  private static final int CROP=2;
+  private static final int MONSTER=3;
+  private static final int ITEM=4;
+  private static final int NPC=5;
+  private static final int CATEGORY=6;
+
+  /**
+   * Load a classifications table from a file.
+   * @param from Source file.
+   * @param logicVersion Expected classification logic version.
+   * @return the loaded table or <code>null</code> if the file does not exist, could not be read
+   * or was written with another classification logic.
+   */
+  public static Map<Integer,ClassificationEntry> load(File from, int logicVersion)
+  {
+    if (!from.exists())
+    {
+      return null;
+    }
+    Map<Integer,ClassificationEntry> ret=null;
+    DataInputStream is=null;
+    try
+    {
+      is=new DataInputStream(new BufferedInputStream(new FileInputStream(from)));
+      int magic=is.readInt();
+      int version=is.readInt();
+      if ((magic!=MAGIC) || (version!=VERSION))
+      {
+        LOGGER.warn("Bad marker classifications file: "+from);
+        return null;
+      }
+      int fileLogicVersion=is.readInt();
+      if (fileLogicVersion!=logicVersion)
+      {
+        LOGGER.info("Marker classifications file is out of date (logic version "+fileLogicVersion+", expected "+logicVersion+"): "+from);
+        return null;
+      }
+      int count=is.readInt();
+      Map<Integer,ClassificationEntry> table=new HashMap<Integer,ClassificationEntry>(count*2);
+      for(int i=0;i<count;i++)
+      {
+        int did=is.readInt();
+        int checksum=is.readInt();
+        Classification classification=readClassification(is);
+        table.put(Integer.valueOf(did),new ClassificationEntry(checksum,classification));
+      }
+      ret=table;
+    }
+    catch(IOException ioe)
+    {
+      LOGGER.warn("Could not read marker classifications file: "+from,ioe);
+    }
+    catch(RuntimeException re)
+    {
+      LOGGER.warn("Could not decode marker classifications file: "+from,re);
+    }
+    finally
+    {
+      close(is);
+    }
+    return ret;
+  }
+
+  private static Classification readClassification(DataInputStream is) throws IOException
+  {
+    int type=is.readByte();
+    switch (type)
+    {
+      case NONE: return null;
+      case RESOURCE:
+      case CROP:
+      {
+        int professionId=is.readInt();
+        int tier=is.readInt();
+        CraftingData craftingData=CraftingSystem.getInstance().getData();
+        Profession profession=craftingData.getProfessionsRegistry().getProfessionById(professionId);
+        CraftingLevel level=(profession!=null)?profession.getByTier(tier):null;
+        if (level==null)
+        {
+          throw new IOException("Unknown crafting level: profession="+professionId+", tier="+tier);
+        }
+        return (type==CROP)?new CropClassification(professionId,level):new ResourceClassification(professionId,level);
+      }
+      case MONSTER: return new MonsterClassification(is.readBoolean());
+      case ITEM: return new ItemClassification(readString(is));
+      case NPC: return new NpcClassification(readString(is));
+      case CATEGORY:
+      {
+        int code=is.readInt();
+        String label=readString(is);
+        return new CategoryClassification(code,label);
+      }
+      default: throw new IOException("Unknown classification type: "+type);
+    }
+  }
+
+  /**
+   * Write a classifications table to a file.
+   * @param to Target file.
+   * @param table Table to write.
+   * @param logicVersion Classification logic version.
+   * @return <code>true</code> if it succeeds, <code>false</code> otherwise.
+   */
+  public static boolean write(File to, Map<Integer,ClassificationEntry> table, int logicVersion)
+  {
+    File parentDir=to.getParentFile();
+    if (!parentDir.exists())
+    {
+      parentDir.mkdirs();
+    }
+    List<Integer> dids=new ArrayList<Integer>(table.keySet());
+    Collections.sort(dids);
+    // Write to a temporary file first, so that an interrupted write never leaves a truncated table
+    File tmpFile=new File(parentDir,to.getName()+".tmp");
+    boolean ok=false;
+    DataOutputStream os=null;
+    try
+    {
+      os=new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+      os.writeInt(MAGIC);
+      os.writeInt(VERSION);
+      os.writeInt(logicVersion);
+      os.writeInt(dids.size());
+      for(Integer did : dids)
+      {
+        ClassificationEntry entry=table.get(did);
+        os.writeInt(did.intValue());
+        os.writeInt(entry.getChecksum());
+        writeClassification(os,entry.getClassification());
+      }
+      os.close();
+      os=null;
+      ok=true;
+    }
+    catch(IOException ioe)
+    {
+      LOGGER.warn("Could not write marker classifications file: "+to,ioe);
+    }
+    finally
+    {
+      close(os);
+    }
+    if (ok)
+    {
+      if (to.exists())
+      {
+        to.delete();
+      }
+      ok=tmpFile.renameTo(to);
+      if (!ok)
+      {
+        LOGGER.warn("Could not rename "+tmpFile+" to "+to);
+      }
+    }
+    if (!ok)
+    {
+      tmpFile.delete();
+    }
+    return ok;
+  }
+
+  private static void writeClassification(DataOutputStream os, Classification classification) throws IOException
+  {
+    if (classification instanceof ResourceClassification)
+    {
+      ResourceClassification resource=(ResourceClassification)classification;
+      os.writeByte((classification instanceof CropClassification)?CROP:RESOURCE);
+      os.writeInt(resource.getProfessionId());
+      os.writeInt(resource.getCraftingLevel().getTier());
+    }
+    else if (classification instanceof MonsterClassification)
+    {
+      os.writeByte(MONSTER);
+      os.writeBoolean(((MonsterClassification)classification).isCritter());
+    }
+    else if (classification instanceof ItemClassification)
+    {
+      os.writeByte(ITEM);
+      writeString(os,((ItemClassification)classification).getType());
+    }
+    else if (classification instanceof NpcClassification)
+    {
+      os.writeByte(NPC);
+      writeString(os,((NpcClassification)classification).getType());
+    }
+    else if (classification instanceof CategoryClassification)
+    {
+      CategoryClassification category=(CategoryClassification)classification;
+      os.writeByte(CATEGORY);
+      os.writeInt(category.getCode());
+      writeString(os,category.getLabel());
+    }
+    else
+    {
+      os.writeByte(NONE);
+    }
+  }
+
+  private static void writeString(DataOutputStream os, String value) throws IOException
+  {
+    os.writeBoolean(value!=null);
+    if (value!=null)
+    {
+      os.writeUTF(value);
+    }
+  }
+
+  private static String readString(DataInputStream is) throws IOException
+  {
+    return is.readBoolean()?is.readUTF():null;
+  }
+
+  private static void close(Closeable stream)
+  {
+    if (stream!=null)
+    {
+      try
+      {
+        stream.close();
+      }
+      catch(IOException ioe)
+      {
+        // Ignored
+      }
+    }
+  }
+}
@@ -1,8 +1,11 @@
 package delta.games.lotro.tools.dat.maps.classification;
 
+import java.io.File;
 import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
 
 import org.apache.log4j.Logger;
 
@@ -12,16 +15,27 @@ import delta.games.lotro.dat.data.DataIdentification;
 import delta.games.lotro.dat.data.PropertiesSet;
 import delta.games.lotro.dat.data.enums.EnumMapper;
 import delta.games.lotro.dat.utils.BitSetUtils;
-import delta.games.lotro.dat.utils.DataIdentificationTools;
 import delta.games.lotro.lore.agents.AgentClassification;
 import delta.games.lotro.lore.crafting.CraftingData;
 import delta.games.lotro.lore.crafting.CraftingLevel;
 import delta.games.lotro.lore.crafting.CraftingSystem;
 import delta.games.lotro.lore.crafting.Profession;
 import delta.games.lotro.tools.dat.agents.ClassificationLoader;
+import delta.games.lotro.tools.dat.maps.DataIdentificationCache;
+import delta.games.lotro.tools.dat.utils.PropertiesCache;
 
 /**
  * Classifier for markers.
+ * <p>
+ * May be shared by several threads: classifications are memoized in a concurrent map,
+ * and computed one at a time since they use the data facade.
+ * <p>
+ * The DID to classification table may be persisted, so that the next runs only classify
+ * the DIDs whose properties data changed. The properties data of each DID is still loaded
+ * to check it: a reused entry only saves the classification itself.
+ * <p>
+ * The checksum does not cover the classification code, nor the other data it uses
+ * (crafting professions, enums...): {@link #LOGIC_VERSION} must be increased when they change.
  * @author DAM
  */
 public class MarkerClassifier
@@ -29,12 +43,23 @@ public class MarkerClassifier
   private static final Logger LOGGER=Logger.getLogger(MarkerClassifier.class);
   private static final boolean VERBOSE=false;
 
+  /**
+   * Version of the classification logic, stored in the persisted table.
+   * A table written with another version is dropped.
+   */
+  public static final int LOGIC_VERSION=1;
+
   private DataFacade _facade;
   private EnumMapper _mapNoteType;
   private ClassificationLoader _agentSpecLoader;
 
   // Map of resolved items
-  private Map<Integer,Classification> _cache;
+  private ConcurrentHashMap<Integer,ClassificationEntry> _cache;
+  private Object _lock;
+  // Persisted table
+  private File _tableFile;
+  private Map<Integer,ClassificationEntry> _persisted;
+  private int _nbReused;
 
   private static final int[] CRITTER_NPC = {
     1879363746, // Black Squirrel
@@ -61,11 +86,27 @@ public class MarkerClassifier
   public MarkerClassifier(DataFacade facade)
   {
     _facade=facade;
-    _cache=new HashMap<Integer,Classification>();
+    _cache=new ConcurrentHashMap<Integer,ClassificationEntry>();
+    _lock=new Object();
     _mapNoteType=_facade.getEnumsManager().getEnumMapper(587202775);
     _agentSpecLoader=new ClassificationLoader(facade);
   }
 
+  /**
+   * Set the file used to persist the classifications table.
+   * <p>
+   * The table is loaded immediately (if the file exists), and written by {@link #saveTable()}.
+   * @param tableFile Table file, <code>null</code> to disable persistence.
+   */
+  public void setTableFile(File tableFile)
+  {
+    synchronized(_lock)
+    {
+      _tableFile=tableFile;
+      _persisted=(tableFile!=null)?MarkerClassificationsIO.load(tableFile,LOGIC_VERSION):null;
+    }
+  }
+
   /**
    * Perform classification of a single DID.
    * @param did DID to use.
@@ -74,34 +115,99 @@ public class MarkerClassifier
   public Classification classifyDid(int did)
   {
     Integer key=Integer.valueOf(did);
-    Classification classification=null;
-    if (!_cache.containsKey(key))
+    ClassificationEntry entry=_cache.get(key);
+    if (entry==null)
     {
-      classification=getClassification(did);
-      _cache.put(key,classification);
-      if (VERBOSE)
+      synchronized(_lock)
       {
-        DataIdentification dataId=DataIdentificationTools.identify(_facade,did);
-        if (classification!=null)
+        entry=_cache.get(key);
+        if (entry==null)
         {
-          System.out.println(dataId+" => Classification: "+classification);
-        }
-        else
-        {
-          System.out.println(dataId+" => NO CLASSIFICATION");
+          entry=buildEntry(did);
+          _cache.put(key,entry);
+          if (VERBOSE)
+          {
+            Classification classification=entry.getClassification();
+            DataIdentification dataId=DataIdentificationCache.getInstance().identify(_facade,did);
+            if (classification!=null)
+            {
+              System.out.println(dataId+" => Classification: "+classification);
+            }
+            else
+            {
+              System.out.println(dataId+" => NO CLASSIFICATION");
+            }
+          }
         }
       }
     }
-    else
+    return entry.getClassification();
+  }
+
+  private ClassificationEntry buildEntry(int did)
+  {
+    int checksum=0;
+    if (_tableFile!=null)
     {
-      classification=_cache.get(key);
+      checksum=computeChecksum(did);
+      ClassificationEntry persisted=(_persisted!=null)?_persisted.get(Integer.valueOf(did)):null;
+      if ((persisted!=null) && (persisted.getChecksum()==checksum))
+      {
+        _nbReused++;
+        return persisted;
+      }
+    }
+    return new ClassificationEntry(checksum,getClassification(did));
+  }
+
+  private int computeChecksum(int did)
+  {
+    CRC32 crc=new CRC32();
+    byte[] data=_facade.loadData(did+DATConstants.DBPROPERTIES_OFFSET);
+    if (data!=null)
+    {
+      crc.update(data);
+    }
+    return (int)crc.getValue();
+  }
+
+  /**
+   * Write the classifications table, if persistence is enabled.
+   * <p>
+   * The written table contains the DIDs classified during this run, and the persisted
+   * entries of the DIDs that were not used (they are checked when used again).
+   */
+  public void saveTable()
+  {
+    synchronized(_lock)
+    {
+      if (_tableFile==null)
+      {
+        return;
+      }
+      Map<Integer,ClassificationEntry> table=new HashMap<Integer,ClassificationEntry>();
+      int nbKept=0;
+      if (_persisted!=null)
+      {
+        table.putAll(_persisted);
+        for(Integer did : _cache.keySet())
+        {
+          table.remove(did);
+        }
+        nbKept=table.size();
+      }
+      table.putAll(_cache);
+      boolean ok=MarkerClassificationsIO.write(_tableFile,table,LOGIC_VERSION);
+      if (ok)
+      {
+        System.out.println("Wrote marker classifications: "+table.size()+" DIDs ("+_nbReused+" reused, "+nbKept+" kept from previous runs)");
+      }
     }
-    return classification;
   }
 
   private Classification getClassification(int did)
   {
-    PropertiesSet props=_facade.loadProperties(did+DATConstants.DBPROPERTIES_OFFSET);
+    PropertiesSet props=PropertiesCache.getInstance().loadProperties(_facade,did+DATConstants.DBPROPERTIES_OFFSET);
     Classification rc=tryResourceNodeClassification(did,props);
     if (rc!=null)
     {
@@ -178,7 +284,7 @@ public class MarkerClassifier
     CraftingData craftingData=CraftingSystem.getInstance().getData();
     Profession profession=craftingData.getProfessionsRegistry().getProfessionById(professionId);
     CraftingLevel level=profession.getByTier(craftTierCode.intValue());
-    CropClassification c=new CropClassification(level);
+    CropClassification c=new CropClassification(professionId,level);
     return c;
     /*
     CraftTrinket_Profession: 1879061252
@@ -215,7 +321,7 @@ public class MarkerClassifier
     CraftingData craftingData=CraftingSystem.getInstance().getData();
     Profession profession=craftingData.getProfessionsRegistry().getProfessionById(professionId);
     CraftingLevel level=profession.getByTier(craftTierCode.intValue());
-    ResourceClassification c=new ResourceClassification(level);
+    ResourceClassification c=new ResourceClassification(professionId,level);
     return c;
     /*
     Craft_Resource_Type: 2 (Mine)
@@ -28,6 +28,16 @@ public class MonsterClassification extends Classification
     }
   }
 
+  /**
+   * Constructor for a monster with no agent classification.
+   * @param isCritter Critter or not.
+   */
+  public MonsterClassification(boolean isCritter)
+  {
+    _classification=null;
+    _isCritter=isCritter;
+  }
+
   /**
    * Indicates if this is a critter monster/NPC.
    * @return <code>true</code> if it is, <code>false</code> otherwise.
@@ -40,6 +50,10 @@ public class MonsterClassification extends Classification
   @Override
   public String toString()
   {
-    return _classification.toString();
+    if (_classification!=null)
+    {
+      return _classification.toString();
+    }
+    return _isCritter?"Critter":"Monster";
   }
 }
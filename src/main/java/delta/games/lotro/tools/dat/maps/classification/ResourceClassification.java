@@ -8,17 +8,29 @@ import delta.games.lotro.lore.crafting.CraftingLevel;
  */
 public class ResourceClassification extends Classification
 {
+  private int _professionId;
   private CraftingLevel _level;
 
   /**
    * Constructor.
+   * @param professionId Profession identifier.
    * @param level Crafting level.
    */
-  public ResourceClassification(CraftingLevel level)
+  public ResourceClassification(int professionId, CraftingLevel level)
   {
+    _professionId=professionId;
     _level=level;
   }
 
+  /**
+   * Get the profession identifier.
+   * @return a profession identifier.
+   */
+  public int getProfessionId()
+  {
+    return _professionId;
+  }
+
   /**
    * Get the crafting level.
    * @return the crafting level.
@@ -0,0 +1,162 @@
+package delta.games.lotro.tools.dat.maps.landblocks;
+
+import delta.games.lotro.dat.data.Vector3D;
+import delta.games.lotro.tools.dat.maps.data.Cell;
+
+/**
+ * Spatial index for the cells of a landblock (static 3D k-d tree).
+ * <p>
+ * Nodes are stored in a single array: the root of a segment is its middle element,
+ * the left and right sub-trees are the lower and upper halves. Ties are resolved
+ * using the lowest cell index.
+ * @author DAM
+ */
+final class CellsSpatialIndex
+{
+  private Cell[] _cells;
+  private float[] _coords;
+
+  /**
+   * Constructor.
+   * @param cells Cells to index (cells with no position are ignored).
+   */
+  CellsSpatialIndex(Cell[] cells)
+  {
+    int nbCells=0;
+    for(Cell cell : cells)
+    {
+      if (cell.getPosition()!=null)
+      {
+        nbCells++;
+      }
+    }
+    _cells=new Cell[nbCells];
+    _coords=new float[nbCells*3];
+    int index=0;
+    for(Cell cell : cells)
+    {
+      if (cell.getPosition()!=null)
+      {
+        Vector3D position=cell.getPosition().getPosition();
+        _cells[index]=cell;
+        _coords[index*3]=position.getX();
+        _coords[index*3+1]=position.getY();
+        _coords[index*3+2]=position.getZ();
+        index++;
+      }
+    }
+    build(0,nbCells,0);
+  }
+
+  private void build(int from, int to, int axis)
+  {
+    if (to-from<2)
+    {
+      return;
+    }
+    int middle=(from+to)>>>1;
+    select(from,to-1,middle,axis);
+    int nextAxis=(axis+1)%3;
+    build(from,middle,nextAxis);
+    build(middle+1,to,nextAxis);
+  }
+
+  /**
+   * Partially sort a segment so that the element at the given rank is in place,
+   * with lower or equal values before it and greater or equal values after it.
+   */
+  private void select(int left, int right, int rank, int axis)
+  {
+    while (left<right)
+    {
+      float pivot=_coords[((left+right)>>>1)*3+axis];
+      int i=left;
+      int j=right;
+      while (i<=j)
+      {
+        while (_coords[i*3+axis]<pivot) i++;
+        while (_coords[j*3+axis]>pivot) j--;
+        if (i<=j)
+        {
+          swap(i,j);
+          i++;
+          j--;
+        }
+      }
+      if (rank<=j)
+      {
+        right=j;
+      }
+      else if (rank>=i)
+      {
+        left=i;
+      }
+      else
+      {
+        return;
+      }
+    }
+  }
+
+  private void swap(int i, int j)
+  {
+    Cell cell=_cells[i];
+    _cells[i]=_cells[j];
+    _cells[j]=cell;
+    for(int k=0;k<3;k++)
+    {
+      float tmp=_coords[i*3+k];
+      _coords[i*3+k]=_coords[j*3+k];
+      _coords[j*3+k]=tmp;
+    }
+  }
+
+  /**
+   * Get the index of the cell that is the nearest to the given position.
+   * @param position Position to use.
+   * @return A cell index or <code>-1</code> if no cell is indexed.
+   */
+  int getNearestCellIndex(Vector3D position)
+  {
+    if (_cells.length==0)
+    {
+      return -1;
+    }
+    long best=search(position.getX(),position.getY(),position.getZ(),0,_cells.length,0,Long.MAX_VALUE);
+    return (int)best;
+  }
+
+  /**
+   * Search the nearest cell in a segment.
+   * <p>
+   * Candidates are packed in a long: distance bits (positive floats sort as their bits),
+   * then the cell index, so that comparing candidates also resolves ties.
+   * @return the best candidate.
+   */
+  private long search(float x, float y, float z, int from, int to, int axis, long best)
+  {
+    if (from>=to)
+    {
+      return best;
+    }
+    int middle=(from+to)>>>1;
+    float dx=x-_coords[middle*3];
+    float dy=y-_coords[middle*3+1];
+    float dz=z-_coords[middle*3+2];
+    float distance=dx*dx+dy*dy+dz*dz;
+    long candidate=(((long)Float.floatToIntBits(distance))<<32)|(_cells[middle].getIndex()&0xFFFFFFFFL);
+    if (candidate<best)
+    {
+      best=candidate;
+    }
+    int nextAxis=(axis+1)%3;
+    float delta=((axis==0)?x:((axis==1)?y:z))-_coords[middle*3+axis];
+    boolean lowerFirst=(delta<0);
+    best=search(x,y,z,lowerFirst?from:middle+1,lowerFirst?middle:to,nextAxis,best);
+    if (delta*delta<=Float.intBitsToFloat((int)(best>>>32)))
+    {
+      best=search(x,y,z,lowerFirst?middle+1:from,lowerFirst?to:middle,nextAxis,best);
+    }
+    return best;
+  }
+}
@@ -1,9 +1,10 @@
 package delta.games.lotro.tools.dat.maps.landblocks;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 
 import delta.games.lotro.dat.data.Vector3D;
 import delta.games.lotro.lore.geo.BlockReference;
@@ -13,12 +14,19 @@ import delta.games.lotro.tools.dat.maps.data.Cell;
  * Landblock.
  * <p>
  * Contains summary data for a single landblock, as used by tools.
+ * <p>
+ * Cells are stored in arrays sorted by cell index. Data used to find the parent zone of a position
+ * (dungeon flag, cells spatial index) is computed once, when first needed after a change.
  * @author DAM
  */
 public class Landblock
 {
   private BlockReference _id;
-  private Map<Integer,Cell> _cells;
+  private int[] _cellIndexes;
+  private Cell[] _cells;
+  private int _nbCells;
+  private boolean _cellsHaveDungeon;
+  private volatile CellsSpatialIndex _spatialIndex;
   private Integer _parentDungeon;
   private Integer _parentArea;
   private float _centerHeight;
@@ -30,7 +38,9 @@ public class Landblock
   public Landblock(BlockReference id)
   {
     _id=id;
-    _cells=new HashMap<Integer,Cell>();
+    _cellIndexes=new int[0];
+    _cells=new Cell[0];
+    _nbCells=0;
   }
 
   /**
@@ -46,9 +56,54 @@ public class Landblock
    * Add a cell.
    * @param cell Cell to add.
    */
-  public void addCell(Cell cell)
+  public synchronized void addCell(Cell cell)
+  {
+    int cellIndex=cell.getIndex();
+    int slot=findCell(cellIndex);
+    if (slot>=0)
+    {
+      // Replace
+      _cells[slot]=cell;
+      _cellsHaveDungeon=computeCellsHaveDungeon();
+    }
+    else
+    {
+      // Insert
+      slot=-(slot+1);
+      if (_nbCells==_cells.length)
+      {
+        int capacity=Math.max(4,_nbCells*2);
+        _cellIndexes=Arrays.copyOf(_cellIndexes,capacity);
+        _cells=Arrays.copyOf(_cells,capacity);
+      }
+      System.arraycopy(_cellIndexes,slot,_cellIndexes,slot+1,_nbCells-slot);
+      System.arraycopy(_cells,slot,_cells,slot+1,_nbCells-slot);
+      _cellIndexes[slot]=cellIndex;
+      _cells[slot]=cell;
+      _nbCells++;
+      if (cell.getDungeonId()!=null)
+      {
+        _cellsHaveDungeon=true;
+      }
+    }
+    _spatialIndex=null;
+  }
+
+  private int findCell(int cellIndex)
   {
-    _cells.put(Integer.valueOf(cell.getIndex()),cell);
+    return Arrays.binarySearch(_cellIndexes,0,_nbCells,cellIndex);
+  }
+
+  private boolean computeCellsHaveDungeon()
+  {
+    for(int i=0;i<_nbCells;i++)
+    {
+      if (_cells[i].getDungeonId()!=null)
+      {
+        return true;
+      }
+    }
+    return false;
   }
 
   /**
@@ -56,10 +111,10 @@ public class Landblock
    * @param cellIndex Cell index to use.
    * @return A cell or <code>null<:code> if not found.
    */
-  public Cell getCell(int cellIndex)
+  public synchronized Cell getCell(int cellIndex)
   {
-    Cell cell=_cells.get(Integer.valueOf(cellIndex));
-    return cell;
+    int slot=findCell(cellIndex);
+    return (slot>=0)?_cells[slot]:null;
   }
 
   /**
@@ -69,7 +124,7 @@ public class Landblock
    */
   public Integer getCellDungeon(int cellIndex)
   {
-    Cell cell=_cells.get(Integer.valueOf(cellIndex));
+    Cell cell=getCell(cellIndex);
     if (cell!=null)
     {
       return cell.getDungeonId();
@@ -79,24 +134,30 @@ public class Landblock
 
   /**
    * Get the indexes for the managed cells.
-   * @return a list of cell indexes.
+   * @return a list of cell indexes, sorted by increasing index.
    */
-  public List<Integer> getCellIndexes()
+  public synchronized List<Integer> getCellIndexes()
   {
-    return new ArrayList<Integer>(_cells.keySet());
+    List<Integer> ret=new ArrayList<Integer>(_nbCells);
+    for(int i=0;i<_nbCells;i++)
+    {
+      ret.add(Integer.valueOf(_cellIndexes[i]));
+    }
+    return ret;
   }
 
   /**
    * Get a list of all the dungeons found in cells.
    * @return A possibly empty but never <code>null</code> list of dungeon IDs.
    */
-  public List<Integer> getDungeonsFromCells()
+  public synchronized List<Integer> getDungeonsFromCells()
   {
     List<Integer> ret=new ArrayList<Integer>();
-    for(Cell cell : _cells.values())
+    Set<Integer> found=new HashSet<Integer>();
+    for(int i=0;i<_nbCells;i++)
     {
-      Integer dungeonId=cell.getDungeonId();
-      if ((dungeonId!=null) && (!ret.contains(dungeonId)))
+      Integer dungeonId=_cells[i].getDungeonId();
+      if ((dungeonId!=null) && (found.add(dungeonId)))
       {
         ret.add(dungeonId);
       }
@@ -192,10 +253,10 @@ public class Landblock
       if ((hasDungeon) && (position.getZ()<_centerHeight))
       {
         // In dungeon
-        int nbCells=_cells.size();
-        if (nbCells>0)
+        int nearestCellIndex=getSpatialIndex().getNearestCellIndex(position);
+        if (nearestCellIndex>=0)
         {
-          Cell nearestCell=getNearestCell(position);
+          Cell nearestCell=getCell(nearestCellIndex);
           ret=nearestCell.getDungeonId();
           if (ret==null)
           {
@@ -212,28 +273,24 @@ public class Landblock
     return ret;
   }
 
-  private boolean hasDungeon()
+  private synchronized boolean hasDungeon()
   {
-    if (_parentDungeon!=null) return true;
-    if (getDungeonsFromCells().size()>0) return true;
-    return false;
+    return (_parentDungeon!=null) || _cellsHaveDungeon;
   }
 
-  private Cell getNearestCell(Vector3D position)
+  private CellsSpatialIndex getSpatialIndex()
   {
-    Cell ret=null;
-    float min=Float.MAX_VALUE;
-    for(Cell cell : _cells.values())
+    CellsSpatialIndex ret=_spatialIndex;
+    if (ret==null)
     {
-      Vector3D cellPosition=cell.getPosition().getPosition();
-      float dx=Math.abs(position.getX()-cellPosition.getX());
-      float dy=Math.abs(position.getY()-cellPosition.getY());
-      float dz=Math.abs(position.getZ()-cellPosition.getZ());
-      float value=dx*dx+dy*dy+dz*dz;
-      if (value<min)
+      synchronized(this)
       {
-        ret=cell;
-        min=value;
+        ret=_spatialIndex;
+        if (ret==null)
+        {
+          ret=new CellsSpatialIndex(Arrays.copyOf(_cells,_nbCells));
+          _spatialIndex=ret;
+        }
       }
     }
     return ret;
@@ -251,9 +308,18 @@ public class Landblock
     {
       sb.append(", dungeon=").append(_parentDungeon);
     }
-    if (_cells.size()>0)
+    if (_nbCells>0)
     {
-      sb.append(", cells=").append(_cells);
+      sb.append(", cells={");
+      for(int i=0;i<_nbCells;i++)
+      {
+        if (i>0)
+        {
+          sb.append(", ");
+        }
+        sb.append(_cellIndexes[i]).append('=').append(_cells[i]);
+      }
+      sb.append('}');
     }
     return sb.toString();
   }
@@ -10,8 +10,8 @@ import delta.games.lotro.dat.data.DataIdentification;
 import delta.games.lotro.dat.data.EntityDescriptor;
 import delta.games.lotro.dat.data.PropertiesSet;
 import delta.games.lotro.dat.data.Vector3D;
-import delta.games.lotro.dat.utils.DataIdentificationTools;
-import delta.games.lotro.tools.dat.maps.MarkersLoadingUtils;
+import delta.games.lotro.tools.dat.maps.DataIdentificationCache;
+import delta.games.lotro.tools.dat.maps.MarkersSink;
 import delta.games.lotro.tools.dat.maps.data.LandBlockInfo;
 import delta.games.lotro.tools.dat.maps.data.LbiLink;
 import delta.games.lotro.tools.dat.maps.data.Weenie;
@@ -25,19 +25,24 @@ public class LandblockGeneratorsAnalyzer
   private static final Logger LOGGER=Logger.getLogger(LandblockGeneratorsAnalyzer.class);
 
   private DataFacade _facade;
-  private MarkersLoadingUtils _markerUtils;
+  private MarkersSink _markersSink;
 
   /**
    * Constructor.
    * @param facade Data facade.
-   * @param markerUtils Marker utils.
+   * @param markersSink Sink for the found markers (may be <code>null</code>).
    */
-  public LandblockGeneratorsAnalyzer(DataFacade facade, MarkersLoadingUtils markerUtils)
+  public LandblockGeneratorsAnalyzer(DataFacade facade, MarkersSink markersSink)
   {
     _facade=facade;
-    _markerUtils=markerUtils;
+    _markersSink=markersSink;
   }
 
+  /**
+   * Sections of landblock infos used by this analyzer.
+   */
+  public static final int SECTIONS=LandblockInfoLoader.ENTITIES|LandblockInfoLoader.LINKS|LandblockInfoLoader.WEENIES;
+
   /**
    * Handle a landblock.
    * @param lbi Landblock to use.
@@ -114,13 +119,13 @@ public class LandblockGeneratorsAnalyzer
 
   private void buildMarker(LandBlockInfo lbi, EntityDescriptor entity, int did, int[] contentLayers)
   {
-    if (_markerUtils!=null)
+    if (_markersSink!=null)
     {
       DatPosition position=buildPosition(lbi,entity);
-      DataIdentification dataId=DataIdentificationTools.identify(_facade,did);
+      DataIdentification dataId=DataIdentificationCache.getInstance().identify(_facade,did);
       if (contentLayers==null)
       {
-        _markerUtils.buildMarker(position,dataId,0);
+        _markersSink.addMarker(position,dataId,0);
       }
       else
       {
@@ -130,7 +135,7 @@ public class LandblockGeneratorsAnalyzer
           {
             LOGGER.warn("Found CL 0!");
           }
-          _markerUtils.buildMarker(position,dataId,contentLayerId);
+          _markersSink.addMarker(position,dataId,contentLayerId);
         }
       }
     }
@@ -1,6 +1,8 @@
 package delta.games.lotro.tools.dat.maps.landblocks;
 
 import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Set;
 
 import org.apache.log4j.Logger;
@@ -15,7 +17,6 @@ import delta.games.lotro.dat.data.PropertiesSet;
 import delta.games.lotro.dat.loaders.DBPropertiesLoader;
 import delta.games.lotro.dat.loaders.EntityDescLoader;
 import delta.games.lotro.dat.loaders.GeoLoader;
-import delta.games.lotro.dat.loaders.LoaderUtils;
 import delta.games.lotro.dat.utils.BufferUtils;
 import delta.games.lotro.tools.dat.maps.data.Cell;
 import delta.games.lotro.tools.dat.maps.data.LandBlockInfo;
@@ -24,6 +25,11 @@ import delta.games.lotro.tools.dat.maps.data.Weenie;
 
 /**
  * Loader for landblock infos.
+ * <p>
+ * Data is decoded from a little-endian buffer. Sizes, counts and fixed size structures
+ * are read or skipped directly in the buffer. The structures decoded by the DAT library
+ * (positions, properties, entities, names) use a single stream on the same bytes,
+ * moved to the buffer position before each use.
  * @author DAM
  */
 public class LandblockInfoLoader
@@ -35,8 +41,37 @@ public class LandblockInfoLoader
   private static final int HAS_LINKS = 2;
   private static final int HAS_INDICES = 4;
 
+  // Sizes of fixed size structures:
+  private static final int CROSS_LINK_SIZE = 24;
+
+  /**
+   * Cells section.
+   */
+  public static final int CELLS = 1;
+  /**
+   * Static entities section.
+   */
+  public static final int ENTITIES = 2;
+  /**
+   * Links section.
+   */
+  public static final int LINKS = 4;
+  /**
+   * Properties section.
+   */
+  public static final int PROPERTIES = 8;
+  /**
+   * Weenies section.
+   */
+  public static final int WEENIES = 16;
+  /**
+   * All sections.
+   */
+  public static final int ALL = CELLS|ENTITIES|LINKS|PROPERTIES|WEENIES;
+
   private DataFacade _facade;
   private GeneratorLoader _generatorLoader;
+  private DBPropertiesLoader _propsLoader;
 
   /**
    * Constructor.
@@ -46,17 +81,33 @@ public class LandblockInfoLoader
   {
     _facade=facade;
     _generatorLoader=new GeneratorLoader(facade);
+    _propsLoader=new DBPropertiesLoader(facade);
+  }
+
+  /**
+   * Load a landblock info, with all its sections.
+   * @param region Region identifier.
+   * @param blockX Block coordinate (horizontal).
+   * @param blockY Block coordinate (vertical).
+   * @return the loaded landblock info or <code>null</code> if it does not exist.
+   */
+  public LandBlockInfo loadLandblockInfo(int region, int blockX, int blockY)
+  {
+    return loadLandblockInfo(region,blockX,blockY,ALL);
   }
 
   /**
    * Load a landblock info.
+   * <p>
+   * Only the requested sections are built. Decoding stops after the last requested section.
    * @param region Region identifier.
    * @param blockX Block coordinate (horizontal).
    * @param blockY Block coordinate (vertical).
-   * @return <code>true</code> if the landblock info exists, <code>false</code> otherwise.
+   * @param sections Sections to load (a combination of CELLS, ENTITIES, LINKS, PROPERTIES and WEENIES).
+   * @return the loaded landblock info or <code>null</code> if it does not exist.
    */
   @SuppressWarnings("unused")
-  public LandBlockInfo loadLandblockInfo(int region, int blockX, int blockY)
+  public LandBlockInfo loadLandblockInfo(int region, int blockX, int blockY, int sections)
   {
     long landblockInfoDID=0x80200000L+(region*0x10000)+(blockX*0x100)+blockY;
 
@@ -73,96 +124,118 @@ public class LandblockInfoLoader
     }
     //System.out.println("*** Landblock info: region="+region+", blockX="+blockX+", blockY="+blockY);
     //System.out.println("LBI data length: "+data.length);
-    ByteArrayInputStream bis=new ByteArrayInputStream(data);
-    long did=BufferUtils.readUInt32AsLong(bis);
+    ByteBuffer buffer=ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+    ByteArrayInputStream stream=new ByteArrayInputStream(data);
+    long did=readUInt32AsLong(buffer);
     if (did!=landblockInfoDID)
     {
       throw new IllegalArgumentException("Expected DID for landblock info: "+landblockInfoDID);
     }
     LandBlockInfo ret=new LandBlockInfo(landblockInfoDID);
-    int flags=BufferUtils.readUInt32(bis);
-    int sizeHint=BufferUtils.readUInt32(bis);
+    int flags=buffer.getInt();
+    int sizeHint=buffer.getInt();
     // Cross links
     if ((flags & HAS_LINKS)!=0)
     {
-      int count=BufferUtils.readTSize(bis);
-      for(int i=0;i<count;i++)
-      {
-        loadCrossLink(bis);
-      }
+      int count=readTSize(buffer);
+      skipCrossLinks(buffer,count);
     }
     // Header Indices
     if ((flags & HAS_INDICES)!=0)
     {
-      int count=BufferUtils.readTSize(bis);
+      int count=readTSize(buffer);
       for(int i=0;i<count;i++)
       {
-        loadHeaderIndices(bis);
+        skipHeaderIndices(buffer);
       }
     }
     // Cells
     if ((flags & HAS_CELLS)!=0)
     {
-      int count=BufferUtils.readTSize(bis);
+      boolean keep=((sections & CELLS)!=0);
+      int count=readTSize(buffer);
       //System.out.println("Cells count: "+count);
       for(int i=0;i<count;i++)
       {
-        Cell cell=loadCell(bis);
+        Cell cell=loadCell(buffer,stream,keep);
         if (cell!=null)
         {
           ret.addCell(cell);
         }
       }
     }
-    LoaderUtils.readAssert(bis,0);
+    if (isDone(sections,CELLS))
+    {
+      return ret;
+    }
+    readAssert(buffer,0);
     // Static entities
+    // Entity descriptors have a variable size and no size prefix: they are decoded
+    // only if they are requested or if a later section is requested.
     {
-      int count=BufferUtils.readUInt32(bis);
+      boolean keep=((sections & ENTITIES)!=0);
+      int count=buffer.getInt();
       //System.out.println("Entity count: "+count);
       for(int i=0;i<count;i++)
       {
         //System.out.println("Entity desc index: "+i);
-        EntityDescriptor entity=loadStaticEntity(bis);
-        ret.addEntity(entity);
+        EntityDescriptor entity=loadStaticEntity(buffer,stream);
+        if (keep)
+        {
+          ret.addEntity(entity);
+        }
       }
     }
+    if (isDone(sections,ENTITIES))
+    {
+      return ret;
+    }
     // Links
     {
-      int count=BufferUtils.readUInt32(bis);
+      boolean keep=((sections & LINKS)!=0);
+      int count=buffer.getInt();
       //System.out.println("Links count: "+count);
       for(int i=0;i<count;i++)
       {
         //System.out.println("Link index: "+i);
-        LbiLink link=loadLink(bis);
-        ret.addLink(link);
+        LbiLink link=loadLink(buffer,stream,keep);
+        if (link!=null)
+        {
+          ret.addLink(link);
+        }
       }
     }
+    if (isDone(sections,LINKS))
+    {
+      return ret;
+    }
     // Properties
-    DBPropertiesLoader propsLoader=new DBPropertiesLoader(_facade);
-    PropertiesSet props=ret.getProps();
-    propsLoader.decodeProperties(bis,props);
+    decodeProperties(buffer,stream,ret.getProps());
     // No area ID. It is in the LandBlockProperties
+    if (isDone(sections,PROPERTIES))
+    {
+      return ret;
+    }
 
-    LoaderUtils.readAssert(bis,0);
+    readAssert(buffer,0);
 
     // Weenies
     {
-      int count=BufferUtils.readTSize(bis);
+      int count=readTSize(buffer);
       //System.out.println("Weenies count: "+count);
       for(int i=0;i<count;i++)
       {
         //System.out.println("Weenie index: "+i);
-        Weenie weenie=loadWeenie(bis);
+        Weenie weenie=loadWeenie(buffer,stream);
         ret.addWeenie(weenie);
       }
     }
     // End of data
-    int bytesAvailable=bis.available();
-    if (bytesAvailable>0)
+    if (buffer.remaining()>=4)
     {
-      int unknownFinal=BufferUtils.readUInt32(bis);
+      int unknownFinal=buffer.getInt();
     }
-    bytesAvailable=bis.available();
+    int bytesAvailable=buffer.remaining();
     if (bytesAvailable>0)
     {
       LOGGER.warn("Bytes lefts: "+bytesAvailable);
@@ -170,92 +243,82 @@ public class LandblockInfoLoader
     return ret;
   }
 
-  @SuppressWarnings("unused")
-  private void loadCrossLink(ByteArrayInputStream bis)
+  /**
+   * Indicates if the decoding of a landblock info is done.
+   * @param sections Requested sections.
+   * @param lastDecoded Last decoded section.
+   * @return <code>true</code> if no section after the given one was requested.
+   */
+  private boolean isDone(int sections, int lastDecoded)
   {
-    int fromIndex=BufferUtils.readUInt32(bis);
-    long fromLbiDID=BufferUtils.readUInt32AsLong(bis);
-    long toLbiDID=BufferUtils.readUInt32AsLong(bis);
-    // See EnumMapper: EntityLinkType
-    int type=BufferUtils.readUInt32(bis);
-    String typeStr=getLinkLabelFromCode(type);
-    int toIndex=BufferUtils.readUInt32(bis);
-    int mask=BufferUtils.readUInt32(bis);
-    /*
-    System.out.println("Cross link: "+typeStr+" - from: "+String.format("%04X",Long.valueOf(fromLbiDID))+"/"+fromIndex+
-        " ; to:"+String.format("%04X",Long.valueOf(toLbiDID))+"/"+toIndex+", mask="+mask);
-        */
+    int nextSections=ALL & ~((lastDecoded<<1)-1);
+    return ((sections & nextSections)==0);
   }
 
-  @SuppressWarnings("unused")
-  private void loadHeaderIndices(ByteArrayInputStream bis)
+  private void skipCrossLinks(ByteBuffer buffer, int count)
+  {
+    // Each cross link: from index, from LBI DID, to LBI DID, type, to index, mask (6 DWORDs)
+    skip(buffer,count*CROSS_LINK_SIZE);
+  }
+
+  private void skipHeaderIndices(ByteBuffer buffer)
   {
-    int index=BufferUtils.readUInt16(bis);
-    int[] array=readIntegerArray(bis);
-    //System.out.println("Header: index="+index+", count="+array.length+" = >"+Arrays.toString(array));
+    // Index, then an array of cell indices
+    skip(buffer,2);
+    skipIntegerArray(buffer);
   }
 
-  private int[] readIntegerArray(ByteArrayInputStream bis)
+  private void skipIntegerArray(ByteBuffer buffer)
   {
-    int count=BufferUtils.readUInt32(bis);
-    int[] ret=new int[count];
-    for(int i=0;i<count;i++)
+    int count=buffer.getInt();
+    if ((count<0) || (count>buffer.remaining()/2))
     {
-      ret[i]=BufferUtils.readUInt16(bis);
+      throw new IllegalStateException("Bad cell indices count: "+count);
     }
-    return ret;
+    skip(buffer,count*2);
   }
 
   @SuppressWarnings("unused")
-  private Cell loadCell(ByteArrayInputStream bis)
+  private Cell loadCell(ByteBuffer buffer, ByteArrayInputStream stream, boolean keep)
   {
-    int index=BufferUtils.readUInt16(bis);
+    int index=readUInt16(buffer);
     //System.out.println("Cell index: "+index);
-    DatPosition position=GeoLoader.readPosition(bis); // position.cell=index
+    DatPosition position=readPosition(buffer,stream); // position.cell=index
     //System.out.println("\tPosition: "+position);
-    int flags=BufferUtils.readUInt32(bis);
-    int cellMeshDID=BufferUtils.readUInt32(bis);
+    int flags=buffer.getInt();
+    int cellMeshDID=buffer.getInt();
     //System.out.println("\tMesh ID: "+cellMeshDID);
-    int neighboursCount=BufferUtils.readUInt32(bis);
+    int neighboursCount=buffer.getInt();
     // Neighbours
     for(int i=0;i<neighboursCount;i++)
     {
-      loadNeighbours(i,bis);
+      skipNeighbour(i,buffer);
     }
     if ((flags&0x20)!=0)
     {
-      int thisIndex=BufferUtils.readUInt16(bis); // always equal to this.index
+      int thisIndex=readUInt16(buffer); // always equal to this.index
       if (thisIndex!=index)
       {
         throw new IllegalStateException("thisIndex="+thisIndex+", expected="+index);
       }
-      int[] cellIndices0=readIntegerArray(bis);
-      int[] cellIndices1=readIntegerArray(bis);
-      //System.out.println("\tCell indices: #0="+Arrays.toString(cellIndices0)+", #1="+Arrays.toString(cellIndices1));
-      int unknown=BufferUtils.readUInt16(bis);
+      skipIntegerArray(buffer);
+      skipIntegerArray(buffer);
+      int unknown=readUInt16(buffer);
       //System.out.println("\tUnknown: "+unknown);
     }
     else
     {
-      int[] cellIndices0=readIntegerArray(bis);
-      int[] cellIndices1=readIntegerArray(bis);
-      //System.out.println("\tCell indices: #0="+Arrays.toString(cellIndices0)+", #1="+Arrays.toString(cellIndices1));
+      skipIntegerArray(buffer);
+      skipIntegerArray(buffer);
     }
     Integer dungeonId=null;
     if ((flags&0x4)!=0)
     {
-      DBPropertiesLoader propsLoader=new DBPropertiesLoader(_facade);
       PropertiesSet props=new PropertiesSet();
-      propsLoader.decodeProperties(bis,props);
+      decodeProperties(buffer,stream,props);
       if (props.getPropertyNames().size()>0)
       {
         dungeonId=(Integer)props.getProperty("Dungeon_DID");
-        /*
-        if ((dungeonDID!=null) && (dungeonDID.intValue()>0))
-        {
-          System.out.println("Found Dungeon ID: "+dungeonDID+" for cell "+index);
-        }
-        */
         //System.out.println("Cell props: "+props.dump());
         /* {
          * Physics_AdjustableScale=null (vector),
@@ -268,94 +331,83 @@ public class LandblockInfoLoader
          */
       }
     }
+    if (!keep)
+    {
+      return null;
+    }
     Cell ret=new Cell(index,dungeonId);
     ret.setPosition(position);
     return ret;
   }
 
-  @SuppressWarnings("unused")
-  private void loadNeighbours(int expectedIndex, ByteArrayInputStream bis)
+  private void skipNeighbour(int expectedIndex, ByteBuffer buffer)
   {
-    int index=BufferUtils.readUInt32(bis); // Neighbour index
+    int index=buffer.getInt(); // Neighbour index
     if (index!=expectedIndex)
     {
       throw new IllegalStateException("thisIndex="+index+", expected="+expectedIndex);
     }
-    int cellIndex=BufferUtils.readUInt16(bis);
-    int neighbourIndex=BufferUtils.readUInt16(bis);
-    LoaderUtils.readAssert16(bis,0);
-    LoaderUtils.readAssert16(bis,0);
-    LoaderUtils.readAssert16(bis,0);
-    boolean unknownBool=BufferUtils.readBoolean(bis);
-    //System.out.println("\tNeighbour #"+index+" is cell #"+cellIndex+", and reverse neighbour index is "+neighbourIndex+", bool="+unknownBool);
+    // Cell index, reverse neighbour index
+    skip(buffer,4);
+    // 3 zero WORDs
+    for(int i=0;i<3;i++)
+    {
+      short value=buffer.getShort();
+      if (value!=0)
+      {
+        LOGGER.warn("Neighbour #"+index+": expected 0, got "+value);
+      }
+    }
+    // A boolean
+    skip(buffer,1);
   }
 
-  private EntityDescriptor loadStaticEntity(ByteArrayInputStream bis)
+  private EntityDescriptor loadStaticEntity(ByteBuffer buffer, ByteArrayInputStream stream)
   {
-    EntityDescriptor entity=EntityDescLoader.decodeEntityDesc(_facade,bis,false);
-    /*
-    int physObjDid=entity.getPhysObjDid();
-    if ((physObjDid>=0x47000000) && (physObjDid<=0x47FFFFFF))
-    {
-      byte[] data=_facade.loadData(physObjDid);
-      ByteArrayInputStream bis2=new ByteArrayInputStream(data);
-      loadStaticEntity(bis2);
-    }
-    if ((physObjDid>=0x1F000000) && (physObjDid<=0x1FFFFFFF))
-    {
-      // Visual descriptor
-      byte[] data=_facade.loadData(physObjDid);
-      ByteArrayInputStream bis2=new ByteArrayInputStream(data);
-      VisualDescriptorLoader.readNetworkVisualDesc(bis2);
-    }
-    */
+    EntityDescriptor entity=EntityDescLoader.decodeEntityDesc(_facade,moveTo(stream,buffer),false);
+    sync(buffer,stream);
     return entity;
   }
 
   @SuppressWarnings("unused")
-  private LbiLink loadLink(ByteArrayInputStream bis)
+  private LbiLink loadLink(ByteBuffer buffer, ByteArrayInputStream stream, boolean keep)
   {
+    String worldBuilderName=BufferUtils.readPascalString(moveTo(stream,buffer));
+    sync(buffer,stream);
+    long iid=buffer.getLong();
+    long toEntityId=buffer.getLong();
+    long fromEntityId=buffer.getLong();
+    int entityLinkType=buffer.getInt();
+    PropertiesSet props=new PropertiesSet();
+    decodeProperties(buffer,stream,props);
+    boolean isCrossLandblock=(buffer.get()!=0);
+    if (isCrossLandblock)
+    {
+      // Coda: index, LBI DID, LBI DID, index
+      skip(buffer,16);
+    }
+    if (!keep)
+    {
+      return null;
+    }
     LbiLink link=new LbiLink();
-    String worldBuilderName=BufferUtils.readPascalString(bis);
     link.setName(worldBuilderName);
-    long iid=BufferUtils.readLong64(bis);
     link.setIid(iid);
-    long toEntityId=BufferUtils.readLong64(bis);
     link.setToIid(toEntityId);
-    long fromEntityId=BufferUtils.readLong64(bis);
     link.setFromIid(fromEntityId);
-    int entityLinkType=BufferUtils.readUInt32(bis);
     String linkTypeStr=getLinkLabelFromCode(entityLinkType);
     link.setType(linkTypeStr);
-    DBPropertiesLoader propsLoader=new DBPropertiesLoader(_facade);
-    PropertiesSet props=new PropertiesSet();
-    propsLoader.decodeProperties(bis,props);
     link.setProps(props);
-    boolean isCrossLandblock=BufferUtils.readBoolean(bis);
-    if (isCrossLandblock)
-    {
-      int codaIndex0=BufferUtils.readUInt32(bis);
-      long codaLbiDID0=BufferUtils.readUInt32AsLong(bis);
-      long codaLbiDID1=BufferUtils.readUInt32AsLong(bis);
-      int codaIndex1=BufferUtils.readUInt32(bis);
-      /*
-      System.out.println("\tCrossLBI: index0="+codaIndex0+
-          ", LBI0="+String.format("%04X",Long.valueOf(codaLbiDID0))+
-          ", LBI1="+String.format("%04X",Long.valueOf(codaLbiDID1))+
-          ", index1="+codaIndex1);
-          */
-    }
     return link;
   }
 
-  private Weenie loadWeenie(ByteArrayInputStream bis)
+  private Weenie loadWeenie(ByteBuffer buffer, ByteArrayInputStream stream)
   {
     Weenie weenie=new Weenie();
-    long weenieIid=BufferUtils.readLong64(bis);
+    long weenieIid=buffer.getLong();
     weenie.setIid(weenieIid);
-    DBPropertiesLoader propsLoader=new DBPropertiesLoader(_facade);
     PropertiesSet props=new PropertiesSet();
-    propsLoader.decodeProperties(bis,props);
+    decodeProperties(buffer,stream,props);
     weenie.setProps(props);
     Set<Integer> ids=_generatorLoader.handleGenerator(props);
     if ((ids!=null) && (ids.size()>0))
@@ -365,6 +417,91 @@ public class LandblockInfoLoader
     return weenie;
   }
 
+  private void decodeProperties(ByteBuffer buffer, ByteArrayInputStream stream, PropertiesSet props)
+  {
+    _propsLoader.decodeProperties(moveTo(stream,buffer),props);
+    sync(buffer,stream);
+  }
+
+  private static DatPosition readPosition(ByteBuffer buffer, ByteArrayInputStream stream)
+  {
+    DatPosition ret=GeoLoader.readPosition(moveTo(stream,buffer));
+    sync(buffer,stream);
+    return ret;
+  }
+
+  private static int readTSize(ByteBuffer buffer)
+  {
+    // An unused byte, then a variable length count
+    skip(buffer,1);
+    return readVle(buffer);
+  }
+
+  private static int readVle(ByteBuffer buffer)
+  {
+    int a=buffer.get()&0xFF;
+    if ((a&0x80)==0)
+    {
+      return a;
+    }
+    if (a==0xE0)
+    {
+      return buffer.getInt();
+    }
+    int b=buffer.get()&0xFF;
+    if ((a&0x40)==0)
+    {
+      return ((a&0x7F)<<8)|b;
+    }
+    int c=buffer.get()&0xFF;
+    int d=buffer.get()&0xFF;
+    return ((a&0x3F)<<24)|(b<<16)|(c<<8)|d;
+  }
+
+  private static void readAssert(ByteBuffer buffer, int expected)
+  {
+    int value=buffer.getInt();
+    if (value!=expected)
+    {
+      throw new IllegalStateException("Expected "+expected+", got "+value);
+    }
+  }
+
+  private static int readUInt16(ByteBuffer buffer)
+  {
+    return buffer.getShort()&0xFFFF;
+  }
+
+  private static long readUInt32AsLong(ByteBuffer buffer)
+  {
+    return buffer.getInt()&0xFFFFFFFFL;
+  }
+
+  private static void skip(ByteBuffer buffer, int count)
+  {
+    buffer.position(buffer.position()+count);
+  }
+
+  /**
+   * Move a stream on the buffer bytes to the current position of the buffer.
+   * The buffer position shall be updated with {@link #sync(ByteBuffer,ByteArrayInputStream)} when done.
+   * @param stream Stream on the whole buffer bytes.
+   * @param buffer Source buffer.
+   * @return the given stream.
+   */
+  private static ByteArrayInputStream moveTo(ByteArrayInputStream stream, ByteBuffer buffer)
+  {
+    // Back to the start of the data, then skip: both are cheap for a byte array stream
+    stream.reset();
+    stream.skip(buffer.position());
+    return stream;
+  }
+
+  private static void sync(ByteBuffer buffer, ByteArrayInputStream stream)
+  {
+    buffer.position(buffer.limit()-stream.available());
+  }
+
   private static String getLinkLabelFromCode(int code)
   {
     if (code==0) return "Undefined";
@@ -37,8 +37,9 @@ public class LandblockLoader
    */
   public Landblock buildLandblock(int region, int blockX, int blockY)
   {
-    // Landblock Info
-    LandBlockInfo lbi=_lbiLoader.loadLandblockInfo(region,blockX,blockY);
+    // Landblock Info: only cells and properties are used
+    int sections=LandblockInfoLoader.CELLS|LandblockInfoLoader.PROPERTIES;
+    LandBlockInfo lbi=_lbiLoader.loadLandblockInfo(region,blockX,blockY,sections);
     if (lbi==null)
     {
       return null;
@@ -1,15 +1,20 @@
 package delta.games.lotro.tools.dat.maps.landblocks;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.apache.log4j.Logger;
 
 import delta.games.lotro.dat.data.DatPosition;
 import delta.games.lotro.lore.geo.BlockReference;
 import delta.games.lotro.tools.dat.GeneratedFiles;
+import delta.games.lotro.tools.dat.maps.landblocks.io.binary.LandblocksBinaryConstants;
+import delta.games.lotro.tools.dat.maps.landblocks.io.binary.LandblocksBinaryStore;
+import delta.games.lotro.tools.dat.maps.landblocks.io.binary.LandblocksBinaryWriter;
 import delta.games.lotro.tools.dat.maps.landblocks.io.xml.LandblocksXMLParser;
 
 /**
@@ -23,21 +28,55 @@ public class LandblocksManager
 {
   private static final Logger LOGGER=Logger.getLogger(LandblocksManager.class);
 
-  private static final LandblocksManager _instance=load();
-  private Map<String,Landblock> _index;
+  private static LandblocksManager _instance;
+
+  private Map<Integer,Landblock> _index;
+  private LandblocksBinaryStore _store;
+  private AtomicReferenceArray<Landblock> _loaded;
 
   /**
    * Get the reference instance of this class.
+   * <p>
+   * Landblocks are loaded on the first call.
    * @return the reference instance of this class.
    */
-  public static LandblocksManager getInstance()
+  public static synchronized LandblocksManager getInstance()
   {
+    if (_instance==null)
+    {
+      _instance=load();
+    }
     return _instance;
   }
 
   private static LandblocksManager load()
   {
-    return new LandblocksXMLParser().parseXML(GeneratedFiles.LANDBLOCKS);
+    long now=System.currentTimeMillis();
+    File binaryFile=GeneratedFiles.LANDBLOCKS_BINARY;
+    File xmlFile=GeneratedFiles.LANDBLOCKS;
+    LandblocksBinaryStore store=null;
+    if ((binaryFile.exists()) && (binaryFile.lastModified()>=xmlFile.lastModified()))
+    {
+      store=LandblocksBinaryStore.open(binaryFile);
+    }
+    if (store==null)
+    {
+      // Convert the XML file
+      LandblocksManager mgr=new LandblocksXMLParser().parseXML(xmlFile);
+      if (mgr==null)
+      {
+        return null;
+      }
+      boolean ok=LandblocksBinaryWriter.writeLandblocksFile(binaryFile,mgr);
+      if (ok)
+      {
+        LOGGER.info("Wrote landblocks file: "+binaryFile);
+      }
+      return mgr;
+    }
+    long now2=System.currentTimeMillis();
+    LOGGER.info("Opened "+store.getSize()+" landblocks in "+(now2-now)+"ms");
+    return new LandblocksManager(store);
   }
 
   /**
@@ -45,12 +84,17 @@ public class LandblocksManager
    */
   public LandblocksManager()
   {
-    _index=new HashMap<String,Landblock>();
+    _index=new HashMap<Integer,Landblock>();
   }
 
-  private String getKey(int region, int blockX, int blockY)
+  /**
+   * Constructor for a manager that decodes its landblocks from a store.
+   * @param store Landblocks store.
+   */
+  public LandblocksManager(LandblocksBinaryStore store)
   {
-    return region+"#"+blockX+"#"+blockY;
+    _store=store;
+    _loaded=new AtomicReferenceArray<Landblock>(store.getSize());
   }
 
   /**
@@ -59,6 +103,16 @@ public class LandblocksManager
    */
   public List<Landblock> getLandblocks()
   {
+    if (_store!=null)
+    {
+      int size=_store.getSize();
+      List<Landblock> ret=new ArrayList<Landblock>(size);
+      for(int slot=0;slot<size;slot++)
+      {
+        ret.add(getLandblockAt(slot));
+      }
+      return ret;
+    }
     return new ArrayList<Landblock>(_index.values());
   }
 
@@ -71,9 +125,27 @@ public class LandblocksManager
    */
   public Landblock getLandblock(int region, int blockX, int blockY)
   {
-    String key=getKey(region,blockX,blockY);
-    Landblock data=_index.get(key);
-    return data;
+    int key=LandblocksBinaryConstants.getKey(region,blockX,blockY);
+    if (_store!=null)
+    {
+      int slot=_store.findSlot(key);
+      return (slot>=0)?getLandblockAt(slot):null;
+    }
+    return _index.get(Integer.valueOf(key));
+  }
+
+  private Landblock getLandblockAt(int slot)
+  {
+    Landblock ret=_loaded.get(slot);
+    if (ret==null)
+    {
+      ret=_store.loadLandblockAt(slot);
+      if (!_loaded.compareAndSet(slot,null,ret))
+      {
+        ret=_loaded.get(slot);
+      }
+    }
+    return ret;
   }
 
   /**
@@ -82,9 +154,13 @@ public class LandblocksManager
    */
   public void addLandblock(Landblock landblock)
   {
+    if (_store!=null)
+    {
+      throw new IllegalStateException("Landblocks loaded from a store are read-only");
+    }
     BlockReference blockId=landblock.getBlockId();
-    String key=getKey(blockId.getRegion(),blockId.getBlockX(),blockId.getBlockY());
-    _index.put(key,landblock);
+    int key=LandblocksBinaryConstants.getKey(blockId.getRegion(),blockId.getBlockX(),blockId.getBlockY());
+    _index.put(Integer.valueOf(key),landblock);
   }
 
   /**
@@ -0,0 +1,173 @@
+package delta.games.lotro.tools.dat.maps.landblocks;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Presence of landblock infos, for each region.
+ * <p>
+ * For each region, a bitmap tells which blocks (X,Y) have a landblock info.
+ * @author DAM
+ */
+public class LandblocksPresence
+{
+  /**
+   * Number of blocks on each axis.
+   */
+  public static final int BLOCKS_PER_AXIS=0x100;
+  /**
+   * Number of blocks in a region.
+   */
+  public static final int BLOCKS_PER_REGION=BLOCKS_PER_AXIS*BLOCKS_PER_AXIS;
+
+  private Map<Integer,BitSet> _regions;
+
+  /**
+   * Constructor.
+   */
+  public LandblocksPresence()
+  {
+    _regions=new TreeMap<Integer,BitSet>();
+  }
+
+  /**
+   * Add a region.
+   * @param region Region identifier.
+   * @return the presence bitmap of the region.
+   */
+  public BitSet addRegion(int region)
+  {
+    Integer key=Integer.valueOf(region);
+    BitSet ret=_regions.get(key);
+    if (ret==null)
+    {
+      ret=new BitSet(BLOCKS_PER_REGION);
+      _regions.put(key,ret);
+    }
+    return ret;
+  }
+
+  /**
+   * Get the presence bitmap of a region.
+   * @param region Region identifier.
+   * @return A bitmap (bit index is blockX*256+blockY) or <code>null</code> if not found.
+   */
+  public BitSet getRegion(int region)
+  {
+    return _regions.get(Integer.valueOf(region));
+  }
+
+  /**
+   * Get the managed regions.
+   * @return An array of region identifiers, sorted by increasing value.
+   */
+  public int[] getRegions()
+  {
+    Set<Integer> regions=_regions.keySet();
+    int[] ret=new int[regions.size()];
+    int index=0;
+    for(Integer region : regions)
+    {
+      ret[index]=region.intValue();
+      index++;
+    }
+    return ret;
+  }
+
+  /**
+   * Set the presence of a landblock.
+   * @param region Region identifier.
+   * @param blockX Block coordinate (horizontal).
+   * @param blockY Block coordinate (vertical).
+   */
+  public void setPresent(int region, int blockX, int blockY)
+  {
+    addRegion(region).set(getBitIndex(blockX,blockY));
+  }
+
+  /**
+   * Indicates if a landblock is present or not.
+   * @param region Region identifier.
+   * @param blockX Block coordinate (horizontal).
+   * @param blockY Block coordinate (vertical).
+   * @return <code>true</code> if it is, <code>false</code> otherwise.
+   */
+  public boolean isPresent(int region, int blockX, int blockY)
+  {
+    BitSet bitmap=getRegion(region);
+    return (bitmap!=null) && bitmap.get(getBitIndex(blockX,blockY));
+  }
+
+  /**
+   * Get the block X coordinates that have at least a landblock in a region.
+   * @param region Region identifier.
+   * @return An array of block X coordinates, sorted by increasing value.
+   */
+  public int[] getBlocksX(int region)
+  {
+    BitSet bitmap=getRegion(region);
+    if (bitmap==null)
+    {
+      return new int[0];
+    }
+    int[] tmp=new int[BLOCKS_PER_AXIS];
+    int count=0;
+    int index=bitmap.nextSetBit(0);
+    while (index>=0)
+    {
+      int blockX=index/BLOCKS_PER_AXIS;
+      tmp[count]=blockX;
+      count++;
+      // Skip to the next column
+      index=bitmap.nextSetBit((blockX+1)*BLOCKS_PER_AXIS);
+    }
+    int[] ret=new int[count];
+    System.arraycopy(tmp,0,ret,0,count);
+    return ret;
+  }
+
+  /**
+   * Get the block Y coordinates of the landblocks present in a column.
+   * @param region Region identifier.
+   * @param blockX Block coordinate (horizontal).
+   * @return An array of block Y coordinates, sorted by increasing value.
+   */
+  public int[] getBlocksY(int region, int blockX)
+  {
+    BitSet bitmap=getRegion(region);
+    if (bitmap==null)
+    {
+      return new int[0];
+    }
+    int from=blockX*BLOCKS_PER_AXIS;
+    int to=from+BLOCKS_PER_AXIS;
+    int[] tmp=new int[BLOCKS_PER_AXIS];
+    int count=0;
+    for(int index=bitmap.nextSetBit(from);(index>=0) && (index<to);index=bitmap.nextSetBit(index+1))
+    {
+      tmp[count]=index-from;
+      count++;
+    }
+    int[] ret=new int[count];
+    System.arraycopy(tmp,0,ret,0,count);
+    return ret;
+  }
+
+  /**
+   * Get the number of present landblocks in a region.
+   * @param region Region identifier.
+   * @return A landblocks count.
+   */
+  public int getBlocksCount(int region)
+  {
+    BitSet bitmap=getRegion(region);
+    return (bitmap!=null)?bitmap.cardinality():0;
+  }
+
+  private static int getBitIndex(int blockX, int blockY)
+  {
+    return (blockX*BLOCKS_PER_AXIS)+blockY;
+  }
+}
@@ -0,0 +1,69 @@
+package delta.games.lotro.tools.dat.maps.landblocks;
+
+import org.apache.log4j.Logger;
+
+import delta.games.lotro.dat.DATFilesConstants;
+import delta.games.lotro.dat.archive.DATArchive;
+import delta.games.lotro.dat.archive.DatFilesManager;
+import delta.games.lotro.dat.data.DataFacade;
+
+/**
+ * Builds the landblocks presence index from the cell archives.
+ * @author DAM
+ */
+public class LandblocksPresenceBuilder
+{
+  private static final Logger LOGGER=Logger.getLogger(LandblocksPresenceBuilder.class);
+
+  /**
+   * Regions with landblocks.
+   */
+  public static final int[] REGIONS={1,2,3,4,14};
+
+  private DataFacade _facade;
+
+  /**
+   * Constructor.
+   * @param facade Data facade.
+   */
+  public LandblocksPresenceBuilder(DataFacade facade)
+  {
+    _facade=facade;
+  }
+
+  /**
+   * Build the presence index.
+   * @return the loaded presence index.
+   */
+  public LandblocksPresence build()
+  {
+    long start=System.currentTimeMillis();
+    LandblocksPresence ret=new LandblocksPresence();
+    DatFilesManager datFilesMgr=_facade.getDatFilesManager();
+    for(int region : REGIONS)
+    {
+      ret.addRegion(region);
+      DATArchive cellArchive=datFilesMgr.getArchive(DATFilesConstants.CELL_SEED+region);
+      if (cellArchive==null)
+      {
+        continue;
+      }
+      for(int blockX=0;blockX<LandblocksPresence.BLOCKS_PER_AXIS;blockX++)
+      {
+        for(int blockY=0;blockY<LandblocksPresence.BLOCKS_PER_AXIS;blockY++)
+        {
+          long landblockInfoDID=0x80200000L+(region*0x10000)+(blockX*0x100)+blockY;
+          // Directory lookup only: the entry data is not read
+          if (cellArchive.getEntry(landblockInfoDID)!=null)
+          {
+            ret.setPresent(region,blockX,blockY);
+          }
+        }
+      }
+      LOGGER.info("Region "+region+": "+ret.getBlocksCount(region)+" landblocks");
+    }
+    long end=System.currentTimeMillis();
+    LOGGER.info("Built landblocks presence index in "+(end-start)+"ms");
+    return ret;
+  }
+}
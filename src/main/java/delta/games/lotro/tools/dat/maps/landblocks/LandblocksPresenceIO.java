@@ -0,0 +1,147 @@
+package delta.games.lotro.tools.dat.maps.landblocks;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.BitSet;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Binary I/O for landblocks presence indexes.
+ * <p>
+ * Format: magic, version, DAT files stamp, number of regions, then (region, bitmap words) for each region.
+ * @author DAM
+ */
+public class LandblocksPresenceIO
+{
+  private static final Logger LOGGER=Logger.getLogger(LandblocksPresenceIO.class);
+
+  private static final int MAGIC=0x4C425058; // LBPX
+  private static final int VERSION=2;
+  private static final int WORDS_PER_REGION=LandblocksPresence.BLOCKS_PER_REGION/64;
+
+  /**
+   * Load an index from a file.
+   * @param from Source file.
+   * @param datStamp Stamp of the current DAT files.
+   * @return the loaded index or <code>null</code> if the file does not exist, could not be read
+   * or was built from other DAT files.
+   */
+  public static LandblocksPresence load(File from, long datStamp)
+  {
+    if (!from.exists())
+    {
+      return null;
+    }
+    LandblocksPresence ret=null;
+    DataInputStream is=null;
+    try
+    {
+      is=new DataInputStream(new BufferedInputStream(new FileInputStream(from)));
+      int magic=is.readInt();
+      int version=is.readInt();
+      if ((magic!=MAGIC) || (version!=VERSION))
+      {
+        LOGGER.warn("Bad landblocks presence file: "+from);
+        return null;
+      }
+      long stamp=is.readLong();
+      if (stamp!=datStamp)
+      {
+        LOGGER.info("Landblocks presence file is out of date: "+from);
+        return null;
+      }
+      LandblocksPresence presence=new LandblocksPresence();
+      int nbRegions=is.readInt();
+      for(int i=0;i<nbRegions;i++)
+      {
+        int region=is.readInt();
+        long[] words=new long[WORDS_PER_REGION];
+        for(int j=0;j<WORDS_PER_REGION;j++)
+        {
+          words[j]=is.readLong();
+        }
+        presence.addRegion(region).or(BitSet.valueOf(words));
+      }
+      ret=presence;
+    }
+    catch(IOException ioe)
+    {
+      LOGGER.warn("Could not read landblocks presence file: "+from,ioe);
+    }
+    finally
+    {
+      close(is);
+    }
+    return ret;
+  }
+
+  /**
+   * Write an index to a file.
+   * @param to Target file.
+   * @param presence Index to write.
+   * @param datStamp Stamp of the DAT files used to build the index.
+   * @return <code>true</code> if it succeeds, <code>false</code> otherwise.
+   */
+  public static boolean write(File to, LandblocksPresence presence, long datStamp)
+  {
+    File parentDir=to.getParentFile();
+    if (!parentDir.exists())
+    {
+      parentDir.mkdirs();
+    }
+    boolean ok=false;
+    DataOutputStream os=null;
+    try
+    {
+      os=new DataOutputStream(new BufferedOutputStream(new FileOutputStream(to)));
+      os.writeInt(MAGIC);
+      os.writeInt(VERSION);
+      os.writeLong(datStamp);
+      int[] regions=presence.getRegions();
+      os.writeInt(regions.length);
+      for(int region : regions)
+      {
+        os.writeInt(region);
+        long[] words=presence.getRegion(region).toLongArray();
+        for(int j=0;j<WORDS_PER_REGION;j++)
+        {
+          os.writeLong((j<words.length)?words[j]:0);
+        }
+      }
+      os.flush();
+      ok=true;
+    }
+    catch(IOException ioe)
+    {
+      LOGGER.warn("Could not write landblocks presence file: "+to,ioe);
+    }
+    finally
+    {
+      close(os);
+    }
+    return ok;
+  }
+
+  private static void close(Closeable stream)
+  {
+    if (stream!=null)
+    {
+      try
+      {
+        stream.close();
+      }
+      catch(IOException ioe)
+      {
+        // Ignored
+      }
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package delta.games.lotro.tools.dat.maps.landblocks;
+
+import java.io.File;
+
+import org.apache.log4j.Logger;
+
+import delta.games.lotro.dat.data.DataFacade;
+import delta.games.lotro.tools.dat.GeneratedFiles;
+import delta.games.lotro.tools.dat.utils.DatFilesStamp;
+
+/**
+ * Manager for the landblocks presence index.
+ * <p>
+ * The index is loaded from disk if available, or built from the cell archives
+ * and then saved to disk so that it is shared by all the landblocks tools.<br>
+ * The index file is kept across runs, and rebuilt when the DAT files change.
+ * @author DAM
+ */
+public class LandblocksPresenceManager
+{
+  private static final Logger LOGGER=Logger.getLogger(LandblocksPresenceManager.class);
+
+  private static final LandblocksPresenceManager _instance=new LandblocksPresenceManager();
+
+  private LandblocksPresence _presence;
+
+  /**
+   * Get the reference instance of this class.
+   * @return the reference instance of this class.
+   */
+  public static LandblocksPresenceManager getInstance()
+  {
+    return _instance;
+  }
+
+  /**
+   * Get the landblocks presence index.
+   * @param facade Data facade, used to build the index if needed.
+   * @return the landblocks presence index.
+   */
+  public synchronized LandblocksPresence getPresence(DataFacade facade)
+  {
+    if (_presence==null)
+    {
+      File presenceFile=GeneratedFiles.LANDBLOCKS_PRESENCE;
+      long datStamp=DatFilesStamp.getStamp();
+      _presence=LandblocksPresenceIO.load(presenceFile,datStamp);
+      if (_presence==null)
+      {
+        _presence=new LandblocksPresenceBuilder(facade).build();
+        boolean ok=LandblocksPresenceIO.write(presenceFile,_presence,datStamp);
+        if (ok)
+        {
+          LOGGER.info("Wrote landblocks presence file: "+presenceFile);
+        }
+      }
+    }
+    return _presence;
+  }
+
+  /**
+   * Forget the loaded index (the index file is not removed).
+   */
+  public synchronized void reset()
+  {
+    _presence=null;
+  }
+}
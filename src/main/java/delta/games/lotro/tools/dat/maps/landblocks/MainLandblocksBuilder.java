@@ -2,6 +2,7 @@ package delta.games.lotro.tools.dat.maps.landblocks;
 
 import delta.games.lotro.dat.data.DataFacade;
 import delta.games.lotro.tools.dat.GeneratedFiles;
+import delta.games.lotro.tools.dat.maps.landblocks.io.binary.LandblocksBinaryWriter;
 import delta.games.lotro.tools.dat.maps.landblocks.io.xml.LandblocksXMLWriter;
 
 /**
@@ -29,15 +30,15 @@ public class MainLandblocksBuilder
   {
     LandblockLoader landblockLoader=new LandblockLoader(_facade);
     LandblocksManager index=new LandblocksManager();
+    LandblocksPresence presence=LandblocksPresenceManager.getInstance().getPresence(_facade);
     int nbBlocks=0;
-    int[] regions={1,2,3,4,14};
-    for(int region : regions)
+    for(int region : presence.getRegions())
     {
       System.out.println("Region "+region);
-      for(int blockX=0;blockX<=0xFF;blockX++)
+      for(int blockX : presence.getBlocksX(region))
       {
         System.out.println("X="+blockX);
-        for(int blockY=0;blockY<=0xFF;blockY++)
+        for(int blockY : presence.getBlocksY(region,blockX))
         {
           Landblock data=landblockLoader.buildLandblock(region,blockX,blockY);
           if (data!=null)
@@ -64,6 +65,11 @@ public class MainLandblocksBuilder
     {
       System.out.println("Wrote landblocks file: "+GeneratedFiles.LANDBLOCKS);
     }
+    ok=LandblocksBinaryWriter.writeLandblocksFile(GeneratedFiles.LANDBLOCKS_BINARY,index);
+    if (ok)
+    {
+      System.out.println("Wrote landblocks file: "+GeneratedFiles.LANDBLOCKS_BINARY);
+    }
   }
 
   /**
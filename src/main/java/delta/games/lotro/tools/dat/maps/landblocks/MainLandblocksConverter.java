@@ -0,0 +1,45 @@
+package delta.games.lotro.tools.dat.maps.landblocks;
+
+import java.io.File;
+
+import delta.games.lotro.tools.dat.GeneratedFiles;
+import delta.games.lotro.tools.dat.maps.landblocks.io.binary.LandblocksBinaryWriter;
+import delta.games.lotro.tools.dat.maps.landblocks.io.xml.LandblocksXMLParser;
+
+/**
+ * Tool to convert the landblocks XML file to the binary format.
+ * @author DAM
+ */
+public class MainLandblocksConverter
+{
+  /**
+   * Convert a landblocks file.
+   * @param from Source XML file.
+   * @param to Target binary file.
+   * @return <code>true</code> if it succeeds, <code>false</code> otherwise.
+   */
+  public boolean convert(File from, File to)
+  {
+    LandblocksManager index=new LandblocksXMLParser().parseXML(from);
+    if (index==null)
+    {
+      System.out.println("Could not read landblocks file: "+from);
+      return false;
+    }
+    boolean ok=LandblocksBinaryWriter.writeLandblocksFile(to,index);
+    if (ok)
+    {
+      System.out.println("Wrote landblocks file: "+to);
+    }
+    return ok;
+  }
+
+  /**
+   * Main method for this tool.
+   * @param args Not used.
+   */
+  public static void main(String[] args)
+  {
+    new MainLandblocksConverter().convert(GeneratedFiles.LANDBLOCKS,GeneratedFiles.LANDBLOCKS_BINARY);
+  }
+}
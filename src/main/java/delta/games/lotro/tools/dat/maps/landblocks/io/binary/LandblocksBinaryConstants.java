@@ -0,0 +1,58 @@
+package delta.games.lotro.tools.dat.maps.landblocks.io.binary;
+
+/**
+ * Constants for the landblocks binary format.
+ * <p>
+ * Format:
+ * <ul>
+ * <li>header: magic, version, number of landblocks,
+ * <li>index: (key, offset) for each landblock, sorted by key,
+ * <li>data: landblocks, at the given offsets (from the start of the data).
+ * </ul>
+ * A landblock is: flags, area ID (if any), dungeon ID (if any), center height, number of cells,
+ * then for each cell: index, flags, dungeon ID (if any), position (if any).
+ * @author DAM
+ */
+public class LandblocksBinaryConstants
+{
+  /**
+   * Magic number.
+   */
+  public static final int MAGIC=0x4C424B53; // LBKS
+  /**
+   * Format version.
+   */
+  public static final int VERSION=1;
+  /**
+   * Header size.
+   */
+  public static final int HEADER_SIZE=12;
+  /**
+   * Size of an index entry.
+   */
+  public static final int INDEX_ENTRY_SIZE=8;
+  /**
+   * Flag: has an area.
+   */
+  public static final int HAS_AREA=1;
+  /**
+   * Flag: has a dungeon.
+   */
+  public static final int HAS_DUNGEON=2;
+  /**
+   * Flag: has a position (cells only).
+   */
+  public static final int HAS_POSITION=4;
+
+  /**
+   * Build a landblock key.
+   * @param region Region.
+   * @param blockX Block X.
+   * @param blockY Block Y.
+   * @return A key.
+   */
+  public static int getKey(int region, int blockX, int blockY)
+  {
+    return (region<<16)|(blockX<<8)|blockY;
+  }
+}
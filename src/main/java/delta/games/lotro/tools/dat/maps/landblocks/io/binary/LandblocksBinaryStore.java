@@ -0,0 +1,189 @@
+package delta.games.lotro.tools.dat.maps.landblocks.io.binary;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import org.apache.log4j.Logger;
+
+import delta.games.lotro.dat.data.DatPosition;
+import delta.games.lotro.lore.geo.BlockReference;
+import delta.games.lotro.tools.dat.maps.data.Cell;
+import delta.games.lotro.tools.dat.maps.landblocks.Landblock;
+
+/**
+ * Read-only store for landblocks in a binary file.
+ * <p>
+ * The file is memory-mapped. Only the index is read when opening the store,
+ * landblocks are decoded on demand.
+ * @author DAM
+ */
+public class LandblocksBinaryStore
+{
+  private static final Logger LOGGER=Logger.getLogger(LandblocksBinaryStore.class);
+
+  private ByteBuffer _buffer;
+  private int[] _keys;
+  private int[] _offsets;
+
+  private LandblocksBinaryStore(ByteBuffer buffer, int[] keys, int[] offsets)
+  {
+    _buffer=buffer;
+    _keys=keys;
+    _offsets=offsets;
+  }
+
+  /**
+   * Open a store.
+   * @param from Source file.
+   * @return the loaded store or <code>null</code> if the file does not exist or could not be read.
+   */
+  public static LandblocksBinaryStore open(File from)
+  {
+    if (!from.exists())
+    {
+      return null;
+    }
+    LandblocksBinaryStore ret=null;
+    RandomAccessFile file=null;
+    try
+    {
+      file=new RandomAccessFile(from,"r");
+      FileChannel channel=file.getChannel();
+      // The mapping stays valid after the channel is closed
+      MappedByteBuffer buffer=channel.map(FileChannel.MapMode.READ_ONLY,0,channel.size());
+      int magic=buffer.getInt();
+      int version=buffer.getInt();
+      if ((magic!=LandblocksBinaryConstants.MAGIC) || (version!=LandblocksBinaryConstants.VERSION))
+      {
+        LOGGER.warn("Bad landblocks file: "+from);
+        return null;
+      }
+      int count=buffer.getInt();
+      int maxCount=(buffer.limit()-LandblocksBinaryConstants.HEADER_SIZE)/LandblocksBinaryConstants.INDEX_ENTRY_SIZE;
+      if ((count<0) || (count>maxCount))
+      {
+        LOGGER.warn("Bad landblocks count ("+count+") in file: "+from);
+        return null;
+      }
+      int[] keys=new int[count];
+      int[] offsets=new int[count];
+      int dataStart=LandblocksBinaryConstants.HEADER_SIZE+(count*LandblocksBinaryConstants.INDEX_ENTRY_SIZE);
+      for(int i=0;i<count;i++)
+      {
+        keys[i]=buffer.getInt();
+        offsets[i]=dataStart+buffer.getInt();
+        if ((offsets[i]<dataStart) || (offsets[i]>=buffer.limit()) || ((i>0) && (keys[i]<=keys[i-1])))
+        {
+          LOGGER.warn("Bad landblocks index entry #"+i+" in file: "+from);
+          return null;
+        }
+      }
+      ret=new LandblocksBinaryStore(buffer,keys,offsets);
+    }
+    catch(IOException ioe)
+    {
+      LOGGER.warn("Could not read landblocks file: "+from,ioe);
+    }
+    catch(RuntimeException re)
+    {
+      // Truncated or corrupted file (BufferUnderflowException, IndexOutOfBoundsException...)
+      LOGGER.warn("Could not decode landblocks file: "+from,re);
+    }
+    finally
+    {
+      if (file!=null)
+      {
+        try
+        {
+          file.close();
+        }
+        catch(IOException ioe)
+        {
+          // Ignored
+        }
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Get the number of landblocks in this store.
+   * @return a landblocks count.
+   */
+  public int getSize()
+  {
+    return _keys.length;
+  }
+
+  /**
+   * Get the key of the landblock at the given slot.
+   * @param slot Slot, starting at 0.
+   * @return A landblock key.
+   */
+  public int getKeyAt(int slot)
+  {
+    return _keys[slot];
+  }
+
+  /**
+   * Find the slot of a landblock.
+   * @param key Landblock key.
+   * @return A slot or a negative value if not found.
+   */
+  public int findSlot(int key)
+  {
+    return Arrays.binarySearch(_keys,key);
+  }
+
+  /**
+   * Decode the landblock at the given slot.
+   * <p>
+   * May be called by several threads at the same time.
+   * @param slot Slot, starting at 0.
+   * @return the decoded landblock.
+   */
+  public Landblock loadLandblockAt(int slot)
+  {
+    int key=_keys[slot];
+    BlockReference blockId=new BlockReference(key>>16,(key>>8)&0xFF,key&0xFF);
+    Landblock ret=new Landblock(blockId);
+    ByteBuffer buffer=_buffer.duplicate();
+    buffer.position(_offsets[slot]);
+    int flags=buffer.get();
+    if ((flags&LandblocksBinaryConstants.HAS_AREA)!=0)
+    {
+      ret.setParentArea(buffer.getInt());
+    }
+    if ((flags&LandblocksBinaryConstants.HAS_DUNGEON)!=0)
+    {
+      ret.setParentDungeon(buffer.getInt());
+    }
+    ret.setCenterHeight(buffer.getFloat());
+    // Cells
+    int nbCells=buffer.getInt();
+    for(int i=0;i<nbCells;i++)
+    {
+      int cellIndex=buffer.getInt();
+      int cellFlags=buffer.get();
+      Integer dungeonId=null;
+      if ((cellFlags&LandblocksBinaryConstants.HAS_DUNGEON)!=0)
+      {
+        dungeonId=Integer.valueOf(buffer.getInt());
+      }
+      Cell cell=new Cell(cellIndex,dungeonId);
+      if ((cellFlags&LandblocksBinaryConstants.HAS_POSITION)!=0)
+      {
+        DatPosition position=new DatPosition();
+        position.setPosition(buffer.getFloat(),buffer.getFloat(),buffer.getFloat());
+        cell.setPosition(position);
+      }
+      ret.addCell(cell);
+    }
+    return ret;
+  }
+}
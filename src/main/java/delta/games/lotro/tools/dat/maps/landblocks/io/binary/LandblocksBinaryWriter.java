@@ -0,0 +1,175 @@
+package delta.games.lotro.tools.dat.maps.landblocks.io.binary;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+
+import delta.games.lotro.dat.data.DatPosition;
+import delta.games.lotro.dat.data.Vector3D;
+import delta.games.lotro.lore.geo.BlockReference;
+import delta.games.lotro.tools.dat.maps.data.Cell;
+import delta.games.lotro.tools.dat.maps.landblocks.Landblock;
+import delta.games.lotro.tools.dat.maps.landblocks.LandblocksManager;
+import delta.games.lotro.tools.dat.maps.landblocks.comparators.LandblockIdComparator;
+
+/**
+ * Writes landblocks to binary files.
+ * @author DAM
+ */
+public class LandblocksBinaryWriter
+{
+  private static final Logger LOGGER=Logger.getLogger(LandblocksBinaryWriter.class);
+
+  /**
+   * Write a file with landblocks.
+   * @param toFile Output file.
+   * @param index Data to write.
+   * @return <code>true</code> if it succeeds, <code>false</code> otherwise.
+   */
+  public static boolean writeLandblocksFile(File toFile, LandblocksManager index)
+  {
+    List<Landblock> landblocks=index.getLandblocks();
+    Collections.sort(landblocks,new LandblockIdComparator());
+    return new LandblocksBinaryWriter().writeLandblocks(toFile,landblocks);
+  }
+
+  /**
+   * Write landblocks to a binary file.
+   * @param outFile Output file.
+   * @param landblocks Landblocks to write, sorted by identifier.
+   * @return <code>true</code> if it succeeds, <code>false</code> otherwise.
+   */
+  public boolean writeLandblocks(File outFile, List<Landblock> landblocks)
+  {
+    File parentDir=outFile.getParentFile();
+    if (!parentDir.exists())
+    {
+      parentDir.mkdirs();
+    }
+    // Write to a temporary file first, so that a failed write never leaves
+    // a broken file newer than the XML source
+    File tmpFile=new File(parentDir,outFile.getName()+".tmp");
+    boolean ok=false;
+    DataOutputStream os=null;
+    try
+    {
+      // Data
+      int count=landblocks.size();
+      int[] keys=new int[count];
+      int[] offsets=new int[count];
+      ByteArrayOutputStream data=new ByteArrayOutputStream();
+      DataOutputStream dataOs=new DataOutputStream(data);
+      for(int i=0;i<count;i++)
+      {
+        Landblock landblock=landblocks.get(i);
+        BlockReference blockId=landblock.getBlockId();
+        keys[i]=LandblocksBinaryConstants.getKey(blockId.getRegion(),blockId.getBlockX(),blockId.getBlockY());
+        offsets[i]=dataOs.size();
+        writeLandblock(dataOs,landblock);
+      }
+      dataOs.flush();
+      // File
+      os=new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+      os.writeInt(LandblocksBinaryConstants.MAGIC);
+      os.writeInt(LandblocksBinaryConstants.VERSION);
+      os.writeInt(count);
+      for(int i=0;i<count;i++)
+      {
+        os.writeInt(keys[i]);
+        os.writeInt(offsets[i]);
+      }
+      data.writeTo(os);
+      os.close();
+      os=null;
+      ok=true;
+    }
+    catch(IOException ioe)
+    {
+      LOGGER.warn("Could not write landblocks file: "+outFile,ioe);
+    }
+    finally
+    {
+      if (os!=null)
+      {
+        try
+        {
+          os.close();
+        }
+        catch(IOException ioe)
+        {
+          // Ignored
+        }
+      }
+    }
+    if (ok)
+    {
+      if (outFile.exists())
+      {
+        outFile.delete();
+      }
+      ok=tmpFile.renameTo(outFile);
+      if (!ok)
+      {
+        LOGGER.warn("Could not rename "+tmpFile+" to "+outFile);
+      }
+    }
+    if (!ok)
+    {
+      tmpFile.delete();
+    }
+    return ok;
+  }
+
+  private void writeLandblock(DataOutputStream os, Landblock landblock) throws IOException
+  {
+    Integer areaId=landblock.getParentArea();
+    Integer dungeonId=landblock.getParentDungeon();
+    int flags=0;
+    if (areaId!=null) flags|=LandblocksBinaryConstants.HAS_AREA;
+    if (dungeonId!=null) flags|=LandblocksBinaryConstants.HAS_DUNGEON;
+    os.writeByte(flags);
+    if (areaId!=null)
+    {
+      os.writeInt(areaId.intValue());
+    }
+    if (dungeonId!=null)
+    {
+      os.writeInt(dungeonId.intValue());
+    }
+    os.writeFloat(landblock.getCenterHeight());
+    // Cells
+    List<Integer> cellIndexes=new ArrayList<Integer>(landblock.getCellIndexes());
+    Collections.sort(cellIndexes);
+    os.writeInt(cellIndexes.size());
+    for(Integer cellIndex : cellIndexes)
+    {
+      Cell cell=landblock.getCell(cellIndex.intValue());
+      Integer dungeonIdForCell=cell.getDungeonId();
+      DatPosition position=cell.getPosition();
+      int cellFlags=0;
+      if (dungeonIdForCell!=null) cellFlags|=LandblocksBinaryConstants.HAS_DUNGEON;
+      if (position!=null) cellFlags|=LandblocksBinaryConstants.HAS_POSITION;
+      os.writeInt(cellIndex.intValue());
+      os.writeByte(cellFlags);
+      if (dungeonIdForCell!=null)
+      {
+        os.writeInt(dungeonIdForCell.intValue());
+      }
+      if (position!=null)
+      {
+        Vector3D vector=position.getPosition();
+        os.writeFloat(vector.getX());
+        os.writeFloat(vector.getY());
+        os.writeFloat(vector.getZ());
+      }
+    }
+  }
+}
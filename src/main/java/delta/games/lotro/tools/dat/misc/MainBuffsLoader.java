@@ -1,22 +1,19 @@
 package delta.games.lotro.tools.dat.misc;
 
-import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
-import org.apache.log4j.Logger;
-
-import delta.common.utils.files.archives.DirectoryArchiver;
 import delta.games.lotro.common.IdentifiableComparator;
 import delta.games.lotro.common.effects.Effect;
 import delta.games.lotro.dat.data.DataFacade;
-import delta.games.lotro.dat.utils.DatIconsUtils;
 import delta.games.lotro.lore.buffs.EffectBuff;
 import delta.games.lotro.lore.buffs.io.xml.EffectBuffXMLWriter;
 import delta.games.lotro.tools.dat.GeneratedFiles;
 import delta.games.lotro.tools.dat.utils.DatEffectUtils;
-import delta.games.lotro.tools.dat.utils.DatStatUtils;
+import delta.games.lotro.tools.dat.utils.ProgressionsRegistry;
+import delta.games.lotro.tools.dat.utils.StatsLoadingContext;
+import delta.games.lotro.tools.dat.utils.icons.IconsExportService;
 
 /**
  * Loader for effect-based buffs.
@@ -24,14 +21,8 @@ import delta.games.lotro.tools.dat.utils.DatStatUtils;
  */
 public class MainBuffsLoader
 {
-  private static final Logger LOGGER=Logger.getLogger(MainBuffsLoader.class);
-
-  /**
-   * Directory for effect icons.
-   */
-  private static File EFFECT_ICONS_DIR=new File("data\\effects\\tmp").getAbsoluteFile();
-
   private DataFacade _facade;
+  private StatsLoadingContext _statsContext;
 
   /**
    * Constructor.
@@ -40,6 +31,8 @@ public class MainBuffsLoader
   public MainBuffsLoader(DataFacade facade)
   {
     _facade=facade;
+    _statsContext=new StatsLoadingContext();
+    _statsContext.setFilterStats(false);
   }
 
   /**
@@ -76,7 +69,7 @@ public class MainBuffsLoader
   private EffectBuff loadBuff(int id, String key)
   {
     EffectBuff buff=null;
-    Effect effect=DatEffectUtils.loadEffect(_facade,id);
+    Effect effect=DatEffectUtils.loadEffect(_statsContext,_facade,id);
     if (effect!=null)
     {
       buff=new EffectBuff();
@@ -91,15 +84,7 @@ public class MainBuffsLoader
       if (iconId!=null)
       {
         String iconFilename=iconId+".png";
-        File to=new File(EFFECT_ICONS_DIR,"effectIcons/"+iconFilename).getAbsoluteFile();
-        if (!to.exists())
-        {
-          boolean ok=DatIconsUtils.buildImageFile(_facade,iconId.intValue(),to);
-          if (!ok)
-          {
-            LOGGER.warn("Could not build trait icon: "+iconFilename);
-          }
-        }
+        IconsExportService.getInstance().exportIcon(iconId.intValue(),GeneratedFiles.EFFECT_ICONS,"effectIcons/"+iconFilename);
       }
     }
     return buff;
@@ -109,11 +94,10 @@ public class MainBuffsLoader
   {
     // Buffs file
     saveBuffs(buffs);
-    // Save progressions
-    DatStatUtils._progressions.writeToFile(GeneratedFiles.PROGRESSIONS_BUFFS);
+    // Register progressions
+    ProgressionsRegistry.getInstance().register(_statsContext,GeneratedFiles.PROGRESSIONS_BUFFS);
     // Write effect icons archive
-    DirectoryArchiver archiver=new DirectoryArchiver();
-    boolean ok=archiver.go(GeneratedFiles.EFFECT_ICONS,EFFECT_ICONS_DIR);
+    boolean ok=IconsExportService.getInstance().writeArchive(GeneratedFiles.EFFECT_ICONS);
     if (ok)
     {
       System.out.println("Wrote effects icons archive: "+GeneratedFiles.EFFECT_ICONS);
@@ -6,9 +6,9 @@ import delta.games.lotro.common.stats.StatsProvider;
 import delta.games.lotro.common.stats.WellKnownStat;
 import delta.games.lotro.dat.WStateClass;
 import delta.games.lotro.dat.data.DataFacade;
-import delta.games.lotro.dat.utils.BufferUtils;
 import delta.games.lotro.tools.dat.utils.DatEffectUtils;
-import delta.games.lotro.tools.dat.utils.DatStatUtils;
+import delta.games.lotro.tools.dat.utils.StatsLoadingContext;
+import delta.games.lotro.tools.dat.utils.index.DidClassIndexManager;
 
 /**
  * Get effects from DAT files.
@@ -17,6 +17,7 @@ import delta.games.lotro.tools.dat.utils.DatStatUtils;
 public class MainDatEffectsLoader
 {
   private DataFacade _facade;
+  private StatsLoadingContext _statsContext;
 
   /**
    * Constructor.
@@ -25,11 +26,13 @@ public class MainDatEffectsLoader
   public MainDatEffectsLoader(DataFacade facade)
   {
     _facade=facade;
+    _statsContext=new StatsLoadingContext();
+    _statsContext.setFilterStats(false);
   }
 
   private Effect load(int effectId)
   {
-    Effect ret=DatEffectUtils.loadEffect(_facade,effectId);
+    Effect ret=DatEffectUtils.loadEffect(_statsContext,_facade,effectId);
     if (ret!=null)
     {
       String name=ret.getName();
@@ -43,30 +46,13 @@ public class MainDatEffectsLoader
     return ret;
   }
 
-  private boolean useId(int id)
-  {
-    byte[] data=_facade.loadData(id);
-    if (data!=null)
-    {
-      int classDefIndex=BufferUtils.getDoubleWordAt(data,4);
-      return ((classDefIndex==WStateClass.EFFECT) || (classDefIndex==WStateClass.EFFECT2)
-          || (classDefIndex==WStateClass.EFFECT3) || (classDefIndex==WStateClass.EFFECT4)
-          || (classDefIndex==WStateClass.EFFECT5));
-    }
-    return false;
-  }
-
   private void doIt()
   {
-    DatStatUtils.doFilterStats=false;
-    DatStatUtils._statsUsageStatistics.reset();
-    for(int id=0x70000000;id<=0x77FFFFFF;id++)
+    int[] ids=DidClassIndexManager.getDids(_facade,WStateClass.EFFECT,WStateClass.EFFECT2,
+        WStateClass.EFFECT3,WStateClass.EFFECT4,WStateClass.EFFECT5);
+    for(int id : ids)
     {
-      boolean useIt=useId(id);
-      if (useIt)
-      {
-        load(id);
-      }
+      load(id);
     }
   }
 
@@ -35,6 +35,7 @@ import delta.games.lotro.lore.items.legendary.relics.RelicsManager;
 import delta.games.lotro.tools.dat.misc.MiscIconsManager;
 import delta.games.lotro.tools.dat.utils.DatEnumsUtils;
 import delta.games.lotro.tools.dat.utils.DatUtils;
+import delta.games.lotro.tools.dat.utils.PropertiesCache;
 import delta.games.lotro.tools.dat.utils.ProxyBuilder;
 import delta.games.lotro.utils.Proxy;
 import delta.games.lotro.utils.StringUtils;
@@ -69,7 +70,7 @@ public class LootLoader
   private void loadProbabilities()
   {
     // LootGenControl:
-    PropertiesSet properties=_facade.loadProperties(1879076022+DATConstants.DBPROPERTIES_OFFSET);
+    PropertiesSet properties=PropertiesCache.getInstance().loadProperties(_facade,1879076022+DATConstants.DBPROPERTIES_OFFSET);
     Object[] tableArray=(Object[])properties.getProperty("LootGenControl_DropFrequencyTable");
     for(Object tableEntryObj : tableArray)
     {
@@ -91,7 +92,7 @@ public class LootLoader
     WeightedTreasureTable ret=_lootsMgr.getWeightedTreasureTables().getItem(id);
     if (ret==null)
     {
-      PropertiesSet properties=_facade.loadProperties(id+DATConstants.DBPROPERTIES_OFFSET);
+      PropertiesSet properties=PropertiesCache.getInstance().loadProperties(_facade,id+DATConstants.DBPROPERTIES_OFFSET);
       Object[] treasureTable=(Object[])properties.getProperty("LootGen_WeightedTreasureTable");
       if (treasureTable!=null)
       {
@@ -121,7 +122,7 @@ public class LootLoader
     FilteredTrophyTable ret=_lootsMgr.getFilteredTrophyTables().getItem(id);
     if (ret==null)
     {
-      PropertiesSet properties=_facade.loadProperties(id+DATConstants.DBPROPERTIES_OFFSET);
+      PropertiesSet properties=PropertiesCache.getInstance().loadProperties(_facade,id+DATConstants.DBPROPERTIES_OFFSET);
       if (properties!=null)
       {
         ret=new FilteredTrophyTable(id);
@@ -212,7 +213,7 @@ public class LootLoader
     TrophyList ret=_lootsMgr.getTrophyLists().getItem(id);
     if (ret==null)
     {
-      PropertiesSet properties=_facade.loadProperties(id+DATConstants.DBPROPERTIES_OFFSET);
+      PropertiesSet properties=PropertiesCache.getInstance().loadProperties(_facade,id+DATConstants.DBPROPERTIES_OFFSET);
       Object[] trophyList=(Object[])properties.getProperty("LootGen_TrophyList");
       if (trophyList!=null)
       {
@@ -280,7 +281,7 @@ public class LootLoader
   private String getItemName(int id)
   {
     String ret=null;
-    PropertiesSet properties=_facade.loadProperties(id+DATConstants.DBPROPERTIES_OFFSET);
+    PropertiesSet properties=PropertiesCache.getInstance().loadProperties(_facade,id+DATConstants.DBPROPERTIES_OFFSET);
     if (properties!=null)
     {
       ret=DatUtils.getStringProperty(properties,"Name");
@@ -297,7 +298,7 @@ public class LootLoader
     }
     if (ret==null)
     {
-      PropertiesSet properties=_facade.loadProperties(id+DATConstants.DBPROPERTIES_OFFSET);
+      PropertiesSet properties=PropertiesCache.getInstance().loadProperties(_facade,id+DATConstants.DBPROPERTIES_OFFSET);
       ItemsTable itemsTable=handleItemsTable(id,properties);
       TreasureList treasureList=handleTreasureList(id,properties);
       if (itemsTable!=null)
@@ -387,7 +388,7 @@ public class LootLoader
     RelicsList ret=_lootsMgr.getRelicsLists().getItem(propertyId);
     if (ret==null)
     {
-      PropertiesSet properties=_facade.loadProperties(propertyId+DATConstants.DBPROPERTIES_OFFSET);
+      PropertiesSet properties=PropertiesCache.getInstance().loadProperties(_facade,propertyId+DATConstants.DBPROPERTIES_OFFSET);
       if (properties==null)
       {
         return null;
@@ -424,7 +425,7 @@ public class LootLoader
     RelicsTreasureGroup ret=_lootsMgr.getRelicsTreasureGroups().getItem(id);
     if (ret==null)
     {
-      PropertiesSet properties=_facade.loadProperties(id+DATConstants.DBPROPERTIES_OFFSET);
+      PropertiesSet properties=PropertiesCache.getInstance().loadProperties(_facade,id+DATConstants.DBPROPERTIES_OFFSET);
       if (properties==null)
       {
         return null;
@@ -1,6 +1,5 @@
 package delta.games.lotro.tools.dat.others;
 
-import java.io.File;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Collections;
@@ -8,18 +7,17 @@ import java.util.List;
 
 import org.apache.log4j.Logger;
 
-import delta.common.utils.files.archives.DirectoryArchiver;
 import delta.games.lotro.common.IdentifiableComparator;
 import delta.games.lotro.dat.DATConstants;
 import delta.games.lotro.dat.data.DataFacade;
 import delta.games.lotro.dat.data.PropertiesSet;
 import delta.games.lotro.dat.data.enums.EnumMapper;
 import delta.games.lotro.dat.utils.BitSetUtils;
-import delta.games.lotro.dat.utils.DatIconsUtils;
 import delta.games.lotro.lore.collections.mounts.MountDescription;
 import delta.games.lotro.lore.collections.mounts.io.xml.MountXMLWriter;
 import delta.games.lotro.tools.dat.GeneratedFiles;
 import delta.games.lotro.tools.dat.utils.DatUtils;
+import delta.games.lotro.tools.dat.utils.icons.IconsExportService;
 import delta.games.lotro.utils.StringUtils;
 
 /**
@@ -30,11 +28,6 @@ public class MountsLoader
 {
   private static final Logger LOGGER=Logger.getLogger(MountsLoader.class);
 
-  /**
-   * Directory for mount icons.
-   */
-  public static final File MOUNT_ICONS_DIR=new File("data\\mounts\\tmp").getAbsoluteFile();
-
   private DataFacade _facade;
   private EnumMapper _mountType;
   private EnumMapper _category;
@@ -82,8 +75,7 @@ public class MountsLoader
         LOGGER.warn("Icons mismatch: small="+smallIconId+"/regular="+iconId+"/large="+largeIconId);
       }
       ret.setIconId(iconId);
-      File to=new File(MOUNT_ICONS_DIR,"mountIcons/"+iconId+".png").getAbsoluteFile();
-      DatIconsUtils.buildImageFile(_facade,iconId,to);
+      IconsExportService.getInstance().exportIcon(iconId,GeneratedFiles.MOUNT_ICONS,"mountIcons/"+iconId+".png");
       // Source description (null for war-steeds)
       String sourceDescription=DatUtils.getStringProperty(properties,"Collection_Piece_SourceDesc");
       ret.setSourceDescription(sourceDescription);
@@ -153,8 +145,7 @@ public class MountsLoader
     Collections.sort(mounts,new IdentifiableComparator<MountDescription>());
     MountXMLWriter.write(GeneratedFiles.MOUNTS,mounts);
     // Icons
-    DirectoryArchiver archiver=new DirectoryArchiver();
-    boolean ok=archiver.go(GeneratedFiles.MOUNT_ICONS,MOUNT_ICONS_DIR);
+    boolean ok=IconsExportService.getInstance().writeArchive(GeneratedFiles.MOUNT_ICONS);
     if (ok)
     {
       LOGGER.info("Wrote mount icons archive: "+GeneratedFiles.MOUNT_ICONS);
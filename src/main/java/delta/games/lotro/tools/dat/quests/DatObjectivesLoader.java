@@ -9,7 +9,6 @@ import delta.games.lotro.dat.data.DataFacade;
 import delta.games.lotro.dat.data.PropertiesSet;
 import delta.games.lotro.dat.data.enums.EnumMapper;
 import delta.games.lotro.dat.data.geo.GeoData;
-import delta.games.lotro.dat.loaders.LoaderUtils;
 import delta.games.lotro.dat.loaders.wstate.QuestEventTargetLocationLoader;
 import delta.games.lotro.lore.agents.mobs.MobDescription;
 import delta.games.lotro.lore.agents.mobs.MobReference;
@@ -53,7 +52,9 @@ import delta.games.lotro.tools.dat.utils.DatUtils;
 import delta.games.lotro.tools.dat.utils.MobLoader;
 import delta.games.lotro.tools.dat.utils.NpcLoader;
 import delta.games.lotro.tools.dat.utils.PlaceLoader;
+import delta.games.lotro.tools.dat.utils.PropertiesCache;
 import delta.games.lotro.tools.dat.utils.ProxyBuilder;
+import delta.games.lotro.tools.dat.utils.TargetsCache;
 import delta.games.lotro.utils.Proxy;
 
 /**
@@ -895,7 +896,7 @@ QuestEvent_ShowBillboardText: 0
     Integer count=(Integer)properties.getProperty("QuestEvent_Number");
     String constraint=(String)properties.getProperty("QuestEvent_RoleConstraint");
     System.out.println("World event: ID="+id+", operator="+operator+", value="+value+", count="+count+", constraint="+constraint);
-    PropertiesSet worldEventProps=_facade.loadProperties(id+DATConstants.DBPROPERTIES_OFFSET);
+    PropertiesSet worldEventProps=PropertiesCache.getInstance().loadProperties(_facade,id+DATConstants.DBPROPERTIES_OFFSET);
     int propId=((Integer)worldEventProps.getProperty("WorldEvent_WorldPropertyName")).intValue();
     PropertyDefinition propDef=_facade.getPropertiesRegistry().getPropertyDef(propId);
     System.out.println(propDef);
@@ -1142,7 +1143,7 @@ QuestEvent_ShowProgressText: 0
     ConditionTarget target=null;
     Proxy<NpcDescription> npcProxy=null;
     Proxy<MobDescription> mobProxy=null;
-    int wstateClass=LoaderUtils.getWStateClass(_facade,id.intValue());
+    int wstateClass=TargetsCache.getInstance().getClassIndex(_facade,id.intValue());
     // Mostly 1723 (mob) or 1724 (NPC)
     if (wstateClass==WStateClass.NPC)
     {
@@ -4,7 +4,8 @@ import delta.games.lotro.dat.DATConstants;
 import delta.games.lotro.dat.WStateClass;
 import delta.games.lotro.dat.data.DataFacade;
 import delta.games.lotro.dat.data.PropertiesSet;
-import delta.games.lotro.dat.utils.BufferUtils;
+import delta.games.lotro.tools.dat.utils.index.DidClassIndexManager;
+import delta.games.lotro.tools.dat.utils.index.DidClassProbe;
 
 /**
  * Utility methods related to quests/deeds loader.
@@ -20,15 +21,8 @@ public class DatQuestDeedsUtils
    */
   public static boolean isQuestOrDeedId(DataFacade facade, int id)
   {
-    byte[] data=facade.loadData(id);
-    if (data!=null)
-    {
-      //int did=BufferUtils.getDoubleWordAt(data,0);
-      int classDefIndex=BufferUtils.getDoubleWordAt(data,4);
-      //System.out.println(classDefIndex);
-      return (classDefIndex==WStateClass.ACCOMPLISHMENT);
-    }
-    return false;
+    DidClassProbe probe=DidClassIndexManager.getInstance().getProbe(facade);
+    return probe.isOfClass(facade,id,WStateClass.ACCOMPLISHMENT);
   }
 
   /**
@@ -7,6 +7,12 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.log4j.Logger;
 
@@ -23,6 +29,7 @@ import delta.games.lotro.common.Size;
 import delta.games.lotro.common.requirements.UsageRequirement;
 import delta.games.lotro.common.rewards.Rewards;
 import delta.games.lotro.dat.DATConstants;
+import delta.games.lotro.dat.WStateClass;
 import delta.games.lotro.dat.data.DataFacade;
 import delta.games.lotro.dat.data.PropertiesSet;
 import delta.games.lotro.dat.data.enums.EnumMapper;
@@ -40,9 +47,10 @@ import delta.games.lotro.lore.quests.QuestDescription.FACTION;
 import delta.games.lotro.lore.quests.io.xml.QuestXMLWriter;
 import delta.games.lotro.tools.dat.GeneratedFiles;
 import delta.games.lotro.tools.dat.utils.DatEnumsUtils;
-import delta.games.lotro.tools.dat.utils.DatStatUtils;
 import delta.games.lotro.tools.dat.utils.DatUtils;
 import delta.games.lotro.tools.dat.utils.StringRenderingUtils;
+import delta.games.lotro.tools.dat.utils.TargetsCache;
+import delta.games.lotro.tools.dat.utils.index.DidClassIndexManager;
 import delta.games.lotro.tools.lore.deeds.geo.MainGeoDataInjector;
 import delta.games.lotro.tools.lore.deeds.keys.DeedKeysInjector;
 import delta.games.lotro.utils.Proxy;
@@ -59,7 +67,19 @@ public class MainDatAchievablesLoader
 
   private static final int HIDING_CONTENT_QUEST_ID=1879049597;
 
+  /**
+   * Number of achievables loaded by a parallel task.
+   */
+  private static final int CHUNK_SIZE=256;
+
+  /**
+   * Maximum number of threads used to load achievables.
+   * Each thread has its own data facade and sub-loaders (maps, geo data...), which are costly to build.
+   */
+  private static final int MAX_THREADS=4;
+
   private DataFacade _facade;
+  private int _nbThreads;
   private Map<Integer,QuestDescription> _quests;
   private Map<Integer,DeedDescription> _deeds;
   private EnumMapper _questCategory;
@@ -74,8 +94,19 @@ public class MainDatAchievablesLoader
    * @param facade Data facade.
    */
   public MainDatAchievablesLoader(DataFacade facade)
+  {
+    this(facade,Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Constructor.
+   * @param facade Data facade.
+   * @param nbThreads Number of threads to use to load quests and deeds.
+   */
+  public MainDatAchievablesLoader(DataFacade facade, int nbThreads)
   {
     _facade=facade;
+    _nbThreads=nbThreads;
     _quests=new HashMap<Integer,QuestDescription>();
     _deeds=new HashMap<Integer,DeedDescription>();
     _questCategory=_facade.getEnumsManager().getEnumMapper(587202585);
@@ -106,8 +137,9 @@ public class MainDatAchievablesLoader
     }
   }
 
-  private void load(int indexDataId)
+  private Achievable load(int indexDataId)
   {
+    Achievable ret=null;
     int dbPropertiesId=indexDataId+DATConstants.DBPROPERTIES_OFFSET;
     PropertiesSet properties=_facade.loadProperties(dbPropertiesId);
     if (properties!=null)
@@ -122,17 +154,32 @@ public class MainDatAchievablesLoader
       boolean isQuest=DatQuestDeedsUtils.isQuest(properties);
       if (isQuest)
       {
-        loadQuest(indexDataId,properties);
+        ret=loadQuest(indexDataId,properties);
       }
       else
       {
-        loadDeed(indexDataId,properties);
+        ret=loadDeed(indexDataId,properties);
       }
     }
     else
     {
       LOGGER.warn("Could not handle achievable ID="+indexDataId);
     }
+    return ret;
+  }
+
+  private void register(Achievable achievable)
+  {
+    if (achievable instanceof QuestDescription)
+    {
+      QuestDescription quest=(QuestDescription)achievable;
+      _quests.put(Integer.valueOf(quest.getIdentifier()),quest);
+    }
+    else if (achievable instanceof DeedDescription)
+    {
+      DeedDescription deed=(DeedDescription)achievable;
+      _deeds.put(Integer.valueOf(deed.getIdentifier()),deed);
+    }
   }
 
   private String renderName(String titleFormat)
@@ -143,14 +190,14 @@ public class MainDatAchievablesLoader
     return ret;
   }
 
-  private void loadQuest(int indexDataId, PropertiesSet properties)
+  private QuestDescription loadQuest(int indexDataId, PropertiesSet properties)
   {
     // Check
     boolean useIt=useQuest(indexDataId,properties);
     if (!useIt)
     {
       //System.out.println("Ignored ID="+indexDataId+", name="+name);
-      return;
+      return null;
     }
     QuestDescription quest=new QuestDescription();
     // ID
@@ -265,7 +312,7 @@ public class MainDatAchievablesLoader
 
     // Web Store (needed xpack/region): WebStoreAccountItem_DataID
 
-    _quests.put(Integer.valueOf(quest.getIdentifier()),quest);
+    return quest;
   }
 
   /*
@@ -366,7 +413,7 @@ public class MainDatAchievablesLoader
     // Quest_IsHidden
   }
 
-  private void loadDeed(int indexDataId, PropertiesSet properties)
+  private DeedDescription loadDeed(int indexDataId, PropertiesSet properties)
   {
     DeedDescription deed=new DeedDescription();
     // ID
@@ -411,7 +458,7 @@ public class MainDatAchievablesLoader
 
     // Web Store (needed xpack/region): WebStoreAccountItem_DataID
 
-    _deeds.put(Integer.valueOf(deed.getIdentifier()),deed);
+    return deed;
   }
 
   private void handleDeedType(DeedDescription deed, PropertiesSet properties)
@@ -723,23 +770,136 @@ public class MainDatAchievablesLoader
 
     // Save
     doSave();
+    LOGGER.info(TargetsCache.getInstance().getStatistics());
   }
 
   private void doScan()
   {
     //int[] IDS=new int[]{1879277326,1879139074};
     //for(int id : IDS)
-    for(int id=0x70000000;id<=0x77FFFFFF;id++)
+    int[] ids=DidClassIndexManager.getDids(_facade,WStateClass.ACCOMPLISHMENT);
+    if (_nbThreads>1)
+    {
+      scanInParallel(ids);
+      return;
+    }
+    for(int id : ids)
     //for(int id=DEBUG_ID;id<=DEBUG_ID;id++)
     {
-      boolean useIt=DatQuestDeedsUtils.isQuestOrDeedId(_facade,id);
-      if (useIt)
+      register(load(id));
+    }
+  }
+
+  /**
+   * Load achievables in parallel.
+   * <p>
+   * Each chunk of DIDs is decoded by a worker thread, with its own data facade and sub-loaders.
+   * The number of workers is capped by {@link #MAX_THREADS}, since this loader may itself run
+   * in a pool thread, concurrently with other loaders.
+   * Loaded achievables are then registered in the DIDs order, so that the results do not depend
+   * on the number of threads.
+   * @param ids DIDs to load.
+   */
+  private void scanInParallel(final int[] ids)
+  {
+    final List<DataFacade> facades=new ArrayList<DataFacade>();
+    final ThreadLocal<MainDatAchievablesLoader> workerLoader=new ThreadLocal<MainDatAchievablesLoader>()
+    {
+      @Override
+      protected MainDatAchievablesLoader initialValue()
+      {
+        DataFacade facade=new DataFacade();
+        synchronized(facades)
+        {
+          facades.add(facade);
+        }
+        return new MainDatAchievablesLoader(facade,1);
+      }
+    };
+    int nbThreads=Math.min(_nbThreads,MAX_THREADS);
+    ExecutorService executor=Executors.newFixedThreadPool(nbThreads);
+    try
+    {
+      List<Future<List<Achievable>>> chunks=new ArrayList<Future<List<Achievable>>>();
+      for(int start=0;start<ids.length;start+=CHUNK_SIZE)
       {
-        load(id);
+        final int from=start;
+        final int to=Math.min(start+CHUNK_SIZE,ids.length);
+        Callable<List<Achievable>> chunk=new Callable<List<Achievable>>()
+        {
+          @Override
+          public List<Achievable> call()
+          {
+            MainDatAchievablesLoader loader=workerLoader.get();
+            List<Achievable> ret=new ArrayList<Achievable>();
+            for(int i=from;i<to;i++)
+            {
+              Achievable achievable=loader.load(ids[i]);
+              if (achievable!=null)
+              {
+                ret.add(achievable);
+              }
+            }
+            return ret;
+          }
+        };
+        chunks.add(executor.submit(chunk));
+      }
+      // Register achievables in the DIDs order
+      for(int i=0;i<chunks.size();i++)
+      {
+        List<Achievable> achievables=waitForChunk(chunks.get(i));
+        chunks.set(i,null);
+        for(Achievable achievable : achievables)
+        {
+          register(achievable);
+        }
+      }
+    }
+    finally
+    {
+      executor.shutdownNow();
+      // Wait for running chunks before disposing their facades
+      awaitTermination(executor);
+      synchronized(facades)
+      {
+        for(DataFacade facade : facades)
+        {
+          facade.dispose();
+        }
       }
     }
   }
 
+  private void awaitTermination(ExecutorService executor)
+  {
+    try
+    {
+      executor.awaitTermination(Long.MAX_VALUE,TimeUnit.MILLISECONDS);
+    }
+    catch(InterruptedException ie)
+    {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private List<Achievable> waitForChunk(Future<List<Achievable>> chunk)
+  {
+    try
+    {
+      return chunk.get();
+    }
+    catch(InterruptedException ie)
+    {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while loading achievables",ie);
+    }
+    catch(ExecutionException ee)
+    {
+      throw new IllegalStateException("Achievables loading failed",ee.getCause());
+    }
+  }
+
   private void resolveProxies()
   {
     AchievableProxiesResolver resolver=new AchievableProxiesResolver(_quests.values(),_deeds.values());
@@ -783,8 +943,6 @@ public class MainDatAchievablesLoader
         System.out.println("Wrote deeds file: "+GeneratedFiles.DEEDS);
       }
     }
-    // Save progressions
-    DatStatUtils._progressions.writeToFile(GeneratedFiles.PROGRESSIONS_ACHIEVABLES);
   }
 
   private void sortDeeds(List<DeedDescription> deeds)
@@ -806,7 +964,7 @@ public class MainDatAchievablesLoader
     {
       if (obj instanceof Integer)
       {
-        load(((Integer)obj).intValue());
+        register(load(((Integer)obj).intValue()));
       }
       else if (obj instanceof Object[])
       {
@@ -815,7 +973,7 @@ public class MainDatAchievablesLoader
         {
           if (obj2 instanceof Integer)
           {
-            load(((Integer)obj2).intValue());
+            register(load(((Integer)obj2).intValue()));
           }
           else
           {
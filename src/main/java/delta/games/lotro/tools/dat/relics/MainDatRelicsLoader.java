@@ -6,7 +6,6 @@ import java.util.List;
 
 import org.apache.log4j.Logger;
 
-import delta.common.utils.files.archives.DirectoryArchiver;
 import delta.common.utils.io.FileIO;
 import delta.games.lotro.character.stats.BasicStatsSet;
 import delta.games.lotro.common.CharacterClass;
@@ -16,8 +15,6 @@ import delta.games.lotro.dat.WStateClass;
 import delta.games.lotro.dat.data.DataFacade;
 import delta.games.lotro.dat.data.PropertiesSet;
 import delta.games.lotro.dat.data.enums.EnumMapper;
-import delta.games.lotro.dat.utils.BufferUtils;
-import delta.games.lotro.dat.utils.DatIconsUtils;
 import delta.games.lotro.lore.items.EquipmentLocation;
 import delta.games.lotro.lore.items.legendary.relics.Relic;
 import delta.games.lotro.lore.items.legendary.relics.RelicType;
@@ -27,6 +24,10 @@ import delta.games.lotro.tools.dat.GeneratedFiles;
 import delta.games.lotro.tools.dat.utils.DatEnumsUtils;
 import delta.games.lotro.tools.dat.utils.DatStatUtils;
 import delta.games.lotro.tools.dat.utils.DatUtils;
+import delta.games.lotro.tools.dat.utils.ProgressionsRegistry;
+import delta.games.lotro.tools.dat.utils.StatsLoadingContext;
+import delta.games.lotro.tools.dat.utils.icons.IconsExportService;
+import delta.games.lotro.tools.dat.utils.index.DidClassIndexManager;
 import delta.games.lotro.utils.StringUtils;
 
 /**
@@ -37,11 +38,8 @@ public class MainDatRelicsLoader
 {
   private static final Logger LOGGER=Logger.getLogger(MainDatRelicsLoader.class);
 
-  /**
-   * Relic icons directory.
-   */
-  public static final File RELIC_ICONS_DIR=new File("data\\relics\\tmp").getAbsoluteFile();
   private DataFacade _facade;
+  private StatsLoadingContext _statsContext;
   private RelicsManager _relicsMgr;
   private EnumMapper _categories;
 
@@ -52,6 +50,8 @@ public class MainDatRelicsLoader
   public MainDatRelicsLoader(DataFacade facade)
   {
     _facade=facade;
+    _statsContext=new StatsLoadingContext();
+    _statsContext.setFilterStats(false);
     _relicsMgr=new RelicsManager();
   }
 
@@ -98,11 +98,11 @@ public class MainDatRelicsLoader
       // Level
       Integer level=(Integer)properties.getProperty("Runic_Level");
       // Stats
-      StatsProvider statsProvider=DatStatUtils.buildStatProviders(_facade,properties);
+      StatsProvider statsProvider=DatStatUtils.buildStatProviders(_statsContext,_facade,properties);
       BasicStatsSet stats=statsProvider.getStats(1,level.intValue(),true);
       relic.getStats().addStats(stats);
       // Runic stats
-      StatsProvider runicStatsProvider=DatStatUtils.buildStatProviders("Runic_",_facade,properties);
+      StatsProvider runicStatsProvider=DatStatUtils.buildStatProviders(_statsContext,"Runic_",_facade,properties);
       if (runicStatsProvider.getNumberOfStatProviders()>0)
       {
         BasicStatsSet runicStats=runicStatsProvider.getStats(1,level.intValue(),true);
@@ -129,16 +129,8 @@ public class MainDatRelicsLoader
       //Integer shadowIconId=(Integer)properties.getProperty("Icon_Layer_ShadowDID");
       //Integer underlayIconId=(Integer)properties.getProperty("Icon_Layer_UnderlayDID");
       String iconFilename=imageIconId+"-"+backgroundIconId+".png";
-      File to=new File(RELIC_ICONS_DIR,"relicIcons/"+iconFilename).getAbsoluteFile();
-      if (!to.exists())
-      {
-        int[] imagesIDs=new int[]{backgroundIconId.intValue(),imageIconId.intValue()};
-        boolean ok=DatIconsUtils.buildImageFile(_facade,imagesIDs,to);
-        if (!ok)
-        {
-          LOGGER.warn("Could not build relic icon: "+iconFilename);
-        }
-      }
+      int[] imagesIDs=new int[]{backgroundIconId.intValue(),imageIconId.intValue()};
+      IconsExportService.getInstance().exportIcon(imagesIDs,GeneratedFiles.RELIC_ICONS,"relicIcons/"+iconFilename);
       relic.setIconFilename(iconFilename);
       // Check and add
       boolean useIt=checkRelic(category,relic);
@@ -183,22 +175,12 @@ public class MainDatRelicsLoader
    */
   public void doIt()
   {
-    DatStatUtils.doFilterStats=false;
-    DatStatUtils._statsUsageStatistics.reset();
     _categories=_facade.getEnumsManager().getEnumMapper(587203232);
-    for(int id=0x70000000;id<=0x77FFFFFF;id++)
+    int[] ids=DidClassIndexManager.getDids(_facade,WStateClass.RELIC);
+    for(int id : ids)
     {
-      byte[] data=_facade.loadData(id);
-      if (data!=null)
-      {
-        int did=BufferUtils.getDoubleWordAt(data,0);
-        int classDefIndex=BufferUtils.getDoubleWordAt(data,4);
-        if (classDefIndex==WStateClass.RELIC)
-        {
-          // Relics
-          loadRelic(did);
-        }
-      }
+      // Relics
+      loadRelic(id);
     }
     // Write result file
     boolean ok=_relicsMgr.writeRelicsFile(GeneratedFiles.RELICS);
@@ -207,15 +189,16 @@ public class MainDatRelicsLoader
       System.out.println("Wrote relics file: "+GeneratedFiles.RELICS);
     }
     // Write relic icons
-    DirectoryArchiver archiver=new DirectoryArchiver();
-    ok=archiver.go(GeneratedFiles.RELIC_ICONS,RELIC_ICONS_DIR);
+    ok=IconsExportService.getInstance().writeArchive(GeneratedFiles.RELIC_ICONS);
     if (ok)
     {
       System.out.println("Wrote relic icons archive: "+GeneratedFiles.RELIC_ICONS);
     }
+    // Register progressions
+    ProgressionsRegistry.getInstance().register(_statsContext,GeneratedFiles.PROGRESSIONS_RELICS);
     // Stats usage statistics
     System.out.println("Stats usage statistics (relics):");
-    DatStatUtils._statsUsageStatistics.showResults();
+    _statsContext.getStatsUsageStatistics().showResults();
   }
 
   /**
@@ -1,26 +1,24 @@
 package delta.games.lotro.tools.dat.titles;
 
-import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.log4j.Logger;
 
-import delta.common.utils.files.archives.DirectoryArchiver;
 import delta.games.lotro.dat.DATConstants;
 import delta.games.lotro.dat.WStateClass;
 import delta.games.lotro.dat.data.DataFacade;
 import delta.games.lotro.dat.data.PropertiesSet;
 import delta.games.lotro.dat.data.enums.EnumMapper;
 import delta.games.lotro.dat.data.strings.renderer.StringRenderer;
-import delta.games.lotro.dat.utils.BufferUtils;
-import delta.games.lotro.dat.utils.DatIconsUtils;
 import delta.games.lotro.dat.utils.DatStringUtils;
 import delta.games.lotro.lore.titles.TitleDescription;
 import delta.games.lotro.lore.titles.io.xml.TitleXMLWriter;
 import delta.games.lotro.tools.dat.GeneratedFiles;
 import delta.games.lotro.tools.dat.utils.DatUtils;
 import delta.games.lotro.tools.dat.utils.StringRenderingUtils;
+import delta.games.lotro.tools.dat.utils.icons.IconsExportService;
+import delta.games.lotro.tools.dat.utils.index.DidClassIndexManager;
 
 /**
  * Get titles definitions from DAT files.
@@ -30,11 +28,6 @@ public class MainDatTitlesLoader
 {
   private static final Logger LOGGER=Logger.getLogger(MainDatTitlesLoader.class);
 
-  /**
-   * Directory for title icons.
-   */
-  public static final File TITLE_ICONS_DIR=new File("data\\titles\\tmp").getAbsoluteFile();
-
   private DataFacade _facade;
   private EnumMapper _category;
   private StringRenderer _customRenderer;
@@ -106,11 +99,7 @@ Title_String:
       }
       // Icon
       int iconId=((Integer)properties.getProperty("Title_Icon")).intValue();
-      File titleIcon=new File(TITLE_ICONS_DIR,"titleIcons/"+iconId+".png").getAbsoluteFile();
-      if (!titleIcon.exists())
-      {
-        DatIconsUtils.buildImageFile(_facade,iconId,titleIcon);
-      }
+      IconsExportService.getInstance().exportIcon(iconId,GeneratedFiles.TITLE_ICONS,"titleIcons/"+iconId+".png");
       title.setIconId(iconId);
     }
     else
@@ -129,18 +118,6 @@ Title_String:
     return renderedTitle;
   }
 
-  private boolean useId(int id)
-  {
-    byte[] data=_facade.loadData(id);
-    if (data!=null)
-    {
-      //int did=BufferUtils.getDoubleWordAt(data,0);
-      int classDefIndex=BufferUtils.getDoubleWordAt(data,4);
-      return (classDefIndex==WStateClass.TITLE);
-    }
-    return false;
-  }
-
   /**
    * Load titles.
    */
@@ -148,16 +125,13 @@ Title_String:
   {
     List<TitleDescription> titles=new ArrayList<TitleDescription>();
 
-    for(int id=0x70000000;id<=0x77FFFFFF;id++)
+    int[] ids=DidClassIndexManager.getDids(_facade,WStateClass.TITLE);
+    for(int id : ids)
     {
-      boolean useIt=useId(id);
-      if (useIt)
+      TitleDescription title=load(id);
+      if (title!=null)
       {
-        TitleDescription title=load(id);
-        if (title!=null)
-        {
-          titles.add(title);
-        }
+        titles.add(title);
       }
     }
     // Save titles
@@ -169,8 +143,7 @@ Title_String:
       System.out.println("Wrote titles file: "+GeneratedFiles.TITLES);
     }
     // Write title icons
-    DirectoryArchiver archiver=new DirectoryArchiver();
-    ok=archiver.go(GeneratedFiles.TITLE_ICONS,TITLE_ICONS_DIR);
+    ok=IconsExportService.getInstance().writeArchive(GeneratedFiles.TITLE_ICONS);
     if (ok)
     {
       System.out.println("Wrote title icons archive: "+GeneratedFiles.TITLE_ICONS);
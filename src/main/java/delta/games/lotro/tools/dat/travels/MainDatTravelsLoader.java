@@ -8,13 +8,13 @@ import delta.games.lotro.common.money.Money;
 import delta.games.lotro.dat.DATConstants;
 import delta.games.lotro.dat.data.DataFacade;
 import delta.games.lotro.dat.data.PropertiesSet;
-import delta.games.lotro.dat.utils.BufferUtils;
 import delta.games.lotro.lore.travels.TravelDestination;
 import delta.games.lotro.lore.travels.TravelNode;
 import delta.games.lotro.lore.travels.TravelRoute;
 import delta.games.lotro.lore.travels.TravelRouteInstance;
 import delta.games.lotro.lore.travels.TravelsManager;
 import delta.games.lotro.tools.dat.utils.DatUtils;
+import delta.games.lotro.tools.dat.utils.index.DidClassIndexManager;
 
 /**
  * Get travel definitions from DAT files.
@@ -201,19 +201,10 @@ Usage_RequiresSubscriberOrUnsub: 1
 
   private void doItWithScan()
   {
-    for(int i=0x70000000;i<=0x77FFFFFF;i++)
+    int[] ids=DidClassIndexManager.getDids(_facade,1508);
+    for(int id : ids)
     {
-      byte[] data=_facade.loadData(i);
-      if (data!=null)
-      {
-        int did=BufferUtils.getDoubleWordAt(data,0);
-        int classDefIndex=BufferUtils.getDoubleWordAt(data,4);
-        //System.out.println(classDefIndex);
-        if (classDefIndex==1508)
-        {
-          load(did);
-        }
-      }
+      load(id);
     }
     dumpTravels();
   }
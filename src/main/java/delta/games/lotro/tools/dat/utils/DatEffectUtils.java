@@ -18,24 +18,26 @@ public class DatEffectUtils
 
   /**
    * Load stats for an effect.
+   * @param context Stats loading context.
    * @param facade Data facade.
    * @param effectId Effect identifier.
    * @return A stats provider.
    */
-  public static StatsProvider loadEffectStats(DataFacade facade, int effectId)
+  public static StatsProvider loadEffectStats(StatsLoadingContext context, DataFacade facade, int effectId)
   {
     PropertiesSet effectProps=facade.loadProperties(effectId+DATConstants.DBPROPERTIES_OFFSET);
-    StatsProvider statsProvider=DatStatUtils.buildStatProviders(facade,effectProps);
+    StatsProvider statsProvider=DatStatUtils.buildStatProviders(context,facade,effectProps);
     return statsProvider;
   }
 
   /**
    * Load an effect.
+   * @param context Stats loading context.
    * @param facade Data facade.
    * @param effectId Effect identifier.
    * @return An effect or <code>null</code> if not found.
    */
-  public static Effect loadEffect(DataFacade facade, int effectId)
+  public static Effect loadEffect(StatsLoadingContext context, DataFacade facade, int effectId)
   {
     Effect ret=null;
     PropertiesSet effectProps=facade.loadProperties(effectId+DATConstants.DBPROPERTIES_OFFSET);
@@ -56,7 +58,7 @@ public class DatEffectUtils
         ret.setIconId(effectIconId);
       }
       // Stats
-      StatsProvider provider=DatStatUtils.buildStatProviders(facade,effectProps);
+      StatsProvider provider=DatStatUtils.buildStatProviders(context,facade,effectProps);
       ret.setStatsProvider(provider);
     }
     else
@@ -0,0 +1,70 @@
+package delta.games.lotro.tools.dat.utils;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import org.apache.log4j.Logger;
+
+import delta.games.lotro.dat.data.DatConfiguration;
+
+/**
+ * Stamp of the DAT files, used to invalidate the data derived from them.
+ * <p>
+ * The stamp is a checksum of the names, sizes and modification times of the DAT files
+ * of the client directory. It changes when the game is patched.
+ * @author DAM
+ */
+public class DatFilesStamp
+{
+  private static final Logger LOGGER=Logger.getLogger(DatFilesStamp.class);
+
+  private static Long _stamp;
+
+  /**
+   * Get the stamp of the DAT files.
+   * @return a stamp, or <code>0</code> if no DAT file was found.
+   */
+  public static synchronized long getStamp()
+  {
+    if (_stamp==null)
+    {
+      File rootDir=new DatConfiguration().getRootPath();
+      _stamp=Long.valueOf(computeStamp(rootDir));
+    }
+    return _stamp.longValue();
+  }
+
+  private static long computeStamp(File rootDir)
+  {
+    File[] files=(rootDir!=null)?rootDir.listFiles():null;
+    if (files==null)
+    {
+      LOGGER.warn("Could not list DAT files in: "+rootDir);
+      return 0;
+    }
+    Arrays.sort(files);
+    CRC32 crc=new CRC32();
+    int nbFiles=0;
+    for(File file : files)
+    {
+      String name=file.getName();
+      if ((file.isFile()) && (name.endsWith(".dat")))
+      {
+        crc.update(name.getBytes());
+        update(crc,file.length());
+        update(crc,file.lastModified());
+        nbFiles++;
+      }
+    }
+    return (nbFiles>0)?crc.getValue():0;
+  }
+
+  private static void update(CRC32 crc, long value)
+  {
+    for(int i=0;i<8;i++)
+    {
+      crc.update((int)(value>>>(i*8)));
+    }
+  }
+}
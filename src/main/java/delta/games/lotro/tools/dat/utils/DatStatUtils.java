@@ -6,7 +6,6 @@ import java.util.Objects;
 
 import org.apache.log4j.Logger;
 
-import delta.games.lotro.common.progression.ProgressionsManager;
 import delta.games.lotro.common.stats.ConstantStatProvider;
 import delta.games.lotro.common.stats.RangedStatProvider;
 import delta.games.lotro.common.stats.ScalableStatProvider;
@@ -34,40 +33,27 @@ public class DatStatUtils
 {
   private static final Logger LOGGER=Logger.getLogger(DatStatUtils.class);
 
-  /**
-   * Flag to indicate if stats shall be filtered or not.
-   */
-  public static boolean doFilterStats=true;
-
-  /**
-   * Progressions manager.
-   */
-  public static ProgressionsManager _progressions=new ProgressionsManager();
-
-  /**
-   * Stats usage statistics.
-   */
-  public static StatsUsageStatistics _statsUsageStatistics=new StatsUsageStatistics();
-
   /**
    * Load a set of stats from some properties.
+   * @param context Stats loading context.
    * @param facade Data facade.
    * @param properties Properties to use to get stats.
    * @return A stats provider.
    */
-  public static StatsProvider buildStatProviders(DataFacade facade, PropertiesSet properties)
+  public static StatsProvider buildStatProviders(StatsLoadingContext context, DataFacade facade, PropertiesSet properties)
   {
-    return buildStatProviders(null,facade,properties);
+    return buildStatProviders(context,null,facade,properties);
   }
 
   /**
    * Load a set of stats from some properties.
+   * @param context Stats loading context.
    * @param propsPrefix Prefix for properties to use, default is <code>null</code>.
    * @param facade Data facade.
    * @param properties Properties to use to get stats.
    * @return A stats provider.
    */
-  public static StatsProvider buildStatProviders(String propsPrefix, DataFacade facade, PropertiesSet properties)
+  public static StatsProvider buildStatProviders(StatsLoadingContext context, String propsPrefix, DataFacade facade, PropertiesSet properties)
   {
     String arrayPropName="Mod_Array";
     String modifiedPropName="Mod_Modified";
@@ -87,7 +73,7 @@ public class DatStatUtils
       for(int i=0;i<mods.length;i++)
       {
         PropertiesSet statProperties=(PropertiesSet)mods[i];
-        StatProvider provider=buildStatProvider(propsPrefix,facade,statProperties,statsProvider);
+        StatProvider provider=buildStatProvider(context,propsPrefix,facade,statProperties,statsProvider);
         if (provider==null)
         {
           continue;
@@ -129,10 +115,10 @@ public class DatStatUtils
     return statsProvider;
   }
 
-  private static StatProvider buildStatProvider(String propsPrefix, DataFacade facade, PropertiesSet statProperties, StatsProvider statsProvider)
+  private static StatProvider buildStatProvider(StatsLoadingContext context, String propsPrefix, DataFacade facade, PropertiesSet statProperties, StatsProvider statsProvider)
   {
     String descriptionOverride=getDescriptionOverride(statProperties);
-    StatProvider provider=buildStatProvider(propsPrefix,facade,statProperties);
+    StatProvider provider=buildStatProvider(context,propsPrefix,facade,statProperties);
     if (provider!=null)
     {
       // Descriptor override
@@ -141,7 +127,7 @@ public class DatStatUtils
         provider.setDescriptionOverride(descriptionOverride);
       }
       StatDescription stat=provider.getStat();
-      _statsUsageStatistics.registerStatUsage(stat);
+      context.getStatsUsageStatistics().registerStatUsage(stat);
       provider=handleSpecificCases(provider,facade,statsProvider,descriptionOverride);
       return provider;
     }
@@ -221,7 +207,7 @@ public class DatStatUtils
     return result;
   }
 
-  private static StatProvider buildStatProvider(String propsPrefix, DataFacade facade, PropertiesSet statProperties)
+  private static StatProvider buildStatProvider(StatsLoadingContext context, String propsPrefix, DataFacade facade, PropertiesSet statProperties)
   {
     StatProvider provider=null;
 
@@ -245,7 +231,7 @@ public class DatStatUtils
       LOGGER.warn("Unknown stat: "+def.getName());
       return null;
     }
-    boolean useStat=useStat(stat,def);
+    boolean useStat=useStat(context,stat,def);
     if (!useStat)
     {
       return null;
@@ -258,7 +244,7 @@ public class DatStatUtils
     Integer progressId=(Integer)statProperties.getProperty(progressionPropName);
     if (progressId!=null)
     {
-      provider=buildStatProvider(facade,stat,progressId.intValue());
+      provider=buildStatProvider(context,facade,stat,progressId.intValue());
     }
     else
     {
@@ -322,13 +308,14 @@ public class DatStatUtils
 
   /**
    * Get a progression curve.
+   * @param context Stats loading context.
    * @param facade Data facade.
    * @param progressId Progression ID.
    * @return A progression curve or <code>null</code> if not found.
    */
-  public static Progression getProgression(DataFacade facade, int progressId)
+  public static Progression getProgression(StatsLoadingContext context, DataFacade facade, int progressId)
   {
-    Progression ret=_progressions.getProgression(progressId);
+    Progression ret=context.getProgression(progressId);
     if (ret==null)
     {
       int progressPropertiesId=progressId+DATConstants.DBPROPERTIES_OFFSET;
@@ -338,7 +325,7 @@ public class DatStatUtils
         ret=ProgressionFactory.buildProgression(progressId, progressProperties);
         if (ret!=null)
         {
-          _progressions.registerProgression(progressId,ret);
+          ret=context.registerProgression(progressId,ret);
         }
       }
     }
@@ -347,33 +334,35 @@ public class DatStatUtils
 
   /**
    * Build a stat provider from the given progression identifier.
+   * @param context Stats loading context.
    * @param facade Data facade.
    * @param stat Targeted stat.
    * @param progressId Progression ID.
    * @return A stat provider.
    */
-  public static StatProvider buildStatProvider(DataFacade facade, StatDescription stat, int progressId)
+  public static StatProvider buildStatProvider(StatsLoadingContext context, DataFacade facade, StatDescription stat, int progressId)
   {
     if (progressId==0) return null;
     PropertiesSet properties=facade.loadProperties(progressId+DATConstants.DBPROPERTIES_OFFSET);
     Object[] progressionIds=(Object[])properties.getProperty("DataIDProgression_Array");
     if (progressionIds!=null)
     {
-      return getTieredProgression(facade,stat,properties);
+      return getTieredProgression(context,facade,stat,properties);
     }
-    Progression progression=getProgression(facade,progressId);
+    Progression progression=getProgression(context,facade,progressId);
     ScalableStatProvider scalableStat=new ScalableStatProvider(stat,progression);
     return scalableStat;
   }
 
   /**
    * Get a progression curve.
+   * @param context Stats loading context.
    * @param facade Data facade.
    * @param stat Involved stat.
    * @param properties Progression properties.
    * @return A progression curve or <code>null</code> if not found.
    */
-  private static TieredScalableStatProvider getTieredProgression(DataFacade facade, StatDescription stat, PropertiesSet properties)
+  private static TieredScalableStatProvider getTieredProgression(StatsLoadingContext context, DataFacade facade, StatDescription stat, PropertiesSet properties)
   {
     Object[] progressionIds=(Object[])properties.getProperty("DataIDProgression_Array");
     int nbTiers=progressionIds.length;
@@ -382,7 +371,7 @@ public class DatStatUtils
     for(Object progressionIdObj : progressionIds)
     {
       int progressionId=((Integer)progressionIdObj).intValue();
-      Progression progression=getProgression(facade,progressionId);
+      Progression progression=getProgression(context,facade,progressionId);
       ret.setProgression(tier,progression);
       tier++;
     }
@@ -399,7 +388,7 @@ public class DatStatUtils
     return delta.games.lotro.utils.dat.DatStatUtils.getStatDescription(propertyDefinition.getPropertyId(),propertyDefinition.getName());
   }
 
-  private static boolean useStat(StatDescription stat, PropertyDefinition def)
+  private static boolean useStat(StatsLoadingContext context, StatDescription stat, PropertyDefinition def)
   {
     PropertyType type=def.getPropertyType();
     if ((type==PropertyType.BIT_FIELD32) || (type==PropertyType.DATA_FILE) ||
@@ -408,7 +397,7 @@ public class DatStatUtils
       return false;
     }
     //System.out.println("Type: "+type);
-    if (doFilterStats)
+    if (context.isFilterStats())
     {
       return stat.isPremium();
     }
@@ -0,0 +1,112 @@
+package delta.games.lotro.tools.dat.utils;
+
+/**
+ * Map with primitive integer keys (open addressing, linear probing).
+ * <p>
+ * No boxing occurs on lookups. <code>null</code> values are not supported.
+ * This class is not thread-safe.
+ * @param <T> Type of values.
+ * @author DAM
+ */
+public class IntObjectMap<T>
+{
+  private static final int INITIAL_CAPACITY=1024;
+
+  private int[] _keys;
+  private Object[] _values;
+  private int _size;
+
+  /**
+   * Constructor.
+   */
+  public IntObjectMap()
+  {
+    clear();
+  }
+
+  /**
+   * Get the value for a key.
+   * @param key Key to use.
+   * @return A value or <code>null</code> if not found.
+   */
+  @SuppressWarnings("unchecked")
+  public T get(int key)
+  {
+    return (T)_values[findSlot(_keys,_values,key)];
+  }
+
+  /**
+   * Set the value for a key.
+   * @param key Key to use.
+   * @param value Value to set (not <code>null</code>).
+   */
+  public void put(int key, T value)
+  {
+    int slot=findSlot(_keys,_values,key);
+    if (_values[slot]==null)
+    {
+      _keys[slot]=key;
+      _size++;
+    }
+    _values[slot]=value;
+    if (_size*4>_keys.length*3)
+    {
+      grow();
+    }
+  }
+
+  /**
+   * Get the number of entries.
+   * @return an entries count.
+   */
+  public int size()
+  {
+    return _size;
+  }
+
+  /**
+   * Remove all entries.
+   */
+  public void clear()
+  {
+    _keys=new int[INITIAL_CAPACITY];
+    _values=new Object[INITIAL_CAPACITY];
+    _size=0;
+  }
+
+  private static int findSlot(int[] keys, Object[] values, int key)
+  {
+    int mask=keys.length-1;
+    int slot=hash(key)&mask;
+    while ((values[slot]!=null) && (keys[slot]!=key))
+    {
+      slot=(slot+1)&mask;
+    }
+    return slot;
+  }
+
+  private static int hash(int key)
+  {
+    int h=key*0x9E3779B9;
+    return h^(h>>>16);
+  }
+
+  private void grow()
+  {
+    int[] oldKeys=_keys;
+    Object[] oldValues=_values;
+    int[] keys=new int[oldKeys.length*2];
+    Object[] values=new Object[oldValues.length*2];
+    for(int i=0;i<oldKeys.length;i++)
+    {
+      if (oldValues[i]!=null)
+      {
+        int slot=findSlot(keys,values,oldKeys[i]);
+        keys[slot]=oldKeys[i];
+        values[slot]=oldValues[i];
+      }
+    }
+    _keys=keys;
+    _values=values;
+  }
+}
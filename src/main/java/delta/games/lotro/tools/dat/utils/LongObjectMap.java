@@ -0,0 +1,112 @@
+package delta.games.lotro.tools.dat.utils;
+
+/**
+ * Map with primitive long keys (open addressing, linear probing).
+ * <p>
+ * No boxing occurs on lookups. <code>null</code> values are not supported.
+ * This class is not thread-safe.
+ * @param <T> Type of values.
+ * @author DAM
+ */
+public class LongObjectMap<T>
+{
+  private static final int INITIAL_CAPACITY=1024;
+
+  private long[] _keys;
+  private Object[] _values;
+  private int _size;
+
+  /**
+   * Constructor.
+   */
+  public LongObjectMap()
+  {
+    clear();
+  }
+
+  /**
+   * Get the value for a key.
+   * @param key Key to use.
+   * @return A value or <code>null</code> if not found.
+   */
+  @SuppressWarnings("unchecked")
+  public T get(long key)
+  {
+    return (T)_values[findSlot(_keys,_values,key)];
+  }
+
+  /**
+   * Set the value for a key.
+   * @param key Key to use.
+   * @param value Value to set (not <code>null</code>).
+   */
+  public void put(long key, T value)
+  {
+    int slot=findSlot(_keys,_values,key);
+    if (_values[slot]==null)
+    {
+      _keys[slot]=key;
+      _size++;
+    }
+    _values[slot]=value;
+    if (_size*4>_keys.length*3)
+    {
+      grow();
+    }
+  }
+
+  /**
+   * Get the number of entries.
+   * @return an entries count.
+   */
+  public int size()
+  {
+    return _size;
+  }
+
+  /**
+   * Remove all entries.
+   */
+  public void clear()
+  {
+    _keys=new long[INITIAL_CAPACITY];
+    _values=new Object[INITIAL_CAPACITY];
+    _size=0;
+  }
+
+  private static int findSlot(long[] keys, Object[] values, long key)
+  {
+    int mask=keys.length-1;
+    int slot=hash(key)&mask;
+    while ((values[slot]!=null) && (keys[slot]!=key))
+    {
+      slot=(slot+1)&mask;
+    }
+    return slot;
+  }
+
+  private static int hash(long key)
+  {
+    long h=key*0x9E3779B97F4A7C15L;
+    return (int)(h^(h>>>32));
+  }
+
+  private void grow()
+  {
+    long[] oldKeys=_keys;
+    Object[] oldValues=_values;
+    long[] keys=new long[oldKeys.length*2];
+    Object[] values=new Object[oldValues.length*2];
+    for(int i=0;i<oldKeys.length;i++)
+    {
+      if (oldValues[i]!=null)
+      {
+        int slot=findSlot(keys,values,oldKeys[i]);
+        keys[slot]=oldKeys[i];
+        values[slot]=oldValues[i];
+      }
+    }
+    _keys=keys;
+    _values=values;
+  }
+}
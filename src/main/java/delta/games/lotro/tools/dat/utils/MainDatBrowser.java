@@ -11,12 +11,18 @@ import delta.games.lotro.dat.data.DataFacade;
 import delta.games.lotro.dat.data.PropertiesSet;
 import delta.games.lotro.dat.utils.BufferUtils;
 import delta.games.lotro.dat.utils.KPM;
+import delta.games.lotro.tools.dat.utils.scan.DidFilter;
+import delta.games.lotro.tools.dat.utils.scan.DidRangeScanner;
+import delta.games.lotro.tools.dat.utils.scan.DidVisitor;
 
 /**
  * @author DAM
  */
 public class MainDatBrowser
 {
+  // Dump each found entry
+  private static final boolean VERBOSE=false;
+
   private DataFacade _facade;
   private Map<Integer,IntegerHolder> _countByType;
   private byte[] _toSearch;
@@ -54,65 +60,104 @@ public class MainDatBrowser
 
   private List<Integer> ids=new ArrayList<Integer>();
 
-  private void handleEntry(int id)
+  private void handleEntry(int id, int index, int type)
   {
-    if (id%1000000==0) System.out.println("ID: "+id);
-    byte[] data=_facade.loadData(id);
-    if ((data!=null) && (data.length>=8))
+    Integer typeKey=Integer.valueOf(type);
+    // Count by type
+    IntegerHolder holder=_countByType.get(typeKey);
+    if (holder==null)
+    {
+      holder=new IntegerHolder();
+      _countByType.put(typeKey,holder);
+    }
+    holder.increment();
+    if (VERBOSE)
     {
-      int type=getType(data);
-      Integer typeKey=Integer.valueOf(type);
-      // Select
-      /*
-      if ((type!=WStateClass.CLOTHING) && (type!=WStateClass.CHISEL) && (type!=WStateClass.SHIELD) && (type!=WStateClass.WEAPON) && (type!=WStateClass.JEWEL) &&
-          (type!=WStateClass.PROGRESSION) && (type!=WStateClass.PROGRESSION_ARRAY) && (type!=WStateClass.FLOAT_PROGRESSION_ARRAY) && 
-          (type!=WStateClass.QUEST) && (type!=WStateClass.RELIC) &&
-          //(type!=SKILL) && (type!=TRAIT) && (type!=STEED_TRAIT) &&
-          //(type!=EFFECT) && (type!=EFFECT2) && (type!=EFFECT3) && (type!=EFFECT4) && (type!=EFFECT5) &&
-          (type!=WStateClass.VIRTUE) && (type!=WStateClass.PROPERTY_METADATA) && (type!=WStateClass.PROPERTY_METADATA_LIST) &&
-          (type!=WStateClass.QUEST_TREASURE) && (type!=WStateClass.LOOT) && (type!=WStateClass.LOOT2) && (type!=WStateClass.SKIRMISH_LOOT) &&
-          (type!=WStateClass.SET) && (type!=WStateClass.IA_LEGACY) && (type!=WStateClass.IA_EFFECT) &&
-          (type!=WStateClass.WEB_STORE_ITEM))
-          */
+      System.out.println("Found "+id+" index="+index+", type="+type);
+      int propsId=(id<0x78FFFFFF)?id+0x9000000:id;
+      PropertiesSet props=_facade.loadProperties(propsId);
+      System.out.println("*********** entry "+id+"******************");
+      if (props!=null)
+      {
+        System.out.println(props.dump());
+      }
+      else
       {
-        int index=findBuffer(data,_toSearch);
+        System.out.println("props is null");
+      }
+    }
+    ids.add(Integer.valueOf(id));
+    /*
+    Progression prog=ProgressionFactory.buildProgression(id,props);
+    if (prog!=null)
+    {
+      Float value=prog.getValue(120);
+      if ((value!=null) && (Math.abs(value.floatValue()-3)<0.1))
+      {
+        System.out.println(props.dump());
+      }
+    }
+    */
+  }
+
+  private DidFilter buildFilter()
+  {
+    DidFilter filter=new DidFilter()
+    {
+      @Override
+      public boolean accept(int did, int type)
+      {
+        // Select
+        /*
+        if ((type!=WStateClass.CLOTHING) && (type!=WStateClass.CHISEL) && (type!=WStateClass.SHIELD) && (type!=WStateClass.WEAPON) && (type!=WStateClass.JEWEL) &&
+            (type!=WStateClass.PROGRESSION) && (type!=WStateClass.PROGRESSION_ARRAY) && (type!=WStateClass.FLOAT_PROGRESSION_ARRAY) && 
+            (type!=WStateClass.QUEST) && (type!=WStateClass.RELIC) &&
+            //(type!=SKILL) && (type!=TRAIT) && (type!=STEED_TRAIT) &&
+            //(type!=EFFECT) && (type!=EFFECT2) && (type!=EFFECT3) && (type!=EFFECT4) && (type!=EFFECT5) &&
+            (type!=WStateClass.VIRTUE) && (type!=WStateClass.PROPERTY_METADATA) && (type!=WStateClass.PROPERTY_METADATA_LIST) &&
+            (type!=WStateClass.QUEST_TREASURE) && (type!=WStateClass.LOOT) && (type!=WStateClass.LOOT2) && (type!=WStateClass.SKIRMISH_LOOT) &&
+            (type!=WStateClass.SET) && (type!=WStateClass.IA_LEGACY) && (type!=WStateClass.IA_EFFECT) &&
+            (type!=WStateClass.WEB_STORE_ITEM))
+            */
+        return true;
+      }
+    };
+    return filter;
+  }
+
+  /**
+   * Build a visitor that finds the entries that contain the searched bytes.
+   * @param toSearch Bytes to search.
+   * @return A visitor that gives a list of found entries: ID, index of searched bytes, type.
+   */
+  private DidVisitor<List<int[]>> buildVisitor(final byte[] toSearch)
+  {
+    DidVisitor<List<int[]>> visitor=new DidVisitor<List<int[]>>()
+    {
+      @Override
+      public List<int[]> newResult()
+      {
+        return new ArrayList<int[]>();
+      }
+
+      @Override
+      public void visit(DataFacade facade, int did, byte[] data, List<int[]> result)
+      {
+        int index=findBuffer(data,toSearch);
         if (index!=-1)
         {
-          // Count by type
-          IntegerHolder holder=_countByType.get(typeKey);
-          if (holder==null)
-          {
-            holder=new IntegerHolder();
-            _countByType.put(typeKey,holder);
-          }
-          holder.increment();
-          System.out.println("Found "+id+" index="+index+", type="+type);
-          int propsId=(id<0x78FFFFFF)?id+0x9000000:id;
-          PropertiesSet props=_facade.loadProperties(propsId);
-          System.out.println("*********** entry "+id+"******************");
-          if (props!=null)
-          {
-            System.out.println(props.dump());
-          }
-          else
-          {
-            System.out.println("props is null");
-          }
-          ids.add(Integer.valueOf(id));
-          /*
-          Progression prog=ProgressionFactory.buildProgression(id,props);
-          if (prog!=null)
-          {
-            Float value=prog.getValue(120);
-            if ((value!=null) && (Math.abs(value.floatValue()-3)<0.1))
-            {
-              System.out.println(props.dump());
-            }
-          }
-          */
+          result.add(new int[]{did,index,getType(data)});
         }
       }
-    }
+
+      @Override
+      public List<int[]> merge(List<int[]> first, List<int[]> second)
+      {
+        first.addAll(second);
+        return first;
+      }
+    };
+    return visitor;
   }
 
   private int findBuffer(byte[] buffer, byte[] toFind)
@@ -137,10 +182,12 @@ public class MainDatBrowser
       System.out.println("Bad int->byte[] conversion!");
     }
     System.out.println("************** searching id=" + idToSearch + "******************");
-    // Iterate on wstates
-    for(int id=0x70000000;id<0x7FFFFFFF;id++)
+    // Scan wstates
+    DidRangeScanner scanner=new DidRangeScanner(0x70000000,0x7FFFFFFE);
+    List<int[]> entries=scanner.scan(buildFilter(),buildVisitor(_toSearch));
+    for(int[] entry : entries)
     {
-      handleEntry(id);
+      handleEntry(entry[0],entry[1],entry[2]);
     }
   }
 
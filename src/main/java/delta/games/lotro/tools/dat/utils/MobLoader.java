@@ -1,10 +1,7 @@
 package delta.games.lotro.tools.dat.utils;
 
 import java.util.BitSet;
-import java.util.HashMap;
-import java.util.Map;
 
-import delta.games.lotro.dat.DATConstants;
 import delta.games.lotro.dat.data.DataFacade;
 import delta.games.lotro.dat.data.PropertiesSet;
 import delta.games.lotro.dat.data.enums.EnumMapper;
@@ -12,7 +9,6 @@ import delta.games.lotro.dat.utils.BitSetUtils;
 import delta.games.lotro.lore.agents.mobs.MobDescription;
 import delta.games.lotro.lore.agents.mobs.MobReference;
 import delta.games.lotro.utils.Proxy;
-import delta.games.lotro.utils.StringUtils;
 
 /**
  * Mobs loader.
@@ -22,8 +18,6 @@ public class MobLoader
 {
   //private static final Logger LOGGER=Logger.getLogger(MobLoader.class);
 
-  private Map<Integer,String> _names=new HashMap<Integer,String>();
-
   private DataFacade _facade;
 
   private EnumMapper _genus;
@@ -51,17 +45,7 @@ public class MobLoader
    */
   public String loadMob(int mobId)
   {
-    String ret=_names.get(Integer.valueOf(mobId));
-    if (ret==null)
-    {
-      PropertiesSet properties=_facade.loadProperties(mobId+DATConstants.DBPROPERTIES_OFFSET);
-      if (properties!=null)
-      {
-        ret=DatUtils.getStringProperty(properties,"Name");
-        ret=StringUtils.fixName(ret);
-      }
-    }
-    return ret;
+    return TargetsCache.getInstance().getName(_facade,mobId);
   }
 
   /**
@@ -1,7 +1,7 @@
 package delta.games.lotro.tools.dat.utils;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import delta.games.lotro.dat.DATConstants;
 import delta.games.lotro.dat.data.DataFacade;
@@ -15,7 +15,7 @@ public class PlaceLoader
 {
   //private static final Logger LOGGER=Logger.getLogger(PlaceLoader.class);
 
-  private static Map<Integer,String> _names=new HashMap<Integer,String>();
+  private static Map<Integer,String> _names=new ConcurrentHashMap<Integer,String>();
 
   /**
    * Load a place.
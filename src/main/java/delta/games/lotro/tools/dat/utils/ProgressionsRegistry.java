@@ -0,0 +1,131 @@
+package delta.games.lotro.tools.dat.utils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.log4j.Logger;
+
+import delta.games.lotro.common.progression.ProgressionsManager;
+import delta.games.lotro.utils.maths.Progression;
+
+/**
+ * In-process registry for the progressions loaded by the DAT loaders.
+ * <p>
+ * Each loader contributes its progressions when it is done. Contributed progressions
+ * are immediately made available to the progressions manager, so that loaders that
+ * parse generated files can use them without going through a progressions file.
+ * All the progressions are written once, at the end of the generation.
+ * <p>
+ * Per-loader progressions files are written only if asked to (debug).
+ * @author DAM
+ */
+public class ProgressionsRegistry
+{
+  private static final Logger LOGGER=Logger.getLogger(ProgressionsRegistry.class);
+
+  private static final ProgressionsRegistry _instance=new ProgressionsRegistry();
+
+  private ConcurrentHashMap<Integer,Progression> _progressions;
+  private volatile boolean _writeLoaderFiles;
+
+  /**
+   * Get the reference instance of this class.
+   * @return the reference instance of this class.
+   */
+  public static ProgressionsRegistry getInstance()
+  {
+    return _instance;
+  }
+
+  /**
+   * Private constructor.
+   */
+  private ProgressionsRegistry()
+  {
+    _progressions=new ConcurrentHashMap<Integer,Progression>();
+    _writeLoaderFiles=true;
+  }
+
+  /**
+   * Indicates if per-loader progressions files are written.
+   * @return <code>true</code> if they are, <code>false</code> otherwise.
+   */
+  public boolean isWriteLoaderFiles()
+  {
+    return _writeLoaderFiles;
+  }
+
+  /**
+   * Set the flag that drives the writing of per-loader progressions files.
+   * @param writeLoaderFiles <code>true</code> to write them, <code>false</code> otherwise.
+   */
+  public void setWriteLoaderFiles(boolean writeLoaderFiles)
+  {
+    _writeLoaderFiles=writeLoaderFiles;
+  }
+
+  /**
+   * Register the progressions loaded by a loader.
+   * @param context Stats loading context of the loader.
+   * @param loaderFile Per-loader progressions file, written only if enabled.
+   */
+  public void register(StatsLoadingContext context, File loaderFile)
+  {
+    ProgressionsManager progressionsMgr=ProgressionsManager.getInstance();
+    synchronized(progressionsMgr)
+    {
+      for(Integer progressionId : context.getProgressionIds())
+      {
+        Progression progression=context.getProgression(progressionId.intValue());
+        Progression old=_progressions.putIfAbsent(progressionId,progression);
+        if (old==null)
+        {
+          progressionsMgr.registerProgression(progressionId.intValue(),progression);
+        }
+      }
+    }
+    if (_writeLoaderFiles)
+    {
+      context.writeProgressions(loaderFile);
+    }
+  }
+
+  /**
+   * Get the number of registered progressions.
+   * @return a progressions count.
+   */
+  public int getProgressionsCount()
+  {
+    return _progressions.size();
+  }
+
+  /**
+   * Write all the registered progressions to a file.
+   * <p>
+   * Progressions are written by increasing identifier.
+   * @param toFile Output file.
+   */
+  public void write(File toFile)
+  {
+    List<Integer> progressionIds=new ArrayList<Integer>(_progressions.keySet());
+    Collections.sort(progressionIds);
+    ProgressionsManager progressions=new ProgressionsManager();
+    for(Integer progressionId : progressionIds)
+    {
+      progressions.registerProgression(progressionId.intValue(),_progressions.get(progressionId));
+    }
+    progressions.writeToFile(toFile);
+    LOGGER.info("Wrote "+progressionIds.size()+" progressions to: "+toFile);
+  }
+
+  /**
+   * Forget all the registered progressions.
+   */
+  public void reset()
+  {
+    _progressions.clear();
+  }
+}
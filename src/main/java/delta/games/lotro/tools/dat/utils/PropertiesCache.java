@@ -0,0 +1,162 @@
+package delta.games.lotro.tools.dat.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+
+import delta.games.lotro.dat.data.DataFacade;
+import delta.games.lotro.dat.data.PropertiesSet;
+
+/**
+ * Bounded cache for the properties sets loaded from the DAT files.
+ * <p>
+ * Shared by all the loaders of a generation run. Least recently used entries are evicted
+ * when the maximum size is reached. Missing properties sets are cached as well.
+ * <p>
+ * Cached properties sets are shared: callers shall not modify them.
+ * @author DAM
+ */
+public class PropertiesCache
+{
+  private static final Logger LOGGER=Logger.getLogger(PropertiesCache.class);
+
+  /**
+   * Default maximum number of cached properties sets.
+   */
+  public static final int DEFAULT_MAX_SIZE=20000;
+
+  private static final PropertiesCache _instance=new PropertiesCache();
+
+  private int _maxSize;
+  private LinkedHashMap<Integer,PropertiesSet> _cache;
+  private long _hits;
+  private long _misses;
+  private long _evictions;
+
+  /**
+   * Get the reference instance of this class.
+   * @return the reference instance of this class.
+   */
+  public static PropertiesCache getInstance()
+  {
+    return _instance;
+  }
+
+  /**
+   * Private constructor.
+   */
+  private PropertiesCache()
+  {
+    _maxSize=DEFAULT_MAX_SIZE;
+    _cache=new LinkedHashMap<Integer,PropertiesSet>(1024,0.75f,true)
+    {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Integer,PropertiesSet> eldest)
+      {
+        boolean remove=(size()>_maxSize);
+        if (remove)
+        {
+          _evictions++;
+        }
+        return remove;
+      }
+    };
+  }
+
+  /**
+   * Set the maximum number of cached properties sets.
+   * @param maxSize Maximum size (0 to disable caching).
+   */
+  public synchronized void setMaxSize(int maxSize)
+  {
+    _maxSize=Math.max(0,maxSize);
+    while (_cache.size()>_maxSize)
+    {
+      Integer eldest=_cache.keySet().iterator().next();
+      _cache.remove(eldest);
+      _evictions++;
+    }
+  }
+
+  /**
+   * Load a properties set.
+   * @param facade Data facade to use if the properties set is not cached.
+   * @param id Data identifier (including the properties offset, if any).
+   * @return A properties set or <code>null</code> if not found.
+   */
+  public PropertiesSet loadProperties(DataFacade facade, int id)
+  {
+    Integer key=Integer.valueOf(id);
+    synchronized(this)
+    {
+      if (_cache.containsKey(key))
+      {
+        _hits++;
+        return _cache.get(key);
+      }
+      _misses++;
+    }
+    // Load outside of the lock: the same set may be loaded twice by concurrent loaders
+    PropertiesSet ret=facade.loadProperties(id);
+    synchronized(this)
+    {
+      if (_maxSize>0)
+      {
+        _cache.put(key,ret);
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Get the number of cache hits.
+   * @return a hits count.
+   */
+  public synchronized long getHits()
+  {
+    return _hits;
+  }
+
+  /**
+   * Get the number of cache misses.
+   * @return a misses count.
+   */
+  public synchronized long getMisses()
+  {
+    return _misses;
+  }
+
+  /**
+   * Get the number of evicted entries.
+   * @return an evictions count.
+   */
+  public synchronized long getEvictions()
+  {
+    return _evictions;
+  }
+
+  /**
+   * Get the number of cached properties sets.
+   * @return a size.
+   */
+  public synchronized int getSize()
+  {
+    return _cache.size();
+  }
+
+  /**
+   * Log the statistics, then clear the cache and its statistics.
+   */
+  public synchronized void reset()
+  {
+    if (_hits+_misses>0)
+    {
+      LOGGER.info("Properties cache: "+_hits+" hit(s), "+_misses+" miss(es), "+_evictions+" eviction(s), size="+_cache.size()+"/"+_maxSize);
+    }
+    _cache.clear();
+    _hits=0;
+    _misses=0;
+    _evictions=0;
+  }
+}
@@ -0,0 +1,131 @@
+package delta.games.lotro.tools.dat.utils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import delta.games.lotro.common.progression.ProgressionsManager;
+import delta.games.lotro.utils.maths.Progression;
+
+/**
+ * Context for the loading of stats from DAT files.
+ * <p>
+ * Each loader owns its context, so that several loaders can load stats at the same time.
+ * It holds:
+ * <ul>
+ * <li>the stats filtering flag,
+ * <li>the progressions loaded so far,
+ * <li>stats usage statistics.
+ * </ul>
+ * Progressions and statistics may be accumulated from several threads.
+ * @author DAM
+ */
+public class StatsLoadingContext
+{
+  private volatile boolean _filterStats;
+  private ConcurrentHashMap<Integer,Progression> _progressions;
+  private StatsUsageStatistics _statsUsageStatistics;
+
+  /**
+   * Constructor.
+   */
+  public StatsLoadingContext()
+  {
+    _filterStats=true;
+    _progressions=new ConcurrentHashMap<Integer,Progression>();
+    _statsUsageStatistics=new StatsUsageStatistics();
+  }
+
+  /**
+   * Indicates if stats shall be filtered or not.
+   * @return <code>true</code> to keep premium stats only, <code>false</code> to keep all stats.
+   */
+  public boolean isFilterStats()
+  {
+    return _filterStats;
+  }
+
+  /**
+   * Set the stats filtering flag.
+   * @param filterStats <code>true</code> to keep premium stats only, <code>false</code> to keep all stats.
+   */
+  public void setFilterStats(boolean filterStats)
+  {
+    _filterStats=filterStats;
+  }
+
+  /**
+   * Get a loaded progression.
+   * @param progressionId Progression identifier.
+   * @return A progression or <code>null</code> if not loaded yet.
+   */
+  public Progression getProgression(int progressionId)
+  {
+    return _progressions.get(Integer.valueOf(progressionId));
+  }
+
+  /**
+   * Register a progression.
+   * <p>
+   * If a progression was already registered with the same identifier, it is kept.
+   * @param progressionId Progression identifier.
+   * @param progression Progression to register.
+   * @return the registered progression.
+   */
+  public Progression registerProgression(int progressionId, Progression progression)
+  {
+    Progression old=_progressions.putIfAbsent(Integer.valueOf(progressionId),progression);
+    return (old!=null)?old:progression;
+  }
+
+  /**
+   * Get the identifiers of the loaded progressions.
+   * @return A sorted list of progression identifiers.
+   */
+  public List<Integer> getProgressionIds()
+  {
+    List<Integer> ret=new ArrayList<Integer>(_progressions.keySet());
+    Collections.sort(ret);
+    return ret;
+  }
+
+  /**
+   * Get the stats usage statistics.
+   * @return the stats usage statistics.
+   */
+  public StatsUsageStatistics getStatsUsageStatistics()
+  {
+    return _statsUsageStatistics;
+  }
+
+  /**
+   * Merge the progressions and statistics of another context into this one.
+   * @param other Context to merge.
+   */
+  public void merge(StatsLoadingContext other)
+  {
+    for(Integer progressionId : other.getProgressionIds())
+    {
+      registerProgression(progressionId.intValue(),other.getProgression(progressionId.intValue()));
+    }
+    _statsUsageStatistics.merge(other._statsUsageStatistics);
+  }
+
+  /**
+   * Write the loaded progressions to a file.
+   * <p>
+   * Progressions are written by increasing identifier, whatever the loading order.
+   * @param toFile Output file.
+   */
+  public void writeProgressions(File toFile)
+  {
+    ProgressionsManager progressions=new ProgressionsManager();
+    for(Integer progressionId : getProgressionIds())
+    {
+      progressions.registerProgression(progressionId.intValue(),getProgression(progressionId.intValue()));
+    }
+    progressions.writeToFile(toFile);
+  }
+}
@@ -3,27 +3,29 @@ package delta.games.lotro.tools.dat.utils;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import delta.common.utils.misc.IntegerHolder;
 import delta.games.lotro.common.stats.StatDescription;
 
 /**
  * Statistics about stats usage.
+ * <p>
+ * Usages may be registered from several threads.
  * @author DAM
  */
 public class StatsUsageStatistics
 {
-  private Map<StatDescription,IntegerHolder> _data;
+  private ConcurrentHashMap<StatDescription,AtomicInteger> _data;
 
   /**
    * Constructor.
    */
   public StatsUsageStatistics()
   {
-    _data=new HashMap<StatDescription,IntegerHolder>();
+    _data=new ConcurrentHashMap<StatDescription,AtomicInteger>();
   }
 
   /**
@@ -40,13 +42,34 @@ public class StatsUsageStatistics
    */
   public void registerStatUsage(StatDescription stat)
   {
-    IntegerHolder counter=_data.get(stat);
+    registerStatUsage(stat,1);
+  }
+
+  private void registerStatUsage(StatDescription stat, int count)
+  {
+    AtomicInteger counter=_data.get(stat);
     if (counter==null)
     {
-      counter=new IntegerHolder();
-      _data.put(stat,counter);
+      AtomicInteger newCounter=new AtomicInteger();
+      counter=_data.putIfAbsent(stat,newCounter);
+      if (counter==null)
+      {
+        counter=newCounter;
+      }
+    }
+    counter.addAndGet(count);
+  }
+
+  /**
+   * Merge the statistics of another instance into this one.
+   * @param other Statistics to merge.
+   */
+  public void merge(StatsUsageStatistics other)
+  {
+    for(Map.Entry<StatDescription,AtomicInteger> entry : other._data.entrySet())
+    {
+      registerStatUsage(entry.getKey(),entry.getValue().get());
     }
-    counter.increment();
   }
 
   /**
@@ -61,9 +84,7 @@ public class StatsUsageStatistics
       @Override
       public int compare(StatDescription o1, StatDescription o2)
       {
-        IntegerHolder count1=_data.get(o1);
-        IntegerHolder count2=_data.get(o2);
-        int diff=count2.getInt()-count1.getInt();
+        int diff=_data.get(o2).get()-_data.get(o1).get();
         if (diff==0)
         {
           return o1.getName().compareTo(o2.getName());
@@ -83,7 +104,7 @@ public class StatsUsageStatistics
     List<StatDescription> stats=getUsedStats();
     for(StatDescription stat : stats)
     {
-      IntegerHolder counter=_data.get(stat);
+      AtomicInteger counter=_data.get(stat);
       System.out.println(stat.getPersistenceKey()+"\t"+stat.getName()+"\t"+counter);
     }
   }
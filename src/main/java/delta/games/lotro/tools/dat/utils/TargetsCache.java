@@ -0,0 +1,219 @@
+package delta.games.lotro.tools.dat.utils;
+
+import org.apache.log4j.Logger;
+
+import delta.games.lotro.dat.DATConstants;
+import delta.games.lotro.dat.data.DataFacade;
+import delta.games.lotro.dat.data.PropertiesSet;
+import delta.games.lotro.tools.dat.utils.index.DidClassIndexManager;
+import delta.games.lotro.utils.StringUtils;
+
+/**
+ * Cache for the targets (NPCs, mobs...) referenced by quests and deeds.
+ * <p>
+ * For each target DID, the class definition index (WStateClass) and the name are resolved once
+ * for the whole generation run. Entries are kept in a table keyed by the raw DID.
+ * @author DAM
+ */
+public class TargetsCache
+{
+  private static final Logger LOGGER=Logger.getLogger(TargetsCache.class);
+
+  private static final TargetsCache _instance=new TargetsCache();
+
+  private IntObjectMap<TargetEntry> _entries;
+  private long _classHits;
+  private long _classMisses;
+  private long _nameHits;
+  private long _nameMisses;
+
+  /**
+   * Get the reference instance of this class.
+   * @return the reference instance of this class.
+   */
+  public static TargetsCache getInstance()
+  {
+    return _instance;
+  }
+
+  /**
+   * Private constructor.
+   */
+  private TargetsCache()
+  {
+    _entries=new IntObjectMap<TargetEntry>();
+  }
+
+  /**
+   * Get the class definition index of a target.
+   * @param facade Data facade to use if the class is not cached.
+   * @param did Target DID.
+   * @return A class definition index.
+   */
+  public int getClassIndex(DataFacade facade, int did)
+  {
+    synchronized(this)
+    {
+      TargetEntry entry=_entries.get(did);
+      if ((entry!=null) && (entry._classLoaded))
+      {
+        _classHits++;
+        return entry._classIndex;
+      }
+      _classMisses++;
+    }
+    // Resolve outside of the lock: the facade belongs to the caller
+    int classIndex=DidClassIndexManager.getInstance().getProbe(facade).getClassIndex(facade,did);
+    synchronized(this)
+    {
+      TargetEntry entry=getEntry(did);
+      entry._classIndex=classIndex;
+      entry._classLoaded=true;
+    }
+    return classIndex;
+  }
+
+  /**
+   * Get the name of a target.
+   * @param facade Data facade to use if the name is not cached.
+   * @param did Target DID.
+   * @return A name or <code>null</code> if not found.
+   */
+  public String getName(DataFacade facade, int did)
+  {
+    return getName(facade,did,false);
+  }
+
+  /**
+   * Get the name of a NPC.
+   * <p>
+   * Missing properties or names are reported once, when the NPC is resolved.
+   * @param facade Data facade to use if the name is not cached.
+   * @param did NPC DID.
+   * @return A name or <code>null</code> if not found.
+   */
+  public String getNpcName(DataFacade facade, int did)
+  {
+    return getName(facade,did,true);
+  }
+
+  private String getName(DataFacade facade, int did, boolean isNpc)
+  {
+    synchronized(this)
+    {
+      TargetEntry entry=_entries.get(did);
+      if ((entry!=null) && (entry._nameLoaded))
+      {
+        _nameHits++;
+        return entry._name;
+      }
+      _nameMisses++;
+    }
+    // Resolve outside of the lock: the facade belongs to the caller
+    String name=null;
+    PropertiesSet properties=PropertiesCache.getInstance().loadProperties(facade,did+DATConstants.DBPROPERTIES_OFFSET);
+    if (properties!=null)
+    {
+      name=DatUtils.getStringProperty(properties,"Name");
+      name=StringUtils.fixName(name);
+      if ((name==null) && (isNpc))
+      {
+        LOGGER.warn("No name for NPC "+did+"!");
+      }
+    }
+    else if (isNpc)
+    {
+      LOGGER.warn("Could not load NPC "+did+" from properties!");
+    }
+    synchronized(this)
+    {
+      TargetEntry entry=getEntry(did);
+      entry._name=name;
+      entry._nameLoaded=true;
+    }
+    return name;
+  }
+
+  private TargetEntry getEntry(int did)
+  {
+    TargetEntry entry=_entries.get(did);
+    if (entry==null)
+    {
+      entry=new TargetEntry();
+      _entries.put(did,entry);
+    }
+    return entry;
+  }
+
+  /**
+   * Get the number of cache hits for class lookups.
+   * @return a hits count.
+   */
+  public synchronized long getClassHits()
+  {
+    return _classHits;
+  }
+
+  /**
+   * Get the number of cache misses for class lookups.
+   * @return a misses count.
+   */
+  public synchronized long getClassMisses()
+  {
+    return _classMisses;
+  }
+
+  /**
+   * Get the number of cache hits for name lookups.
+   * @return a hits count.
+   */
+  public synchronized long getNameHits()
+  {
+    return _nameHits;
+  }
+
+  /**
+   * Get the number of cache misses for name lookups.
+   * @return a misses count.
+   */
+  public synchronized long getNameMisses()
+  {
+    return _nameMisses;
+  }
+
+  /**
+   * Get a displayable summary of the cache statistics.
+   * @return a statistics string.
+   */
+  public synchronized String getStatistics()
+  {
+    return "Targets cache: classes: "+_classHits+" hit(s), "+_classMisses+" miss(es); names: "+_nameHits+" hit(s), "+_nameMisses+" miss(es); size="+_entries.size();
+  }
+
+  /**
+   * Log the statistics, then clear the cache and its statistics.
+   */
+  public synchronized void reset()
+  {
+    if (_classHits+_classMisses+_nameHits+_nameMisses>0)
+    {
+      LOGGER.info(getStatistics());
+    }
+    _entries.clear();
+    _classHits=0;
+    _classMisses=0;
+    _nameHits=0;
+    _nameMisses=0;
+  }
+
+  /**
+   * Cached data for a target.
+   */
+  private static class TargetEntry
+  {
+    private boolean _classLoaded;
+    private int _classIndex;
+    private boolean _nameLoaded;
+    private String _name;
+  }
+}
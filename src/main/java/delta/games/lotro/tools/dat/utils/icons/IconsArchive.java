@@ -0,0 +1,125 @@
+package delta.games.lotro.tools.dat.utils.icons;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Archive of icons, built in memory and written as a single ZIP file.
+ * <p>
+ * Entries may be added by several threads. They are written by increasing name,
+ * with a fixed time, so that the archive does not depend on the order of the additions.
+ * @author DAM
+ */
+public class IconsArchive
+{
+  private static final Logger LOGGER=Logger.getLogger(IconsArchive.class);
+
+  // 2000-01-01 00:00:00 in the default time zone: ZIP entries store local (DOS) times,
+  // so this gives the same stored time whatever the time zone of the JVM
+  private static final long ENTRIES_TIME=new GregorianCalendar(2000,Calendar.JANUARY,1).getTimeInMillis();
+
+  private File _archiveFile;
+  private ConcurrentHashMap<String,byte[]> _entries;
+
+  /**
+   * Constructor.
+   * @param archiveFile Archive file.
+   */
+  public IconsArchive(File archiveFile)
+  {
+    _archiveFile=archiveFile;
+    _entries=new ConcurrentHashMap<String,byte[]>();
+  }
+
+  /**
+   * Get the archive file.
+   * @return the archive file.
+   */
+  public File getArchiveFile()
+  {
+    return _archiveFile;
+  }
+
+  /**
+   * Add an entry.
+   * <p>
+   * If an entry with the same name already exists, it is kept.
+   * @param name Entry name (path in the archive, using '/' separators).
+   * @param data Entry data.
+   */
+  public void addEntry(String name, byte[] data)
+  {
+    _entries.putIfAbsent(name,data);
+  }
+
+  /**
+   * Get the number of entries.
+   * @return an entries count.
+   */
+  public int getSize()
+  {
+    return _entries.size();
+  }
+
+  /**
+   * Write the archive file.
+   * @return <code>true</code> if it succeeds, <code>false</code> otherwise.
+   */
+  public boolean write()
+  {
+    File parentDir=_archiveFile.getParentFile();
+    if (!parentDir.exists())
+    {
+      parentDir.mkdirs();
+    }
+    List<String> names=new ArrayList<String>(_entries.keySet());
+    Collections.sort(names);
+    boolean ok=false;
+    ZipOutputStream zos=null;
+    try
+    {
+      zos=new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(_archiveFile)));
+      for(String name : names)
+      {
+        ZipEntry entry=new ZipEntry(name);
+        entry.setTime(ENTRIES_TIME);
+        zos.putNextEntry(entry);
+        zos.write(_entries.get(name));
+        zos.closeEntry();
+      }
+      zos.finish();
+      ok=true;
+    }
+    catch(IOException ioe)
+    {
+      LOGGER.warn("Could not write icons archive: "+_archiveFile,ioe);
+    }
+    finally
+    {
+      if (zos!=null)
+      {
+        try
+        {
+          zos.close();
+        }
+        catch(IOException ioe)
+        {
+          // Ignored
+        }
+      }
+    }
+    return ok;
+  }
+}
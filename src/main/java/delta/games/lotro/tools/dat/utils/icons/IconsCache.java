@@ -0,0 +1,336 @@
+package delta.games.lotro.tools.dat.utils.icons;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+
+import delta.common.utils.files.FileCopy;
+import delta.games.lotro.dat.data.DataFacade;
+
+/**
+ * Persistent cache for icon files.
+ * <p>
+ * Icon files are stored with a name built from the icon identifiers and a hash of their
+ * raw DAT data, so that a cached icon is reused as long as its source data does not change.
+ * The cache files used by a generation are recorded, so that the files of icons that are
+ * no longer used (source data changed or removed) may be pruned after a full generation.
+ * @author DAM
+ */
+public class IconsCache
+{
+  private static final Logger LOGGER=Logger.getLogger(IconsCache.class);
+
+  private static final char[] HEX_DIGITS="0123456789abcdef".toCharArray();
+
+  private File _rootDir;
+  private AtomicInteger _hits;
+  private AtomicInteger _misses;
+  private Set<String> _used;
+
+  /**
+   * Constructor.
+   * @param rootDir Root directory for cached files.
+   */
+  public IconsCache(File rootDir)
+  {
+    _rootDir=rootDir;
+    _hits=new AtomicInteger();
+    _misses=new AtomicInteger();
+    _used=Collections.newSetFromMap(new ConcurrentHashMap<String,Boolean>());
+  }
+
+  /**
+   * Get the cache file for an icon.
+   * @param facade Data facade.
+   * @param iconIds Icon identifiers (several for layered icons).
+   * @return A file or <code>null</code> if the source data could not be loaded.
+   */
+  public File getCacheFile(DataFacade facade, int[] iconIds)
+  {
+    MessageDigest digest=newDigest();
+    if (digest==null)
+    {
+      return null;
+    }
+    StringBuilder name=new StringBuilder();
+    for(int iconId : iconIds)
+    {
+      byte[] data=facade.loadData(iconId);
+      if (data==null)
+      {
+        return null;
+      }
+      digest.update(data);
+      name.append(Integer.toHexString(iconId)).append('-');
+    }
+    String hash=toHex(digest.digest());
+    name.append(hash).append(".png");
+    return new File(new File(_rootDir,hash.substring(0,2)),name.toString());
+  }
+
+  /**
+   * Fetch a cached icon.
+   * @param cacheFile Cache file.
+   * @param to Target file.
+   * @return <code>true</code> if the icon was found and copied, <code>false</code> otherwise.
+   */
+  public boolean fetch(File cacheFile, File to)
+  {
+    if (!cacheFile.exists())
+    {
+      _misses.incrementAndGet();
+      return false;
+    }
+    File parentDir=to.getParentFile();
+    if (!parentDir.exists())
+    {
+      parentDir.mkdirs();
+    }
+    FileCopy.copy(cacheFile,to);
+    boolean ok=to.exists();
+    if (ok)
+    {
+      _hits.incrementAndGet();
+      _used.add(cacheFile.getName());
+    }
+    else
+    {
+      _misses.incrementAndGet();
+    }
+    return ok;
+  }
+
+  /**
+   * Fetch the data of a cached icon.
+   * @param cacheFile Cache file.
+   * @return the icon data (PNG) or <code>null</code> if not found.
+   */
+  public byte[] fetchData(File cacheFile)
+  {
+    byte[] ret=null;
+    if (cacheFile.exists())
+    {
+      DataInputStream is=null;
+      try
+      {
+        is=new DataInputStream(new FileInputStream(cacheFile));
+        byte[] data=new byte[(int)cacheFile.length()];
+        is.readFully(data);
+        ret=data;
+      }
+      catch(IOException ioe)
+      {
+        LOGGER.warn("Could not read cached icon: "+cacheFile,ioe);
+      }
+      finally
+      {
+        close(is);
+      }
+    }
+    if (ret!=null)
+    {
+      _hits.incrementAndGet();
+      _used.add(cacheFile.getName());
+    }
+    else
+    {
+      _misses.incrementAndGet();
+    }
+    return ret;
+  }
+
+  /**
+   * Store an icon in the cache.
+   * @param cacheFile Cache file.
+   * @param from Built icon file.
+   */
+  public void store(File cacheFile, File from)
+  {
+    File tmpFile=getTmpFile(cacheFile);
+    FileCopy.copy(from,tmpFile);
+    commit(tmpFile,cacheFile);
+  }
+
+  /**
+   * Store icon data in the cache.
+   * @param cacheFile Cache file.
+   * @param data Icon data (PNG).
+   */
+  public void storeData(File cacheFile, byte[] data)
+  {
+    File tmpFile=getTmpFile(cacheFile);
+    FileOutputStream os=null;
+    boolean ok=false;
+    try
+    {
+      os=new FileOutputStream(tmpFile);
+      os.write(data);
+      ok=true;
+    }
+    catch(IOException ioe)
+    {
+      LOGGER.warn("Could not write cached icon: "+tmpFile,ioe);
+    }
+    finally
+    {
+      close(os);
+    }
+    if (ok)
+    {
+      commit(tmpFile,cacheFile);
+    }
+    else
+    {
+      tmpFile.delete();
+    }
+  }
+
+  private File getTmpFile(File cacheFile)
+  {
+    File parentDir=cacheFile.getParentFile();
+    if (!parentDir.exists())
+    {
+      parentDir.mkdirs();
+    }
+    return new File(parentDir,cacheFile.getName()+"."+Thread.currentThread().getId()+".tmp");
+  }
+
+  /**
+   * Rename a temporary file to its final name, so that readers never see a partial file.
+   * @param tmpFile Temporary file.
+   * @param cacheFile Cache file.
+   */
+  private void commit(File tmpFile, File cacheFile)
+  {
+    _used.add(cacheFile.getName());
+    if (!tmpFile.renameTo(cacheFile))
+    {
+      tmpFile.delete();
+      if (!cacheFile.exists())
+      {
+        LOGGER.warn("Could not store icon in cache: "+cacheFile);
+      }
+    }
+  }
+
+  /**
+   * Remove the cache files that were not used since this cache was created,
+   * including the temporary files left by interrupted runs.
+   * <p>
+   * Shall be called only after a full generation, when all the icons were requested.
+   * Nothing is removed if no cache file was used.
+   * @return the number of removed files.
+   */
+  public int pruneUnused()
+  {
+    if (_used.isEmpty())
+    {
+      return 0;
+    }
+    File[] dirs=_rootDir.listFiles();
+    if (dirs==null)
+    {
+      return 0;
+    }
+    int ret=0;
+    for(File dir : dirs)
+    {
+      File[] files=dir.listFiles();
+      if (files==null)
+      {
+        continue;
+      }
+      for(File file : files)
+      {
+        if ((!_used.contains(file.getName())) && (file.delete()))
+        {
+          ret++;
+        }
+      }
+      String[] remaining=dir.list();
+      if ((remaining!=null) && (remaining.length==0))
+      {
+        dir.delete();
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Get the number of cache hits.
+   * @return a hits count.
+   */
+  public int getHits()
+  {
+    return _hits.get();
+  }
+
+  /**
+   * Get the number of cache misses.
+   * @return a misses count.
+   */
+  public int getMisses()
+  {
+    return _misses.get();
+  }
+
+  /**
+   * Reset the statistics.
+   */
+  public void resetStatistics()
+  {
+    _hits.set(0);
+    _misses.set(0);
+  }
+
+  private MessageDigest newDigest()
+  {
+    try
+    {
+      return MessageDigest.getInstance("SHA-1");
+    }
+    catch(NoSuchAlgorithmException nsae)
+    {
+      LOGGER.warn("Could not build digest",nsae);
+      return null;
+    }
+  }
+
+  private static void close(Closeable stream)
+  {
+    if (stream!=null)
+    {
+      try
+      {
+        stream.close();
+      }
+      catch(IOException ioe)
+      {
+        // Ignored
+      }
+    }
+  }
+
+  private static String toHex(byte[] bytes)
+  {
+    char[] chars=new char[bytes.length*2];
+    for(int i=0;i<bytes.length;i++)
+    {
+      int value=bytes[i]&0xFF;
+      chars[i*2]=HEX_DIGITS[value>>4];
+      chars[i*2+1]=HEX_DIGITS[value&0x0F];
+    }
+    return new String(chars);
+  }
+}
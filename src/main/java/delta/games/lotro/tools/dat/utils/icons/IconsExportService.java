@@ -0,0 +1,478 @@
+package delta.games.lotro.tools.dat.utils.icons;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+
+import javax.imageio.ImageIO;
+
+import org.apache.log4j.Logger;
+
+import delta.games.lotro.dat.data.DataFacade;
+import delta.games.lotro.dat.utils.DatIconsUtils;
+import delta.games.lotro.tools.dat.GeneratedFiles;
+
+/**
+ * Asynchronous export of icons to PNG files or to icons archives.
+ * <p>
+ * Loaders submit icons while they go on with their extraction. Icons are built
+ * by a pool of worker threads, each with its own data facade. A given file (or archive entry)
+ * is built only once, whatever the number of submissions.
+ * <p>
+ * Archive entries are encoded in memory and the archive is written in a single pass
+ * (see {@link #writeArchive(File)}), without any temporary directory.
+ * <p>
+ * Built icons are kept in a persistent cache, so that icons whose source data did not change
+ * are copied instead of being built again.
+ * <p>
+ * Loaders shall wait for their icons (see {@link #waitForIcons(File)}) before using the files.
+ * @author DAM
+ */
+public class IconsExportService
+{
+  private static final Logger LOGGER=Logger.getLogger(IconsExportService.class);
+
+  private static final IconsExportService _instance=new IconsExportService();
+
+  private int _nbThreads;
+  private ExecutorService _executor;
+  private ConcurrentHashMap<String,Future<Boolean>> _exports;
+  private ConcurrentHashMap<File,IconsArchive> _archives;
+  private List<DataFacade> _facades;
+  private ThreadLocal<DataFacade> _workerFacade;
+  private IconsCache _cache;
+
+  /**
+   * Get the reference instance of this class.
+   * @return the reference instance of this class.
+   */
+  public static IconsExportService getInstance()
+  {
+    return _instance;
+  }
+
+  /**
+   * Private constructor.
+   */
+  private IconsExportService()
+  {
+    _nbThreads=Runtime.getRuntime().availableProcessors();
+    _exports=new ConcurrentHashMap<String,Future<Boolean>>();
+    _archives=new ConcurrentHashMap<File,IconsArchive>();
+    _facades=new ArrayList<DataFacade>();
+    _cache=new IconsCache(GeneratedFiles.ICONS_CACHE_DIR);
+    _workerFacade=new ThreadLocal<DataFacade>()
+    {
+      @Override
+      protected DataFacade initialValue()
+      {
+        DataFacade facade=new DataFacade();
+        synchronized(_facades)
+        {
+          _facades.add(facade);
+        }
+        return facade;
+      }
+    };
+  }
+
+  /**
+   * Set the number of worker threads.
+   * <p>
+   * Used when the workers are started, i.e. for the first export after a shutdown.
+   * @param nbThreads Number of threads.
+   */
+  public synchronized void setNbThreads(int nbThreads)
+  {
+    _nbThreads=Math.max(1,nbThreads);
+  }
+
+  /**
+   * Set the icons cache.
+   * @param cache Cache to use, <code>null</code> to disable caching.
+   */
+  public synchronized void setCache(IconsCache cache)
+  {
+    _cache=cache;
+  }
+
+  private synchronized IconsCache getCache()
+  {
+    return _cache;
+  }
+
+  /**
+   * Export an icon.
+   * @param iconId Icon identifier.
+   * @param to Target file.
+   */
+  public void exportIcon(int iconId, File to)
+  {
+    exportIcon(iconId,null,to);
+  }
+
+  /**
+   * Export an icon made of several layers.
+   * @param iconIds Icon identifiers, from background to foreground.
+   * @param to Target file.
+   */
+  public void exportIcon(int[] iconIds, File to)
+  {
+    exportIcon(0,iconIds,to);
+  }
+
+  private void exportIcon(final int iconId, final int[] iconIds, File to)
+  {
+    final File file=to.getAbsoluteFile();
+    Callable<Boolean> export=new Callable<Boolean>()
+    {
+      @Override
+      public Boolean call()
+      {
+        return Boolean.valueOf(buildIcon(iconId,iconIds,file));
+      }
+    };
+    submit(file.getPath(),export);
+  }
+
+  /**
+   * Export an icon to an icons archive.
+   * @param iconId Icon identifier.
+   * @param archiveFile Archive file.
+   * @param entryName Entry name in the archive (using '/' separators).
+   */
+  public void exportIcon(int iconId, File archiveFile, String entryName)
+  {
+    exportIcon(new int[]{iconId},archiveFile,entryName);
+  }
+
+  /**
+   * Export an icon made of several layers to an icons archive.
+   * @param iconIds Icon identifiers, from background to foreground.
+   * @param archiveFile Archive file.
+   * @param entryName Entry name in the archive (using '/' separators).
+   */
+  public void exportIcon(final int[] iconIds, File archiveFile, final String entryName)
+  {
+    final IconsArchive archive=getArchive(archiveFile);
+    Callable<Boolean> export=new Callable<Boolean>()
+    {
+      @Override
+      public Boolean call()
+      {
+        return Boolean.valueOf(buildEntry(iconIds,archive,entryName));
+      }
+    };
+    submit(getEntryKey(archive.getArchiveFile(),entryName),export);
+  }
+
+  private void submit(String key, Callable<Boolean> export)
+  {
+    if (_exports.containsKey(key))
+    {
+      return;
+    }
+    FutureTask<Boolean> task=new FutureTask<Boolean>(export);
+    Future<Boolean> old=_exports.putIfAbsent(key,task);
+    if (old==null)
+    {
+      getExecutor().execute(task);
+    }
+  }
+
+  private IconsArchive getArchive(File archiveFile)
+  {
+    File file=archiveFile.getAbsoluteFile();
+    IconsArchive archive=_archives.get(file);
+    if (archive==null)
+    {
+      IconsArchive newArchive=new IconsArchive(file);
+      archive=_archives.putIfAbsent(file,newArchive);
+      if (archive==null)
+      {
+        archive=newArchive;
+      }
+    }
+    return archive;
+  }
+
+  private static String getEntryKey(File archiveFile, String entryName)
+  {
+    return archiveFile.getPath()+"!"+File.separator+entryName;
+  }
+
+  private boolean buildIcon(int iconId, int[] iconIds, File to)
+  {
+    if (to.exists())
+    {
+      return true;
+    }
+    DataFacade facade=_workerFacade.get();
+    // Cache
+    IconsCache cache=getCache();
+    File cacheFile=null;
+    if (cache!=null)
+    {
+      int[] ids=(iconIds!=null)?iconIds:new int[]{iconId};
+      cacheFile=cache.getCacheFile(facade,ids);
+      if ((cacheFile!=null) && (cache.fetch(cacheFile,to)))
+      {
+        return true;
+      }
+    }
+    // Build
+    boolean ok;
+    if (iconIds!=null)
+    {
+      ok=DatIconsUtils.buildImageFile(facade,iconIds,to);
+    }
+    else
+    {
+      ok=DatIconsUtils.buildImageFile(facade,iconId,to);
+    }
+    if (ok)
+    {
+      if (cacheFile!=null)
+      {
+        cache.store(cacheFile,to);
+      }
+    }
+    else
+    {
+      LOGGER.warn("Could not build icon: "+to);
+    }
+    return ok;
+  }
+
+  private boolean buildEntry(int[] iconIds, IconsArchive archive, String entryName)
+  {
+    DataFacade facade=_workerFacade.get();
+    // Cache
+    IconsCache cache=getCache();
+    File cacheFile=null;
+    if (cache!=null)
+    {
+      cacheFile=cache.getCacheFile(facade,iconIds);
+      if (cacheFile!=null)
+      {
+        byte[] data=cache.fetchData(cacheFile);
+        if (data!=null)
+        {
+          archive.addEntry(entryName,data);
+          return true;
+        }
+      }
+    }
+    // Build
+    byte[] data=encodeIcon(facade,iconIds);
+    if (data==null)
+    {
+      LOGGER.warn("Could not build icon: "+entryName+" in "+archive.getArchiveFile());
+      return false;
+    }
+    if (cacheFile!=null)
+    {
+      cache.storeData(cacheFile,data);
+    }
+    archive.addEntry(entryName,data);
+    return true;
+  }
+
+  private byte[] encodeIcon(DataFacade facade, int[] iconIds)
+  {
+    BufferedImage image=DatIconsUtils.buildImage(facade,iconIds);
+    if (image==null)
+    {
+      return null;
+    }
+    ByteArrayOutputStream bos=new ByteArrayOutputStream();
+    try
+    {
+      boolean ok=ImageIO.write(image,"png",bos);
+      return ok?bos.toByteArray():null;
+    }
+    catch(IOException ioe)
+    {
+      LOGGER.warn("Could not encode icon",ioe);
+      return null;
+    }
+  }
+
+  private synchronized ExecutorService getExecutor()
+  {
+    if (_executor==null)
+    {
+      ThreadFactory factory=new ThreadFactory()
+      {
+        private int _index=0;
+
+        @Override
+        public synchronized Thread newThread(Runnable r)
+        {
+          _index++;
+          Thread thread=new Thread(r,"Icons export #"+_index);
+          thread.setDaemon(true);
+          return thread;
+        }
+      };
+      _executor=Executors.newFixedThreadPool(_nbThreads,factory);
+    }
+    return _executor;
+  }
+
+  /**
+   * Wait for the submitted icons that are located in the given directory (or its sub-directories).
+   * @param rootDir Root directory.
+   * @return the number of icons that could not be built.
+   */
+  public int waitForIcons(File rootDir)
+  {
+    return waitForIcons(rootDir.getAbsolutePath()+File.separator);
+  }
+
+  private int waitForIcons(String prefix)
+  {
+    int nbFailures=0;
+    for(Map.Entry<String,Future<Boolean>> entry : _exports.entrySet())
+    {
+      if (entry.getKey().startsWith(prefix))
+      {
+        if (!waitForIcon(entry.getValue()))
+        {
+          nbFailures++;
+        }
+      }
+    }
+    return nbFailures;
+  }
+
+  /**
+   * Wait for the icons submitted to an archive, then write this archive.
+   * @param archiveFile Archive file.
+   * @return <code>true</code> if the archive was written, <code>false</code> otherwise.
+   */
+  public boolean writeArchive(File archiveFile)
+  {
+    File file=archiveFile.getAbsoluteFile();
+    String prefix=getEntryKey(file,"");
+    int nbFailures=waitForIcons(prefix);
+    if (nbFailures>0)
+    {
+      LOGGER.warn("Could not build "+nbFailures+" icon(s) for archive: "+file);
+    }
+    IconsArchive archive=_archives.remove(file);
+    if (archive==null)
+    {
+      archive=new IconsArchive(file);
+    }
+    boolean ok=archive.write();
+    for(String key : _exports.keySet())
+    {
+      if (key.startsWith(prefix))
+      {
+        _exports.remove(key);
+      }
+    }
+    return ok;
+  }
+
+  /**
+   * Wait for all the submitted icons.
+   * @return the number of icons that could not be built.
+   */
+  public int waitForAll()
+  {
+    int nbFailures=0;
+    for(Future<Boolean> export : _exports.values())
+    {
+      if (!waitForIcon(export))
+      {
+        nbFailures++;
+      }
+    }
+    return nbFailures;
+  }
+
+  private boolean waitForIcon(Future<Boolean> export)
+  {
+    try
+    {
+      return export.get().booleanValue();
+    }
+    catch(InterruptedException ie)
+    {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for icons",ie);
+    }
+    catch(ExecutionException ee)
+    {
+      LOGGER.warn("Icon export failed",ee.getCause());
+      return false;
+    }
+  }
+
+  /**
+   * Remove the cached icons that were not used during this generation.
+   * <p>
+   * Shall be called after a complete generation only, once all the icons are built.
+   */
+  public void pruneCache()
+  {
+    IconsCache cache=getCache();
+    if (cache!=null)
+    {
+      int nbRemoved=cache.pruneUnused();
+      LOGGER.info("Icons cache: removed "+nbRemoved+" unused file(s)");
+    }
+  }
+
+  /**
+   * Wait for all the submitted icons, then stop the worker threads and release their resources.
+   * <p>
+   * The service can still be used afterwards: workers are started again when needed.
+   */
+  public void shutdown()
+  {
+    int nbFailures=waitForAll();
+    if (nbFailures>0)
+    {
+      LOGGER.warn("Could not build "+nbFailures+" icon(s)");
+    }
+    IconsCache cache=getCache();
+    if (cache!=null)
+    {
+      LOGGER.info("Icons cache: "+cache.getHits()+" hit(s), "+cache.getMisses()+" miss(es)");
+      cache.resetStatistics();
+    }
+    synchronized(this)
+    {
+      if (_executor!=null)
+      {
+        _executor.shutdown();
+        _executor=null;
+      }
+    }
+    synchronized(_facades)
+    {
+      for(DataFacade facade : _facades)
+      {
+        facade.dispose();
+      }
+      _facades.clear();
+    }
+    _exports.clear();
+    _archives.clear();
+  }
+}
@@ -0,0 +1,101 @@
+package delta.games.lotro.tools.dat.utils.index;
+
+import java.util.Arrays;
+
+/**
+ * Index of the class definition index of data IDs (DID).
+ * <p>
+ * Entries are sorted by increasing DID.
+ * @author DAM
+ */
+public class DidClassIndex
+{
+  /**
+   * Value returned for unknown DIDs.
+   */
+  public static final int NO_CLASS=-1;
+
+  private int[] _dids;
+  private int[] _classes;
+
+  /**
+   * Constructor.
+   * @param dids Data IDs, sorted by increasing value.
+   * @param classes Class definition indexes (same order as DIDs).
+   */
+  public DidClassIndex(int[] dids, int[] classes)
+  {
+    if (dids.length!=classes.length)
+    {
+      throw new IllegalArgumentException("Size mismatch: "+dids.length+"!="+classes.length);
+    }
+    _dids=dids;
+    _classes=classes;
+  }
+
+  /**
+   * Get the number of indexed DIDs.
+   * @return a count.
+   */
+  public int getSize()
+  {
+    return _dids.length;
+  }
+
+  /**
+   * Get the DID at the given position.
+   * @param index Index of entry, starting at 0.
+   * @return A DID.
+   */
+  public int getDidAt(int index)
+  {
+    return _dids[index];
+  }
+
+  /**
+   * Get the class definition index at the given position.
+   * @param index Index of entry, starting at 0.
+   * @return A class definition index.
+   */
+  public int getClassAt(int index)
+  {
+    return _classes[index];
+  }
+
+  /**
+   * Get the class definition index of a DID.
+   * @param did Data ID.
+   * @return A class definition index or {@link #NO_CLASS} if not found.
+   */
+  public int getClassIndex(int did)
+  {
+    int index=Arrays.binarySearch(_dids,did);
+    return (index>=0)?_classes[index]:NO_CLASS;
+  }
+
+  /**
+   * Get all the DIDs that use one of the given classes.
+   * @param classDefIndexes Class definition indexes.
+   * @return An array of DIDs, sorted by increasing value.
+   */
+  public int[] getDids(int... classDefIndexes)
+  {
+    int nbEntries=_dids.length;
+    int[] tmp=new int[nbEntries];
+    int count=0;
+    for(int i=0;i<nbEntries;i++)
+    {
+      int classDefIndex=_classes[i];
+      for(int classToFind : classDefIndexes)
+      {
+        if (classDefIndex==classToFind)
+        {
+          tmp[count]=_dids[i];
+          count++;
+          break;
+        }
+      }
+    }
+    return Arrays.copyOf(tmp,count);
+  }
+}
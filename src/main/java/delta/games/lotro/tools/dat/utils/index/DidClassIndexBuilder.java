@@ -0,0 +1,73 @@
+package delta.games.lotro.tools.dat.utils.index;
+
+import java.util.Arrays;
+
+import org.apache.log4j.Logger;
+
+import delta.games.lotro.dat.data.DataFacade;
+import delta.games.lotro.dat.utils.BufferUtils;
+
+/**
+ * Builds a DID class index with a single sweep of the DIDs space.
+ * <p>
+ * Each existing entry is fully loaded to get the class from its header: the sweep is costly,
+ * but it is done once for a given set of DAT files.
+ * @author DAM
+ */
+public class DidClassIndexBuilder
+{
+  private static final Logger LOGGER=Logger.getLogger(DidClassIndexBuilder.class);
+
+  /**
+   * First scanned DID.
+   */
+  public static final int MIN_DID=0x70000000;
+  /**
+   * Last scanned DID.
+   */
+  public static final int MAX_DID=0x77FFFFFF;
+
+  private DataFacade _facade;
+
+  /**
+   * Constructor.
+   * @param facade Data facade.
+   */
+  public DidClassIndexBuilder(DataFacade facade)
+  {
+    _facade=facade;
+  }
+
+  /**
+   * Build the index.
+   * @return the loaded index.
+   */
+  public DidClassIndex build()
+  {
+    long start=System.currentTimeMillis();
+    int capacity=1024*1024;
+    int[] dids=new int[capacity];
+    int[] classes=new int[capacity];
+    int count=0;
+    for(int id=MIN_DID;id<=MAX_DID;id++)
+    {
+      byte[] data=_facade.loadData(id);
+      if ((data!=null) && (data.length>=8))
+      {
+        if (count==capacity)
+        {
+          capacity*=2;
+          dids=Arrays.copyOf(dids,capacity);
+          classes=Arrays.copyOf(classes,capacity);
+        }
+        dids[count]=id;
+        classes[count]=BufferUtils.getDoubleWordAt(data,4);
+        count++;
+      }
+    }
+    DidClassIndex ret=new DidClassIndex(Arrays.copyOf(dids,count),Arrays.copyOf(classes,count));
+    long end=System.currentTimeMillis();
+    LOGGER.info("Indexed "+count+" DIDs in "+(end-start)+"ms");
+    return ret;
+  }
+}
@@ -0,0 +1,137 @@
+package delta.games.lotro.tools.dat.utils.index;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Binary I/O for DID class indexes.
+ * <p>
+ * Format: magic, version, DAT files stamp, number of entries, then (DID, class index) for each entry.
+ * @author DAM
+ */
+public class DidClassIndexIO
+{
+  private static final Logger LOGGER=Logger.getLogger(DidClassIndexIO.class);
+
+  private static final int MAGIC=0x44434958; // DCIX
+  private static final int VERSION=2;
+
+  /**
+   * Load an index from a file.
+   * @param from Source file.
+   * @param datStamp Stamp of the current DAT files.
+   * @return the loaded index or <code>null</code> if the file does not exist, could not be read
+   * or was built from other DAT files.
+   */
+  public static DidClassIndex load(File from, long datStamp)
+  {
+    if (!from.exists())
+    {
+      return null;
+    }
+    DidClassIndex ret=null;
+    DataInputStream is=null;
+    try
+    {
+      is=new DataInputStream(new BufferedInputStream(new FileInputStream(from)));
+      int magic=is.readInt();
+      int version=is.readInt();
+      if ((magic!=MAGIC) || (version!=VERSION))
+      {
+        LOGGER.warn("Bad DID class index file: "+from);
+        return null;
+      }
+      long stamp=is.readLong();
+      if (stamp!=datStamp)
+      {
+        LOGGER.info("DID class index file is out of date: "+from);
+        return null;
+      }
+      int count=is.readInt();
+      int[] dids=new int[count];
+      int[] classes=new int[count];
+      for(int i=0;i<count;i++)
+      {
+        dids[i]=is.readInt();
+        classes[i]=is.readInt();
+      }
+      ret=new DidClassIndex(dids,classes);
+    }
+    catch(IOException ioe)
+    {
+      LOGGER.warn("Could not read DID class index file: "+from,ioe);
+    }
+    finally
+    {
+      close(is);
+    }
+    return ret;
+  }
+
+  /**
+   * Write an index to a file.
+   * @param to Target file.
+   * @param index Index to write.
+   * @param datStamp Stamp of the DAT files used to build the index.
+   * @return <code>true</code> if it succeeds, <code>false</code> otherwise.
+   */
+  public static boolean write(File to, DidClassIndex index, long datStamp)
+  {
+    File parentDir=to.getParentFile();
+    if (!parentDir.exists())
+    {
+      parentDir.mkdirs();
+    }
+    boolean ok=false;
+    DataOutputStream os=null;
+    try
+    {
+      os=new DataOutputStream(new BufferedOutputStream(new FileOutputStream(to)));
+      os.writeInt(MAGIC);
+      os.writeInt(VERSION);
+      os.writeLong(datStamp);
+      int count=index.getSize();
+      os.writeInt(count);
+      for(int i=0;i<count;i++)
+      {
+        os.writeInt(index.getDidAt(i));
+        os.writeInt(index.getClassAt(i));
+      }
+      os.flush();
+      ok=true;
+    }
+    catch(IOException ioe)
+    {
+      LOGGER.warn("Could not write DID class index file: "+to,ioe);
+    }
+    finally
+    {
+      close(os);
+    }
+    return ok;
+  }
+
+  private static void close(Closeable stream)
+  {
+    if (stream!=null)
+    {
+      try
+      {
+        stream.close();
+      }
+      catch(IOException ioe)
+      {
+        // Ignored
+      }
+    }
+  }
+}
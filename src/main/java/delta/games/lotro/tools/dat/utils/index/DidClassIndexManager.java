@@ -0,0 +1,103 @@
+package delta.games.lotro.tools.dat.utils.index;
+
+import java.io.File;
+
+import org.apache.log4j.Logger;
+
+import delta.games.lotro.dat.data.DataFacade;
+import delta.games.lotro.tools.dat.GeneratedFiles;
+import delta.games.lotro.tools.dat.utils.DatFilesStamp;
+
+/**
+ * Manager for the DID class index.
+ * <p>
+ * The index is loaded from disk if available, or built with a single sweep of the DIDs space
+ * and then saved to disk so that it is shared by all the loaders.<br>
+ * The index file is rebuilt when the DAT files change.
+ * @author DAM
+ */
+public class DidClassIndexManager
+{
+  private static final Logger LOGGER=Logger.getLogger(DidClassIndexManager.class);
+
+  private static final DidClassIndexManager _instance=new DidClassIndexManager();
+
+  private DidClassIndex _index;
+  private DidClassProbe _probe;
+
+  /**
+   * Get the reference instance of this class.
+   * @return the reference instance of this class.
+   */
+  public static DidClassIndexManager getInstance()
+  {
+    return _instance;
+  }
+
+  /**
+   * Private constructor.
+   */
+  private DidClassIndexManager()
+  {
+    // Nothing!
+  }
+
+  /**
+   * Get the DID class index.
+   * @param facade Data facade, used to build the index if needed.
+   * @return the DID class index.
+   */
+  public synchronized DidClassIndex getIndex(DataFacade facade)
+  {
+    if (_index==null)
+    {
+      File indexFile=GeneratedFiles.DID_CLASS_INDEX;
+      long datStamp=DatFilesStamp.getStamp();
+      _index=DidClassIndexIO.load(indexFile,datStamp);
+      if (_index==null)
+      {
+        _index=new DidClassIndexBuilder(facade).build();
+        boolean ok=DidClassIndexIO.write(indexFile,_index,datStamp);
+        if (ok)
+        {
+          LOGGER.info("Wrote DID class index file: "+indexFile);
+        }
+      }
+    }
+    return _index;
+  }
+
+  /**
+   * Get the class probe.
+   * @param facade Data facade, used to build the index if needed.
+   * @return A probe, shared by all the users.
+   */
+  public synchronized DidClassProbe getProbe(DataFacade facade)
+  {
+    if (_probe==null)
+    {
+      _probe=new DidClassProbe(getIndex(facade));
+    }
+    return _probe;
+  }
+
+  /**
+   * Get all the DIDs that use one of the given classes.
+   * @param facade Data facade.
+   * @param classDefIndexes Class definition indexes.
+   * @return An array of DIDs, sorted by increasing value.
+   */
+  public static int[] getDids(DataFacade facade, int... classDefIndexes)
+  {
+    return _instance.getIndex(facade).getDids(classDefIndexes);
+  }
+
+  /**
+   * Forget the loaded index and probe (the index file is not removed).
+   */
+  public synchronized void reset()
+  {
+    _index=null;
+    _probe=null;
+  }
+}
@@ -0,0 +1,72 @@
+package delta.games.lotro.tools.dat.utils.index;
+
+import delta.games.lotro.dat.data.DataFacade;
+import delta.games.lotro.dat.utils.BufferUtils;
+
+/**
+ * Probe to get the class definition index of a DID.
+ * <p>
+ * DIDs of the indexed range are resolved using the DID class index (no DAT access and no allocation).
+ * Other DIDs are resolved by loading the whole entry, then reading the class from its header.
+ * <p>
+ * The probe does not keep any data facade: the facade to use is given on each call,
+ * so a single probe may be shared by all the threads.
+ * @author DAM
+ */
+public class DidClassProbe
+{
+  private DidClassIndex _index;
+
+  /**
+   * Constructor.
+   * @param index DID class index.
+   */
+  public DidClassProbe(DidClassIndex index)
+  {
+    _index=index;
+  }
+
+  /**
+   * Get the class definition index of a DID.
+   * @param facade Data facade, used for the DIDs that are not indexed.
+   * @param did Data ID.
+   * @return A class definition index or {@link DidClassIndex#NO_CLASS} if not found.
+   */
+  public int getClassIndex(DataFacade facade, int did)
+  {
+    if ((did>=DidClassIndexBuilder.MIN_DID) && (did<=DidClassIndexBuilder.MAX_DID))
+    {
+      return _index.getClassIndex(did);
+    }
+    byte[] data=facade.loadData(did);
+    if ((data!=null) && (data.length>=8))
+    {
+      return BufferUtils.getDoubleWordAt(data,4);
+    }
+    return DidClassIndex.NO_CLASS;
+  }
+
+  /**
+   * Indicates if a DID uses one of the given classes.
+   * @param facade Data facade, used for the DIDs that are not indexed.
+   * @param did Data ID.
+   * @param classDefIndexes Class definition indexes.
+   * @return <code>true</code> if it does, <code>false</code> otherwise.
+   */
+  public boolean isOfClass(DataFacade facade, int did, int... classDefIndexes)
+  {
+    int classDefIndex=getClassIndex(facade,did);
+    if (classDefIndex==DidClassIndex.NO_CLASS)
+    {
+      return false;
+    }
+    for(int classToFind : classDefIndexes)
+    {
+      if (classDefIndex==classToFind)
+      {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,16 @@
+package delta.games.lotro.tools.dat.utils.scan;
+
+/**
+ * Filter for the DIDs found during a scan.
+ * @author DAM
+ */
+public interface DidFilter
+{
+  /**
+   * Indicates if a DID shall be visited.
+   * @param did Data ID.
+   * @param classDefIndex Class definition index of the DID.
+   * @return <code>true</code> to visit it, <code>false</code> otherwise.
+   */
+  boolean accept(int did, int classDefIndex);
+}
@@ -0,0 +1,198 @@
+package delta.games.lotro.tools.dat.utils.scan;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+import delta.games.lotro.dat.data.DatConfiguration;
+import delta.games.lotro.dat.data.DataFacade;
+import delta.games.lotro.dat.utils.BufferUtils;
+
+/**
+ * Scanner for a range of DIDs.
+ * <p>
+ * The range is split into chunks that are scanned on a fork/join pool.
+ * Each worker thread uses its own data facade, since a data facade
+ * shall not be used by several threads at the same time.
+ * @author DAM
+ */
+public class DidRangeScanner
+{
+  private static final Logger LOGGER=Logger.getLogger(DidRangeScanner.class);
+
+  /**
+   * Default chunk size.
+   */
+  public static final int DEFAULT_CHUNK_SIZE=0x10000;
+
+  private int _minDid;
+  private int _maxDid;
+  private int _chunkSize;
+  private int _nbThreads;
+  private DatConfiguration _configuration;
+
+  /**
+   * Constructor.
+   * @param minDid First DID to scan.
+   * @param maxDid Last DID to scan.
+   */
+  public DidRangeScanner(int minDid, int maxDid)
+  {
+    if (maxDid<minDid)
+    {
+      throw new IllegalArgumentException("Bad DIDs range: "+minDid+" - "+maxDid);
+    }
+    _minDid=minDid;
+    _maxDid=maxDid;
+    _chunkSize=DEFAULT_CHUNK_SIZE;
+    _nbThreads=Runtime.getRuntime().availableProcessors();
+    _configuration=null;
+  }
+
+  /**
+   * Set the chunk size.
+   * @param chunkSize Maximum number of DIDs scanned by a single task.
+   */
+  public void setChunkSize(int chunkSize)
+  {
+    _chunkSize=Math.max(1,chunkSize);
+  }
+
+  /**
+   * Set the number of threads to use.
+   * @param nbThreads Number of threads.
+   */
+  public void setNbThreads(int nbThreads)
+  {
+    _nbThreads=Math.max(1,nbThreads);
+  }
+
+  /**
+   * Set the configuration of the data facades used by the worker threads.
+   * @param configuration Configuration to use, <code>null</code> for the default configuration.
+   */
+  public void setConfiguration(DatConfiguration configuration)
+  {
+    _configuration=configuration;
+  }
+
+  /**
+   * Scan the DIDs range.
+   * @param <T> Type of results.
+   * @param filter Filter for DIDs, may be <code>null</code> to visit all found DIDs.
+   * @param visitor Visitor for the accepted DIDs.
+   * @return the merged results.
+   */
+  public <T> T scan(DidFilter filter, DidVisitor<T> visitor)
+  {
+    long start=System.currentTimeMillis();
+    final List<DataFacade> facades=new ArrayList<DataFacade>();
+    ThreadLocal<DataFacade> workerFacade=new ThreadLocal<DataFacade>()
+    {
+      @Override
+      protected DataFacade initialValue()
+      {
+        DataFacade facade=(_configuration!=null)?new DataFacade(_configuration):new DataFacade();
+        synchronized(facades)
+        {
+          facades.add(facade);
+        }
+        return facade;
+      }
+    };
+    ForkJoinPool pool=new ForkJoinPool(_nbThreads);
+    T ret=null;
+    try
+    {
+      ret=pool.invoke(new ScanTask<T>(_minDid,_maxDid,filter,visitor,workerFacade));
+    }
+    finally
+    {
+      pool.shutdownNow();
+      // Wait for running tasks before disposing their facades
+      try
+      {
+        pool.awaitTermination(Long.MAX_VALUE,TimeUnit.MILLISECONDS);
+      }
+      catch(InterruptedException ie)
+      {
+        Thread.currentThread().interrupt();
+      }
+      synchronized(facades)
+      {
+        for(DataFacade facade : facades)
+        {
+          facade.dispose();
+        }
+      }
+    }
+    long end=System.currentTimeMillis();
+    LOGGER.info("Scanned DIDs 0x"+Integer.toHexString(_minDid)+" - 0x"+Integer.toHexString(_maxDid)+" with "+_nbThreads+" threads in "+(end-start)+"ms");
+    return ret;
+  }
+
+  /**
+   * Task to scan a sub-range of DIDs.
+   * @param <T> Type of results.
+   */
+  private class ScanTask<T> extends RecursiveTask<T>
+  {
+    private static final long serialVersionUID=1L;
+
+    private int _from;
+    private int _to;
+    private DidFilter _filter;
+    private DidVisitor<T> _visitor;
+    private ThreadLocal<DataFacade> _workerFacade;
+
+    private ScanTask(int from, int to, DidFilter filter, DidVisitor<T> visitor, ThreadLocal<DataFacade> workerFacade)
+    {
+      _from=from;
+      _to=to;
+      _filter=filter;
+      _visitor=visitor;
+      _workerFacade=workerFacade;
+    }
+
+    @Override
+    protected T compute()
+    {
+      long size=(long)_to-_from+1;
+      if (size<=_chunkSize)
+      {
+        return scanChunk();
+      }
+      int middle=(int)(_from+(size/2)-1);
+      ScanTask<T> first=new ScanTask<T>(_from,middle,_filter,_visitor,_workerFacade);
+      ScanTask<T> second=new ScanTask<T>(middle+1,_to,_filter,_visitor,_workerFacade);
+      second.fork();
+      T firstResult=first.compute();
+      T secondResult=second.join();
+      return _visitor.merge(firstResult,secondResult);
+    }
+
+    private T scanChunk()
+    {
+      DataFacade facade=_workerFacade.get();
+      T result=_visitor.newResult();
+      for(long id=_from;id<=_to;id++)
+      {
+        int did=(int)id;
+        byte[] data=facade.loadData(did);
+        if ((data!=null) && (data.length>=8))
+        {
+          int classDefIndex=BufferUtils.getDoubleWordAt(data,4);
+          if ((_filter==null) || (_filter.accept(did,classDefIndex)))
+          {
+            _visitor.visit(facade,did,data,result);
+          }
+        }
+      }
+      return result;
+    }
+  }
+}
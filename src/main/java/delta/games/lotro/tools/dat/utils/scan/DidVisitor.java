@@ -0,0 +1,38 @@
+package delta.games.lotro.tools.dat.utils.scan;
+
+import delta.games.lotro.dat.data.DataFacade;
+
+/**
+ * Visitor for the DIDs found during a scan.
+ * <p>
+ * Each chunk of the scanned range gets its own result, so a visitor is called by several threads
+ * at the same time, but never with the same result object.
+ * Chunk results are then merged by increasing DIDs.
+ * @param <T> Type of results.
+ * @author DAM
+ */
+public interface DidVisitor<T>
+{
+  /**
+   * Build a new empty result.
+   * @return a new result.
+   */
+  T newResult();
+
+  /**
+   * Visit a DID.
+   * @param facade Data facade to use (owned by the current thread).
+   * @param did Data ID.
+   * @param data Raw data for this DID.
+   * @param result Result to update.
+   */
+  void visit(DataFacade facade, int did, byte[] data, T result);
+
+  /**
+   * Merge two results.
+   * @param first Result for the lower DIDs.
+   * @param second Result for the higher DIDs.
+   * @return the merged result (may be one of the given results).
+   */
+  T merge(T first, T second);
+}
@@ -0,0 +1,65 @@
+package delta.games.lotro.tools.dat.utils.tasks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Task of a tasks graph.
+ * @author DAM
+ */
+public abstract class Task
+{
+  private String _name;
+  private List<Task> _dependencies;
+
+  /**
+   * Constructor.
+   * @param name Task name.
+   */
+  public Task(String name)
+  {
+    _name=name;
+    _dependencies=new ArrayList<Task>();
+  }
+
+  /**
+   * Get the name of this task.
+   * @return a task name.
+   */
+  public String getName()
+  {
+    return _name;
+  }
+
+  /**
+   * Add a dependency: the given task shall be done before this task.
+   * @param dependency Dependency to add.
+   */
+  public void addDependency(Task dependency)
+  {
+    if (!_dependencies.contains(dependency))
+    {
+      _dependencies.add(dependency);
+    }
+  }
+
+  /**
+   * Get the dependencies of this task.
+   * @return a list of tasks.
+   */
+  public List<Task> getDependencies()
+  {
+    return _dependencies;
+  }
+
+  /**
+   * Do the job of this task.
+   */
+  public abstract void doIt();
+
+  @Override
+  public String toString()
+  {
+    return _name;
+  }
+}
@@ -0,0 +1,180 @@
+package delta.games.lotro.tools.dat.utils.tasks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Graph of tasks with dependencies.
+ * <p>
+ * Tasks are run on a pool of threads: a task is started as soon as all its dependencies are done.
+ * Ready tasks are started in their declaration order.
+ * @author DAM
+ */
+public class TasksGraph
+{
+  private static final Logger LOGGER=Logger.getLogger(TasksGraph.class);
+
+  private List<Task> _tasks;
+
+  /**
+   * Constructor.
+   */
+  public TasksGraph()
+  {
+    _tasks=new ArrayList<Task>();
+  }
+
+  /**
+   * Add a task.
+   * @param task Task to add.
+   * @param dependencies Tasks that shall be done before the given task.
+   * @return the added task.
+   */
+  public Task addTask(Task task, Task... dependencies)
+  {
+    for(Task dependency : dependencies)
+    {
+      if (!_tasks.contains(dependency))
+      {
+        throw new IllegalArgumentException("Dependency "+dependency+" of task "+task+" shall be declared first");
+      }
+      task.addDependency(dependency);
+    }
+    _tasks.add(task);
+    return task;
+  }
+
+  /**
+   * Get the managed tasks.
+   * @return a list of tasks, in declaration order.
+   */
+  public List<Task> getTasks()
+  {
+    return _tasks;
+  }
+
+  /**
+   * Run all the tasks.
+   * @param nbThreads Number of threads to use.
+   */
+  public void run(int nbThreads)
+  {
+    if (nbThreads<=1)
+    {
+      // Declaration order is a valid execution order
+      for(Task task : _tasks)
+      {
+        runTask(task);
+      }
+      return;
+    }
+    ExecutorService executor=Executors.newFixedThreadPool(nbThreads);
+    try
+    {
+      runTasks(executor);
+    }
+    finally
+    {
+      executor.shutdownNow();
+    }
+  }
+
+  private void runTasks(ExecutorService executor)
+  {
+    ExecutorCompletionService<Task> completionService=new ExecutorCompletionService<Task>(executor);
+    Map<Task,Integer> pendingDependencies=new HashMap<Task,Integer>();
+    Map<Task,List<Task>> dependents=new HashMap<Task,List<Task>>();
+    for(Task task : _tasks)
+    {
+      dependents.put(task,new ArrayList<Task>());
+    }
+    for(Task task : _tasks)
+    {
+      List<Task> dependencies=task.getDependencies();
+      pendingDependencies.put(task,Integer.valueOf(dependencies.size()));
+      for(Task dependency : dependencies)
+      {
+        dependents.get(dependency).add(task);
+      }
+    }
+    int nbRunning=0;
+    for(Task task : _tasks)
+    {
+      if (pendingDependencies.get(task).intValue()==0)
+      {
+        submit(completionService,task);
+        nbRunning++;
+      }
+    }
+    int nbDone=0;
+    while (nbRunning>0)
+    {
+      Task done=waitForTask(completionService);
+      nbRunning--;
+      nbDone++;
+      for(Task dependent : dependents.get(done))
+      {
+        int count=pendingDependencies.get(dependent).intValue()-1;
+        pendingDependencies.put(dependent,Integer.valueOf(count));
+        if (count==0)
+        {
+          submit(completionService,dependent);
+          nbRunning++;
+        }
+      }
+    }
+    if (nbDone!=_tasks.size())
+    {
+      throw new IllegalStateException("Some tasks could not be run: "+nbDone+"/"+_tasks.size());
+    }
+  }
+
+  private void submit(ExecutorCompletionService<Task> completionService, final Task task)
+  {
+    Runnable runnable=new Runnable()
+    {
+      @Override
+      public void run()
+      {
+        runTask(task);
+      }
+    };
+    completionService.submit(runnable,task);
+  }
+
+  private Task waitForTask(ExecutorCompletionService<Task> completionService)
+  {
+    try
+    {
+      Future<Task> future=completionService.take();
+      return future.get();
+    }
+    catch(InterruptedException ie)
+    {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while running tasks",ie);
+    }
+    catch(ExecutionException ee)
+    {
+      throw new IllegalStateException("Task failed",ee.getCause());
+    }
+  }
+
+  private void runTask(Task task)
+  {
+    LOGGER.info("Starting task: "+task);
+    long start=System.currentTimeMillis();
+    task.doIt();
+    long end=System.currentTimeMillis();
+    System.out.println(task+" took: "+(end-start)+"ms");
+  }
+}
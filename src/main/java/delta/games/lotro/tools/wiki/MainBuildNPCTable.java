@@ -1,5 +1,8 @@
 package delta.games.lotro.tools.wiki;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.apache.log4j.Logger;
 
 import delta.games.lotro.dat.DATConstants;
@@ -8,8 +11,10 @@ import delta.games.lotro.dat.WStateClass;
 import delta.games.lotro.dat.data.DatConfiguration;
 import delta.games.lotro.dat.data.DataFacade;
 import delta.games.lotro.dat.data.PropertiesSet;
-import delta.games.lotro.dat.utils.BufferUtils;
 import delta.games.lotro.tools.dat.utils.DatUtils;
+import delta.games.lotro.tools.dat.utils.scan.DidFilter;
+import delta.games.lotro.tools.dat.utils.scan.DidRangeScanner;
+import delta.games.lotro.tools.dat.utils.scan.DidVisitor;
 import delta.games.lotro.utils.StringUtils;
 
 /**
@@ -89,6 +94,41 @@ public class MainBuildNPCTable
     System.out.println(npcId+"\t"+enName+"\t"+frName+"\t"+deName);
   }
 
+  private List<Integer> findNpcs()
+  {
+    DidFilter filter=new DidFilter()
+    {
+      @Override
+      public boolean accept(int did, int classDefIndex)
+      {
+        return (classDefIndex==WStateClass.NPC);
+      }
+    };
+    DidVisitor<List<Integer>> visitor=new DidVisitor<List<Integer>>()
+    {
+      @Override
+      public List<Integer> newResult()
+      {
+        return new ArrayList<Integer>();
+      }
+
+      @Override
+      public void visit(DataFacade facade, int did, byte[] data, List<Integer> result)
+      {
+        result.add(Integer.valueOf(did));
+      }
+
+      @Override
+      public List<Integer> merge(List<Integer> first, List<Integer> second)
+      {
+        first.addAll(second);
+        return first;
+      }
+    };
+    DidRangeScanner scanner=new DidRangeScanner(0x70000000,0x77FFFFFF);
+    return scanner.scan(filter,visitor);
+  }
+
   /**
    * Load barter and vendor data.
    */
@@ -96,17 +136,10 @@ public class MainBuildNPCTable
   {
     System.out.println("NPC ID\tEnglish Name\tFrench Name\tDeutsch Name");
     // Scan for NPCs
-    for(int i=0x70000000;i<=0x77FFFFFF;i++)
+    List<Integer> npcIds=findNpcs();
+    for(Integer npcId : npcIds)
     {
-      byte[] data=_facade.loadData(i);
-      if (data!=null)
-      {
-        int classDefIndex=BufferUtils.getDoubleWordAt(data,4);
-        if (classDefIndex==WStateClass.NPC)
-        {
-          handleNpc(i);
-        }
-      }
+      handleNpc(npcId.intValue());
     }
     _facade.dispose();
     _facadeFR.dispose();
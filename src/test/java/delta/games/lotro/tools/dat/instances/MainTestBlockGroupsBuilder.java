@@ -0,0 +1,191 @@
+package delta.games.lotro.tools.dat.instances;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import delta.games.lotro.lore.geo.BlockReference;
+
+/**
+ * Test for the block groups builder: checks groups of blocks.
+ * @author DAM
+ */
+public class MainTestBlockGroupsBuilder
+{
+  private void doIt()
+  {
+    testMerge();
+    testDuplicatesAndRegions();
+    testBorders();
+    testRandom();
+    System.out.println("Block groups builder: OK");
+  }
+
+  private void testMerge()
+  {
+    // Two groups (diagonal neighbours are connected), then joined by new blocks
+    List<BlockReference> blocks=new ArrayList<BlockReference>();
+    blocks.add(new BlockReference(1,10,10));
+    blocks.add(new BlockReference(1,10,11));
+    blocks.add(new BlockReference(1,14,10));
+    blocks.add(new BlockReference(1,13,11));
+    List<List<BlockReference>> groups=new BlockGroupsBuilder().buildGroups(blocks);
+    check("before merge","[[1/10/10, 1/10/11], [1/13/11, 1/14/10]]",groups);
+    blocks.add(new BlockReference(1,12,12));
+    blocks.add(new BlockReference(1,11,11));
+    groups=new BlockGroupsBuilder().buildGroups(blocks);
+    check("merge","[[1/10/10, 1/10/11, 1/11/11, 1/12/12, 1/13/11, 1/14/10]]",groups);
+  }
+
+  private void testDuplicatesAndRegions()
+  {
+    List<BlockReference> blocks=new ArrayList<BlockReference>();
+    blocks.add(new BlockReference(2,5,5));
+    blocks.add(new BlockReference(1,5,6));
+    blocks.add(new BlockReference(1,5,5));
+    blocks.add(new BlockReference(2,5,5));
+    blocks.add(new BlockReference(1,5,5));
+    List<List<BlockReference>> groups=new BlockGroupsBuilder().buildGroups(blocks);
+    check("duplicates and regions","[[1/5/5, 1/5/6], [2/5/5]]",groups);
+  }
+
+  private void testBorders()
+  {
+    // Blocks at the edges of a region are not connected to the next row/column
+    List<BlockReference> blocks=new ArrayList<BlockReference>();
+    blocks.add(new BlockReference(1,0,255));
+    blocks.add(new BlockReference(1,1,0));
+    blocks.add(new BlockReference(1,255,0));
+    blocks.add(new BlockReference(2,0,0));
+    List<List<BlockReference>> groups=new BlockGroupsBuilder().buildGroups(blocks);
+    check("borders","[[1/0/255], [1/1/0], [1/255/0], [2/0/0]]",groups);
+  }
+
+  private void testRandom()
+  {
+    // Compare with a flood fill
+    Random random=new Random(12345);
+    for(int i=0;i<50;i++)
+    {
+      List<BlockReference> blocks=new ArrayList<BlockReference>();
+      int nbBlocks=random.nextInt(200);
+      for(int j=0;j<nbBlocks;j++)
+      {
+        blocks.add(new BlockReference(1+random.nextInt(2),random.nextInt(20),random.nextInt(20)));
+      }
+      List<List<BlockReference>> groups=new BlockGroupsBuilder().buildGroups(blocks);
+      check("random #"+i,toString(buildGroups(blocks)),groups);
+    }
+  }
+
+  /**
+   * Reference implementation: flood fill on a blocks grid.
+   */
+  private List<List<BlockReference>> buildGroups(List<BlockReference> blocks)
+  {
+    int[][][] grid=new int[4][256][256];
+    for(BlockReference block : blocks)
+    {
+      grid[block.getRegion()][block.getBlockX()][block.getBlockY()]=1;
+    }
+    List<List<BlockReference>> ret=new ArrayList<List<BlockReference>>();
+    for(int region=0;region<4;region++)
+    {
+      for(int x=0;x<256;x++)
+      {
+        for(int y=0;y<256;y++)
+        {
+          if (grid[region][x][y]==1)
+          {
+            List<BlockReference> group=new ArrayList<BlockReference>();
+            fill(grid,region,x,y,group);
+            sort(group);
+            ret.add(group);
+          }
+        }
+      }
+    }
+    return ret;
+  }
+
+  private void fill(int[][][] grid, int region, int x, int y, List<BlockReference> group)
+  {
+    if ((x<0) || (x>0xFF) || (y<0) || (y>0xFF) || (grid[region][x][y]!=1))
+    {
+      return;
+    }
+    grid[region][x][y]=2;
+    group.add(new BlockReference(region,x,y));
+    for(int dx=-1;dx<=1;dx++)
+    {
+      for(int dy=-1;dy<=1;dy++)
+      {
+        fill(grid,region,x+dx,y+dy,group);
+      }
+    }
+  }
+
+  private void sort(List<BlockReference> group)
+  {
+    // Insertion sort by X, then Y (same region)
+    for(int i=1;i<group.size();i++)
+    {
+      BlockReference block=group.get(i);
+      int j=i-1;
+      while ((j>=0) && (compare(group.get(j),block)>0))
+      {
+        group.set(j+1,group.get(j));
+        j--;
+      }
+      group.set(j+1,block);
+    }
+  }
+
+  private int compare(BlockReference block1, BlockReference block2)
+  {
+    if (block1.getBlockX()!=block2.getBlockX())
+    {
+      return block1.getBlockX()-block2.getBlockX();
+    }
+    return block1.getBlockY()-block2.getBlockY();
+  }
+
+  private void check(String label, String expected, List<List<BlockReference>> groups)
+  {
+    String actual=toString(groups);
+    if (!expected.equals(actual))
+    {
+      throw new IllegalStateException(label+": expected "+expected+", got "+actual);
+    }
+  }
+
+  private String toString(List<List<BlockReference>> groups)
+  {
+    StringBuilder sb=new StringBuilder();
+    sb.append('[');
+    for(int i=0;i<groups.size();i++)
+    {
+      if (i>0) sb.append(", ");
+      sb.append('[');
+      List<BlockReference> group=groups.get(i);
+      for(int j=0;j<group.size();j++)
+      {
+        if (j>0) sb.append(", ");
+        BlockReference block=group.get(j);
+        sb.append(block.getRegion()).append('/').append(block.getBlockX()).append('/').append(block.getBlockY());
+      }
+      sb.append(']');
+    }
+    sb.append(']');
+    return sb.toString();
+  }
+
+  /**
+   * Main method for this test.
+   * @param args Not used.
+   */
+  public static void main(String[] args)
+  {
+    new MainTestBlockGroupsBuilder().doIt();
+  }
+}
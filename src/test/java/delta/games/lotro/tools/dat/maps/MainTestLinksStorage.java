@@ -0,0 +1,137 @@
+package delta.games.lotro.tools.dat.maps;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import delta.games.lotro.maps.data.GeoPoint;
+import delta.games.lotro.maps.data.links.MapLink;
+
+/**
+ * Test for the links storage: checks the filtering of near links.
+ * @author DAM
+ */
+public class MainTestLinksStorage
+{
+  private static final float THRESHOLD=0.0005f;
+
+  private void doIt()
+  {
+    testSameGroup();
+    testDifferentGroups();
+    testCellBoundaries();
+    testRandom();
+    System.out.println("Links storage: OK");
+  }
+
+  private void testSameGroup()
+  {
+    LinksStorage storage=new LinksStorage();
+    storage.addLink(buildLink(1,0,2,10.0f,20.0f));
+    // Near: ignored
+    storage.addLink(buildLink(1,0,2,10.01f,20.01f));
+    // Far enough: kept
+    storage.addLink(buildLink(1,0,2,10.03f,20.0f));
+    check("same group",2,storage.getLinks().size());
+  }
+
+  private void testDifferentGroups()
+  {
+    LinksStorage storage=new LinksStorage();
+    storage.addLink(buildLink(1,0,2,10.0f,20.0f));
+    // Same position, other target/layer/parent: kept
+    storage.addLink(buildLink(1,0,3,10.0f,20.0f));
+    storage.addLink(buildLink(1,1,2,10.0f,20.0f));
+    storage.addLink(buildLink(4,0,2,10.0f,20.0f));
+    // Same group as the first link: ignored
+    storage.addLink(buildLink(1,0,2,10.0f,20.0f));
+    check("different groups",4,storage.getLinks().size());
+  }
+
+  private void testCellBoundaries()
+  {
+    // Near links on both sides of a grid cell boundary
+    LinksStorage storage=new LinksStorage();
+    storage.addLink(buildLink(1,0,2,0.0225f,0.0225f));
+    storage.addLink(buildLink(1,0,2,0.0227f,0.0227f));
+    check("cell boundary",1,storage.getLinks().size());
+    // Near links on both sides of 0
+    LinksStorage storage2=new LinksStorage();
+    storage2.addLink(buildLink(1,0,2,-0.005f,-0.005f));
+    storage2.addLink(buildLink(1,0,2,0.005f,0.005f));
+    check("zero boundary",1,storage2.getLinks().size());
+  }
+
+  private void testRandom()
+  {
+    // Compare with a linear scan of the stored links
+    Random random=new Random(12345);
+    LinksStorage storage=new LinksStorage();
+    List<MapLink> expected=new ArrayList<MapLink>();
+    for(int i=0;i<5000;i++)
+    {
+      int parentId=random.nextInt(3);
+      int contentLayer=random.nextInt(2);
+      int target=random.nextInt(3);
+      float lon=random.nextFloat()*0.5f-0.25f;
+      float lat=random.nextFloat()*0.5f-0.25f;
+      MapLink link=buildLink(parentId,contentLayer,target,lon,lat);
+      storage.addLink(link);
+      if (!hasNearLink(expected,link))
+      {
+        expected.add(link);
+      }
+    }
+    List<MapLink> links=storage.getLinks();
+    check("random",expected.size(),links.size());
+    for(int i=0;i<expected.size();i++)
+    {
+      if (expected.get(i)!=links.get(i))
+      {
+        throw new IllegalStateException("random: links differ at index "+i);
+      }
+    }
+  }
+
+  private boolean hasNearLink(List<MapLink> links, MapLink linkToAdd)
+  {
+    for(MapLink link : links)
+    {
+      if ((link.getParentId()==linkToAdd.getParentId())
+          && (link.getContentLayerId()==linkToAdd.getContentLayerId())
+          && (link.getTargetMapKey()==linkToAdd.getTargetMapKey()))
+      {
+        float deltaLat=link.getPosition().getLatitude()-linkToAdd.getPosition().getLatitude();
+        float deltaLon=link.getPosition().getLongitude()-linkToAdd.getPosition().getLongitude();
+        if (deltaLat*deltaLat+deltaLon*deltaLon<THRESHOLD)
+        {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private MapLink buildLink(int parentId, int contentLayer, int target, float longitude, float latitude)
+  {
+    GeoPoint position=new GeoPoint(longitude,latitude);
+    return new MapLink(parentId,contentLayer,target,position,null);
+  }
+
+  private void check(String label, int expected, int actual)
+  {
+    if (expected!=actual)
+    {
+      throw new IllegalStateException(label+": expected "+expected+" links, got "+actual);
+    }
+  }
+
+  /**
+   * Main method for this test.
+   * @param args Not used.
+   */
+  public static void main(String[] args)
+  {
+    new MainTestLinksStorage().doIt();
+  }
+}
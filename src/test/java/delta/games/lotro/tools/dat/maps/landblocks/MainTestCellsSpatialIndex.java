@@ -0,0 +1,159 @@
+package delta.games.lotro.tools.dat.maps.landblocks;
+
+import java.util.Random;
+
+import delta.games.lotro.dat.data.DatPosition;
+import delta.games.lotro.dat.data.Vector3D;
+import delta.games.lotro.tools.dat.maps.data.Cell;
+
+/**
+ * Test for the cells spatial index: compares nearest cell queries with a linear scan.
+ * @author DAM
+ */
+public class MainTestCellsSpatialIndex
+{
+  private Random _random=new Random(12345);
+
+  private void doIt()
+  {
+    testEmpty();
+    testNoPosition();
+    testTies();
+    testRandom(1,100);
+    testRandom(10,1000);
+    testRandom(500,1000);
+    testRandomGrid(200,1000);
+    System.out.println("Cells spatial index: OK");
+  }
+
+  private void testEmpty()
+  {
+    CellsSpatialIndex index=new CellsSpatialIndex(new Cell[0]);
+    check("empty",-1,index.getNearestCellIndex(buildPosition(0,0,0)));
+  }
+
+  private void testNoPosition()
+  {
+    Cell[] cells=new Cell[3];
+    cells[0]=new Cell(1,null);
+    cells[1]=buildCell(2,100,100,100);
+    cells[2]=new Cell(3,null);
+    CellsSpatialIndex index=new CellsSpatialIndex(cells);
+    check("no position",2,index.getNearestCellIndex(buildPosition(0,0,0)));
+    CellsSpatialIndex noPositions=new CellsSpatialIndex(new Cell[]{new Cell(1,null)});
+    check("no positions",-1,noPositions.getNearestCellIndex(buildPosition(0,0,0)));
+  }
+
+  private void testTies()
+  {
+    // Same position: lowest index wins, whatever the order
+    Cell[] cells=new Cell[4];
+    cells[0]=buildCell(7,10,10,10);
+    cells[1]=buildCell(3,10,10,10);
+    cells[2]=buildCell(5,10,10,10);
+    cells[3]=buildCell(9,50,50,50);
+    CellsSpatialIndex index=new CellsSpatialIndex(cells);
+    check("same position",3,index.getNearestCellIndex(buildPosition(12,10,10)));
+    // Same distance, different positions
+    Cell[] cells2=new Cell[2];
+    cells2[0]=buildCell(8,-1,0,0);
+    cells2[1]=buildCell(4,1,0,0);
+    CellsSpatialIndex index2=new CellsSpatialIndex(cells2);
+    check("same distance",4,index2.getNearestCellIndex(buildPosition(0,0,0)));
+  }
+
+  private void testRandom(int nbCells, int nbQueries)
+  {
+    Cell[] cells=new Cell[nbCells];
+    for(int i=0;i<nbCells;i++)
+    {
+      cells[i]=buildCell(i+1,randomCoord(),randomCoord(),randomCoord());
+    }
+    checkQueries("random",cells,nbQueries);
+  }
+
+  private void testRandomGrid(int nbCells, int nbQueries)
+  {
+    // Integer coordinates on a small grid, to get many ties
+    Cell[] cells=new Cell[nbCells];
+    for(int i=0;i<nbCells;i++)
+    {
+      cells[i]=buildCell(_random.nextInt(1000),_random.nextInt(5),_random.nextInt(5),_random.nextInt(3));
+    }
+    checkQueries("grid",cells,nbQueries);
+  }
+
+  private void checkQueries(String label, Cell[] cells, int nbQueries)
+  {
+    CellsSpatialIndex index=new CellsSpatialIndex(cells);
+    for(int i=0;i<nbQueries;i++)
+    {
+      Vector3D position=buildPosition(randomCoord(),randomCoord(),randomCoord());
+      int expected=findNearestCellIndex(cells,position);
+      int actual=index.getNearestCellIndex(position);
+      check(label+" ("+cells.length+" cells)",expected,actual);
+    }
+  }
+
+  private int findNearestCellIndex(Cell[] cells, Vector3D position)
+  {
+    int ret=-1;
+    float bestDistance=Float.MAX_VALUE;
+    for(Cell cell : cells)
+    {
+      if (cell.getPosition()==null)
+      {
+        continue;
+      }
+      Vector3D cellPosition=cell.getPosition().getPosition();
+      float dx=position.getX()-cellPosition.getX();
+      float dy=position.getY()-cellPosition.getY();
+      float dz=position.getZ()-cellPosition.getZ();
+      float distance=dx*dx+dy*dy+dz*dz;
+      if ((distance<bestDistance) || ((distance==bestDistance) && (cell.getIndex()<ret)))
+      {
+        bestDistance=distance;
+        ret=cell.getIndex();
+      }
+    }
+    return ret;
+  }
+
+  private float randomCoord()
+  {
+    return _random.nextFloat()*200-100;
+  }
+
+  private Cell buildCell(int index, float x, float y, float z)
+  {
+    Cell cell=new Cell(index,null);
+    DatPosition position=new DatPosition();
+    position.setPosition(x,y,z);
+    cell.setPosition(position);
+    return cell;
+  }
+
+  private Vector3D buildPosition(float x, float y, float z)
+  {
+    DatPosition position=new DatPosition();
+    position.setPosition(x,y,z);
+    return position.getPosition();
+  }
+
+  private void check(String label, int expected, int actual)
+  {
+    if (expected!=actual)
+    {
+      throw new IllegalStateException(label+": expected cell "+expected+", got "+actual);
+    }
+  }
+
+  /**
+   * Main method for this test.
+   * @param args Not used.
+   */
+  public static void main(String[] args)
+  {
+    new MainTestCellsSpatialIndex().doIt();
+  }
+}
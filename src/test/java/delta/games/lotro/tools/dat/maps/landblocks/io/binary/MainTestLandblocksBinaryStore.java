@@ -0,0 +1,187 @@
+package delta.games.lotro.tools.dat.maps.landblocks.io.binary;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import delta.games.lotro.dat.data.DatPosition;
+import delta.games.lotro.dat.data.Vector3D;
+import delta.games.lotro.lore.geo.BlockReference;
+import delta.games.lotro.tools.dat.maps.data.Cell;
+import delta.games.lotro.tools.dat.maps.landblocks.Landblock;
+
+/**
+ * Test for the landblocks binary store: write/read round-trip.
+ * @author DAM
+ */
+public class MainTestLandblocksBinaryStore
+{
+  private Random _random=new Random(12345);
+
+  private void doIt() throws IOException
+  {
+    // One file per test: stores keep their file mapped
+    File emptyFile=File.createTempFile("landblocks",".bin");
+    File file=File.createTempFile("landblocks",".bin");
+    File badFile=File.createTempFile("landblocks",".bin");
+    try
+    {
+      testRoundTrip(emptyFile,new ArrayList<Landblock>());
+      testRoundTrip(file,buildLandblocks());
+      testBadFiles(badFile);
+    }
+    finally
+    {
+      emptyFile.delete();
+      file.delete();
+      badFile.delete();
+    }
+    System.out.println("Landblocks binary store: OK");
+  }
+
+  private List<Landblock> buildLandblocks()
+  {
+    // Sorted by identifier: region, then X, then Y
+    List<Landblock> ret=new ArrayList<Landblock>();
+    for(int region=1;region<=2;region++)
+    {
+      for(int x=0;x<256;x+=51)
+      {
+        for(int y=0;y<256;y+=85)
+        {
+          ret.add(buildLandblock(new BlockReference(region,x,y)));
+        }
+      }
+    }
+    return ret;
+  }
+
+  private Landblock buildLandblock(BlockReference blockId)
+  {
+    Landblock ret=new Landblock(blockId);
+    if (_random.nextBoolean())
+    {
+      ret.setParentArea(_random.nextInt());
+    }
+    if (_random.nextBoolean())
+    {
+      ret.setParentDungeon(_random.nextInt());
+    }
+    ret.setCenterHeight(_random.nextFloat()*1000);
+    int nbCells=_random.nextInt(4);
+    for(int i=0;i<nbCells;i++)
+    {
+      Integer dungeonId=_random.nextBoolean()?Integer.valueOf(_random.nextInt()):null;
+      Cell cell=new Cell(0x100+(i*3),dungeonId);
+      if (_random.nextBoolean())
+      {
+        DatPosition position=new DatPosition();
+        position.setPosition(_random.nextFloat(),_random.nextFloat(),_random.nextFloat());
+        cell.setPosition(position);
+      }
+      ret.addCell(cell);
+    }
+    return ret;
+  }
+
+  private void testRoundTrip(File file, List<Landblock> landblocks)
+  {
+    boolean ok=new LandblocksBinaryWriter().writeLandblocks(file,landblocks);
+    check("write",ok);
+    LandblocksBinaryStore store=LandblocksBinaryStore.open(file);
+    check("open",store!=null);
+    check("size",store.getSize()==landblocks.size());
+    for(int slot=0;slot<landblocks.size();slot++)
+    {
+      Landblock expected=landblocks.get(slot);
+      BlockReference blockId=expected.getBlockId();
+      int key=LandblocksBinaryConstants.getKey(blockId.getRegion(),blockId.getBlockX(),blockId.getBlockY());
+      check("key",store.getKeyAt(slot)==key);
+      check("slot",store.findSlot(key)==slot);
+      checkLandblock(expected,store.loadLandblockAt(slot));
+    }
+    check("missing key",store.findSlot(LandblocksBinaryConstants.getKey(3,0,0))<0);
+  }
+
+  private void checkLandblock(Landblock expected, Landblock actual)
+  {
+    BlockReference expectedId=expected.getBlockId();
+    BlockReference actualId=actual.getBlockId();
+    check("region",expectedId.getRegion()==actualId.getRegion());
+    check("block X",expectedId.getBlockX()==actualId.getBlockX());
+    check("block Y",expectedId.getBlockY()==actualId.getBlockY());
+    check("area",equals(expected.getParentArea(),actual.getParentArea()));
+    check("dungeon",equals(expected.getParentDungeon(),actual.getParentDungeon()));
+    check("center height",expected.getCenterHeight()==actual.getCenterHeight());
+    List<Integer> cellIndexes=expected.getCellIndexes();
+    check("cells",cellIndexes.equals(actual.getCellIndexes()));
+    for(Integer cellIndex : cellIndexes)
+    {
+      Cell expectedCell=expected.getCell(cellIndex.intValue());
+      Cell actualCell=actual.getCell(cellIndex.intValue());
+      check("cell dungeon",equals(expectedCell.getDungeonId(),actualCell.getDungeonId()));
+      DatPosition expectedPosition=expectedCell.getPosition();
+      DatPosition actualPosition=actualCell.getPosition();
+      check("cell position",(expectedPosition==null)==(actualPosition==null));
+      if (expectedPosition!=null)
+      {
+        Vector3D expectedVector=expectedPosition.getPosition();
+        Vector3D actualVector=actualPosition.getPosition();
+        check("cell X",expectedVector.getX()==actualVector.getX());
+        check("cell Y",expectedVector.getY()==actualVector.getY());
+        check("cell Z",expectedVector.getZ()==actualVector.getZ());
+      }
+    }
+  }
+
+  private void testBadFiles(File file) throws IOException
+  {
+    // Missing file
+    check("missing file",LandblocksBinaryStore.open(new File(file.getPath()+".missing"))==null);
+    // Truncated index
+    check("write",new LandblocksBinaryWriter().writeLandblocks(file,buildLandblocks()));
+    RandomAccessFile raf=new RandomAccessFile(file,"rw");
+    try
+    {
+      raf.setLength(LandblocksBinaryConstants.HEADER_SIZE+LandblocksBinaryConstants.INDEX_ENTRY_SIZE+4);
+      check("truncated file",LandblocksBinaryStore.open(file)==null);
+      // Bad magic
+      raf.seek(0);
+      raf.writeInt(0);
+      check("bad magic",LandblocksBinaryStore.open(file)==null);
+      // Truncated header
+      raf.setLength(2);
+      check("truncated header",LandblocksBinaryStore.open(file)==null);
+    }
+    finally
+    {
+      raf.close();
+    }
+  }
+
+  private static boolean equals(Integer value1, Integer value2)
+  {
+    return (value1==null)?(value2==null):value1.equals(value2);
+  }
+
+  private void check(String label, boolean condition)
+  {
+    if (!condition)
+    {
+      throw new IllegalStateException("Check failed: "+label);
+    }
+  }
+
+  /**
+   * Main method for this test.
+   * @param args Not used.
+   * @throws IOException If a temporary file could not be used.
+   */
+  public static void main(String[] args) throws IOException
+  {
+    new MainTestLandblocksBinaryStore().doIt();
+  }
+}